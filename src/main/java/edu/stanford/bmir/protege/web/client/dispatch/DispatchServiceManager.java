@@ -4,6 +4,7 @@ import com.google.common.base.Optional;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
 import com.google.gwt.user.client.rpc.InvocationException;
@@ -25,6 +26,7 @@ import edu.stanford.bmir.protege.web.shared.event.SerializableEvent;
 import edu.stanford.bmir.protege.web.shared.events.EventList;
 import edu.stanford.bmir.protege.web.shared.permissions.PermissionDeniedException;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.project.ProjectLoadingException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +42,20 @@ public class DispatchServiceManager {
 
     private static DispatchServiceManager instance;
 
+    /**
+     * The delay (in ms) before first executing an action again when the project that it pertains to is still being
+     * loaded.  The delay doubles after each attempt, up to {@link #PROJECT_LOADING_MAX_RETRY_DELAY_MS}.
+     */
+    private static final int PROJECT_LOADING_RETRY_DELAY_MS = 1000;
+
+    private static final int PROJECT_LOADING_MAX_RETRY_DELAY_MS = 16000;
+
+    /**
+     * The number of times that an action is executed again while its project is loading before the
+     * {@link ProjectLoadingException} is passed on.
+     */
+    private static final int PROJECT_LOADING_MAX_RETRIES = 8;
+
 
     private DispatchServiceAsync async;
 
@@ -94,6 +110,8 @@ public class DispatchServiceManager {
 
         private AsyncCallback<Result> delegate;
 
+        private int projectLoadingRetryCount = 0;
+
         public AsyncCallbackProxy(Action<?> action, AsyncCallback<Result> delegate) {
             this.delegate = delegate;
             this.action = action;
@@ -101,6 +119,19 @@ public class DispatchServiceManager {
 
         @Override
         public void onFailure(Throwable caught) {
+            if(caught instanceof ProjectLoadingException && projectLoadingRetryCount < PROJECT_LOADING_MAX_RETRIES) {
+                // The server is still loading the project.  Ask again later.
+                int delay = Math.min(PROJECT_LOADING_RETRY_DELAY_MS << projectLoadingRetryCount, PROJECT_LOADING_MAX_RETRY_DELAY_MS);
+                projectLoadingRetryCount++;
+                GWT.log("[DISPATCH] Project is still loading.  Retrying request in " + delay + " ms. (" + action + ")");
+                new Timer() {
+                    @Override
+                    public void run() {
+                        async.executeAction(action, AsyncCallbackProxy.this);
+                    }
+                }.schedule(delay);
+                return;
+            }
             Optional<Throwable> passOn = handleError(caught, action);
             if (passOn.isPresent()) {
                 delegate.onFailure(passOn.get());
@@ -173,6 +204,10 @@ public class DispatchServiceManager {
             displayAlert("An unexpected problem occurred and your actions could not be completed.  Please try again.");
             return Optional.absent();
         }
+        else if(throwable instanceof ProjectLoadingException) {
+            displayAlert("The project is taking a long time to load.  Please try again later.");
+            return Optional.of(throwable);
+        }
         else if(throwable instanceof PermissionDeniedException) {
             displayAlert("You do not have permission to carry out the specified action");
             return Optional.of(throwable);
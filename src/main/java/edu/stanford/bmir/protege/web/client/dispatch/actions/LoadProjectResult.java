@@ -22,6 +22,8 @@ public class LoadProjectResult implements Result, HasUserId, HasProjectId {
 
     private PermissionsSet permissionsSet;
 
+    private boolean projectLoading;
+
     /**
      * For serialization purposes only
      */
@@ -30,9 +32,18 @@ public class LoadProjectResult implements Result, HasUserId, HasProjectId {
     }
 
     public LoadProjectResult(UserId loadedBy, PermissionsSet permissionsSet, ProjectDetails projectDetails) {
+        this(loadedBy, permissionsSet, projectDetails, false);
+    }
+
+    /**
+     * @param projectLoading {@code true} if the project is still being loaded on the server, in which case the
+     *                       action should be executed again later.
+     */
+    public LoadProjectResult(UserId loadedBy, PermissionsSet permissionsSet, ProjectDetails projectDetails, boolean projectLoading) {
         this.userId = loadedBy;
         this.projectDetails = projectDetails;
         this.permissionsSet = permissionsSet;
+        this.projectLoading = projectLoading;
     }
 
     @Override
@@ -52,4 +63,12 @@ public class LoadProjectResult implements Result, HasUserId, HasProjectId {
         return projectDetails;
     }
 
+    /**
+     * Determines whether the project is still being loaded on the server.
+     * @return {@code true} if the project is being loaded, otherwise {@code false}.
+     */
+    public boolean isProjectLoading() {
+        return projectLoading;
+    }
+
 }
@@ -1,18 +1,28 @@
 package edu.stanford.bmir.protege.web.client.events;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Random;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.web.bindery.event.shared.Event;
 import edu.stanford.bmir.protege.web.client.Application;
 import edu.stanford.bmir.protege.web.client.dispatch.DispatchServiceManager;
 import edu.stanford.bmir.protege.web.shared.event.EventBusManager;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
 import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsAction;
 import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsResult;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestAction;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestResult;
 import edu.stanford.bmir.protege.web.shared.events.EventList;
 import edu.stanford.bmir.protege.web.shared.events.EventTag;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -21,17 +31,67 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 20/03/2013
+ * <p>
+ *     Asks the server for the events of a project.  Each request asks the server to hold on to it until there are
+ *     events (long polling), and the next request is sent as soon as the answer comes back.  If the server does not
+ *     hold on to a request (because long polling is switched off, or too many requests are already waiting) or the
+ *     request fails, then the next request is sent after the polling period.
+ * </p>
+ * <p>
+ *     By default the server sends all of the events of the project.  Parts of the user interface (portlets, for
+ *     example) tell this manager which events they are interested in with
+ *     {@link #setEventInterest(Object, EventInterest)}.  Their interests are combined, and the combined interest is
+ *     sent to the server shortly after it changes, so that the server only sends the events that are of interest to
+ *     this client.  If any part is interested in all events then the server sends all events.
+ * </p>
+ * <p>
+ *     If the server discarded some events before they were asked for, then a {@link ProjectEventsMissedEvent} is
+ *     posted so that the user interface reloads its state from the server.
+ * </p>
  */
 public class EventPollingManager {
 
+    /**
+     * The time that the server is asked to wait for events.  The server may wait for less time than this.
+     */
+    private static final int LONG_POLL_WAIT_TIME_MS = 25 * 1000;
+
+    /**
+     * The delay before a request is sent after a request that the server held on to.
+     */
+    private static final int LONG_POLL_DELAY_MS = 1;
+
+    /**
+     * The delay before a changed interest is sent to the server, so that a burst of changes (a tree node being
+     * expanded a page at a time, say) is sent as one request.
+     */
+    private static final int EVENT_INTEREST_UPDATE_DELAY_MS = 250;
+
     private int pollingPeriodInMS;
 
     private Timer pollingTimer;
 
-    private EventTag nextTag = EventTag.getFirst();
+    private boolean running = false;
+
+    private final ProjectEventDispatcher eventDispatcher;
 
     private ProjectId projectId;
 
+    /**
+     * Identifies this client to the server, so that the server can tell apart the interests of different browser
+     * windows that are used by the same user.
+     */
+    private final String clientId;
+
+    private final Map<Object, EventInterest> registrant2EventInterest = new HashMap<Object, EventInterest>();
+
+    /**
+     * The interest that the server holds for this client.  The server sends all events until it is told otherwise.
+     */
+    private EventInterest sentEventInterest = EventInterest.getAllEvents();
+
+    private final Timer eventInterestUpdateTimer;
+
 
     public static EventPollingManager get(int pollingPeriodInMS, ProjectId projectId) {
         return new EventPollingManager(pollingPeriodInMS, projectId);
@@ -43,6 +103,8 @@ public class EventPollingManager {
         }
         this.pollingPeriodInMS = pollingPeriodInMS;
         this.projectId = checkNotNull(projectId, "projectId must not be null");
+        this.eventDispatcher = new ProjectEventDispatcher(projectId, EventBusManager.getManager());
+        this.clientId = Long.toString(System.currentTimeMillis(), 36) + "-" + Integer.toString(Random.nextInt() & Integer.MAX_VALUE, 36);
 //        this.dispatchManager = checkNotNull(dispatchManager, "dispatchManager must not be null");
         pollingTimer = new Timer() {
             @Override
@@ -50,50 +112,131 @@ public class EventPollingManager {
                 pollForProjectEvents();
             }
         };
+        eventInterestUpdateTimer = new Timer() {
+            @Override
+            public void run() {
+                sendEventInterest();
+            }
+        };
     }
 
     public void start() {
-        pollingTimer.scheduleRepeating(pollingPeriodInMS);
+        running = true;
+        pollingTimer.schedule(pollingPeriodInMS);
     }
 
     public void stop() {
+        running = false;
         pollingTimer.cancel();
+        eventInterestUpdateTimer.cancel();
+    }
+
+    /**
+     * Sets the events that a part of the user interface is interested in, replacing any interest that it set before.
+     * @param registrant The part of the user interface.  Not {@code null}.
+     * @param eventInterest The interest.  Not {@code null}.
+     */
+    public void setEventInterest(Object registrant, EventInterest eventInterest) {
+        EventInterest previousInterest = registrant2EventInterest.put(checkNotNull(registrant), checkNotNull(eventInterest));
+        if(!eventInterest.equals(previousInterest)) {
+            eventInterestUpdateTimer.schedule(EVENT_INTEREST_UPDATE_DELAY_MS);
+        }
+    }
+
+    /**
+     * Removes the interest of a part of the user interface, for example when a portlet is closed.
+     * @param registrant The part of the user interface.  Not {@code null}.
+     */
+    public void removeEventInterest(Object registrant) {
+        if(registrant2EventInterest.remove(checkNotNull(registrant)) != null) {
+            eventInterestUpdateTimer.schedule(EVENT_INTEREST_UPDATE_DELAY_MS);
+        }
+    }
+
+    private EventInterest getCombinedEventInterest() {
+        if(registrant2EventInterest.isEmpty()) {
+            return EventInterest.getAllEvents();
+        }
+        Set<OWLEntity> entities = new HashSet<OWLEntity>();
+        boolean allProjectChangesIncluded = false;
+        for(EventInterest interest : registrant2EventInterest.values()) {
+            if(interest.isAllEventsIncluded()) {
+                return EventInterest.getAllEvents();
+            }
+            entities.addAll(interest.getEntities());
+            allProjectChangesIncluded |= interest.isAllProjectChangesIncluded();
+        }
+        return new EventInterest(entities, allProjectChangesIncluded);
+    }
+
+    /**
+     * Tells the server which events this client is interested in, if that has changed since it was last told.
+     * Events that are not of interest are not sent to this client from now on.
+     */
+    private void sendEventInterest() {
+        final EventInterest eventInterest = getCombinedEventInterest();
+        if(eventInterest.equals(sentEventInterest)) {
+            return;
+        }
+        sentEventInterest = eventInterest;
+        DispatchServiceManager.get().execute(new SetEventInterestAction(projectId, clientId, eventInterest), new AsyncCallback<SetEventInterestResult>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                GWT.log("[Event Polling Manager] Could not set the event interest", caught);
+                // Try again with the next change, unless the interest has changed since this request was sent.  In
+                // the meantime the server may send events that are not of interest, which is harmless.
+                if(eventInterest.equals(sentEventInterest)) {
+                    sentEventInterest = null;
+                }
+            }
+
+            @Override
+            public void onSuccess(SetEventInterestResult result) {
+            }
+        });
+    }
+
+    private void scheduleNextPoll(int delayInMS) {
+        if(running) {
+            pollingTimer.schedule(delayInMS);
+        }
     }
 
 
     public void pollForProjectEvents() {
+        EventTag nextTag = eventDispatcher.getNextTag();
         GWT.log("[Event Polling Manager] Polling for project events for " + projectId + " from " + nextTag);
         UserId userId = Application.get().getUserId();
-        DispatchServiceManager.get().execute(new GetProjectEventsAction(nextTag, projectId, userId), new AsyncCallback<GetProjectEventsResult>() {
+        DispatchServiceManager.get().execute(new GetProjectEventsAction(nextTag, projectId, userId, LONG_POLL_WAIT_TIME_MS, clientId), new AsyncCallback<GetProjectEventsResult>() {
             @Override
             public void onFailure(Throwable caught) {
+                scheduleNextPoll(pollingPeriodInMS);
             }
 
             @Override
             public void onSuccess(GetProjectEventsResult result) {
-                dispatchEvents(result.getEvents());
+                try {
+                    dispatchEvents(result.getEvents());
+                }
+                finally {
+                    scheduleNextPoll(result.isWaitedForEvents() ? LONG_POLL_DELAY_MS : pollingPeriodInMS);
+                }
             }
         });
     }
 
 
     public void dispatchEvents(EventList<?> eventList) {
+        eventDispatcher.dispatchEvents(eventList);
+        if(eventList.isResyncRequired()) {
+            GWT.log("[Event Polling Manager] Some events between " + eventList.getStartTag() + " and " + eventList.getEndTag() + " were discarded by the server.  Requested a reload.");
+        }
         if(eventList.isEmpty()) {
             return;
         }
-        GWT.log("[Event Polling Manager] Retrieved " + eventList.getEvents().size() + " events from server. From " + eventList.getStartTag() + " to " + eventList.getEndTag());
-        EventTag eventListStartTag = eventList.getStartTag();
-        if(!eventList.getStartTag().equals(eventList.getEndTag()) && nextTag.isGreaterOrEqualTo(eventListStartTag)) {
-            // We haven't missed any events - our next retrieval will be from where we got the event to.
-            nextTag = eventList.getEndTag();
-            GWT.log("[Event Polling Manager] Updated events.  Next tag is " + nextTag);
-        }
-        if (!eventList.isEmpty()) {
-            GWT.log("[Event Polling Manager] Dispatching events from polling manager...");
-            for(Event<?> event : eventList.getEvents()) {
-                GWT.log("[Event Polling Manager] Event: " + event.toString());
-            }
-            EventBusManager.getManager().postEvents(eventList.getEvents());
+        GWT.log("[Event Polling Manager] Retrieved " + eventList.getEvents().size() + " events from server. From " + eventList.getStartTag() + " to " + eventList.getEndTag() + ".  Next tag is " + eventDispatcher.getNextTag());
+        for(Event<?> event : eventList.getEvents()) {
+            GWT.log("[Event Polling Manager] Event: " + event.toString());
         }
     }
 
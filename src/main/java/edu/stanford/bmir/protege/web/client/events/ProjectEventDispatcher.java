@@ -0,0 +1,58 @@
+package edu.stanford.bmir.protege.web.client.events;
+
+import edu.stanford.bmir.protege.web.shared.event.EventBusManager;
+import edu.stanford.bmir.protege.web.shared.events.EventList;
+import edu.stanford.bmir.protege.web.shared.events.EventTag;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Posts the events of a project, that have been retrieved from the server, onto the event bus and keeps track of
+ *     the tag that the next events should be retrieved from.  If the server discarded some of the events before they
+ *     were retrieved then a {@link ProjectEventsMissedEvent} is posted after the events, so that the user interface
+ *     can reload the state that the missing events would have updated.
+ * </p>
+ */
+class ProjectEventDispatcher {
+
+    private final ProjectId projectId;
+
+    private final EventBusManager eventBusManager;
+
+    private EventTag nextTag = EventTag.getFirst();
+
+    ProjectEventDispatcher(ProjectId projectId, EventBusManager eventBusManager) {
+        this.projectId = checkNotNull(projectId);
+        this.eventBusManager = checkNotNull(eventBusManager);
+    }
+
+    /**
+     * Gets the tag that the next events should be retrieved from.
+     * @return The tag.  Not {@code null}.
+     */
+    public EventTag getNextTag() {
+        return nextTag;
+    }
+
+    public void dispatchEvents(EventList<?> eventList) {
+        EventTag eventListStartTag = eventList.getStartTag();
+        if(!eventList.getStartTag().equals(eventList.getEndTag()) && nextTag.isGreaterOrEqualTo(eventListStartTag)) {
+            // We haven't missed any events - our next retrieval will be from where we got the event to.  This is
+            // done for empty lists too, otherwise a long poll would keep returning straight away for events that
+            // have expired.
+            nextTag = eventList.getEndTag();
+        }
+        if (!eventList.isEmpty()) {
+            eventBusManager.postEvents(eventList.getEvents());
+        }
+        if(eventList.isResyncRequired()) {
+            // The tag still moves on.  The state that is reloaded is at least as recent as the events up to it.
+            eventBusManager.postEvent(new ProjectEventsMissedEvent(projectId));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.stanford.bmir.protege.web.client.events;
+
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Posted on the client when the server could not send some of the events of a project, because they were
+ *     discarded before this client asked for them.  Parts of the user interface that are kept up to date with events
+ *     should reload their state from the server when they receive this event.
+ * </p>
+ */
+public class ProjectEventsMissedEvent extends ProjectEvent<ProjectEventsMissedHandler> {
+
+    public transient static final Type<ProjectEventsMissedHandler> TYPE = new Type<ProjectEventsMissedHandler>();
+
+    /**
+     * For serialization purposes only
+     */
+    private ProjectEventsMissedEvent() {
+    }
+
+    public ProjectEventsMissedEvent(ProjectId source) {
+        super(source);
+    }
+
+    @Override
+    public Type<ProjectEventsMissedHandler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(ProjectEventsMissedHandler handler) {
+        handler.handleProjectEventsMissed(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return "ProjectEventsMissedEvent".hashCode() + getSource().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+        if(!(obj instanceof ProjectEventsMissedEvent)) {
+            return false;
+        }
+        ProjectEventsMissedEvent other = (ProjectEventsMissedEvent) obj;
+        return this.getSource().equals(other.getSource());
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectEventsMissedEvent(" + getSource() + ")";
+    }
+}
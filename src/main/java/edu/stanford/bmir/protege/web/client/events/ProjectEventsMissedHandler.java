@@ -0,0 +1,11 @@
+package edu.stanford.bmir.protege.web.client.events;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public interface ProjectEventsMissedHandler {
+
+    void handleProjectEventsMissed(ProjectEventsMissedEvent event);
+}
@@ -67,6 +67,10 @@ public class Project implements HasProjectId, HasDispose {
         return projectDetails;
     }
 
+    public EventPollingManager getEventPollingManager() {
+        return eventPollingManager;
+    }
+
     public void forceGetEvents() {
 //        eventPollingManager.pollForProjectEvents();
     }
@@ -1,6 +1,7 @@
 package edu.stanford.bmir.protege.web.client.project;
 
 import com.google.common.base.Optional;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import edu.stanford.bmir.protege.web.client.dispatch.DispatchServiceManager;
 import edu.stanford.bmir.protege.web.client.dispatch.actions.LoadProjectAction;
@@ -25,6 +26,11 @@ public class ProjectManager {
 
     private static final ProjectManager instance = new ProjectManager();
 
+    /**
+     * The delay (in ms) before asking the server again for a project that is still being loaded.
+     */
+    private static final int LOADING_RETRY_DELAY_MS = 1000;
+
     private Map<ProjectId, Project> map = new HashMap<ProjectId, Project>();
 
 
@@ -36,7 +42,7 @@ public class ProjectManager {
         return instance;
     }
 
-    public void loadProject(ProjectId projectId, final AsyncCallback<Project> projectLoadedCallback) {
+    public void loadProject(final ProjectId projectId, final AsyncCallback<Project> projectLoadedCallback) {
         checkNotNull(projectLoadedCallback);
         Project project = map.get(checkNotNull(projectId));
         if(project != null) {
@@ -53,6 +59,16 @@ public class ProjectManager {
 
             @Override
             public void onSuccess(LoadProjectResult result) {
+                if(result.isProjectLoading()) {
+                    // The server is still loading the project.  Ask again shortly.
+                    new Timer() {
+                        @Override
+                        public void run() {
+                            loadProject(projectId, projectLoadedCallback);
+                        }
+                    }.schedule(LOADING_RETRY_DELAY_MS);
+                    return;
+                }
                 Project project = registerProject(result.getUserId(), result.getRequestingUserProjectPermissionSet(), result.getProjectDetails());
                 projectLoadedCallback.onSuccess(project);
             }
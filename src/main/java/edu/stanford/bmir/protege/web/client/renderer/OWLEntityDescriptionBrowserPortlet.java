@@ -97,4 +97,8 @@ public class OWLEntityDescriptionBrowserPortlet extends AbstractOWLEntityPortlet
         }
     }
 
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
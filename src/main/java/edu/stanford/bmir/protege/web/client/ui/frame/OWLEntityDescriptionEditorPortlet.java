@@ -46,4 +46,9 @@ public class OWLEntityDescriptionEditorPortlet extends AbstractOWLEntityPortlet
     protected void onRefresh() {
         presenter.refresh();
     }
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
@@ -51,4 +51,9 @@ public class DiscussionThreadPortlet extends AbstractOWLEntityPortlet {
         presenter.dispose();
         super.onDestroy();
     }
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
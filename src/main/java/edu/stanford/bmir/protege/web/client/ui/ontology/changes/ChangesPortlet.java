@@ -146,4 +146,9 @@ public class ChangesPortlet extends AbstractOWLEntityPortlet {
 		ColumnModel columnModel = new ColumnModel(columns);
 		changesGrid.setColumnModel(columnModel);
 	}
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(true);
+    }
 }
@@ -1,5 +1,6 @@
 package edu.stanford.bmir.protege.web.client.ui.ontology.classes;
 
+import com.google.common.base.Optional;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.http.client.URL;
@@ -54,11 +55,16 @@ import edu.stanford.bmir.protege.web.resources.WebProtegeClientBundle;
 import edu.stanford.bmir.protege.web.shared.DataFactory;
 import edu.stanford.bmir.protege.web.shared.ObjectPath;
 import edu.stanford.bmir.protege.web.shared.csv.CSVImportDescriptor;
+import edu.stanford.bmir.protege.web.shared.entity.OWLEntityData;
 import edu.stanford.bmir.protege.web.shared.event.*;
 import edu.stanford.bmir.protege.web.shared.hierarchy.ClassHierarchyParentAddedEvent;
 import edu.stanford.bmir.protege.web.shared.hierarchy.ClassHierarchyParentAddedHandler;
 import edu.stanford.bmir.protege.web.shared.hierarchy.ClassHierarchyParentRemovedEvent;
 import edu.stanford.bmir.protege.web.shared.hierarchy.ClassHierarchyParentRemovedHandler;
+import edu.stanford.bmir.protege.web.shared.hierarchy.GetSubclassesPageAction;
+import edu.stanford.bmir.protege.web.shared.hierarchy.GetSubclassesPageResult;
+import edu.stanford.bmir.protege.web.shared.pagination.Page;
+import edu.stanford.bmir.protege.web.shared.pagination.PageRequest;
 import edu.stanford.bmir.protege.web.shared.watches.*;
 import org.semanticweb.owlapi.model.EntityType;
 import org.semanticweb.owlapi.model.OWLClass;
@@ -85,6 +91,11 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
 
     private static final String PLACE_HOLDER_PANEL = "placeHolderPanel";
 
+    /**
+     * The number of subclasses that are retrieved at a time when a node is expanded.
+     */
+    private static final int SUBCLASSES_PAGE_SIZE = 200;
+
     private final String linkPattern = "{0}?ontology={1}&tab={2}&id={3}";
 
     private TreePanel treePanel;
@@ -761,7 +772,7 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
                 parentNode.appendChild(subclassNode);
             }
         }
-
+        updateEventInterest();
     }
 
     protected TreeNode findTreeNode(OWLClass cls) {
@@ -1113,7 +1124,7 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
             return;
         }
         if (hierarchyProperty == null) {
-            invokeGetSubclassesRemoteCall(parentClsName, getSubclassesCallback(parentClsName, parentNode));
+            getSubclassesPage(parentClsName, parentNode, 1);
         }
         else {
             final List<String> subjects = new ArrayList<String>();
@@ -1124,6 +1135,81 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
         }
     }
 
+    /**
+     * Gets a page of subclasses and appends them to the parent node.  The next page, if there is one, is requested
+     * once this page has been added, so that nodes with large numbers of subclasses fill in incrementally.
+     */
+    protected void getSubclassesPage(final String parentClsName, final TreeNode parentNode, final int pageNumber) {
+        OWLClass parentCls = DataFactory.getOWLClass(parentClsName);
+        PageRequest pageRequest = PageRequest.requestPageWithSize(pageNumber, SUBCLASSES_PAGE_SIZE);
+        DispatchServiceManager.get().execute(new GetSubclassesPageAction(getProjectId(), parentCls, pageRequest), new AsyncCallback<GetSubclassesPageResult>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                GWT.log("RPC error at getting subclasses of " + parentClsName, caught);
+                // Fetched again the next time the node is expanded.  Subclasses that have already been appended are
+                // not duplicated.
+                setSubclassesLoaded(parentNode, false);
+                MessageBox.showErrorMessage("Subclasses not loaded", caught);
+            }
+
+            @Override
+            public void onSuccess(GetSubclassesPageResult result) {
+                appendSubclassNodes(parentNode, result.getSubclasses());
+                setSubclassesLoaded(parentNode, true);
+                Page<SubclassEntityData> page = result.getPage();
+                if (page.getPageNumber() < page.getPageCount()) {
+                    getSubclassesPage(parentClsName, parentNode, page.getPageNumber() + 1);
+                }
+            }
+        });
+    }
+
+    protected void appendSubclassNodes(final TreeNode parentNode, final List<SubclassEntityData> children) {
+        Set<OWLClass> existingSubclasses = new HashSet<OWLClass>();
+        for(Node childNode : parentNode.getChildNodes()) {
+            existingSubclasses.add(DataFactory.getOWLClass(getNodeClsName(childNode)));
+        }
+
+        for (final SubclassEntityData subclassEntityData : children) {
+            OWLClass currentCls = DataFactory.getOWLClass(subclassEntityData.getName());
+            if(!existingSubclasses.contains(currentCls)) {
+                final TreeNode childNode = createTreeNode(subclassEntityData);
+                if (subclassEntityData.getSubclassCount() > 0) {
+                    childNode.setExpandable(true);
+                }
+                parentNode.appendChild(childNode);
+//                    updateAncestorNoteCounts(subclassEntityData.getLocalAnnotationsCount(), childNode);
+            }
+        }
+        updateEventInterest();
+    }
+
+    /**
+     * The tree is interested in the events about the classes that it has loaded (and so may display), and about the
+     * selected class, which may not have been loaded yet.  Until the root has been loaded the tree keeps its initial
+     * interest in all events.
+     */
+    @Override
+    protected void updateEventInterest() {
+        if (treePanel == null || treePanel.getRootNode() == null) {
+            return;
+        }
+        Set<OWLEntity> entities = new HashSet<OWLEntity>();
+        addLoadedClasses(treePanel.getRootNode(), entities);
+        Optional<OWLEntityData> selectedEntityData = getSelectedEntityData();
+        if (selectedEntityData.isPresent()) {
+            entities.add(selectedEntityData.get().getEntity());
+        }
+        setEventInterest(new EventInterest(entities, false));
+    }
+
+    private void addLoadedClasses(final Node node, final Set<OWLEntity> entities) {
+        entities.add(DataFactory.getOWLClass(getNodeClsName(node)));
+        for (final Node child : node.getChildNodes()) {
+            addLoadedClasses(child, entities);
+        }
+    }
+
     protected void invokeGetSubclassesRemoteCall(final String parentClsName, AsyncCallback<List<SubclassEntityData>> callback) {
         OntologyServiceManager.getInstance().getSubclasses(getProjectId(), parentClsName, callback);
     }
@@ -1428,6 +1514,7 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
         // MH: createTreeNode calls get subclasses, so it was being called twice
 //        getSubclasses(rootEnitity.getName(), root);
         root.expand(); // TODO: does not seem to work always
+        updateEventInterest();
 
         if (initialSelection == null) { //try to cover the links, not ideal
             initialSelection = GlobalSelectionManager.getGlobalSelection(getProjectId());
@@ -1582,22 +1669,7 @@ public class ClassTreePortlet extends AbstractOWLEntityPortlet {
         @Override
         public void handleSuccess(final List<SubclassEntityData> children) {
 //            boolean isFresh = !isSubclassesLoaded(parentNode);
-            Set<OWLClass> existingSubclasses = new HashSet<OWLClass>();
-            for(Node childNode : parentNode.getChildNodes()) {
-                existingSubclasses.add(DataFactory.getOWLClass(getNodeClsName(childNode)));
-            }
-
-            for (final SubclassEntityData subclassEntityData : children) {
-                OWLClass currentCls = DataFactory.getOWLClass(subclassEntityData.getName());
-                if(!existingSubclasses.contains(currentCls)) {
-                    final TreeNode childNode = createTreeNode(subclassEntityData);
-                    if (subclassEntityData.getSubclassCount() > 0) {
-                        childNode.setExpandable(true);
-                    }
-                    parentNode.appendChild(childNode);
-//                    updateAncestorNoteCounts(subclassEntityData.getLocalAnnotationsCount(), childNode);
-                }
-            }
+            appendSubclassNodes(parentNode, children);
 
             setSubclassesLoaded(parentNode, true);
             if (endCallback != null) {
@@ -52,4 +52,9 @@ public class SuperclassesPortlet extends AbstractOWLEntityPortlet {
             containerTab.setSelection(newSelection);
         }
     }
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
@@ -37,4 +37,9 @@ public class AnnotationsPortlet extends AbstractOWLEntityPortlet {
         }
         annotationsGrid.setEntity(getEntity());
     }
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
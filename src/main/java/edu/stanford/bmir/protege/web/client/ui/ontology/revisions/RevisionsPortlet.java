@@ -4,6 +4,8 @@ import com.gwtext.client.widgets.layout.FitLayout;
 import edu.stanford.bmir.protege.web.client.project.Project;
 import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
 import edu.stanford.bmir.protege.web.client.ui.portlet.AbstractOWLEntityPortlet;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
+import org.semanticweb.owlapi.model.OWLEntity;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +35,16 @@ public class RevisionsPortlet extends AbstractOWLEntityPortlet {
         add(presenter.getWidget());
         setTitle("Revisions");
         presenter.reload();
+
+        updateEventInterest();
+    }
+
+    /**
+     * This portlet lists the changes to the whole project, whichever entity is selected.
+     */
+    @Override
+    protected void updateEventInterest() {
+        setEventInterest(new EventInterest(Collections.<OWLEntity>emptySet(), true));
     }
 
     @Override
@@ -19,6 +19,8 @@ import com.gwtext.client.widgets.layout.AnchorLayoutData;
 import com.gwtext.client.widgets.layout.FitLayout;
 import com.gwtext.client.widgets.portal.Portlet;
 import edu.stanford.bmir.protege.web.client.Application;
+import edu.stanford.bmir.protege.web.client.events.ProjectEventsMissedEvent;
+import edu.stanford.bmir.protege.web.client.events.ProjectEventsMissedHandler;
 import edu.stanford.bmir.protege.web.client.events.UserLoggedInEvent;
 import edu.stanford.bmir.protege.web.client.events.UserLoggedInHandler;
 import edu.stanford.bmir.protege.web.client.events.UserLoggedOutEvent;
@@ -37,16 +39,20 @@ import edu.stanford.bmir.protege.web.client.ui.util.ValidatableTab;
 import edu.stanford.bmir.protege.web.shared.DataFactory;
 import edu.stanford.bmir.protege.web.shared.entity.*;
 import edu.stanford.bmir.protege.web.shared.event.EventBusManager;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
 import edu.stanford.bmir.protege.web.shared.event.HasEventHandlerManagement;
 import edu.stanford.bmir.protege.web.shared.event.PermissionsChangedEvent;
 import edu.stanford.bmir.protege.web.shared.event.PermissionsChangedHandler;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.owlapi.model.OWLEntity;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -93,6 +99,11 @@ public abstract class AbstractEntityPortlet extends Portlet implements EntityPor
             }
         });
 
+        // Until a portlet says otherwise it receives all of the events of the project.  This is registered directly
+        // rather than through updateEventInterest(), because subclasses are not fully constructed yet, and before
+        // initialize(), so that subclasses may narrow it there.
+        setEventInterest(EventInterest.getAllEvents());
+
         if (initialize) {
             setTools(getTools());
             initialize();
@@ -121,6 +132,14 @@ public abstract class AbstractEntityPortlet extends Portlet implements EntityPor
             }
         });
 
+        addProjectEventHandler(ProjectEventsMissedEvent.TYPE, new ProjectEventsMissedHandler() {
+            @Override
+            public void handleProjectEventsMissed(ProjectEventsMissedEvent event) {
+                // The events that would have kept this portlet up to date were lost, so reload it
+                onRefresh();
+            }
+        });
+
         addApplicationEventHandler(PlaceChangeEvent.TYPE, new PlaceChangeEvent.Handler() {
             @Override
             public void onPlaceChange(PlaceChangeEvent event) {
@@ -162,6 +181,7 @@ public abstract class AbstractEntityPortlet extends Portlet implements EntityPor
         handleBeforeSetEntity(getSelectedEntityData());
         _currentEntity = newEntity;
         handleAfterSetEntity(getSelectedEntityData());
+        updateEventInterest();
         // doLayout();
     }
 
@@ -173,6 +193,39 @@ public abstract class AbstractEntityPortlet extends Portlet implements EntityPor
 
     }
 
+    /**
+     * Tells the server which events this portlet is interested in.  This is called each time that the entity of the
+     * portlet is set.  By default a portlet is interested in all of the events of the project.  Portlets that only
+     * display information about a few entities should override this method and call
+     * {@link #setEventInterest(EventInterest)} with just those entities, so that the server does not send the client
+     * events that no portlet displays.
+     */
+    protected void updateEventInterest() {
+        setEventInterest(EventInterest.getAllEvents());
+    }
+
+    /**
+     * Sets the events that this portlet is interested in, replacing any interest that it set before.  The interest is
+     * removed when the portlet is destroyed.
+     * @param eventInterest The interest.  Not {@code null}.
+     */
+    protected void setEventInterest(EventInterest eventInterest) {
+        project.getEventPollingManager().setEventInterest(this, eventInterest);
+    }
+
+    /**
+     * Sets the interest of this portlet to the events about the selected entity, if any.
+     * @param allProjectChangesIncluded {@code true} if the portlet is also interested in every change to the project.
+     */
+    protected void setEventInterestToSelectedEntity(boolean allProjectChangesIncluded) {
+        Optional<OWLEntityData> selectedEntityData = getSelectedEntityData();
+        Set<OWLEntity> entities = new HashSet<OWLEntity>();
+        if(selectedEntityData.isPresent()) {
+            entities.add(selectedEntityData.get().getEntity());
+        }
+        setEventInterest(new EventInterest(entities, allProjectChangesIncluded));
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -488,6 +541,7 @@ public abstract class AbstractEntityPortlet extends Portlet implements EntityPor
     @Override
     public void destroy() {
         removeHandlers();
+        project.getEventPollingManager().removeEventInterest(this);
         super.destroy();
     }
 
@@ -3,6 +3,8 @@ package edu.stanford.bmir.protege.web.client.ui.projectfeed;
 import edu.stanford.bmir.protege.web.client.project.Project;
 import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
 import edu.stanford.bmir.protege.web.client.ui.portlet.AbstractOWLEntityPortlet;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
+import org.semanticweb.owlapi.model.OWLEntity;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +29,16 @@ public class ProjectFeedPortlet extends AbstractOWLEntityPortlet {
         setTitle("Project feed");
         setSize(300, 180);
         add(basePanel);
+
+        updateEventInterest();
+    }
+
+    /**
+     * This portlet lists the changes to the whole project, whichever entity is selected.
+     */
+    @Override
+    protected void updateEventInterest() {
+        setEventInterest(new EventInterest(Collections.<OWLEntity>emptySet(), true));
     }
 
     @Override
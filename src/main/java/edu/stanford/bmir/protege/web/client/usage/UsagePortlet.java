@@ -90,4 +90,9 @@ public class UsagePortlet extends AbstractOWLEntityPortlet {
             }
         });
     }
+
+    @Override
+    protected void updateEventInterest() {
+        setEventInterestToSelectedEntity(false);
+    }
 }
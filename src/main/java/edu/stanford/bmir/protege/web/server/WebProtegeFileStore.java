@@ -26,6 +26,11 @@ public class WebProtegeFileStore {
      */
     private static final String META_PROJECT_DIRECTORY_NAME = "metaproject";
 
+    /**
+     * The name of the file that records how often and how recently projects have been accessed
+     */
+    private static final String PROJECT_ACCESS_STATISTICS_FILE_NAME = "project-access-statistics.binary";
+
 
 
     private static final WebProtegeFileStore instance = new WebProtegeFileStore(WebProtegeProperties.get().getDataDirectory());
@@ -37,11 +42,14 @@ public class WebProtegeFileStore {
 
     private final File defaultUIConfigurationDataDirectory;
 
+    private final File projectAccessStatisticsFile;
+
 
     private WebProtegeFileStore(File dataDirectory) {
         this.dataDirectory = dataDirectory;
         this.metaprojectDirectory = new File(dataDirectory, META_PROJECT_DIRECTORY_NAME);
         this.defaultUIConfigurationDataDirectory = new File(dataDirectory, DEFAULT_UI_CONFIGURATION_DATA_DIRECTORY_NAME);
+        this.projectAccessStatisticsFile = new File(dataDirectory, PROJECT_ACCESS_STATISTICS_FILE_NAME);
 
     }
 
@@ -78,4 +86,13 @@ public class WebProtegeFileStore {
     public File getDefaultUIConfigurationDataDirectory() {
         return defaultUIConfigurationDataDirectory;
     }
+
+    /**
+     * Gets the file that records how often and how recently projects have been accessed.  This is used to decide
+     * which projects to preload when webprotege starts.
+     * @return A {@link File} representing the project access statistics file.  Not {@code null}.
+     */
+    public File getProjectAccessStatisticsFile() {
+        return projectAccessStatisticsFile;
+    }
 }
@@ -1,5 +1,6 @@
 package edu.stanford.bmir.protege.web.server;
 
+import edu.stanford.bmir.protege.web.server.app.App;
 import edu.stanford.bmir.protege.web.server.db.mongodb.MongoDBManager;
 import edu.stanford.bmir.protege.web.server.filter.WebProtegeWebAppFilter;
 import edu.stanford.bmir.protege.web.server.init.WebProtegeConfigurationException;
@@ -7,6 +8,8 @@ import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerEx;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIMetaProjectStore;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectManager;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.smi.protege.server.metaproject.MetaProject;
 import edu.stanford.smi.protege.server.metaproject.ProjectInstance;
 import edu.stanford.smi.protege.util.Log;
@@ -24,6 +27,8 @@ public class WebProtegeInitializer implements ServletContextListener {
             WebProtegeConfigurationChecker checker = new WebProtegeConfigurationChecker();
             checker.performConfiguration(sce.getServletContext());
             warmupMetaProject();
+            // Runs in the background
+            OWLAPIProjectManager.getProjectManager().startPreloadingProjects();
             LOGGER.info("Initialization complete");
             WebProtegeLoggerEx loggerEx = new WebProtegeLoggerEx(LOGGER);
             loggerEx.logMemoryUsage();
@@ -52,6 +57,19 @@ public class WebProtegeInitializer implements ServletContextListener {
         catch (Throwable e) {
             WebProtegeLoggerManager.get(WebProtegeInitializer.class).severe(e);
         }
+        try {
+            // Delivers queued mail, so it must be disposed of before the scheduler is shut down
+            App.get().getMailManager().dispose();
+        }
+        catch (Throwable e) {
+            WebProtegeLoggerManager.get(WebProtegeInitializer.class).severe(e);
+        }
+        try {
+            WebProtegeScheduler.get().shutDown();
+        }
+        catch (Throwable e) {
+            WebProtegeLoggerManager.get(WebProtegeInitializer.class).severe(e);
+        }
 
         Log.getLogger(WebProtegeInitializer.class).info("WebProtege cleanly disposed");
     }
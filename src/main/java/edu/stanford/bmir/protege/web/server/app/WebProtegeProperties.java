@@ -3,6 +3,7 @@ package edu.stanford.bmir.protege.web.server.app;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import edu.stanford.bmir.protege.web.server.init.WebProtegeConfigurationException;
+import edu.stanford.bmir.protege.web.server.owlapi.change.ChangeLogDurability;
 import edu.stanford.bmir.protege.web.shared.app.ClientApplicationProperties;
 import edu.stanford.bmir.protege.web.shared.app.WebProtegePropertyName;
 
@@ -124,6 +125,16 @@ public class WebProtegeProperties implements Serializable {
         return value.get();
     }
 
+    private int getRequiredInt(WebProtegePropertyName propertyName) {
+        String value = getRequiredString(propertyName);
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e) {
+            throw new WebProtegeConfigurationException("Property " + propertyName.getPropertyName() + " must be an integer but was " + value);
+        }
+    }
+
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -165,6 +176,100 @@ public class WebProtegeProperties implements Serializable {
 
 
 
+    public int getChangeCheckpointRevisionInterval() {
+        return getRequiredInt(CHANGE_CHECKPOINT_REVISION_INTERVAL);
+    }
+
+    public int getChangeCheckpointChangeInterval() {
+        return getRequiredInt(CHANGE_CHECKPOINT_CHANGE_INTERVAL);
+    }
+
+    public int getChangeCheckpointRetentionCount() {
+        return getRequiredInt(CHANGE_CHECKPOINT_RETENTION_COUNT);
+    }
+
+    public ChangeLogDurability getChangeLogDurability() {
+        String value = getRequiredString(CHANGE_LOG_DURABILITY);
+        try {
+            return ChangeLogDurability.valueOf(value.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            throw new WebProtegeConfigurationException("Property " + CHANGE_LOG_DURABILITY.getPropertyName() + " must be one of SYNC, BATCHED or ASYNC but was " + value);
+        }
+    }
+
+    public int getChangeLogGroupCommitWindow() {
+        return getRequiredInt(CHANGE_LOG_GROUP_COMMIT_WINDOW);
+    }
+
+    public int getOntologyCompactionMinTailSize() {
+        return getRequiredInt(ONTOLOGY_COMPACTION_MIN_TAIL_SIZE);
+    }
+
+    public int getOntologyCompactionTailRatio() {
+        return getRequiredInt(ONTOLOGY_COMPACTION_TAIL_RATIO);
+    }
+
+    public int getProjectCacheDormantTime() {
+        return getRequiredInt(PROJECT_CACHE_DORMANT_TIME);
+    }
+
+    public int getProjectCacheMaxProjects() {
+        return getRequiredInt(PROJECT_CACHE_MAX_PROJECTS);
+    }
+
+    /**
+     * Gets the maximum estimated size of the projects that are kept in memory.
+     * @return The size in megabytes.  Zero if the size should be derived from the maximum heap size.
+     */
+    public int getProjectCacheMaxSize() {
+        return getRequiredInt(PROJECT_CACHE_MAX_SIZE);
+    }
+
+    public int getProjectCacheEvictionCheckPeriod() {
+        return getRequiredInt(PROJECT_CACHE_EVICTION_CHECK_PERIOD);
+    }
+
+    public int getProjectLoadPoolSize() {
+        return getRequiredInt(PROJECT_LOAD_POOL_SIZE);
+    }
+
+    public int getProjectPreloadMaxProjects() {
+        return getRequiredInt(PROJECT_PRELOAD_MAX_PROJECTS);
+    }
+
+    public int getProjectPreloadConcurrency() {
+        return getRequiredInt(PROJECT_PRELOAD_CONCURRENCY);
+    }
+
+    public int getSchedulerPoolSize() {
+        return getRequiredInt(SCHEDULER_POOL_SIZE);
+    }
+
+    public int getEventsLongPollMaxWaitTime() {
+        return getRequiredInt(EVENTS_LONG_POLL_MAX_WAIT_TIME);
+    }
+
+    public int getEventsLongPollMaxWaitingRequests() {
+        return getRequiredInt(EVENTS_LONG_POLL_MAX_WAITING_REQUESTS);
+    }
+
+    public int getEventsPipelineMaxPendingRevisions() {
+        return getRequiredInt(EVENTS_PIPELINE_MAX_PENDING_REVISIONS);
+    }
+
+    public int getWatchesNotificationDigestWindow() {
+        return getRequiredInt(WATCHES_NOTIFICATION_DIGEST_WINDOW);
+    }
+
+    /**
+     * Gets the estimated size of the resident projects at which preloading stops.
+     * @return The size in megabytes.  Zero if the size should be derived from the maximum heap size.
+     */
+    public int getProjectPreloadMaxSize() {
+        return getRequiredInt(PROJECT_PRELOAD_MAX_SIZE);
+    }
+
     public  int getAccountInvitationExpirationPeriodInDays() {
         return Integer.MAX_VALUE;
     }
@@ -2,6 +2,7 @@ package edu.stanford.bmir.protege.web.server.crud;
 
 import com.google.common.base.Optional;
 import edu.stanford.bmir.protege.web.shared.HasDataFactory;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -22,7 +23,10 @@ public class EntityCrudContext implements HasDataFactory {
 
     private final UserId userId;
 
-    public EntityCrudContext(UserId userId, OWLOntology targetOntology, OWLDataFactory dataFactory, PrefixedNameExpander prefixedNameExpander) {
+    private final ProjectId projectId;
+
+    public EntityCrudContext(ProjectId projectId, UserId userId, OWLOntology targetOntology, OWLDataFactory dataFactory, PrefixedNameExpander prefixedNameExpander) {
+        this.projectId = projectId;
         this.userId = userId;
         this.targetOntology = targetOntology;
         this.dataFactory = dataFactory;
@@ -33,6 +37,10 @@ public class EntityCrudContext implements HasDataFactory {
         return targetOntology;
     }
 
+    public ProjectId getProjectId() {
+        return projectId;
+    }
+
     public UserId getUserId() {
         return userId;
     }
@@ -0,0 +1,351 @@
+package edu.stanford.bmir.protege.web.server.crud.obo;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.crud.oboid.UserIdRange;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Allocates the numeric part of OBO ids.  Each {@link UserIdRange} has a high water mark, which is the largest id
+ *     in the range that is used or has been handed out, and ids outside of all user ranges share a default range with
+ *     its own high water mark.  The high water marks are found by scanning the signature once, when the allocator is
+ *     created, and are saved to a file each time that they move, so that ids that were handed out but never used are
+ *     not handed out again after a restart.
+ * </p>
+ * <p>
+ *     Users are given blocks of ids from their range (or the default range) so that allocating an id only touches
+ *     the block of the user.  The high water mark of a range is only updated when a block is reserved.  Ids are never
+ *     reused, so ids that are left in a block when the server stops are skipped.
+ * </p>
+ */
+public class OBOIdAllocator {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(OBOIdAllocator.class);
+
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    /**
+     * The number of ids that are reserved for a user at a time.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 20;
+
+    private final String iriPrefix;
+
+    private final int totalDigits;
+
+    private final int blockSize;
+
+    private final List<IdRange> userRanges = new ArrayList<IdRange>();
+
+    private final ConcurrentMap<UserId, IdRange> userId2Range = new ConcurrentHashMap<UserId, IdRange>();
+
+    private final IdRange defaultRange = new IdRange(0, Long.MAX_VALUE);
+
+    private final ConcurrentMap<UserId, Block> userId2Block = new ConcurrentHashMap<UserId, Block>();
+
+    private final Optional<File> highWaterMarksFile;
+
+    /**
+     * Creates an allocator.
+     * @param iriPrefix The prefix of the IRIs of OBO ids.  Not {@code null}.
+     * @param totalDigits The number of digits in an id.
+     * @param userIdRanges The ranges of ids for users.  Not {@code null}.
+     * @param signature The entities that are already in use.  Not {@code null}.
+     * @param highWaterMarksFile The file that high water marks are saved to.  Not {@code null}.
+     * @param blockSize The number of ids that are reserved for a user at a time.  Greater than zero.
+     */
+    public OBOIdAllocator(String iriPrefix,
+                          int totalDigits,
+                          List<UserIdRange> userIdRanges,
+                          Iterable<? extends OWLEntity> signature,
+                          Optional<File> highWaterMarksFile,
+                          int blockSize) {
+        checkArgument(blockSize > 0, "blockSize must be greater than zero");
+        this.iriPrefix = checkNotNull(iriPrefix);
+        this.totalDigits = totalDigits;
+        this.blockSize = blockSize;
+        this.highWaterMarksFile = checkNotNull(highWaterMarksFile);
+        for(UserIdRange userIdRange : userIdRanges) {
+            IdRange range = new IdRange(userIdRange);
+            userRanges.add(range);
+            userId2Range.put(userIdRange.getUserId(), range);
+        }
+        scan(signature);
+        readHighWaterMarks();
+    }
+
+    /**
+     * Allocates an id for the specified user.
+     * @param userId The user.  Not {@code null}.
+     * @return The id.
+     * @throws CannotGenerateFreshEntityIdForUserException if the range of the user has been exhausted.
+     */
+    public long allocate(UserId userId) {
+        while(true) {
+            Block block = userId2Block.get(userId);
+            if(block != null) {
+                long id = block.next.getAndIncrement();
+                if(id <= block.end) {
+                    return id;
+                }
+            }
+            userId2Block.put(userId, reserveBlock(userId));
+        }
+    }
+
+    /**
+     * Formats an id with leading zeros.
+     */
+    public String format(long id) {
+        String digits = Long.toString(id);
+        StringBuilder sb = new StringBuilder(iriPrefix.length() + Math.max(totalDigits, digits.length()));
+        sb.append(iriPrefix);
+        for(int i = digits.length(); i < totalDigits; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+        return sb.toString();
+    }
+
+    private Block reserveBlock(UserId userId) {
+        IdRange userRange = userId2Range.get(userId);
+        Block block;
+        if(userRange != null) {
+            block = reserveBlockInUserRange(userRange);
+        }
+        else {
+            block = reserveBlockInDefaultRange();
+        }
+        writeHighWaterMarks();
+        return block;
+    }
+
+    private Block reserveBlockInUserRange(IdRange range) {
+        while(true) {
+            long highWaterMark = range.highWaterMark.get();
+            long start = highWaterMark + 1;
+            if(start > range.end) {
+                throw new CannotGenerateFreshEntityIdForUserException(range.userIdRange);
+            }
+            long end = Math.min(start + blockSize - 1, range.end);
+            if(range.highWaterMark.compareAndSet(highWaterMark, end)) {
+                return new Block(start, end);
+            }
+        }
+    }
+
+    private Block reserveBlockInDefaultRange() {
+        while(true) {
+            long highWaterMark = defaultRange.highWaterMark.get();
+            long start = highWaterMark + 1;
+            long end = start + blockSize - 1;
+            // Skip over the user ranges, and stop short of them
+            boolean moved = true;
+            while(moved) {
+                moved = false;
+                for(IdRange userRange : userRanges) {
+                    if(userRange.start <= start && start <= userRange.end) {
+                        start = userRange.end + 1;
+                        end = start + blockSize - 1;
+                        moved = true;
+                    }
+                }
+            }
+            for(IdRange userRange : userRanges) {
+                if(start < userRange.start && userRange.start <= end) {
+                    end = userRange.start - 1;
+                }
+            }
+            if(defaultRange.highWaterMark.compareAndSet(highWaterMark, end)) {
+                return new Block(start, end);
+            }
+        }
+    }
+
+    private void scan(Iterable<? extends OWLEntity> signature) {
+        for(OWLEntity entity : signature) {
+            String iri = entity.getIRI().toString();
+            if(iri.length() != iriPrefix.length() + totalDigits || !iri.startsWith(iriPrefix)) {
+                continue;
+            }
+            long id = parseId(iri);
+            if(id >= 0) {
+                getRange(id).raiseHighWaterMark(id);
+            }
+        }
+    }
+
+    private long parseId(String iri) {
+        long id = 0;
+        for(int i = iriPrefix.length(); i < iri.length(); i++) {
+            char c = iri.charAt(i);
+            if(c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private IdRange getRange(long id) {
+        for(IdRange userRange : userRanges) {
+            if(userRange.start <= id && id <= userRange.end) {
+                return userRange;
+            }
+        }
+        return defaultRange;
+    }
+
+    private List<IdRange> getAllRanges() {
+        List<IdRange> ranges = new ArrayList<IdRange>(userRanges);
+        ranges.add(defaultRange);
+        return ranges;
+    }
+
+    /**
+     * Reads the high water marks that were saved for the same prefix and number of digits.  They are only used where
+     * they are greater than the scanned high water marks.
+     */
+    private void readHighWaterMarks() {
+        if(!highWaterMarksFile.isPresent() || !highWaterMarksFile.get().exists()) {
+            return;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(highWaterMarksFile.get())));
+            if(inputStream.readInt() != FILE_FORMAT_VERSION) {
+                return;
+            }
+            if(!iriPrefix.equals(inputStream.readUTF()) || inputStream.readInt() != totalDigits) {
+                return;
+            }
+            int rangeCount = inputStream.readInt();
+            for(int i = 0; i < rangeCount; i++) {
+                long start = inputStream.readLong();
+                long end = inputStream.readLong();
+                long highWaterMark = inputStream.readLong();
+                for(IdRange range : getAllRanges()) {
+                    if(range.start == start && range.end == end) {
+                        range.raiseHighWaterMark(highWaterMark);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            LOGGER.info("Could not read OBO id high water marks: %s", e.getMessage());
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    private synchronized void writeHighWaterMarks() {
+        if(!highWaterMarksFile.isPresent()) {
+            return;
+        }
+        File file = highWaterMarksFile.get();
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        DataOutputStream outputStream = null;
+        try {
+            file.getParentFile().mkdirs();
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            outputStream.writeInt(FILE_FORMAT_VERSION);
+            outputStream.writeUTF(iriPrefix);
+            outputStream.writeInt(totalDigits);
+            List<IdRange> ranges = getAllRanges();
+            outputStream.writeInt(ranges.size());
+            for(IdRange range : ranges) {
+                outputStream.writeLong(range.start);
+                outputStream.writeLong(range.end);
+                outputStream.writeLong(range.highWaterMark.get());
+            }
+            outputStream.close();
+            outputStream = null;
+            if(file.exists() && !file.delete()) {
+                throw new IOException("Could not delete stale OBO id high water marks " + file.getAbsolutePath());
+            }
+            if(!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+            }
+        }
+        catch (IOException e) {
+            // The high water marks will be found by scanning next time
+            LOGGER.severe(e);
+        }
+        finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if(closeable != null) {
+                closeable.close();
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+    }
+
+    private static class IdRange {
+
+        private final UserIdRange userIdRange;
+
+        private final long start;
+
+        private final long end;
+
+        private final AtomicLong highWaterMark;
+
+        private IdRange(UserIdRange userIdRange) {
+            this.userIdRange = userIdRange;
+            this.start = userIdRange.getStart();
+            this.end = userIdRange.getEnd();
+            // The first id in a user range is start + 1
+            this.highWaterMark = new AtomicLong(start);
+        }
+
+        private IdRange(long start, long end) {
+            this.userIdRange = null;
+            this.start = start;
+            this.end = end;
+            this.highWaterMark = new AtomicLong(start);
+        }
+
+        private void raiseHighWaterMark(long id) {
+            long current = highWaterMark.get();
+            while(id > current && !highWaterMark.compareAndSet(current, id)) {
+                current = highWaterMark.get();
+            }
+        }
+    }
+
+    private static class Block {
+
+        private final AtomicLong next;
+
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -1,24 +1,19 @@
 package edu.stanford.bmir.protege.web.server.crud.obo;
 
-import com.beust.jcommander.internal.Maps;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.base.Optional;
 import edu.stanford.bmir.protege.web.server.change.OntologyChangeList;
 import edu.stanford.bmir.protege.web.server.crud.EntityCrudContext;
 import edu.stanford.bmir.protege.web.server.crud.EntityCrudKitHandler;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectFileStore;
 import edu.stanford.bmir.protege.web.shared.crud.EntityCrudKitId;
 import edu.stanford.bmir.protege.web.shared.crud.EntityCrudKitPrefixSettings;
 import edu.stanford.bmir.protege.web.shared.crud.EntityCrudKitSettings;
 import edu.stanford.bmir.protege.web.shared.crud.EntityShortForm;
 import edu.stanford.bmir.protege.web.shared.crud.oboid.OBOIdSuffixKit;
 import edu.stanford.bmir.protege.web.shared.crud.oboid.OBOIdSuffixSettings;
-import edu.stanford.bmir.protege.web.shared.crud.oboid.UserIdRange;
-import edu.stanford.bmir.protege.web.shared.user.UserId;
-import edu.stanford.smi.protege.server.Session;
 import org.semanticweb.owlapi.model.*;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.Map;
+import java.io.File;
 
 /**
  * Author: Matthew Horridge<br>
@@ -29,26 +24,20 @@ import java.util.Map;
 public class OBOIdSuffixEntityCrudKitHandler implements EntityCrudKitHandler<OBOIdSuffixSettings, OBOIdSession> {
 
 
-    private long currentId = 0;
+    private static final String HIGH_WATER_MARKS_FILE_NAME = "obo-id-high-water-marks.binary";
 
     private EntityCrudKitPrefixSettings prefixSettings;
 
     private OBOIdSuffixSettings suffixSettings;
 
-    private final Map<UserId, Long> userId2CurrentIdMap = Maps.newHashMap();
-
-    private final Map<UserId, UserIdRange> userId2RangeEndMap;
+    /**
+     * Created on first use, because finding the high water marks requires the signature of the project.
+     */
+    private volatile OBOIdAllocator allocator;
 
     public OBOIdSuffixEntityCrudKitHandler(EntityCrudKitPrefixSettings prefixSettings, OBOIdSuffixSettings suffixSettings) {
         this.prefixSettings = prefixSettings;
         this.suffixSettings = suffixSettings;
-
-        ImmutableMap.Builder<UserId, UserIdRange> builder = ImmutableMap.builder();
-        for(UserIdRange range : suffixSettings.getUserIdRanges()) {
-            userId2CurrentIdMap.put(range.getUserId(), range.getStart());
-            builder.put(range.getUserId(), range);
-        }
-        userId2RangeEndMap = builder.build();
     }
 
     @Override
@@ -81,7 +70,7 @@ public class OBOIdSuffixEntityCrudKitHandler implements EntityCrudKitHandler<OBO
     public <E extends OWLEntity> E create(OBOIdSession session, EntityType<E> entityType, EntityShortForm shortForm, EntityCrudContext context, OntologyChangeList.Builder<E> builder) {
         OWLDataFactory dataFactory = context.getDataFactory();
         final OWLOntology targetOntology = context.getTargetOntology();
-        final IRI iri = getNextIRI(session, targetOntology, context.getUserId());
+        final IRI iri = getNextIRI(session, context);
         final E entity = dataFactory.getOWLEntity(entityType, iri);
         builder.addAxiom(targetOntology, dataFactory.getOWLDeclarationAxiom(entity));
         final OWLLiteral labellingLiteral = getLabellingLiteral(shortForm, context);
@@ -92,49 +81,41 @@ public class OBOIdSuffixEntityCrudKitHandler implements EntityCrudKitHandler<OBO
 
 
 
-    private synchronized IRI getNextIRI(OBOIdSession session, OWLOntology rootOntology, UserId userId) {
-        StringBuilder formatStringBuilder = new StringBuilder();
-        for (int i = 0; i < suffixSettings.getTotalDigits(); i++) {
-            formatStringBuilder.append("0");
-        }
-        NumberFormat numberFormat = new DecimalFormat(formatStringBuilder.toString());
-        long currentId = getCurrentId(userId);
+    private IRI getNextIRI(OBOIdSession session, EntityCrudContext context) {
+        OBOIdAllocator allocator = getAllocator(context);
+        OWLOntology rootOntology = context.getTargetOntology();
         while (true) {
-            currentId++;
-            if(!session.isSessionId(currentId)) {
-                String shortName = numberFormat.format(currentId);
-                IRI iri = IRI.create(prefixSettings.getIRIPrefix() + shortName);
+            long id = allocator.allocate(context.getUserId());
+            if(!session.isSessionId(id)) {
+                IRI iri = IRI.create(allocator.format(id));
+                // Only entities that were added since the signature was scanned can be found here
                 if (!rootOntology.containsEntityInSignature(iri, true)) {
-                    session.addSessionId(currentId);
-                    setCurrentId(userId, currentId);
+                    session.addSessionId(id);
                     return iri;
                 }
             }
         }
     }
 
-    private long getCurrentId(UserId userId) {
-        Long currentIdForUser = userId2CurrentIdMap.get(userId);
-        if(currentIdForUser != null) {
-            return currentIdForUser;
-        }
-        else {
-            return currentId;
-        }
-    }
-
-    private void setCurrentId(UserId userId, long currentId) {
-        if (userId2CurrentIdMap.containsKey(userId)) {
-            UserIdRange userIdRange = userId2RangeEndMap.get(userId);
-            long limitForUser = userIdRange.getEnd();
-            if(currentId > limitForUser) {
-                throw new CannotGenerateFreshEntityIdForUserException(userIdRange);
+    private OBOIdAllocator getAllocator(EntityCrudContext context) {
+        OBOIdAllocator result = allocator;
+        if(result == null) {
+            synchronized (this) {
+                result = allocator;
+                if(result == null) {
+                    File highWaterMarksFile = new File(OWLAPIProjectFileStore.getProjectFileStore(context.getProjectId()).getConfigurationsDirectory(),
+                                                       HIGH_WATER_MARKS_FILE_NAME);
+                    result = new OBOIdAllocator(prefixSettings.getIRIPrefix(),
+                                                suffixSettings.getTotalDigits(),
+                                                suffixSettings.getUserIdRanges(),
+                                                context.getTargetOntology().getSignature(true),
+                                                Optional.of(highWaterMarksFile),
+                                                OBOIdAllocator.DEFAULT_BLOCK_SIZE);
+                    allocator = result;
+                }
             }
-            userId2CurrentIdMap.put(userId, currentId);
-        }
-        else {
-            this.currentId = currentId;
         }
+        return result;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package edu.stanford.bmir.protege.web.server.dispatch;
 
+import com.google.common.base.Optional;
 import edu.stanford.bmir.protege.web.server.dispatch.validators.CompositeRequestValidator;
 import edu.stanford.bmir.protege.web.server.dispatch.validators.ProjectExistsValidator;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
@@ -7,6 +8,7 @@ import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectManager;
 import edu.stanford.bmir.protege.web.shared.HasProjectId;
 import edu.stanford.bmir.protege.web.shared.dispatch.Action;
 import edu.stanford.bmir.protege.web.shared.dispatch.Result;
+import edu.stanford.bmir.protege.web.shared.project.ProjectLoadingException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +24,10 @@ import java.util.List;
  *     {@link OWLAPIProject} as a parameter.  Further more, the validation includes a check to see if the project
  *     actually exists and fails if this isn't the case.
  * </p>
+ * <p>
+ *     If the project does not finish loading within {@link OWLAPIProjectManager#MAX_LOAD_WAIT_TIME_MS} then a
+ *     {@link ProjectLoadingException} is thrown, and the client executes the action again later.
+ * </p>
  */
 public abstract class AbstractHasProjectActionHandler<A extends Action<R> & HasProjectId, R extends Result> implements ActionHandler<A, R> {
 
@@ -50,8 +56,12 @@ public abstract class AbstractHasProjectActionHandler<A extends Action<R> & HasP
     @Override
     final public R execute(A action, ExecutionContext executionContext) {
         final OWLAPIProjectManager pm = OWLAPIProjectManager.getProjectManager();
-        OWLAPIProject project = pm.getProject(action.getProjectId());
-        return execute(action, project, executionContext);
+        Optional<OWLAPIProject> project = pm.getProjectIfLoaded(action.getProjectId());
+        if (!project.isPresent()) {
+            // Don't tie up the request thread for the whole of a long load.  The client executes the action again.
+            throw new ProjectLoadingException(action.getProjectId());
+        }
+        return execute(action, project.get(), executionContext);
     }
 
 
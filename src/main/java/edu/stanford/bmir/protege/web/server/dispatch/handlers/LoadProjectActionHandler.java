@@ -45,9 +45,16 @@ public class LoadProjectActionHandler implements ActionHandler<LoadProjectAction
         long t0 = System.currentTimeMillis();
         webProtegeLogger.info("Loading project: " + action.getProjectId());
         OWLAPIProjectManager pm = OWLAPIProjectManager.getProjectManager();
-        pm.getProject(action.getProjectId());
-        long t1 = System.currentTimeMillis();
-        webProtegeLogger.info(".... loaded project in " + (t1 - t0) + " ms");
+        // Don't tie up the request thread for the whole of a long load.  The client asks again if the project
+        // is still loading.
+        boolean projectLoading = !pm.getProjectIfLoaded(action.getProjectId()).isPresent();
+        if (!projectLoading) {
+            long t1 = System.currentTimeMillis();
+            webProtegeLogger.info(".... loaded project in " + (t1 - t0) + " ms");
+        }
+        else {
+            webProtegeLogger.info(".... project is still loading");
+        }
         final ProjectId projectId = action.getProjectId();//project.getProjectId();
 
         final OWLAPIProjectMetadataManager manager = OWLAPIProjectMetadataManager.getManager();
@@ -58,6 +65,6 @@ public class LoadProjectActionHandler implements ActionHandler<LoadProjectAction
         for (Operation op : ops) {
             builder.addPermission(Permission.getPermission(op.getName()));
         }
-        return new LoadProjectResult(executionContext.getUserId(), builder.build(), projectDetails);
+        return new LoadProjectResult(executionContext.getUserId(), builder.build(), projectDetails, projectLoading);
     }
 }
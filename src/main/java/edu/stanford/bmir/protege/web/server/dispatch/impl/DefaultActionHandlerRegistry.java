@@ -17,8 +17,10 @@ import edu.stanford.bmir.protege.web.server.dispatch.ActionHandlerRegistry;
 import edu.stanford.bmir.protege.web.server.dispatch.handlers.*;
 import edu.stanford.bmir.protege.web.server.entities.LookupEntitiesActionHandler;
 import edu.stanford.bmir.protege.web.server.events.GetProjectEventsActionHandler;
+import edu.stanford.bmir.protege.web.server.events.SetEventInterestActionHandler;
 import edu.stanford.bmir.protege.web.server.frame.*;
 import edu.stanford.bmir.protege.web.server.individuals.CreateNamedIndividualsActionHandler;
+import edu.stanford.bmir.protege.web.server.hierarchy.GetSubclassesPageActionHandler;
 import edu.stanford.bmir.protege.web.server.individuals.GetIndividualsActionHandler;
 import edu.stanford.bmir.protege.web.server.mail.GetEmailAddressActionHandler;
 import edu.stanford.bmir.protege.web.server.mail.MailManager;
@@ -47,7 +49,9 @@ import edu.stanford.bmir.protege.web.shared.dispatch.Action;
 import edu.stanford.bmir.protege.web.shared.dispatch.Result;
 import edu.stanford.bmir.protege.web.shared.entity.LookupEntitiesAction;
 import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsAction;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestAction;
 import edu.stanford.bmir.protege.web.shared.frame.*;
+import edu.stanford.bmir.protege.web.shared.hierarchy.GetSubclassesPageAction;
 import edu.stanford.bmir.protege.web.shared.individualslist.GetIndividualsAction;
 import edu.stanford.bmir.protege.web.shared.mail.GetEmailAddressAction;
 import edu.stanford.bmir.protege.web.shared.mail.SetEmailAddressAction;
@@ -101,6 +105,7 @@ public class DefaultActionHandlerRegistry implements ActionHandlerRegistry {
         register(new LoadProjectActionHandler(), LoadProjectAction.class);
 
         register(new GetProjectEventsActionHandler(), GetProjectEventsAction.class);
+        register(new SetEventInterestActionHandler(), SetEventInterestAction.class);
 
         register(new GetProjectSettingsActionHandler(projectMetadataManager), GetProjectSettingsAction.class);
         register(new SetProjectSettingsActionHandler(projectMetadataManager), SetProjectSettingsAction.class);
@@ -167,6 +172,8 @@ public class DefaultActionHandlerRegistry implements ActionHandlerRegistry {
 
         register(new GetIndividualsActionHandler(), GetIndividualsAction.class);
 
+        register(new GetSubclassesPageActionHandler(), GetSubclassesPageAction.class);
+
         register(new GetEntityRenderingActionHandler(), GetEntityRenderingAction.class);
 
         // Metrics
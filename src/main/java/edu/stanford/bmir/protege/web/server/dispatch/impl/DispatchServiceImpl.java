@@ -10,6 +10,7 @@ import edu.stanford.bmir.protege.web.shared.dispatch.Action;
 import edu.stanford.bmir.protege.web.shared.dispatch.DispatchServiceResultContainer;
 import edu.stanford.bmir.protege.web.shared.dispatch.UpdateObjectAction;
 import edu.stanford.bmir.protege.web.shared.permissions.PermissionDeniedException;
+import edu.stanford.bmir.protege.web.shared.project.ProjectLoadingException;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 
 import javax.servlet.http.HttpServletRequest;
@@ -26,7 +27,7 @@ public class DispatchServiceImpl extends WebProtegeRemoteServiceServlet implemen
     private DispatchServiceHandler executor = new DefaultDispatchServiceExecutor();
 
     @Override
-    public DispatchServiceResultContainer executeAction(Action action) throws ActionExecutionException, PermissionDeniedException {
+    public DispatchServiceResultContainer executeAction(Action action) throws ActionExecutionException, PermissionDeniedException, ProjectLoadingException {
         UserId userId = getUserInSession();
         HttpServletRequest request = getThreadLocalRequest();
         HttpSession session = request.getSession();
@@ -10,14 +10,11 @@ import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.RenderingManager;
 import edu.stanford.bmir.protege.web.shared.entity.*;
 import edu.stanford.bmir.protege.web.shared.search.EntityNameMatchResult;
-import edu.stanford.bmir.protege.web.shared.search.EntityNameMatcher;
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
 import edu.stanford.bmir.protege.web.shared.search.SearchType;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.util.BidirectionalShortFormProvider;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Author: Matthew Horridge<br>
@@ -46,28 +43,17 @@ public class LookupEntitiesActionHandler extends AbstractHasProjectActionHandler
 
     private List<EntityLookupResult> lookupEntities(final OWLAPIProject project, final EntityLookupRequest entityLookupRequest) {
         final RenderingManager rm = project.getRenderingManager();
-        BidirectionalShortFormProvider sfp = rm.getShortFormProvider();
         Set<OWLEntityDataMatch> matches = new TreeSet<OWLEntityDataMatch>();
-        EntityNameMatcher matcher = new EntityNameMatcher(entityLookupRequest.getSearchString());
-        for(String shortForm : sfp.getShortForms()) {
-            Optional<EntityNameMatchResult> result = matcher.findIn(shortForm);
-            if(result.isPresent()) {
-                Set<OWLEntity> entities = sfp.getEntities(shortForm);
-                for(OWLEntity matchingEntity : entities) {
-                    Optional<OWLEntityData> match = toOWLEntityData(matchingEntity, entityLookupRequest, rm);
-                    if(match.isPresent()) {
-                        EntityNameMatchResult resultValue = result.get();
-                        matches.add(new OWLEntityDataMatch(match.get(), resultValue));
-                    }
-                    // BAD
-                    if(matches.size() >= 1000) {
-                        break;
-                    }
-                }
-            }
-            // BAD
-            if(matches.size() >= 1000) {
-                break;
+        // The index returns the top matches, so there is no need to look at every short form
+        List<EntitySearchResult> searchResults = project.getSearchManager().getSearchIndex().search(
+                entityLookupRequest.getSearchString(),
+                entityLookupRequest.getSearchedEntityTypes(),
+                false,
+                entityLookupRequest.getSearchLimit());
+        for(EntitySearchResult searchResult : searchResults) {
+            Optional<OWLEntityData> match = toOWLEntityData(searchResult.getEntity(), entityLookupRequest, rm);
+            if(match.isPresent()) {
+                matches.add(new OWLEntityDataMatch(match.get(), searchResult.getMatchResult()));
             }
         }
         List<EntityLookupResult> result = new ArrayList<EntityLookupResult>();
@@ -0,0 +1,118 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.shared.entity.OWLEntityData;
+import edu.stanford.bmir.protege.web.shared.event.*;
+import edu.stanford.bmir.protege.web.shared.hierarchy.HierarchyChangedEvent;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Filters a list of project events down to the events that match an {@link EventInterest}, and coalesces events
+ *     that supersede each other.
+ * </p>
+ * <p>
+ *     Events that are about entities (frame changes, browser text changes, deprecation and note count changes) are
+ *     kept if the client displays the entity.  Hierarchy changes are kept if the client displays the parent or the
+ *     child.  Project changed events are kept if the client wants all of them, or if their subjects include an entity
+ *     that the client displays.  All other events (hierarchy roots, notes, permissions, watches, users coming and
+ *     going) are always kept.  Of the browser text changes and note count changes for an entity, only the last is
+ *     kept, because it supersedes the others.
+ * </p>
+ */
+public class EventInterestFilter {
+
+    private final EventInterest interest;
+
+    public EventInterestFilter(EventInterest interest) {
+        this.interest = checkNotNull(interest);
+    }
+
+    /**
+     * Filters the specified events.
+     * @param events The events, in the order that they were posted.  Not {@code null}.
+     * @return The events that match the interest, in the order that they were posted.  Not {@code null}.
+     */
+    public List<ProjectEvent<?>> filter(Collection<ProjectEvent<?>> events) {
+        List<ProjectEvent<?>> result = new ArrayList<ProjectEvent<?>>(events.size());
+        // Index in result of the last browser text and note count change for each entity
+        Map<OWLEntity, Integer> browserTextChanges = null;
+        Map<OWLEntity, Integer> notesChanges = null;
+        for(ProjectEvent<?> event : events) {
+            if(event instanceof BrowserTextChangedEvent) {
+                OWLEntity entity = ((BrowserTextChangedEvent) event).getEntity();
+                if(interest.isInterestedIn(entity)) {
+                    if(browserTextChanges == null) {
+                        browserTextChanges = new HashMap<OWLEntity, Integer>();
+                    }
+                    addOrReplace(result, event, entity, browserTextChanges);
+                }
+            }
+            else if(event instanceof EntityNotesChangedEvent) {
+                OWLEntity entity = ((EntityNotesChangedEvent) event).getEntity();
+                if(interest.isInterestedIn(entity)) {
+                    if(notesChanges == null) {
+                        notesChanges = new HashMap<OWLEntity, Integer>();
+                    }
+                    addOrReplace(result, event, entity, notesChanges);
+                }
+            }
+            else if(isInteresting(event)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    private static void addOrReplace(List<ProjectEvent<?>> result, ProjectEvent<?> event, OWLEntity entity, Map<OWLEntity, Integer> indexes) {
+        Integer index = indexes.get(entity);
+        if(index == null) {
+            indexes.put(entity, result.size());
+            result.add(event);
+        }
+        else {
+            result.set(index, event);
+        }
+    }
+
+    private boolean isInteresting(ProjectEvent<?> event) {
+        if(event instanceof EntityFrameChangedEvent) {
+            return interest.isInterestedIn(((EntityFrameChangedEvent<?, ?>) event).getEntity());
+        }
+        else if(event instanceof EntityDeprecatedChangedEvent) {
+            return interest.isInterestedIn(((EntityDeprecatedChangedEvent) event).getEntity());
+        }
+        else if(event instanceof HierarchyChangedEvent) {
+            return isInterestedInAny(((HierarchyChangedEvent<?, ?>) event).getSignature());
+        }
+        else if(event instanceof ProjectChangedEvent) {
+            if(interest.isAllProjectChangesIncluded()) {
+                return true;
+            }
+            for(OWLEntityData subject : ((ProjectChangedEvent) event).getSubjects()) {
+                if(interest.isInterestedIn(subject.getEntity())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        else {
+            return true;
+        }
+    }
+
+    private boolean isInterestedInAny(Set<OWLEntity> entities) {
+        for(OWLEntity entity : entities) {
+            if(interest.isInterestedIn(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
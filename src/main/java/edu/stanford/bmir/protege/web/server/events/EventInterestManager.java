@@ -0,0 +1,70 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Holds the {@link EventInterest}s that the clients of a project have registered, keyed by client id.  A client
+ *     that stops asking for events is forgotten after a while, so the interests of closed browser windows do not
+ *     pile up.
+ * </p>
+ */
+public class EventInterestManager {
+
+    /**
+     * Clients ask for events at least once every polling period, which is much shorter than this.
+     */
+    private static final long EXPIRY_TIME_MINUTES = 10;
+
+    private final Cache<String, ClientInterest> interests = CacheBuilder.newBuilder()
+            .expireAfterAccess(EXPIRY_TIME_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Sets the interest of a client.
+     * @param clientId The client id.  Not {@code null}.
+     * @param userId The user that is using the client.  Not {@code null}.
+     * @param interest The interest.  Not {@code null}.
+     */
+    public void setEventInterest(String clientId, UserId userId, EventInterest interest) {
+        interests.put(checkNotNull(clientId), new ClientInterest(checkNotNull(userId), checkNotNull(interest)));
+    }
+
+    /**
+     * Gets the interest of a client.
+     * @param clientId The client id.  Not {@code null}.
+     * @param userId The user that is asking.  Not {@code null}.
+     * @return The interest that was registered for the client by the same user, or absent if there isn't one, in
+     * which case the client should be sent all events.
+     */
+    public Optional<EventInterest> getEventInterest(String clientId, UserId userId) {
+        ClientInterest clientInterest = interests.getIfPresent(checkNotNull(clientId));
+        if(clientInterest == null || !clientInterest.userId.equals(userId)) {
+            return Optional.absent();
+        }
+        return Optional.of(clientInterest.interest);
+    }
+
+    private static class ClientInterest {
+
+        private final UserId userId;
+
+        private final EventInterest interest;
+
+        private ClientInterest(UserId userId, EventInterest interest) {
+            this.userId = userId;
+            this.interest = interest;
+        }
+    }
+}
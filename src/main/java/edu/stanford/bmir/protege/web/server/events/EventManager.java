@@ -5,16 +5,22 @@ import com.google.web.bindery.event.shared.Event;
 import com.google.web.bindery.event.shared.EventBus;
 import com.google.web.bindery.event.shared.HandlerRegistration;
 import com.google.web.bindery.event.shared.SimpleEventBus;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.HasDispose;
 import edu.stanford.bmir.protege.web.shared.event.SerializableEvent;
 import edu.stanford.bmir.protege.web.shared.events.EventList;
 import edu.stanford.bmir.protege.web.shared.events.EventTag;
 
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -22,39 +28,73 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 20/03/2013
+ * <p>
+ *     Posted events are held in a fixed capacity ring buffer of buckets, one bucket per post, that is indexed by the
+ *     ordinal of the bucket's {@link EventTag}.  Finding the events after a tag is therefore a direct lookup, and
+ *     reading does not take a lock.  Buckets expire after the event life time.  A bucket that is overwritten before
+ *     it has been read, or a post that has too many events to be worth keeping, leaves a gap that is reported to
+ *     readers by marking their {@link EventList} as requiring a resync.
+ * </p>
  */
 public class EventManager<E extends SerializableEvent<?>> implements HasDispose, HasPostEvents<E> {
 
 
     private static final int EVENT_LIST_SIZE_LIMIT = 200;
 
-    private final ReadWriteLock LOCK = new ReentrantReadWriteLock();
-
-    private final Lock READ_LOCK = LOCK.readLock();
+    /**
+     * The default number of buckets that are held.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
 
-    private final Lock WRITE_LOCK = LOCK.writeLock();
+    /**
+     * Serialises posts, and purges, with respect to each other.
+     */
+    private final Lock WRITE_LOCK = new ReentrantLock();
 
+    /**
+     * Signalled when events are posted, and when this manager is disposed.
+     */
+    private final Condition EVENTS_POSTED = WRITE_LOCK.newCondition();
 
+    /**
+     * The bucket with tag ordinal i is held at index i % capacity.
+     */
+    private final AtomicReferenceArray<EventBucket> buckets;
 
-    private final Queue<EventBucket> eventQueue = new LinkedList<EventBucket>();
+    private final int capacity;
 
     private final EventLifeTime eventLifeTime;
 
     private EventBus eventBus = new SimpleEventBus();
 
 
-    private EventTag currentTag = EventTag.getFirst();
+    /**
+     * The tag of the most recently posted bucket.  It is published after the bucket has been stored.
+     */
+    private volatile EventTag currentTag = EventTag.getFirst();
 
-    private final Timer purgeSweepTimer;
+    /**
+     * The ordinal of the most recent bucket that has been purged.  Guarded by {@link #WRITE_LOCK}.
+     */
+    private int purgedOrdinal = 0;
+
+    /**
+     * Guarded by {@link #WRITE_LOCK}.
+     */
+    private boolean disposed = false;
+
+    private final ScheduledFuture<?> purgeSweepFuture;
 
     private List<HandlerRegistration> registeredHandlers = new ArrayList<HandlerRegistration>();
 
 
-    private EventManager(EventLifeTime eventLifeTime) {
+    private EventManager(EventLifeTime eventLifeTime, int capacity, WebProtegeScheduler scheduler) {
+        checkArgument(capacity > 0, "capacity must be greater than zero");
         this.eventLifeTime = checkNotNull(eventLifeTime);
-        purgeSweepTimer = new Timer(true);
+        this.capacity = capacity;
+        this.buckets = new AtomicReferenceArray<EventBucket>(capacity);
         final long eventLifeTimeInMilliseconds = eventLifeTime.getEventLifeTimeInMilliseconds();
-        purgeSweepTimer.scheduleAtFixedRate(new PurgeExpiredEventsTask(), eventLifeTimeInMilliseconds, eventLifeTimeInMilliseconds);
+        purgeSweepFuture = scheduler.scheduleWithFixedDelay(TaskCategory.EVENT_PURGING, new PurgeExpiredEventsTask(), eventLifeTimeInMilliseconds, eventLifeTimeInMilliseconds, TimeUnit.MILLISECONDS);
 
     }
 
@@ -68,10 +108,23 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
      * Creates a new event manager.
      * @param <E> The type of events that can be posted to this manager.
      * @param eventLifeTime The life time of events.
+     * @param scheduler The scheduler that expired events are purged on.  Not {@code null}.
      * @return An fresh event manager for the specified type of events.  Not {@code null}.
      */
-    public static <E extends SerializableEvent<?>> EventManager<E> create(EventLifeTime eventLifeTime) {
-        return new EventManager<E>(eventLifeTime);
+    public static <E extends SerializableEvent<?>> EventManager<E> create(EventLifeTime eventLifeTime, WebProtegeScheduler scheduler) {
+        return create(eventLifeTime, DEFAULT_CAPACITY, scheduler);
+    }
+
+    /**
+     * Creates a new event manager.
+     * @param <E> The type of events that can be posted to this manager.
+     * @param eventLifeTime The life time of events.
+     * @param capacity The number of posts that are held.  Greater than zero.
+     * @param scheduler The scheduler that expired events are purged on.  Not {@code null}.
+     * @return An fresh event manager for the specified type of events.  Not {@code null}.
+     */
+    public static <E extends SerializableEvent<?>> EventManager<E> create(EventLifeTime eventLifeTime, int capacity, WebProtegeScheduler scheduler) {
+        return new EventManager<E>(eventLifeTime, capacity, checkNotNull(scheduler));
     }
 
     /**
@@ -93,23 +146,34 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
      * @throws NullPointerException if {@code events} is {@code null}.
      */
     public EventTag postEvents(List<E> events) {
-        if(events.size() > EVENT_LIST_SIZE_LIMIT) {
-            // Just don't bother
-            return currentTag;
-        }
+        checkNotNull(events, "events must not be null");
+        boolean oversized = events.size() > EVENT_LIST_SIZE_LIMIT;
+        // Coalesced once here, rather than every time the events are read
+        List<E> coalescedEvents = oversized ? Collections.<E>emptyList() : new ArrayList<E>(new LinkedHashSet<E>(events));
+        EventTag tag;
         try {
             WRITE_LOCK.lock();
-            currentTag = currentTag.next();
-            EventBucket e = new EventBucket(System.currentTimeMillis(), checkNotNull(events, "events must not be null"), currentTag);
-            eventQueue.add(e);
+            tag = currentTag.next();
+            EventBucket bucket = new EventBucket(System.currentTimeMillis(), coalescedEvents, tag, oversized);
+            buckets.set(getIndex(tag.getOrdinal()), bucket);
+            currentTag = tag;
+            EVENTS_POSTED.signalAll();
         }
         finally {
             WRITE_LOCK.unlock();
         }
-        for(E event : new LinkedHashSet<E>(events)) {
+        if(oversized) {
+            // Too many to be worth sending around.  Readers are told to resync instead.
+            return tag;
+        }
+        for(E event : coalescedEvents) {
             eventBus.fireEvent(event);
         }
-        return currentTag;
+        return tag;
+    }
+
+    private int getIndex(int ordinal) {
+        return ordinal % capacity;
     }
 
     /**
@@ -122,39 +186,115 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
      */
     public EventList<E> getEventsFromTag(EventTag fromTag) {
         checkNotNull(fromTag, "tag must not be null");
-        List<E> resultList = new ArrayList<E>();
-        final EventTag curTag;
-        try {
-            READ_LOCK.lock();
-            curTag = currentTag;
-            for (EventBucket bucket : eventQueue) {
-                if(bucket.getTag().isGreaterOrEqualTo(fromTag)) {
-                    resultList.addAll(bucket.getEvents());
+        final EventTag curTag = currentTag;
+        final EventTag toTag = curTag.next();
+        final int currentOrdinal = curTag.getOrdinal();
+        // The first bucket has the ordinal 1
+        int fromOrdinal = Math.max(fromTag.getOrdinal(), 1);
+        if(fromOrdinal > currentOrdinal) {
+            return new EventList<E>(fromTag, toTag);
+        }
+        boolean resyncRequired = false;
+        if(currentOrdinal - fromOrdinal >= capacity) {
+            // The buckets at the start of the range have been overwritten.  A reader that asks for events from the
+            // first tag has only just started listening though, so it has not missed anything.
+            resyncRequired = !fromTag.equals(EventTag.getFirst());
+            fromOrdinal = currentOrdinal - capacity + 1;
+        }
+        List<E> firstEvents = null;
+        Set<E> coalescedEvents = null;
+        for(int ordinal = fromOrdinal; ordinal <= currentOrdinal; ordinal++) {
+            EventBucket bucket = buckets.get(getIndex(ordinal));
+            if(bucket == null) {
+                // Expired and purged
+                continue;
+            }
+            if(bucket.getTag().getOrdinal() != ordinal) {
+                // Overwritten by a post that happened while reading
+                resyncRequired = true;
+                continue;
+            }
+            if(bucket.isResyncRequired()) {
+                resyncRequired = true;
+                continue;
+            }
+            if(bucket.getEvents().isEmpty() || bucket.isExpired()) {
+                continue;
+            }
+            // The events in a bucket have already been coalesced, so they only need to be coalesced again if they
+            // come from more than one bucket.
+            if(firstEvents == null) {
+                firstEvents = bucket.getEvents();
+            }
+            else {
+                if(coalescedEvents == null) {
+                    coalescedEvents = new LinkedHashSet<E>(firstEvents);
                 }
+                coalescedEvents.addAll(bucket.getEvents());
             }
         }
-        finally {
-            READ_LOCK.unlock();
-        }
-        final EventTag toTag = curTag.next();
-        if(resultList.isEmpty()) {
+        if(firstEvents == null) {
+            if(resyncRequired) {
+                return new EventList<E>(fromTag, Collections.<E>emptyList(), toTag, true);
+            }
             return new EventList<E>(fromTag, toTag);
         }
-        // Prune duplicates
-        LinkedHashSet<E> events = new LinkedHashSet<E>(resultList);
-        return new EventList<E>(fromTag, events, toTag);
+        Collection<E> events = coalescedEvents != null ? coalescedEvents : firstEvents;
+        return new EventList<E>(fromTag, events, toTag, resyncRequired);
     }
 
-    public EventTag getCurrentTag() {
+    /**
+     * Gets the live events posted to this manager which have a tag greater or equal to the specified tag, waiting
+     * for events to be posted if there are none.  Events are coalesced as they are by {@link #getEventsFromTag(EventTag)}.
+     * @param fromTag The tag that denotes the point after which events will be retrieved.  Not {@code null}.
+     * @param waitTime The maximum time to wait for events.
+     * @param timeUnit The unit of the wait time.  Not {@code null}.
+     * @return The list of live events that happened since the specified tag.  Not {@code null}.  The list is empty
+     * if no events were posted within the wait time, or if this manager was disposed while waiting.
+     * @throws NullPointerException if {@code tag} is {@code null}.
+     */
+    public EventList<E> getEventsFromTag(EventTag fromTag, long waitTime, TimeUnit timeUnit) {
+        final long deadline = System.nanoTime() + timeUnit.toNanos(waitTime);
+        EventList<E> eventList = getEventsFromTag(fromTag);
+        // Events that are posted after the end tag may have already expired, so keep going until some are found
+        while(eventList.isEmpty() && !eventList.isResyncRequired()) {
+            if(!awaitPost(eventList.getEndTag(), deadline)) {
+                break;
+            }
+            eventList = getEventsFromTag(fromTag);
+        }
+        return eventList;
+    }
+
+    /**
+     * Waits until a bucket with the specified tag has been posted.
+     * @return {@code true} if the bucket has been posted, or {@code false} if the deadline passed first.
+     */
+    private boolean awaitPost(EventTag tag, long deadline) {
         try {
-            READ_LOCK.lock();
-            return currentTag;
+            WRITE_LOCK.lock();
+            while(!currentTag.isGreaterOrEqualTo(tag)) {
+                long remaining = deadline - System.nanoTime();
+                if(disposed || remaining <= 0) {
+                    return false;
+                }
+                EVENTS_POSTED.awaitNanos(remaining);
+            }
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
         finally {
-            READ_LOCK.unlock();
+            WRITE_LOCK.unlock();
         }
     }
 
+    public EventTag getCurrentTag() {
+        return currentTag;
+    }
+
 
     public <T extends EventHandler> HandlerRegistration addHandler(Event.Type<T> type, T handler) {
         final HandlerRegistration handlerRegistration = eventBus.addHandler(type, handler);
@@ -179,17 +319,22 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
 
         private final EventTag tag;
 
+        private final boolean resyncRequired;
+
         /**
          * Constructs an EventBucket.
          * @param timestamp The timestamp of the bucket
-         * @param events The list of events in the bucket. Not {@code null}.  A copy of the specified list will be taken.
+         * @param events The list of events in the bucket. Not {@code null}.  The list is not copied, so it must not
+         *               be modified afterwards.
          * @param tag The tag of the bucket.  Not {@code null}.
+         * @param resyncRequired {@code true} if the bucket stands in for events that were discarded.
          * @throws NullPointerException if any parameters are {@code null}.
          */
-        private EventBucket(long timestamp, List<E> events, EventTag tag) {
+        private EventBucket(long timestamp, List<E> events, EventTag tag, boolean resyncRequired) {
             this.timestamp = timestamp;
-            this.events = new ArrayList<E>(checkNotNull(events));
+            this.events = checkNotNull(events);
             this.tag = checkNotNull(tag);
+            this.resyncRequired = resyncRequired;
         }
 
         /**
@@ -216,6 +361,13 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
             return tag;
         }
 
+        /**
+         * Determines whether this bucket stands in for events that were discarded.
+         */
+        public boolean isResyncRequired() {
+            return resyncRequired;
+        }
+
         public boolean isExpired() {
             final long elapsedTime = System.currentTimeMillis() - timestamp;
             return elapsedTime > eventLifeTime.getEventLifeTimeInMilliseconds();
@@ -242,21 +394,25 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Releases the buckets that have expired, so that the events that they hold can be garbage collected.  Buckets
+     * are purged in tag order, stopping at the first bucket that has not expired.
+     */
     private void purgeExpiredEvents() {
         try {
             WRITE_LOCK.lock();
-            while (true) {
-                if (eventQueue.isEmpty()) {
-                    break;
-                }
-                EventBucket bucket = eventQueue.peek();
-                if (bucket.isExpired()) {
-                    eventQueue.poll();
-                }
-                else {
+            int currentOrdinal = currentTag.getOrdinal();
+            // Buckets that have been overwritten don't need to be purged
+            int ordinal = Math.max(purgedOrdinal + 1, currentOrdinal - capacity + 1);
+            for(; ordinal <= currentOrdinal; ordinal++) {
+                int index = getIndex(ordinal);
+                EventBucket bucket = buckets.get(index);
+                if(bucket != null && !bucket.isExpired()) {
                     break;
                 }
+                buckets.set(index, null);
             }
+            purgedOrdinal = ordinal - 1;
         }
         finally {
             WRITE_LOCK.unlock();
@@ -271,7 +427,7 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private class PurgeExpiredEventsTask extends TimerTask {
+    private class PurgeExpiredEventsTask implements Runnable {
 
         @Override
         public void run() {
@@ -281,7 +437,15 @@ public class EventManager<E extends SerializableEvent<?>> implements HasDispose,
 
     @Override
     public void dispose() {
-        purgeSweepTimer.cancel();
+        purgeSweepFuture.cancel(false);
+        try {
+            WRITE_LOCK.lock();
+            disposed = true;
+            EVENTS_POSTED.signalAll();
+        }
+        finally {
+            WRITE_LOCK.unlock();
+        }
         removeRegisteredHandlersFromEventBus();
     }
 
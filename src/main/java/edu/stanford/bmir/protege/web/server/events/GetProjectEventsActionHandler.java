@@ -1,6 +1,7 @@
 package edu.stanford.bmir.protege.web.server.events;
 
 import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
 import edu.stanford.bmir.protege.web.server.dispatch.ActionHandler;
 import edu.stanford.bmir.protege.web.server.dispatch.ExecutionContext;
 import edu.stanford.bmir.protege.web.server.dispatch.RequestContext;
@@ -10,6 +11,7 @@ import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectManager;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
 import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsAction;
 import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsResult;
 import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
@@ -18,16 +20,49 @@ import edu.stanford.bmir.protege.web.shared.events.EventTag;
 import edu.stanford.bmir.protege.web.shared.events.ProjectEventList;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 20/03/2013
+ * <p>
+ *     Requests may ask the handler to wait for events if there are none (long polling), so that clients hear about
+ *     changes as soon as they happen without polling over and over again.  A request that is waiting occupies a
+ *     servlet container thread, so the number of waiting requests is limited.  Requests over the limit are answered
+ *     straight away, and the result tells the client to back off before asking again.
+ * </p>
+ * <p>
+ *     If the client has registered an {@link EventInterest} then only the events that match the interest are
+ *     returned.  A waiting request keeps waiting until an event that matches the interest is posted.
+ * </p>
  */
 public class GetProjectEventsActionHandler implements ActionHandler<GetProjectEventsAction, GetProjectEventsResult> {
 
     public static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(GetProjectEventsActionHandler.class);
 
+    private final int maxWaitTime;
+
+    private final Semaphore waitingRequestPermits;
+
+    public GetProjectEventsActionHandler() {
+        this(WebProtegeProperties.get().getEventsLongPollMaxWaitTime(),
+             WebProtegeProperties.get().getEventsLongPollMaxWaitingRequests());
+    }
+
+    /**
+     * @param maxWaitTime The maximum time, in milliseconds, that a request waits for events.  Zero if requests
+     *                    should not wait.
+     * @param maxWaitingRequests The maximum number of requests that may wait at the same time.
+     */
+    public GetProjectEventsActionHandler(int maxWaitTime, int maxWaitingRequests) {
+        this.maxWaitTime = maxWaitTime;
+        this.waitingRequestPermits = new Semaphore(Math.max(maxWaitingRequests, 0));
+    }
+
     @Override
     public Class<GetProjectEventsAction> getActionClass() {
         return GetProjectEventsAction.class;
@@ -52,10 +87,68 @@ public class GetProjectEventsActionHandler implements ActionHandler<GetProjectEv
         }
         // TODO: FIX THIS.  NEEDS TO GO ELSEWHERE
 //        project.getProjectAccessManager().logAccessForUser(action.getUserId());
-        EventManager<ProjectEvent<?>> eventManager = project.get().getEventManager();
-        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(sinceTag);
-        ProjectEventList projectEventList = ProjectEventList.builder(eventList.getStartTag(), projectId, eventList.getEndTag()).addEvents(eventList.getEvents()).build();
-        return  new GetProjectEventsResult(projectEventList);
+        return getProjectEvents(action, project.get(), executionContext);
+    }
+
+    /**
+     * Gets the events of an active project that match the interest of the client, if it has registered one.
+     */
+    GetProjectEventsResult getProjectEvents(GetProjectEventsAction action, OWLAPIProject project, ExecutionContext executionContext) {
+        final EventTag sinceTag = action.getSinceTag();
+        final ProjectId projectId = action.getProjectId();
+        EventManager<ProjectEvent<?>> eventManager = project.getEventManager();
+        Optional<EventInterestFilter> filter = getFilter(action, project, executionContext);
+        EventList<ProjectEvent<?>> eventList;
+        List<ProjectEvent<?>> events;
+        boolean waitedForEvents = false;
+        int waitTime = Math.min(action.getWaitTime(), maxWaitTime);
+        if(waitTime > 0 && waitingRequestPermits.tryAcquire()) {
+            try {
+                long deadline = System.currentTimeMillis() + waitTime;
+                eventList = eventManager.getEventsFromTag(sinceTag, waitTime, TimeUnit.MILLISECONDS);
+                events = filter(eventList, filter);
+                // Keep waiting if none of the events that were posted are of interest to the client
+                long remaining = deadline - System.currentTimeMillis();
+                while(events.isEmpty() && !eventList.isResyncRequired() && !eventList.isEmpty() && remaining > 0) {
+                    eventList = eventManager.getEventsFromTag(eventList.getEndTag(), remaining, TimeUnit.MILLISECONDS);
+                    events = filter(eventList, filter);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                waitedForEvents = true;
+            }
+            finally {
+                waitingRequestPermits.release();
+            }
+        }
+        else {
+            eventList = eventManager.getEventsFromTag(sinceTag);
+            events = filter(eventList, filter);
+        }
+        // The start tag is always the tag that was asked for, so that the client knows that it has not missed anything
+        ProjectEventList projectEventList = ProjectEventList.builder(sinceTag, projectId, eventList.getEndTag())
+                .addEvents(events)
+                .setResyncRequired(eventList.isResyncRequired())
+                .build();
+        return  new GetProjectEventsResult(projectEventList, waitedForEvents);
+    }
+
+    private static Optional<EventInterestFilter> getFilter(GetProjectEventsAction action, OWLAPIProject project, ExecutionContext executionContext) {
+        Optional<String> clientId = action.getClientId();
+        if(!clientId.isPresent()) {
+            return Optional.absent();
+        }
+        Optional<EventInterest> interest = project.getEventInterestManager().getEventInterest(clientId.get(), executionContext.getUserId());
+        if(!interest.isPresent()) {
+            return Optional.absent();
+        }
+        return Optional.of(new EventInterestFilter(interest.get()));
+    }
+
+    private static List<ProjectEvent<?>> filter(EventList<ProjectEvent<?>> eventList, Optional<EventInterestFilter> filter) {
+        if(!filter.isPresent()) {
+            return eventList.getEvents();
+        }
+        return filter.get().filter(eventList.getEvents());
     }
 
     private static GetProjectEventsResult getEmptyResult(ProjectId projectId, EventTag sinceTag) {
@@ -0,0 +1,400 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Generates and posts the events for the revisions of a project in the background, after the revisions have been
+ *     committed, so that writers do not have to wait for event generation before the next writer can go ahead.
+ * </p>
+ * <p>
+ *     The events for the revisions of a project are generated one revision at a time, in the order in which the
+ *     revisions were submitted, and revisions must be submitted in revision number order.  Event generators run
+ *     while holding the read lock of the project, so that they see a consistent ontology.  They may see revisions
+ *     that were committed after their own revision, so they should only generate events that describe the current
+ *     state of entities (frame changed, deprecated and so on), which are still correct when this is the case.
+ * </p>
+ * <p>
+ *     The number of revisions that are waiting for their events to be generated is limited.  When the limit is
+ *     reached, {@link #submit(RevisionNumber, Callable)} waits until a revision has been processed, which slows
+ *     writers down to the rate at which events can be generated.  A writer waits for a limited time only; after that
+ *     its revision is queued over the limit, so that a stuck generator cannot stop writers.  The number of pending
+ *     revisions, the time that writers waited and the time between submitting a revision and its events being posted
+ *     are recorded.
+ * </p>
+ */
+public class PostCommitEventPipeline implements HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(PostCommitEventPipeline.class);
+
+    private static final long DEFAULT_MAX_BACK_PRESSURE_WAIT_MS = 10000;
+
+    private final ProjectId projectId;
+
+    private final EventManager<ProjectEvent<?>> eventManager;
+
+    private final Lock projectReadLock;
+
+    private final Executor executor;
+
+    private final int maxPendingRevisions;
+
+    private final long maxBackPressureWaitMs;
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a revision has been processed, and when this pipeline is disposed.
+     */
+    private final Condition revisionProcessed = lock.newCondition();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private final Queue<PendingRevision> pendingRevisions = new LinkedList<PendingRevision>();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private boolean drainScheduled = false;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private boolean disposed = false;
+
+    /**
+     * The ticket of the last revision that was submitted.  Guarded by {@link #lock}.
+     */
+    private long lastSubmittedTicket = 0;
+
+    /**
+     * The ticket of the last revision that was processed.  Guarded by {@link #lock}.
+     */
+    private long lastProcessedTicket = 0;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private RevisionNumber lastSubmittedRevision = null;
+
+    // Statistics.  Guarded by lock.
+
+    private int maxPendingRevisionCount = 0;
+
+    private long backPressureWaitCount = 0;
+
+    private long totalBackPressureWaitTime = 0;
+
+    private long backPressureTimeoutCount = 0;
+
+    private long failedRevisionCount = 0;
+
+    private long totalLag = 0;
+
+    private long maxLag = 0;
+
+    /**
+     * Creates a pipeline.
+     * @param projectId The project whose events are generated.  Not {@code null}.
+     * @param eventManager The event manager that events are posted to.  Not {@code null}.
+     * @param projectReadLock The lock that is held while events are generated.  Not {@code null}.
+     * @param executor The executor that runs the pipeline.  Not {@code null}.
+     * @param maxPendingRevisions The maximum number of revisions that can wait for their events to be generated.
+     *                            Greater than zero.
+     */
+    public PostCommitEventPipeline(ProjectId projectId,
+                                   EventManager<ProjectEvent<?>> eventManager,
+                                   Lock projectReadLock,
+                                   Executor executor,
+                                   int maxPendingRevisions) {
+        this(projectId, eventManager, projectReadLock, executor, maxPendingRevisions, DEFAULT_MAX_BACK_PRESSURE_WAIT_MS);
+    }
+
+    /**
+     * Creates a pipeline.
+     * @param projectId The project whose events are generated.  Not {@code null}.
+     * @param eventManager The event manager that events are posted to.  Not {@code null}.
+     * @param projectReadLock The lock that is held while events are generated.  Not {@code null}.
+     * @param executor The executor that runs the pipeline.  Not {@code null}.
+     * @param maxPendingRevisions The maximum number of revisions that can wait for their events to be generated.
+     *                            Greater than zero.
+     * @param maxBackPressureWaitMs The maximum time, in milliseconds, that a writer waits for there to be room for its
+     *                              revision.  Not negative.
+     */
+    public PostCommitEventPipeline(ProjectId projectId,
+                                   EventManager<ProjectEvent<?>> eventManager,
+                                   Lock projectReadLock,
+                                   Executor executor,
+                                   int maxPendingRevisions,
+                                   long maxBackPressureWaitMs) {
+        checkArgument(maxPendingRevisions > 0, "maxPendingRevisions must be greater than zero");
+        checkArgument(maxBackPressureWaitMs >= 0, "maxBackPressureWaitMs must not be negative");
+        this.projectId = checkNotNull(projectId);
+        this.eventManager = checkNotNull(eventManager);
+        this.projectReadLock = checkNotNull(projectReadLock);
+        this.executor = checkNotNull(executor);
+        this.maxPendingRevisions = maxPendingRevisions;
+        this.maxBackPressureWaitMs = maxBackPressureWaitMs;
+    }
+
+    /**
+     * Submits a revision whose events should be generated.  If the maximum number of revisions are already waiting
+     * then this method waits until there is room, or until the maximum back pressure wait time has passed.
+     * @param revisionNumber The revision.  Not {@code null}.  Not less than the revision that was last submitted.
+     * @param eventGenerator Generates the events for the revision.  Not {@code null}.
+     * @return A ticket that can be passed to {@link #awaitPosted(long, long, java.util.concurrent.TimeUnit)}.
+     * @throws IllegalArgumentException if the revision is less than the revision that was last submitted.
+     */
+    public long submit(RevisionNumber revisionNumber, Callable<List<ProjectEvent<?>>> eventGenerator) {
+        checkNotNull(revisionNumber);
+        checkNotNull(eventGenerator);
+        boolean scheduleDrain;
+        long ticket;
+        try {
+            lock.lock();
+            checkArgument(lastSubmittedRevision == null || revisionNumber.compareTo(lastSubmittedRevision) >= 0,
+                          "Revisions must be submitted in order.  %s was submitted after %s", revisionNumber, lastSubmittedRevision);
+            if(pendingRevisions.size() >= maxPendingRevisions && !disposed) {
+                waitForRoom();
+            }
+            lastSubmittedRevision = revisionNumber;
+            ticket = ++lastSubmittedTicket;
+            if(disposed) {
+                lastProcessedTicket = ticket;
+                return ticket;
+            }
+            pendingRevisions.add(new PendingRevision(ticket, revisionNumber, eventGenerator));
+            if(pendingRevisions.size() > maxPendingRevisionCount) {
+                maxPendingRevisionCount = pendingRevisions.size();
+            }
+            scheduleDrain = !drainScheduled;
+            drainScheduled = true;
+        }
+        finally {
+            lock.unlock();
+        }
+        if(scheduleDrain) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        }
+        return ticket;
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    private void waitForRoom() {
+        backPressureWaitCount++;
+        long start = System.currentTimeMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBackPressureWaitMs);
+        try {
+            while(pendingRevisions.size() >= maxPendingRevisions && !disposed) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    // Go over the limit rather than holding the writer (and every writer behind it) indefinitely
+                    backPressureTimeoutCount++;
+                    LOGGER.info(projectId, "Revision events are not being generated.  Queuing a revision over the limit of %d after waiting %d ms", maxPendingRevisions, maxBackPressureWaitMs);
+                    return;
+                }
+                revisionProcessed.awaitNanos(remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            // Go over the limit rather than losing the events of the revision
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            totalBackPressureWaitTime += System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * Waits until the events for the revision with the specified ticket have been posted.
+     * @param ticket The ticket that was returned by {@link #submit(RevisionNumber, Callable)}.
+     * @param timeout The maximum time to wait.
+     * @param timeUnit The unit of the timeout.  Not {@code null}.
+     * @return {@code true} if the events have been posted (or this pipeline has been disposed), otherwise
+     * {@code false}.
+     */
+    public boolean awaitPosted(long ticket, long timeout, TimeUnit timeUnit) {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            lock.lock();
+            while(lastProcessedTicket < ticket && !disposed) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    return false;
+                }
+                revisionProcessed.awaitNanos(remaining);
+            }
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        while(true) {
+            PendingRevision pendingRevision;
+            try {
+                lock.lock();
+                pendingRevision = pendingRevisions.peek();
+                if(pendingRevision == null || disposed) {
+                    drainScheduled = false;
+                    return;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            boolean failed = !process(pendingRevision);
+            try {
+                lock.lock();
+                pendingRevisions.poll();
+                lastProcessedTicket = pendingRevision.getTicket();
+                long lag = System.currentTimeMillis() - pendingRevision.getSubmissionTime();
+                totalLag += lag;
+                if(lag > maxLag) {
+                    maxLag = lag;
+                }
+                if(failed) {
+                    failedRevisionCount++;
+                }
+                revisionProcessed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean process(PendingRevision pendingRevision) {
+        List<ProjectEvent<?>> events;
+        try {
+            projectReadLock.lock();
+            events = pendingRevision.getEventGenerator().call();
+        }
+        catch (Exception e) {
+            LOGGER.info(projectId, "Could not generate the events for revision %s", pendingRevision.getRevisionNumber());
+            LOGGER.severe(e);
+            return false;
+        }
+        finally {
+            projectReadLock.unlock();
+        }
+        eventManager.postEvents(events);
+        return true;
+    }
+
+    public int getPendingRevisionCount() {
+        try {
+            lock.lock();
+            return pendingRevisions.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            lock.lock();
+            disposed = true;
+            pendingRevisions.clear();
+            revisionProcessed.signalAll();
+            LOGGER.info(projectId, "%s", this);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        try {
+            lock.lock();
+            long processed = lastProcessedTicket;
+            return Objects.toStringHelper("PostCommitEventPipeline")
+                    .addValue(projectId)
+                    .add("pending", pendingRevisions.size())
+                    .add("maxPending", maxPendingRevisionCount)
+                    .add("processed", processed)
+                    .add("failed", failedRevisionCount)
+                    .add("meanLag", processed == 0 ? 0 : totalLag / processed)
+                    .add("maxLag", maxLag)
+                    .add("backPressureWaits", backPressureWaitCount)
+                    .add("backPressureWaitTime", totalBackPressureWaitTime)
+                    .add("backPressureTimeouts", backPressureTimeoutCount)
+                    .toString();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static class PendingRevision {
+
+        private final long ticket;
+
+        private final RevisionNumber revisionNumber;
+
+        private final Callable<List<ProjectEvent<?>>> eventGenerator;
+
+        private final long submissionTime = System.currentTimeMillis();
+
+        private PendingRevision(long ticket, RevisionNumber revisionNumber, Callable<List<ProjectEvent<?>>> eventGenerator) {
+            this.ticket = ticket;
+            this.revisionNumber = revisionNumber;
+            this.eventGenerator = eventGenerator;
+        }
+
+        public long getTicket() {
+            return ticket;
+        }
+
+        public RevisionNumber getRevisionNumber() {
+            return revisionNumber;
+        }
+
+        public Callable<List<ProjectEvent<?>>> getEventGenerator() {
+            return eventGenerator;
+        }
+
+        public long getSubmissionTime() {
+            return submissionTime;
+        }
+    }
+}
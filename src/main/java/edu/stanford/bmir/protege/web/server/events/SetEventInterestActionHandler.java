@@ -0,0 +1,34 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.server.dispatch.AbstractHasProjectActionHandler;
+import edu.stanford.bmir.protege.web.server.dispatch.ExecutionContext;
+import edu.stanford.bmir.protege.web.server.dispatch.RequestContext;
+import edu.stanford.bmir.protege.web.server.dispatch.RequestValidator;
+import edu.stanford.bmir.protege.web.server.dispatch.validators.NullValidator;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestAction;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestResult;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class SetEventInterestActionHandler extends AbstractHasProjectActionHandler<SetEventInterestAction, SetEventInterestResult> {
+
+    @Override
+    public Class<SetEventInterestAction> getActionClass() {
+        return SetEventInterestAction.class;
+    }
+
+    @Override
+    protected RequestValidator<SetEventInterestAction> getAdditionalRequestValidator(SetEventInterestAction action, RequestContext requestContext) {
+        return NullValidator.get();
+    }
+
+    @Override
+    protected SetEventInterestResult execute(SetEventInterestAction action, OWLAPIProject project, ExecutionContext executionContext) {
+        project.getEventInterestManager().setEventInterest(action.getClientId(), executionContext.getUserId(), action.getEventInterest());
+        return new SetEventInterestResult();
+    }
+}
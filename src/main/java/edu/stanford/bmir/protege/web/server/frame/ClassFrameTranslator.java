@@ -48,7 +48,7 @@ public class ClassFrameTranslator implements EntityFrameTranslator<ClassFrame, O
                 rootOntology,
                 relevantAxioms,
                 PropertyValueState.ASSERTED));
-        for (OWLClass ancestor : project.getClassHierarchyProvider().getAncestors(subject)) {
+        for (OWLClass ancestor : project.getClassHierarchyIndex().getAncestors(subject)) {
             if (!ancestor.equals(subject)) {
                 propertyValues.addAll(translateAxiomsToPropertyValues(ancestor,
                         rootOntology,
@@ -16,14 +16,14 @@ import edu.stanford.bmir.protege.web.server.dispatch.validators.UserHasProjectRe
 import edu.stanford.bmir.protege.web.server.inject.ManchesterSyntaxParsingContextModule;
 import edu.stanford.bmir.protege.web.server.inject.ProjectModule;
 import edu.stanford.bmir.protege.web.server.mansyntax.ManchesterSyntaxFrameParser;
+import edu.stanford.bmir.protege.web.server.owlapi.EntityCompletionIndex;
 import edu.stanford.bmir.protege.web.server.owlapi.EscapingShortFormProvider;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.mansyntax.WebProtegeOntologyIRIShortFormProvider;
 import edu.stanford.bmir.protege.web.shared.frame.GetManchesterSyntaxFrameCompletionsAction;
 import edu.stanford.bmir.protege.web.shared.frame.GetManchesterSyntaxFrameCompletionsResult;
 import edu.stanford.bmir.protege.web.shared.renderer.ManchesterSyntaxKeywords;
-import edu.stanford.bmir.protege.web.shared.search.EntityNameMatchResult;
-import edu.stanford.bmir.protege.web.shared.search.EntityNameMatcher;
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
 import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntax;
 import org.semanticweb.owlapi.expression.ParserException;
 import org.semanticweb.owlapi.model.EntityType;
@@ -96,36 +96,16 @@ public class GetManchesterSyntaxFrameCompletionsActionHandler
     }
 
     private List<AutoCompletionChoice> getEntityAutocompletionChoices(GetManchesterSyntaxFrameCompletionsAction action, OWLAPIProject project, ParserException e, EditorPosition fromPos, EditorPosition toPos, String lastWordPrefix) {
-        List<AutoCompletionMatch> matches = Lists.newArrayList();
+        List<AutoCompletionChoice> result = Lists.newArrayList();
         Set<EntityType<?>> expectedEntityTypes = Sets.newHashSet(ManchesterSyntaxFrameParser.getExpectedEntityTypes(e));
         if(!expectedEntityTypes.isEmpty()) {
             BidirectionalShortFormProvider shortFormProvider = project.getRenderingManager().getShortFormProvider();
-            for(String shortForm : shortFormProvider.getShortForms()) {
-                EntityNameMatcher entityNameMatcher = new EntityNameMatcher(lastWordPrefix);
-                Optional<EntityNameMatchResult> match = entityNameMatcher.findIn(shortForm);
-                if(match.isPresent()) {
-                    Set<OWLEntity> entities = shortFormProvider.getEntities(shortForm);
-                    for(OWLEntity entity : entities) {
-                        if(expectedEntityTypes.contains(entity.getEntityType())) {
-                            EscapingShortFormProvider escapingShortFormProvider = new EscapingShortFormProvider(shortFormProvider);
-                            AutoCompletionChoice choice = new AutoCompletionChoice(escapingShortFormProvider.getShortForm(entity), shortForm, "", fromPos, toPos);
-                            AutoCompletionMatch autoCompletionMatch = new AutoCompletionMatch(
-                                    match.get(),
-                                        choice
-                            );
-                            matches.add(autoCompletionMatch);
-                        }
-                    }
-
-                }
-            }
-        }
-        Collections.sort(matches);
-        List<AutoCompletionChoice> result = Lists.newArrayList();
-        for(AutoCompletionMatch match : matches) {
-            result.add(match.getAutoCompletionChoice());
-            if(result.size() == action.getEntityTypeSuggestLimit()) {
-                break;
+            EscapingShortFormProvider escapingShortFormProvider = new EscapingShortFormProvider(shortFormProvider);
+            // The completion index returns ranked completions and only looks at a bounded number of candidates
+            EntityCompletionIndex completionIndex = project.getRenderingManager().getEntityCompletionIndex();
+            for(EntitySearchResult completion : completionIndex.getCompletions(lastWordPrefix, expectedEntityTypes, action.getEntityTypeSuggestLimit())) {
+                OWLEntity entity = completion.getEntity();
+                result.add(new AutoCompletionChoice(escapingShortFormProvider.getShortForm(entity), completion.getShortForm(), "", fromPos, toPos));
             }
         }
         return result;
@@ -203,34 +183,4 @@ public class GetManchesterSyntaxFrameCompletionsActionHandler
     }
 
 
-    private static class AutoCompletionMatch implements Comparable<AutoCompletionMatch> {
-
-        private EntityNameMatchResult matchResult;
-
-        private AutoCompletionChoice autoCompletionChoice;
-
-        private AutoCompletionMatch(EntityNameMatchResult matchResult, AutoCompletionChoice autoCompletionChoice) {
-            this.matchResult = matchResult;
-            this.autoCompletionChoice = autoCompletionChoice;
-        }
-
-        public EntityNameMatchResult getMatchResult() {
-            return matchResult;
-        }
-
-        public AutoCompletionChoice getAutoCompletionChoice() {
-            return autoCompletionChoice;
-        }
-
-        @Override
-        public int compareTo(AutoCompletionMatch autoCompletionMatch) {
-            int diff = this.matchResult.compareTo(autoCompletionMatch.matchResult);
-            if(diff != 0) {
-                return diff;
-            }
-            return autoCompletionChoice.getDisplayText().compareToIgnoreCase(autoCompletionMatch.autoCompletionChoice.getDisplayText());
-        }
-    }
-
-
 }
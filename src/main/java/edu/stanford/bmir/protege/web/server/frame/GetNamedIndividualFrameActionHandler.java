@@ -1,5 +1,6 @@
 package edu.stanford.bmir.protege.web.server.frame;
 
+import com.google.common.base.Optional;
 import edu.stanford.bmir.protege.web.client.dispatch.actions.GetNamedIndividualFrameAction;
 import edu.stanford.bmir.protege.web.client.ui.frame.LabelledFrame;
 import edu.stanford.bmir.protege.web.server.dispatch.ActionHandler;
@@ -11,6 +12,7 @@ import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectManager;
 import edu.stanford.bmir.protege.web.shared.dispatch.GetObjectResult;
 import edu.stanford.bmir.protege.web.shared.frame.NamedIndividualFrame;
+import edu.stanford.bmir.protege.web.shared.project.ProjectLoadingException;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 
 /**
@@ -39,8 +41,11 @@ public class GetNamedIndividualFrameActionHandler implements ActionHandler<GetNa
 
     @Override
     public GetObjectResult<LabelledFrame<NamedIndividualFrame>> execute(GetNamedIndividualFrameAction action, ExecutionContext executionContext) {
-        OWLAPIProject project = OWLAPIProjectManager.getProjectManager().getProject(action.getProjectId());
-        FrameActionResultTranslator<NamedIndividualFrame, OWLNamedIndividual> t = new FrameActionResultTranslator<NamedIndividualFrame, OWLNamedIndividual>(action.getSubject(), project, TRANSLATOR);
+        Optional<OWLAPIProject> project = OWLAPIProjectManager.getProjectManager().getProjectIfLoaded(action.getProjectId());
+        if (!project.isPresent()) {
+            throw new ProjectLoadingException(action.getProjectId());
+        }
+        FrameActionResultTranslator<NamedIndividualFrame, OWLNamedIndividual> t = new FrameActionResultTranslator<NamedIndividualFrame, OWLNamedIndividual>(action.getSubject(), project.get(), TRANSLATOR);
         return new GetObjectResult<LabelledFrame<NamedIndividualFrame>>(t.doIT());
     }
 
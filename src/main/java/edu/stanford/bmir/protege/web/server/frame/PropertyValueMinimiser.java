@@ -46,13 +46,13 @@ public class PropertyValueMinimiser {
     private PropertyValueSubsumptionChecker getPropertyValueSubsumptionChecker(OWLOntology ontology,
                                                                                OWLAPIProject project) {
         ClassClassAncestorChecker classAncestorChecker = new ClassClassAncestorChecker(project
-                .getClassHierarchyProvider());
+                .getClassHierarchyIndex());
         ObjectPropertyObjectPropertyAncestorChecker objectPropertyAncestorChecker = new
                 ObjectPropertyObjectPropertyAncestorChecker(
-                project.getObjectPropertyHierarchyProvider());
+                project.getObjectPropertyHierarchyIndex());
         DataPropertyDataPropertyAncestorChecker dataPropertyAncestorChecker = new
                 DataPropertyDataPropertyAncestorChecker(
-                project.getDataPropertyHierarchyProvider());
+                project.getDataPropertyHierarchyIndex());
         NamedIndividualClassAncestorChecker namedIndividualClassAncestorChecker = new
                 NamedIndividualClassAncestorChecker(
                 ontology,
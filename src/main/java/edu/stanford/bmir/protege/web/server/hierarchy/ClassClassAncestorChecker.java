@@ -1,6 +1,5 @@
 package edu.stanford.bmir.protege.web.server.hierarchy;
 
-import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
 import org.semanticweb.owlapi.model.OWLClass;
 
 /**
@@ -8,14 +7,14 @@ import org.semanticweb.owlapi.model.OWLClass;
  */
 public class ClassClassAncestorChecker implements HasHasAncestor<OWLClass, OWLClass> {
 
-    private OWLObjectHierarchyProvider<OWLClass> hierarchyProvider;
+    private HasHasAncestor<OWLClass, OWLClass> hierarchyIndex;
 
-    public ClassClassAncestorChecker(OWLObjectHierarchyProvider<OWLClass> hierarchyProvider) {
-        this.hierarchyProvider = hierarchyProvider;
+    public ClassClassAncestorChecker(HasHasAncestor<OWLClass, OWLClass> hierarchyIndex) {
+        this.hierarchyIndex = hierarchyIndex;
     }
 
     @Override
     public boolean hasAncestor(OWLClass node, OWLClass node2) {
-        return node.equals(node2) || hierarchyProvider.getAncestors(node).contains(node2);
+        return node.equals(node2) || hierarchyIndex.hasAncestor(node, node2);
     }
 }
@@ -1,6 +1,5 @@
 package edu.stanford.bmir.protege.web.server.hierarchy;
 
-import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 
 /**
@@ -8,15 +7,14 @@ import org.semanticweb.owlapi.model.OWLDataProperty;
  */
 public class DataPropertyDataPropertyAncestorChecker implements HasHasAncestor<OWLDataProperty, OWLDataProperty> {
 
-    private OWLObjectHierarchyProvider<OWLDataProperty> hierarchyProvider;
+    private HasHasAncestor<OWLDataProperty, OWLDataProperty> hierarchyIndex;
 
-    public DataPropertyDataPropertyAncestorChecker(OWLObjectHierarchyProvider<OWLDataProperty>
-                                                           hierarchyProvider) {
-        this.hierarchyProvider = hierarchyProvider;
+    public DataPropertyDataPropertyAncestorChecker(HasHasAncestor<OWLDataProperty, OWLDataProperty> hierarchyIndex) {
+        this.hierarchyIndex = hierarchyIndex;
     }
 
     @Override
     public boolean hasAncestor(OWLDataProperty node, OWLDataProperty node2) {
-        return node.equals(node2) || hierarchyProvider.getAncestors(node).contains(node2);
+        return node.equals(node2) || hierarchyIndex.hasAncestor(node, node2);
     }
 }
@@ -0,0 +1,34 @@
+package edu.stanford.bmir.protege.web.server.hierarchy;
+
+import edu.stanford.bmir.protege.web.server.dispatch.AbstractHasProjectActionHandler;
+import edu.stanford.bmir.protege.web.server.dispatch.ExecutionContext;
+import edu.stanford.bmir.protege.web.server.dispatch.RequestContext;
+import edu.stanford.bmir.protege.web.server.dispatch.RequestValidator;
+import edu.stanford.bmir.protege.web.server.dispatch.validators.UserHasProjectReadPermissionValidator;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.shared.hierarchy.GetSubclassesPageAction;
+import edu.stanford.bmir.protege.web.shared.hierarchy.GetSubclassesPageResult;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class GetSubclassesPageActionHandler extends AbstractHasProjectActionHandler<GetSubclassesPageAction, GetSubclassesPageResult> {
+
+    @Override
+    protected RequestValidator<GetSubclassesPageAction> getAdditionalRequestValidator(GetSubclassesPageAction action, RequestContext requestContext) {
+        return UserHasProjectReadPermissionValidator.get();
+    }
+
+    @Override
+    protected GetSubclassesPageResult execute(GetSubclassesPageAction action, OWLAPIProject project, ExecutionContext executionContext) {
+        SubclassesPager pager = new SubclassesPager(project, executionContext.getUserId());
+        return new GetSubclassesPageResult(pager.getSubclasses(action.getParent(), action.getPageRequest()));
+    }
+
+    @Override
+    public Class<GetSubclassesPageAction> getActionClass() {
+        return GetSubclassesPageAction.class;
+    }
+}
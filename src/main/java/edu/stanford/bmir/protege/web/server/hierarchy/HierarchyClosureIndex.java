@@ -0,0 +1,293 @@
+package edu.stanford.bmir.protege.web.server.hierarchy;
+
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Caches the transitive closure of a hierarchy so that ancestor and descendant queries do not walk the
+ *     underlying ontologies each time they are asked.  Each node is given a compact int id.  The parents and children
+ *     of a node are held as arrays of ids, and the ancestors and descendants of a node are held as bit sets of ids.
+ *     All of these are computed lazily, from the hierarchy provider, the first time that they are needed.  After that,
+ *     an ancestor test is a single bit set lookup.
+ * </p>
+ * <p>
+ *     The index listens to the hierarchy provider.  When the provider reports that a node has changed, the parents and
+ *     children of that node are refreshed.  If its parents have changed then any ancestor closure that contains the
+ *     node is dropped, and if its children have changed then any descendant closure that contains the node is
+ *     dropped.  When the provider reports that the whole hierarchy has changed everything is dropped.  Dropped
+ *     entries are recomputed on demand.
+ * </p>
+ * <p>
+ *     Node ids are not reused individually, so that the ids held in cached closures stay valid.  Instead, ids are
+ *     reclaimed by dropping the whole index once the number of node changes since it was last dropped exceeds the
+ *     number of nodes in it.  This bounds the space taken up by nodes that have been removed from the hierarchy.
+ * </p>
+ * <p>
+ *     This class is thread safe.
+ * </p>
+ */
+public class HierarchyClosureIndex<N extends OWLObject> implements HasGetAncestors<N>, HasHasAncestor<N, N> {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final OWLObjectHierarchyProvider<N> hierarchyProvider;
+
+    private final OWLObjectHierarchyProviderListener<N> hierarchyProviderListener;
+
+    private final Map<N, Integer> node2Id = new HashMap<N, Integer>();
+
+    private final List<N> id2Node = new ArrayList<N>();
+
+    private final List<int[]> parentIds = new ArrayList<int[]>();
+
+    private final List<int[]> childIds = new ArrayList<int[]>();
+
+    private final List<BitSet> ancestorClosures = new ArrayList<BitSet>();
+
+    private final List<BitSet> descendantClosures = new ArrayList<BitSet>();
+
+    private int nodeChangeCount = 0;
+
+    public HierarchyClosureIndex(OWLObjectHierarchyProvider<N> hierarchyProvider) {
+        this.hierarchyProvider = checkNotNull(hierarchyProvider);
+        this.hierarchyProviderListener = new OWLObjectHierarchyProviderListener<N>() {
+            @Override
+            public void nodeChanged(N node) {
+                handleNodeChanged(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+                handleHierarchyChanged();
+            }
+        };
+        hierarchyProvider.addListener(hierarchyProviderListener);
+    }
+
+    public void dispose() {
+        hierarchyProvider.removeListener(hierarchyProviderListener);
+    }
+
+    /**
+     * Determines whether one node is an ancestor of another.
+     * @param node The node.  Not {@code null}.
+     * @param ancestor The possible ancestor.  Not {@code null}.
+     * @return {@code true} if {@code ancestor} is an ancestor of {@code node}, otherwise {@code false}.  A node is only
+     * an ancestor of itself if it is part of a cycle.
+     */
+    @Override
+    public synchronized boolean hasAncestor(N node, N ancestor) {
+        BitSet closure = getAncestorClosure(getId(node));
+        // Computing the closure assigns ids to every ancestor, so a node without an id cannot be an ancestor
+        Integer ancestorId = node2Id.get(ancestor);
+        return ancestorId != null && closure.get(ancestorId);
+    }
+
+    /**
+     * Gets the ancestors of a node.
+     * @param node The node.  Not {@code null}.
+     * @return A fresh, modifiable, set of the ancestors of the node.
+     */
+    @Override
+    public synchronized Set<N> getAncestors(N node) {
+        return toNodes(getAncestorClosure(getId(node)));
+    }
+
+    /**
+     * Gets the descendants of a node.
+     * @param node The node.  Not {@code null}.
+     * @return A fresh, modifiable, set of the descendants of the node.
+     */
+    public synchronized Set<N> getDescendants(N node) {
+        return toNodes(getDescendantClosure(getId(node)));
+    }
+
+    public synchronized Set<N> getParents(N node) {
+        return toNodes(getParentIds(getId(node)));
+    }
+
+    public synchronized Set<N> getChildren(N node) {
+        return toNodes(getChildIds(getId(node)));
+    }
+
+    private synchronized void handleNodeChanged(N node) {
+        Integer id = node2Id.get(node);
+        if (id == null) {
+            return;
+        }
+        nodeChangeCount++;
+        if (nodeChangeCount > id2Node.size()) {
+            clear();
+            return;
+        }
+        int[] previousParentIds = parentIds.get(id);
+        int[] previousChildIds = childIds.get(id);
+        parentIds.set(id, null);
+        childIds.set(id, null);
+        // Any closure that passes through the node may have changed, but only in the direction in which the node's
+        // edges have changed.  For example, a new child of owl:Thing does not change the ancestors of anything that
+        // already has owl:Thing as an ancestor.  The other end of an edge that was added or removed is also reported
+        // as changed, which takes care of closures that did not previously pass through this node.
+        if (previousParentIds == null || !sameIds(previousParentIds, getParentIds(id))) {
+            invalidateClosuresContaining(ancestorClosures, id);
+        }
+        if (previousChildIds == null || !sameIds(previousChildIds, getChildIds(id))) {
+            invalidateClosuresContaining(descendantClosures, id);
+        }
+    }
+
+    private synchronized void handleHierarchyChanged() {
+        clear();
+    }
+
+    private void clear() {
+        node2Id.clear();
+        id2Node.clear();
+        parentIds.clear();
+        childIds.clear();
+        ancestorClosures.clear();
+        descendantClosures.clear();
+        nodeChangeCount = 0;
+    }
+
+    private static boolean sameIds(int[] ids, int[] otherIds) {
+        if (ids.length != otherIds.length) {
+            return false;
+        }
+        int[] sortedIds = ids.clone();
+        int[] sortedOtherIds = otherIds.clone();
+        Arrays.sort(sortedIds);
+        Arrays.sort(sortedOtherIds);
+        return Arrays.equals(sortedIds, sortedOtherIds);
+    }
+
+    private static void invalidateClosuresContaining(List<BitSet> closures, int id) {
+        closures.set(id, null);
+        for (int i = 0; i < closures.size(); i++) {
+            BitSet closure = closures.get(i);
+            if (closure != null && closure.get(id)) {
+                closures.set(i, null);
+            }
+        }
+    }
+
+    private int getId(N node) {
+        Integer id = node2Id.get(checkNotNull(node));
+        if (id == null) {
+            id = id2Node.size();
+            node2Id.put(node, id);
+            id2Node.add(node);
+            parentIds.add(null);
+            childIds.add(null);
+            ancestorClosures.add(null);
+            descendantClosures.add(null);
+        }
+        return id;
+    }
+
+    private int[] getParentIds(int id) {
+        int[] ids = parentIds.get(id);
+        if (ids == null) {
+            ids = toIds(hierarchyProvider.getParents(id2Node.get(id)));
+            parentIds.set(id, ids);
+        }
+        return ids;
+    }
+
+    private int[] getChildIds(int id) {
+        int[] ids = childIds.get(id);
+        if (ids == null) {
+            ids = toIds(hierarchyProvider.getChildren(id2Node.get(id)));
+            childIds.set(id, ids);
+        }
+        return ids;
+    }
+
+    private BitSet getAncestorClosure(int id) {
+        BitSet closure = ancestorClosures.get(id);
+        if (closure == null) {
+            closure = computeClosure(id, true);
+            ancestorClosures.set(id, closure);
+        }
+        return closure;
+    }
+
+    private BitSet getDescendantClosure(int id) {
+        BitSet closure = descendantClosures.get(id);
+        if (closure == null) {
+            closure = computeClosure(id, false);
+            descendantClosures.set(id, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * Computes the closure of a node by walking its parents (or children).  The walk does not go past any node whose
+     * closure has already been computed, because that closure can be added in one go.
+     */
+    private BitSet computeClosure(int id, boolean ancestors) {
+        List<BitSet> cachedClosures = ancestors ? ancestorClosures : descendantClosures;
+        BitSet closure = new BitSet();
+        Deque<Integer> stack = new ArrayDeque<Integer>();
+        pushAll(stack, ancestors ? getParentIds(id) : getChildIds(id));
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (closure.get(current)) {
+                continue;
+            }
+            closure.set(current);
+            BitSet cachedClosure = cachedClosures.get(current);
+            if (cachedClosure != null) {
+                closure.or(cachedClosure);
+            }
+            else {
+                pushAll(stack, ancestors ? getParentIds(current) : getChildIds(current));
+            }
+        }
+        return closure;
+    }
+
+    private static void pushAll(Deque<Integer> stack, int[] ids) {
+        for (int id : ids) {
+            stack.push(id);
+        }
+    }
+
+    private int[] toIds(Set<N> nodes) {
+        if (nodes.isEmpty()) {
+            return NO_IDS;
+        }
+        int[] ids = new int[nodes.size()];
+        int index = 0;
+        for (N node : nodes) {
+            ids[index] = getId(node);
+            index++;
+        }
+        return ids;
+    }
+
+    private Set<N> toNodes(BitSet ids) {
+        Set<N> result = new HashSet<N>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(id2Node.get(id));
+        }
+        return result;
+    }
+
+    private Set<N> toNodes(int[] ids) {
+        Set<N> result = new HashSet<N>(ids.length);
+        for (int id : ids) {
+            result.add(id2Node.get(id));
+        }
+        return result;
+    }
+}
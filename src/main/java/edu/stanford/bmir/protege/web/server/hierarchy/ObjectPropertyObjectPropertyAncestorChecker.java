@@ -1,6 +1,5 @@
 package edu.stanford.bmir.protege.web.server.hierarchy;
 
-import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 
 /**
@@ -8,15 +7,14 @@ import org.semanticweb.owlapi.model.OWLObjectProperty;
  */
 public class ObjectPropertyObjectPropertyAncestorChecker implements HasHasAncestor<OWLObjectProperty, OWLObjectProperty> {
 
-    private OWLObjectHierarchyProvider<OWLObjectProperty> hierarchyProvider;
+    private HasHasAncestor<OWLObjectProperty, OWLObjectProperty> hierarchyIndex;
 
-    public ObjectPropertyObjectPropertyAncestorChecker(OWLObjectHierarchyProvider<OWLObjectProperty>
-                                                               hierarchyProvider) {
-        this.hierarchyProvider = hierarchyProvider;
+    public ObjectPropertyObjectPropertyAncestorChecker(HasHasAncestor<OWLObjectProperty, OWLObjectProperty> hierarchyIndex) {
+        this.hierarchyIndex = hierarchyIndex;
     }
 
     @Override
     public boolean hasAncestor(OWLObjectProperty node, OWLObjectProperty node2) {
-        return node.equals(node2) || hierarchyProvider.getAncestors(node).contains(node2);
+        return node.equals(node2) || hierarchyIndex.hasAncestor(node, node2);
     }
 }
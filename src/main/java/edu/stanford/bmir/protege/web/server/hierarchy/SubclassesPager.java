@@ -0,0 +1,132 @@
+package edu.stanford.bmir.protege.web.server.hierarchy;
+
+import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
+import edu.stanford.bmir.protege.web.client.rpc.data.SubclassEntityData;
+import edu.stanford.bmir.protege.web.client.rpc.data.ValueType;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.server.owlapi.RenderingManager;
+import edu.stanford.bmir.protege.web.server.pagination.Pager;
+import edu.stanford.bmir.protege.web.shared.pagination.Page;
+import edu.stanford.bmir.protege.web.shared.pagination.PageRequest;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import edu.stanford.bmir.protege.web.shared.watches.Watch;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Lists the subclasses of a class, as {@link SubclassEntityData} objects, a page at a time.  The subclasses are
+ *     sorted (non-deprecated classes first, then by browser text) using only their browser text and deprecation
+ *     status.  The more expensive details (subclass counts, note counts and watches) are only computed for the
+ *     subclasses that are on the requested page.
+ * </p>
+ */
+public class SubclassesPager {
+
+    private final OWLAPIProject project;
+
+    private final UserId userId;
+
+    /**
+     * @param project The project that contains the classes.  Not {@code null}.
+     * @param userId The user that the subclasses are being listed for.  This is used to look up watches.
+     *               Not {@code null}.
+     */
+    public SubclassesPager(OWLAPIProject project, UserId userId) {
+        this.project = checkNotNull(project);
+        this.userId = checkNotNull(userId);
+    }
+
+    /**
+     * Gets a page of the subclasses of a class.
+     * @param parent The class.  Not {@code null}.
+     * @param pageRequest The page request.  Not {@code null}.  If the requested page is past the last page (because
+     *                    subclasses have been removed since the previous page was requested) then the last page is
+     *                    returned.  If the requested page number is less than one then the first page is returned.
+     * @return The page of subclasses.  Not {@code null}.
+     */
+    public Page<SubclassEntityData> getSubclasses(OWLClass parent, PageRequest pageRequest) {
+        HierarchyClosureIndex<OWLClass> hierarchyIndex = project.getClassHierarchyIndex();
+        RenderingManager rm = project.getRenderingManager();
+        // Nothing can be deprecated if owl:deprecated isn't used, so don't look up the annotations of every subclass
+        boolean checkForDeprecated = project.getRootOntology().containsAnnotationPropertyInSignature(OWLRDFVocabulary.OWL_DEPRECATED.getIRI(), true);
+        List<SortableSubclass> subclasses = new ArrayList<SortableSubclass>();
+        for (OWLClass subclass : hierarchyIndex.getChildren(parent)) {
+            boolean deprecated = checkForDeprecated && project.isDeprecated(subclass);
+            subclasses.add(new SortableSubclass(subclass, rm.getBrowserText(subclass), deprecated));
+        }
+        Collections.sort(subclasses);
+        Pager<SortableSubclass> pager = Pager.getPagerForPageSize(subclasses, pageRequest.getPageSize());
+        int pageNumber = Math.max(1, Math.min(pageRequest.getPageNumber(), pager.getPageCount()));
+        Page<SortableSubclass> page = pager.getPage(pageNumber);
+        List<SubclassEntityData> pageElements = new ArrayList<SubclassEntityData>();
+        for (SortableSubclass subclass : page) {
+            pageElements.add(toSubclassEntityData(subclass, hierarchyIndex));
+        }
+        return new Page<SubclassEntityData>(page.getPageNumber(), page.getPageCount(), pageElements);
+    }
+
+    private SubclassEntityData toSubclassEntityData(SortableSubclass subclass, HierarchyClosureIndex<OWLClass> hierarchyIndex) {
+        OWLClass cls = subclass.getOWLClass();
+        int subclassCount = hierarchyIndex.getChildren(cls).size();
+        SubclassEntityData data = new SubclassEntityData(cls.getIRI().toString(), subclass.getBrowserText(), new HashSet<EntityData>(0), subclassCount);
+        data.setDeprecated(subclass.isDeprecated());
+        data.setLocalAnnotationsCount(project.getNotesManager().getIndirectNotesCount(cls));
+        Set<Watch<?>> directWatches = project.getWatchManager().getDirectWatches(cls, userId);
+        if (!directWatches.isEmpty()) {
+            data.setWatches(directWatches);
+        }
+        data.setValueType(ValueType.Cls);
+        return data;
+    }
+
+
+    private static class SortableSubclass implements Comparable<SortableSubclass> {
+
+        private final OWLClass cls;
+
+        private final String browserText;
+
+        private final boolean deprecated;
+
+        private SortableSubclass(OWLClass cls, String browserText, boolean deprecated) {
+            this.cls = cls;
+            this.browserText = browserText;
+            this.deprecated = deprecated;
+        }
+
+        public OWLClass getOWLClass() {
+            return cls;
+        }
+
+        public String getBrowserText() {
+            return browserText;
+        }
+
+        public boolean isDeprecated() {
+            return deprecated;
+        }
+
+        @Override
+        public int compareTo(SortableSubclass other) {
+            if (this.deprecated != other.deprecated) {
+                return this.deprecated ? 1 : -1;
+            }
+            return stripQuote(this.browserText).compareToIgnoreCase(stripQuote(other.browserText));
+        }
+
+        private static String stripQuote(String browserText) {
+            if (browserText.startsWith("'")) {
+                return browserText.substring(1);
+            }
+            return browserText;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
 import edu.stanford.bmir.protege.web.server.mail.MailManager;
 import edu.stanford.bmir.protege.web.server.mail.WebProtegeLoggerMessagingExceptionHandler;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 
 import javax.servlet.ServletContext;
 import java.io.*;
@@ -58,7 +59,7 @@ public class LoadMailProperties implements ConfigurationTask {
         String appName = WebProtegeProperties.get().getApplicationName();
         String hostName = WebProtegeProperties.get().getApplicationHostName();
         App.get().setMailManager(new MailManager(appName, hostName,
-                mailProperties, new WebProtegeLoggerMessagingExceptionHandler()));
+                mailProperties, new WebProtegeLoggerMessagingExceptionHandler(), WebProtegeScheduler.get()));
 
     }
 
@@ -0,0 +1,569 @@
+package edu.stanford.bmir.protege.web.server.mail;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Delivers mail in the background so that the threads that send mail do not wait for the mail server.  Messages
+ *     are held in a bounded queue and are delivered by a limited number of workers, which run on the
+ *     {@link WebProtegeScheduler}, over connections from a {@link MailTransportPool}.
+ * </p>
+ * <p>
+ *     A worker takes a batch of the queued messages for one recipient and sends them, in the order in which they
+ *     were queued, over one connection.  Only one batch for a recipient is delivered at a time.  Messages that could
+ *     not be sent are queued again after a delay, which doubles with each attempt.  When a message has used up its
+ *     attempts, or when the queue is full, the exception handler of the message is told.
+ * </p>
+ */
+public class MailDeliveryQueue implements HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(MailDeliveryQueue.class);
+
+    private static final long DISPOSE_TIMEOUT_MS = 10000;
+
+    private static final int MAX_RETRY_DELAY_SHIFT = 10;
+
+    private final MailTransportPool transportPool;
+
+    private final WebProtegeScheduler scheduler;
+
+    private final Executor executor;
+
+    private final int capacity;
+
+    private final int maxWorkers;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long retryDelayMs;
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a batch has been delivered and when messages are given up on.
+     */
+    private final Condition batchFinished = lock.newCondition();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private final LinkedList<QueuedMessage> queue = new LinkedList<QueuedMessage>();
+
+    /**
+     * The recipients whose messages are being delivered.  Guarded by {@link #lock}.
+     */
+    private final Set<String> recipientsInDelivery = new HashSet<String>();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private int runningWorkerCount = 0;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private int deliveringMessageCount = 0;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private int retryingMessageCount = 0;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private boolean disposed = false;
+
+    // Statistics.  Guarded by lock.
+
+    private long queuedMessageCount = 0;
+
+    private long sentMessageCount = 0;
+
+    private long retriedMessageCount = 0;
+
+    private long failedMessageCount = 0;
+
+    private long rejectedMessageCount = 0;
+
+    private long batchCount = 0;
+
+    private int maxQueueLength = 0;
+
+    /**
+     * Creates a queue.
+     * @param transportPool The pool of connections that messages are sent over.  Not {@code null}.
+     * @param scheduler The scheduler that the workers and retries run on.  Not {@code null}.
+     * @param capacity The maximum number of messages that can be queued.  Greater than zero.
+     * @param maxWorkers The maximum number of workers.  Greater than zero.
+     * @param batchSize The maximum number of messages that are sent to a recipient over one connection.  Greater than
+     *                  zero.
+     * @param maxAttempts The maximum number of times that sending a message is attempted.  Greater than zero.
+     * @param retryDelayMs The delay, in milliseconds, before the first retry of a message.  Not negative.
+     */
+    public MailDeliveryQueue(MailTransportPool transportPool,
+                             WebProtegeScheduler scheduler,
+                             int capacity,
+                             int maxWorkers,
+                             int batchSize,
+                             int maxAttempts,
+                             long retryDelayMs) {
+        checkArgument(capacity > 0, "capacity must be greater than zero");
+        checkArgument(maxWorkers > 0, "maxWorkers must be greater than zero");
+        checkArgument(batchSize > 0, "batchSize must be greater than zero");
+        checkArgument(maxAttempts > 0, "maxAttempts must be greater than zero");
+        checkArgument(retryDelayMs >= 0, "retryDelayMs must not be negative");
+        this.transportPool = checkNotNull(transportPool);
+        this.scheduler = checkNotNull(scheduler);
+        this.executor = scheduler.getExecutor(TaskCategory.MAIL_DELIVERY);
+        this.capacity = capacity;
+        this.maxWorkers = maxWorkers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * Queues a message for delivery.
+     * @param recipient The recipient that messages are batched by.  Not {@code null}.
+     * @param message The message.  Not {@code null}.
+     * @param exceptionHandler The handler that is told if the message cannot be queued, or cannot be delivered.
+     *                         Not {@code null}.
+     */
+    public void enqueue(String recipient, Message message, MessagingExceptionHandler exceptionHandler) {
+        QueuedMessage queuedMessage = new QueuedMessage(checkNotNull(recipient),
+                                                        checkNotNull(message),
+                                                        checkNotNull(exceptionHandler));
+        String rejection = null;
+        int workersToStart = 0;
+        try {
+            lock.lock();
+            if(disposed) {
+                rejection = "Mail delivery has been shut down";
+            }
+            else if(queue.size() >= capacity) {
+                rejection = "The mail delivery queue is full";
+            }
+            else {
+                queue.addLast(queuedMessage);
+                queuedMessageCount++;
+                if(queue.size() > maxQueueLength) {
+                    maxQueueLength = queue.size();
+                }
+                workersToStart = reserveWorkers();
+            }
+            if(rejection != null) {
+                rejectedMessageCount++;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        if(rejection != null) {
+            exceptionHandler.handleMessagingException(new MessagingException(rejection));
+            return;
+        }
+        startWorkers(workersToStart);
+    }
+
+    /**
+     * Waits until there are no messages that are queued, being delivered or waiting to be retried.
+     * @param timeout The maximum time to wait.
+     * @param timeUnit The unit of the timeout.  Not {@code null}.
+     * @return {@code true} if there are no such messages, otherwise {@code false}.
+     */
+    public boolean awaitEmpty(long timeout, TimeUnit timeUnit) {
+        return await(true, timeout, timeUnit);
+    }
+
+    private boolean await(boolean includeRetries, long timeout, TimeUnit timeUnit) {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            lock.lock();
+            while(!queue.isEmpty() || deliveringMessageCount > 0 || (includeRetries && retryingMessageCount > 0)) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    return false;
+                }
+                batchFinished.awaitNanos(remaining);
+            }
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the workers that should be started for the messages that are queued, and records them as running.
+     * Called with the lock held.
+     */
+    private int reserveWorkers() {
+        int deliverableRecipientCount = 0;
+        Set<String> seenRecipients = new HashSet<String>();
+        for(QueuedMessage queuedMessage : queue) {
+            String recipient = queuedMessage.getRecipient();
+            if(!recipientsInDelivery.contains(recipient) && seenRecipients.add(recipient)) {
+                deliverableRecipientCount++;
+            }
+        }
+        // Workers that are not delivering a batch are about to take one
+        int idleWorkerCount = runningWorkerCount - recipientsInDelivery.size();
+        int workersToStart = Math.min(maxWorkers - runningWorkerCount, deliverableRecipientCount - idleWorkerCount);
+        if(workersToStart <= 0) {
+            return 0;
+        }
+        runningWorkerCount += workersToStart;
+        return workersToStart;
+    }
+
+    private void startWorkers(int count) {
+        for(int i = 0; i < count; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    deliverQueuedMessages();
+                }
+            });
+        }
+    }
+
+    private void deliverQueuedMessages() {
+        while(true) {
+            List<QueuedMessage> batch;
+            try {
+                lock.lock();
+                batch = takeBatch();
+                if(batch.isEmpty()) {
+                    runningWorkerCount--;
+                    return;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            List<QueuedMessage> undelivered = batch;
+            MessagingException exception = null;
+            try {
+                undelivered = deliver(batch);
+            }
+            catch (MessagingException e) {
+                exception = e;
+            }
+            catch (RuntimeException e) {
+                exception = new MessagingException(e.getMessage(), e);
+            }
+            finishBatch(batch, undelivered, exception);
+        }
+    }
+
+    /**
+     * Takes the oldest queued messages for the first recipient that is not being delivered to.  Called with the
+     * lock held.
+     */
+    private List<QueuedMessage> takeBatch() {
+        List<QueuedMessage> batch = new ArrayList<QueuedMessage>();
+        String recipient = null;
+        for(Iterator<QueuedMessage> it = queue.iterator(); it.hasNext() && batch.size() < batchSize; ) {
+            QueuedMessage queuedMessage = it.next();
+            if(recipient == null && !recipientsInDelivery.contains(queuedMessage.getRecipient())) {
+                recipient = queuedMessage.getRecipient();
+            }
+            if(queuedMessage.getRecipient().equals(recipient)) {
+                batch.add(queuedMessage);
+                it.remove();
+            }
+        }
+        if(recipient != null) {
+            recipientsInDelivery.add(recipient);
+            deliveringMessageCount += batch.size();
+            batchCount++;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends the messages in a batch over one connection.
+     * @return The messages that were not sent.
+     * @throws MessagingException if a connection could not be made.
+     */
+    private List<QueuedMessage> deliver(List<QueuedMessage> batch) throws MessagingException {
+        Transport transport = transportPool.borrowConnection();
+        boolean reusable = true;
+        try {
+            for(int i = 0; i < batch.size(); i++) {
+                QueuedMessage queuedMessage = batch.get(i);
+                MessagingException exception;
+                try {
+                    queuedMessage.attempt();
+                    MailTransportPool.send(transport, queuedMessage.getMessage());
+                    continue;
+                }
+                catch (MessagingException e) {
+                    exception = e;
+                }
+                catch (RuntimeException e) {
+                    // SMTPTransport throws IllegalStateException if the connection has been dropped
+                    exception = new MessagingException(e.getMessage(), e);
+                }
+                reusable = false;
+                List<QueuedMessage> undelivered = batch.subList(i, batch.size());
+                for(QueuedMessage undeliveredMessage : undelivered) {
+                    undeliveredMessage.setLastException(exception);
+                }
+                return undelivered;
+            }
+            return Collections.emptyList();
+        }
+        finally {
+            transportPool.releaseConnection(transport, reusable);
+        }
+    }
+
+    private void finishBatch(List<QueuedMessage> batch, List<QueuedMessage> undelivered, MessagingException exception) {
+        List<QueuedMessage> retries = new ArrayList<QueuedMessage>();
+        List<QueuedMessage> failures = new ArrayList<QueuedMessage>();
+        int maxAttempt = 0;
+        try {
+            lock.lock();
+            recipientsInDelivery.remove(batch.get(0).getRecipient());
+            sentMessageCount += batch.size() - undelivered.size();
+            deliveringMessageCount -= batch.size();
+            for(QueuedMessage queuedMessage : undelivered) {
+                if(exception != null) {
+                    // The connection could not be made, so the messages were not attempted
+                    queuedMessage.attempt();
+                    queuedMessage.setLastException(exception);
+                }
+                if(disposed || queuedMessage.getAttemptCount() >= maxAttempts) {
+                    failures.add(queuedMessage);
+                    failedMessageCount++;
+                }
+                else {
+                    retries.add(queuedMessage);
+                    retriedMessageCount++;
+                    retryingMessageCount++;
+                    maxAttempt = Math.max(maxAttempt, queuedMessage.getAttemptCount());
+                }
+            }
+            batchFinished.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        fail(failures);
+        if(!retries.isEmpty()) {
+            scheduleRetry(retries, retryDelayMs << Math.min(maxAttempt - 1, MAX_RETRY_DELAY_SHIFT));
+        }
+    }
+
+    private void scheduleRetry(final List<QueuedMessage> retries, long delayMs) {
+        scheduler.schedule(TaskCategory.MAIL_DELIVERY, new Runnable() {
+            @Override
+            public void run() {
+                requeue(retries);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Puts messages that are being retried back at the front of the queue.  They were accepted before, so they are
+     * not limited by the capacity of the queue.
+     */
+    private void requeue(List<QueuedMessage> retries) {
+        int workersToStart = 0;
+        boolean wasDisposed;
+        try {
+            lock.lock();
+            retryingMessageCount -= retries.size();
+            wasDisposed = disposed;
+            if(wasDisposed) {
+                failedMessageCount += retries.size();
+                batchFinished.signalAll();
+            }
+            else {
+                queue.addAll(0, retries);
+                workersToStart = reserveWorkers();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        if(wasDisposed) {
+            fail(retries);
+        }
+        startWorkers(workersToStart);
+    }
+
+    private static void fail(List<QueuedMessage> failures) {
+        for(QueuedMessage queuedMessage : failures) {
+            queuedMessage.getExceptionHandler().handleMessagingException(queuedMessage.getLastException());
+        }
+    }
+
+    public int getQueueLength() {
+        try {
+            lock.lock();
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSentMessageCount() {
+        try {
+            lock.lock();
+            return sentMessageCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRetriedMessageCount() {
+        try {
+            lock.lock();
+            return retriedMessageCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFailedMessageCount() {
+        try {
+            lock.lock();
+            return failedMessageCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedMessageCount() {
+        try {
+            lock.lock();
+            return rejectedMessageCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages and gives the queued messages a short time to be delivered.  Messages that are
+     * waiting to be retried are not retried.
+     */
+    @Override
+    public void dispose() {
+        if(!await(false, DISPOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            LOGGER.info("Queued mail was not delivered within %d ms", DISPOSE_TIMEOUT_MS);
+        }
+        try {
+            lock.lock();
+            disposed = true;
+        }
+        finally {
+            lock.unlock();
+        }
+        LOGGER.info("%s", this);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            lock.lock();
+            return Objects.toStringHelper("MailDeliveryQueue")
+                    .add("queued", queue.size())
+                    .add("maxQueued", maxQueueLength)
+                    .add("delivering", deliveringMessageCount)
+                    .add("retrying", retryingMessageCount)
+                    .add("total", queuedMessageCount)
+                    .add("sent", sentMessageCount)
+                    .add("batches", batchCount)
+                    .add("retried", retriedMessageCount)
+                    .add("failed", failedMessageCount)
+                    .add("rejected", rejectedMessageCount)
+                    .addValue(transportPool)
+                    .toString();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static class QueuedMessage {
+
+        private final String recipient;
+
+        private final Message message;
+
+        private final MessagingExceptionHandler exceptionHandler;
+
+        private int attemptCount = 0;
+
+        private MessagingException lastException;
+
+        private QueuedMessage(String recipient, Message message, MessagingExceptionHandler exceptionHandler) {
+            this.recipient = recipient;
+            this.message = message;
+            this.exceptionHandler = exceptionHandler;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        public Message getMessage() {
+            return message;
+        }
+
+        public MessagingExceptionHandler getExceptionHandler() {
+            return exceptionHandler;
+        }
+
+        public int getAttemptCount() {
+            return attemptCount;
+        }
+
+        public void attempt() {
+            attemptCount++;
+        }
+
+        public MessagingException getLastException() {
+            return lastException;
+        }
+
+        public void setLastException(MessagingException lastException) {
+            this.lastException = lastException;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package edu.stanford.bmir.protege.web.server.mail;
 import com.google.common.base.Optional;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
 import edu.stanford.bmir.protege.web.shared.app.WebProtegePropertyName;
 
 import javax.mail.*;
@@ -19,7 +22,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Bio-Medical Informatics Research Group<br>
  * Date: 05/11/2013
  */
-public class MailManager {
+public class MailManager implements HasDispose {
 
     public static final String MAIL_SMTP_AUTH = "mail.smtp.auth";
 
@@ -31,6 +34,26 @@ public class MailManager {
 
     public static final String MAIL_SMTP_FROM_PERSONALNAME = "mail.smtp.from.wp.personalName";
 
+    public static final String MAIL_SMTP_CONNECTIONS = "mail.smtp.wp.connections";
+
+    public static final String MAIL_SMTP_QUEUE_CAPACITY = "mail.smtp.wp.queue.capacity";
+
+    public static final String MAIL_SMTP_BATCH_SIZE = "mail.smtp.wp.batch.size";
+
+    public static final String MAIL_SMTP_MAX_ATTEMPTS = "mail.smtp.wp.max.attempts";
+
+    public static final String MAIL_SMTP_RETRY_DELAY = "mail.smtp.wp.retry.delay";
+
+    public static final int DEFAULT_CONNECTIONS = 2;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    public static final int DEFAULT_RETRY_DELAY_MS = 30000;
+
     public static final String UTF_8 = "utf-8";
 
     public static final String DEFAULT_FROM_VALUE_PREFIX = "no-reply@";
@@ -45,8 +68,13 @@ public class MailManager {
 
     private final String applicationHost;
 
+    private final MailTransportPool transportPool;
+
+    private final Optional<MailDeliveryQueue> deliveryQueue;
+
     /**
      * Constructs a {@code MailManager} using the specified {@link Properties} object and the specified exception handler.
+     * Mail is sent on the thread that calls {@link #sendMail(String, String, String)}.
      * The {@link Properties} object should contain java mail properties e.g. mail.smtp.host etc.  See
      * <a href="https://javamail.java.net/nonav/docs/api/com/sun/mail/smtp/package-summary.html">https://javamail.java.net/nonav/docs/api/com/sun/mail/smtp/package-summary.html</a>
      * for more information.    Note
@@ -63,10 +91,54 @@ public class MailManager {
      */
     public MailManager(String applicationName, String applicationHost,
                        Properties properties, MessagingExceptionHandler messagingExceptionHandler) {
+        this(applicationName, applicationHost, properties, messagingExceptionHandler, Optional.<WebProtegeScheduler>absent());
+    }
+
+    /**
+     * Constructs a {@code MailManager} that delivers mail in the background.  Mail is queued by
+     * {@link #sendMail(String, String, String)} and is delivered by a {@link MailDeliveryQueue} that runs on the
+     * specified scheduler.  The queue is configured with the mail.smtp.wp.connections, mail.smtp.wp.queue.capacity,
+     * mail.smtp.wp.batch.size, mail.smtp.wp.max.attempts and mail.smtp.wp.retry.delay properties.  Other
+     * parameters are as for {@link #MailManager(String, String, java.util.Properties, MessagingExceptionHandler)}.
+     * @param scheduler The scheduler that mail is delivered on.  Not {@code null}.
+     */
+    public MailManager(String applicationName, String applicationHost,
+                       Properties properties, MessagingExceptionHandler messagingExceptionHandler,
+                       WebProtegeScheduler scheduler) {
+        this(applicationName, applicationHost, properties, messagingExceptionHandler, Optional.of(scheduler));
+    }
+
+    private MailManager(String applicationName, String applicationHost,
+                        Properties properties, MessagingExceptionHandler messagingExceptionHandler,
+                        Optional<WebProtegeScheduler> scheduler) {
         this.applicationName = checkNotNull(applicationName);
         this.applicationHost = checkNotNull(applicationHost);
         this.properties = new Properties(checkNotNull(properties));
         this.messagingExceptionHandler = checkNotNull(messagingExceptionHandler);
+        int connections = getIntPropertyValue(MAIL_SMTP_CONNECTIONS, DEFAULT_CONNECTIONS);
+        this.transportPool = new MailTransportPool(createMailSession(), connections);
+        if(scheduler.isPresent()) {
+            // Deliveries hold a pooled connection each, so there is no point in running more of them than this
+            scheduler.get().setMaxConcurrency(TaskCategory.MAIL_DELIVERY, connections);
+            this.deliveryQueue = Optional.of(new MailDeliveryQueue(transportPool,
+                    scheduler.get(),
+                    getIntPropertyValue(MAIL_SMTP_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY),
+                    connections,
+                    getIntPropertyValue(MAIL_SMTP_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                    getIntPropertyValue(MAIL_SMTP_MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS),
+                    getIntPropertyValue(MAIL_SMTP_RETRY_DELAY, DEFAULT_RETRY_DELAY_MS)));
+        }
+        else {
+            this.deliveryQueue = Optional.absent();
+        }
+    }
+
+    /**
+     * Gets the queue that mail is delivered by, if mail is delivered in the background.
+     * @return The queue.  Not {@code null}.
+     */
+    public Optional<MailDeliveryQueue> getDeliveryQueue() {
+        return deliveryQueue;
     }
 
     /**
@@ -82,6 +154,7 @@ public class MailManager {
 
     /**
      * Sends an email to the specified recipient.  The email will have the specified subject and specified content.
+     * If mail is delivered in the background then the exception handler may be called on another thread.
      * @param recipientEmailAddress The email address of the recipient.  Not {@code null}.
      * @param subject The subject of the email.  Not {@code null}.
      * @param text The content of the email.  Not {@code null}.
@@ -93,7 +166,7 @@ public class MailManager {
             checkNotNull(recipientEmailAddress);
             checkNotNull(subject);
             checkNotNull(text);
-            final Session session = createMailSession();
+            final Session session = transportPool.getSession();
             MimeMessage msg = new MimeMessage(session);
             Optional<String> fromAddress = getPropertyValue(MAIL_SMTP_FROM);
             if(fromAddress.isPresent()) {
@@ -107,7 +180,12 @@ public class MailManager {
             msg.setHeader("Content-Transfer-Encoding", "quoted-printable");
             InternetAddress from = getFromAddress();
             msg.setFrom(from);
-            Transport.send(msg);
+            if(deliveryQueue.isPresent()) {
+                deliveryQueue.get().enqueue(recipientEmailAddress, msg, exceptionHandler);
+            }
+            else {
+                transportPool.send(msg);
+            }
         } catch (MessagingException e) {
             exceptionHandler.handleMessagingException(e);
             LOGGER.info(e.getMessage());
@@ -116,6 +194,17 @@ public class MailManager {
         }
     }
 
+    /**
+     * Delivers the mail that has been queued, within a short time, and closes the pooled connections.
+     */
+    @Override
+    public void dispose() {
+        if(deliveryQueue.isPresent()) {
+            deliveryQueue.get().dispose();
+        }
+        transportPool.dispose();
+    }
+
     /**
      * Determines whether or not the property mail.smtp.auth is set to "true".
      * @return {@code true} if the mail.smtp.auth is set to "true", otherwise {@code false}.
@@ -192,6 +281,20 @@ public class MailManager {
         return Optional.fromNullable(properties.getProperty(propertyName));
     }
 
+    private int getIntPropertyValue(String propertyName, int defaultValue) {
+        Optional<String> value = getPropertyValue(propertyName);
+        if(!value.isPresent()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.get().trim());
+        }
+        catch (NumberFormatException e) {
+            LOGGER.info("Invalid value for %s: %s.  Using %d.", propertyName, value.get(), defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Gets the value (or the default value) for the specified property name.
      * @param propertyName The property name.  Not {@code null}.
@@ -0,0 +1,181 @@
+package edu.stanford.bmir.protege.web.server.mail;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Keeps connected {@link Transport}s so that sending a message does not have to open and close a connection to
+ *     the mail server.  A connection is checked before it is reused, and a connection that fails to send a message
+ *     is closed rather than being returned to the pool.
+ * </p>
+ */
+public class MailTransportPool implements HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(MailTransportPool.class);
+
+    private final Session session;
+
+    private final int maxIdleConnections;
+
+    /**
+     * Guarded by this.
+     */
+    private final Deque<Transport> idleConnections = new ArrayDeque<Transport>();
+
+    /**
+     * Guarded by this.
+     */
+    private boolean disposed = false;
+
+    // Statistics.  Guarded by this.
+
+    private long openedConnectionCount = 0;
+
+    private long reusedConnectionCount = 0;
+
+    /**
+     * Creates a pool.
+     * @param session The session that connections are made in.  Not {@code null}.
+     * @param maxIdleConnections The maximum number of connections that are kept open while they are not in use.
+     *                           Not negative.
+     */
+    public MailTransportPool(Session session, int maxIdleConnections) {
+        checkArgument(maxIdleConnections >= 0, "maxIdleConnections must not be negative");
+        this.session = checkNotNull(session);
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Sends the specified message to the recipients that it specifies.
+     * @param message The message.  Not {@code null}.
+     * @throws MessagingException if the message could not be sent.
+     */
+    public void send(Message message) throws MessagingException {
+        Transport transport = borrowConnection();
+        boolean sent = false;
+        try {
+            send(transport, message);
+            sent = true;
+        }
+        finally {
+            releaseConnection(transport, sent);
+        }
+    }
+
+    /**
+     * Sends the specified message over a connection that was borrowed from this pool.
+     * @param transport The connection.  Not {@code null}.
+     * @param message The message.  Not {@code null}.
+     * @throws MessagingException if the message could not be sent.
+     */
+    public static void send(Transport transport, Message message) throws MessagingException {
+        message.saveChanges();
+        transport.sendMessage(message, message.getAllRecipients());
+    }
+
+    /**
+     * Borrows a connection.  A connection that was borrowed must be released with
+     * {@link #releaseConnection(javax.mail.Transport, boolean)}.
+     * @return A connected transport.  Not {@code null}.
+     * @throws MessagingException if a new connection could not be made.
+     */
+    public Transport borrowConnection() throws MessagingException {
+        while(true) {
+            Transport transport;
+            synchronized (this) {
+                transport = idleConnections.pollLast();
+            }
+            if(transport == null) {
+                break;
+            }
+            // For SMTP this sends a NOOP, so dropped connections are found before they are used
+            if(transport.isConnected()) {
+                synchronized (this) {
+                    reusedConnectionCount++;
+                }
+                return transport;
+            }
+            close(transport);
+        }
+        synchronized (this) {
+            openedConnectionCount++;
+        }
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        return transport;
+    }
+
+    /**
+     * Releases a connection that was borrowed from this pool.
+     * @param transport The connection.  Not {@code null}.
+     * @param reusable {@code false} if the connection failed and should be closed, otherwise {@code true}.
+     */
+    public void releaseConnection(Transport transport, boolean reusable) {
+        synchronized (this) {
+            if(reusable && !disposed && idleConnections.size() < maxIdleConnections) {
+                idleConnections.addLast(transport);
+                return;
+            }
+        }
+        close(transport);
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        }
+        catch (MessagingException e) {
+            LOGGER.info("Could not close mail connection: %s", e.getMessage());
+        }
+    }
+
+    public synchronized int getIdleConnectionCount() {
+        return idleConnections.size();
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+        }
+        while(true) {
+            Transport transport;
+            synchronized (this) {
+                transport = idleConnections.pollFirst();
+            }
+            if(transport == null) {
+                return;
+            }
+            close(transport);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return Objects.toStringHelper("MailTransportPool")
+                .add("idle", idleConnections.size())
+                .add("opened", openedConnectionCount)
+                .add("reused", reusedConnectionCount)
+                .toString();
+    }
+}
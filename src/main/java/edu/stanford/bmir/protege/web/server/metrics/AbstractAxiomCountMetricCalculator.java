@@ -0,0 +1,76 @@
+package edu.stanford.bmir.protege.web.server.metrics;
+
+import edu.stanford.bmir.protege.web.shared.metrics.IntegerMetricValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.List;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     An abstract base class for metrics that count axioms in the imports closure of the root ontology.  The count is
+ *     computed once and is then adjusted by one for each counted axiom that is added or removed.  Only changes that
+ *     were actually applied are received, so the deltas are exact.  The count is recomputed if the imports closure
+ *     changes.
+ * </p>
+ */
+public abstract class AbstractAxiomCountMetricCalculator extends MetricCalculator {
+
+    private final String metricName;
+
+    private int count;
+
+    private boolean computed = false;
+
+    protected AbstractAxiomCountMetricCalculator(OWLOntology rootOntology, String metricName) {
+        super(rootOntology);
+        this.metricName = metricName;
+    }
+
+    /**
+     * Counts the axioms from scratch.
+     * @return The number of counted axioms in the imports closure of the root ontology.
+     */
+    protected abstract int computeCount();
+
+    /**
+     * Determines whether an axiom is counted by this metric.
+     * @param axiom The axiom.  Not {@code null}.
+     * @return {@code true} if the axiom is counted, otherwise {@code false}.
+     */
+    protected abstract boolean isCounted(OWLAxiom axiom);
+
+    @Override
+    public final IntegerMetricValue computeValue() {
+        if (!computed) {
+            count = computeCount();
+            computed = true;
+        }
+        return new IntegerMetricValue(metricName, count);
+    }
+
+    @Override
+    public final OWLAPIProjectMetricState getStateAfterChanges(List<? extends OWLOntologyChange> changes) {
+        boolean changed = false;
+        for (OWLOntologyChange change : changes) {
+            if (change.isImportChange()) {
+                computed = false;
+                return OWLAPIProjectMetricState.DIRTY;
+            }
+            if (change.isAxiomChange() && isCounted(change.getAxiom())) {
+                changed = true;
+                if (change.isAddAxiom()) {
+                    count++;
+                }
+                else {
+                    count--;
+                }
+            }
+        }
+        return changed ? OWLAPIProjectMetricState.DIRTY : OWLAPIProjectMetricState.CLEAN;
+    }
+}
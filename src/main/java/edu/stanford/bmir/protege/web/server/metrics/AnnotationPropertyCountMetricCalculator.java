@@ -1,8 +1,11 @@
 package edu.stanford.bmir.protege.web.server.metrics;
 
 import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import java.util.Set;
+
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
@@ -16,7 +19,13 @@ public class AnnotationPropertyCountMetricCalculator extends EntityCountMetricCa
     }
 
     @Override
-    protected int getEntityCount() {
-        return getRootOntology().getAnnotationPropertiesInSignature().size();
+    protected Set<? extends OWLEntity> getEntities() {
+        return getRootOntology().getAnnotationPropertiesInSignature();
+    }
+
+    @Override
+    protected boolean isCounted(OWLEntity entity) {
+        // Consistent with getEntities(), which only looks at the root ontology
+        return getRootOntology().containsEntityInSignature(entity, false);
     }
 }
@@ -1,11 +1,8 @@
 package edu.stanford.bmir.protege.web.server.metrics;
 
-import edu.stanford.bmir.protege.web.shared.metrics.IntegerMetricValue;
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
-
-import java.util.List;
 
 /**
  * Author: Matthew Horridge<br>
@@ -13,36 +10,26 @@ import java.util.List;
  * Bio-Medical Informatics Research Group<br>
  * Date: 08/06/2012
  */
-public class AxiomTypeCountMetricCalculator extends MetricCalculator {
+public class AxiomTypeCountMetricCalculator extends AbstractAxiomCountMetricCalculator {
 
     private AxiomType<?> type;
 
-    private String metricName;
-    
     public AxiomTypeCountMetricCalculator(OWLOntology project, AxiomType<?> type) {
-        super(project);
+        super(project, type.getName() + " axioms");
         this.type = type;
-        metricName = type.getName() + " axioms";
     }
 
     @Override
-    public IntegerMetricValue computeValue() {
+    protected int computeCount() {
         int count = 0;
         for(OWLOntology ontology : getRootOntology().getImportsClosure()) {
             count += ontology.getAxiomCount(type);
         }
-        return new IntegerMetricValue(metricName, count);
+        return count;
     }
 
     @Override
-    public OWLAPIProjectMetricState getStateAfterChanges(List<? extends OWLOntologyChange> changes) {
-        for(OWLOntologyChange change : changes) {
-            if(change.isAxiomChange()) {
-                if(change.getAxiom().isOfType(type)) {
-                    return OWLAPIProjectMetricState.DIRTY;
-                }
-            }
-        }
-        return OWLAPIProjectMetricState.CLEAN;
+    protected boolean isCounted(OWLAxiom axiom) {
+        return axiom.isOfType(type);
     }
 }
@@ -1,8 +1,11 @@
 package edu.stanford.bmir.protege.web.server.metrics;
 
 import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import java.util.Set;
+
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
@@ -16,7 +19,7 @@ public class ClassCountMetricCalculator extends EntityCountMetricCalculator {
     }
 
     @Override
-    protected int getEntityCount() {
-        return getRootOntology().getClassesInSignature(true).size();
+    protected Set<? extends OWLEntity> getEntities() {
+        return getRootOntology().getClassesInSignature(true);
     }
 }
@@ -6,7 +6,9 @@ import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Author: Matthew Horridge<br>
@@ -16,13 +18,24 @@ import java.util.List;
  * <P>
  *     An abstract base class for different kinds of entity count.
  * </P>
+ * <p>
+ *     The entities are computed once and are then kept up to date from ontology changes.  Only the entities in the
+ *     signature of a change are examined, so the cost of keeping the count up to date is proportional to the size of the
+ *     changes rather than to the size of the ontologies.  The set of entities is recomputed if the imports closure
+ *     changes.
+ * </p>
  */
 public abstract class EntityCountMetricCalculator extends MetricCalculator {
 
     private EntityType<?> entityType;
 
     private String metricName;
-    
+
+    /**
+     * The entities that are counted.  {@code null} if they need to be computed from scratch.
+     */
+    private Set<OWLEntity> entities = null;
+
     /**
      * Constructs an entity count metric that counts entities of the specified type.
      * @param rootOntology The project over which the value for the metric is computed.
@@ -45,21 +58,50 @@ public abstract class EntityCountMetricCalculator extends MetricCalculator {
 
     @Override
     public final IntegerMetricValue computeValue() {
-        int entityCount = getEntityCount();
-        return new IntegerMetricValue(metricName, entityCount);
+        if (entities == null) {
+            entities = new HashSet<OWLEntity>(getEntities());
+        }
+        return new IntegerMetricValue(metricName, entities.size());
+    }
+
+    /**
+     * Gets the entities that are counted, from scratch.
+     * @return The entities.  Not {@code null}.
+     */
+    protected abstract Set<? extends OWLEntity> getEntities();
+
+    /**
+     * Determines whether an entity of the type that is counted should be counted.
+     * @param entity The entity.
+     * @return {@code true} if the entity is in the signature of the imports closure of the root ontology.
+     */
+    protected boolean isCounted(OWLEntity entity) {
+        return getRootOntology().containsEntityInSignature(entity, true);
     }
-    
-    protected abstract int getEntityCount();
 
     @Override
     public OWLAPIProjectMetricState getStateAfterChanges(List<? extends OWLOntologyChange> changes) {
+        boolean changed = false;
         for(OWLOntologyChange change : changes) {
+            if(change.isImportChange()) {
+                entities = null;
+                return OWLAPIProjectMetricState.DIRTY;
+            }
             for(OWLEntity entity : change.getSignature()) {
                 if(entity.isType(entityType)) {
-                    return OWLAPIProjectMetricState.DIRTY;
+                    if(entities == null) {
+                        // Not computed yet
+                        changed = true;
+                    }
+                    else if(isCounted(entity)) {
+                        changed |= entities.add(entity);
+                    }
+                    else {
+                        changed |= entities.remove(entity);
+                    }
                 }
             }
         }
-        return OWLAPIProjectMetricState.CLEAN;
+        return changed ? OWLAPIProjectMetricState.DIRTY : OWLAPIProjectMetricState.CLEAN;
     }
 }
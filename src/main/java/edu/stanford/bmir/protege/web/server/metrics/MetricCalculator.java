@@ -33,4 +33,24 @@ public abstract class MetricCalculator {
 
     public abstract MetricValue computeValue();
 
+    /**
+     * Computes the value of this metric for a snapshot of the root ontology.  This is used for metrics that are
+     * computed in the background, so that the computation does not hold up changes to the project.
+     * @param rootOntologySnapshot A copy of the root ontology (and its imports closure).  Not {@code null}.
+     * @return The value of the metric.  By default, the value computed by {@link #computeValue()}.
+     */
+    public MetricValue computeValue(OWLOntology rootOntologySnapshot) {
+        return computeValue();
+    }
+
+    /**
+     * Determines whether values for this metric are expensive to compute, in which case they are computed in the
+     * background and the last computed value is served until a new one is available.
+     * @return {@code true} if the metric should be computed in the background, otherwise {@code false}.  By default,
+     * {@code false}.
+     */
+    public boolean isComputedInBackground() {
+        return false;
+    }
+
 }
@@ -6,17 +6,22 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Sets;
 import edu.stanford.bmir.protege.web.server.events.HasPostEvents;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
 import edu.stanford.bmir.protege.web.shared.metrics.MetricValue;
 import edu.stanford.bmir.protege.web.shared.metrics.MetricsChangedEvent;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -26,9 +31,42 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 08/06/2012
+ * <p>
+ *     Cheap metrics are brought up to date from ontology changes and are (re)computed when they are asked for.
+ *     Metrics that are expensive to compute (see {@link MetricCalculator#isComputedInBackground()}) are computed on a
+ *     background thread, against a copy of the ontologies.  The copy is built an axiom type at a time.  The project
+ *     lock is only held while the axioms of one type are collected, and the copy is indexed, and the metrics
+ *     computed, without holding any locks.  The copy is dropped as soon as the metrics have been computed.  Changes
+ *     that arrive within a short window of each other are coalesced into a single background computation, and the
+ *     last computed value is served until the new one is available, at which point a {@link MetricsChangedEvent} is
+ *     posted.  Background computation only starts once the metrics for the project have been asked for.  Background
+ *     computations are run on the {@link WebProtegeScheduler}, one project at a time.
+ * </p>
+ * <p>
+ *     Each background computation looks at the whole of the ontologies, so background computations are run rarely.
+ *     The next one does not start until at least {@link #MIN_BACKGROUND_COMPUTATION_INTERVAL_MS}, or
+ *     {@link #BACKGROUND_COMPUTATION_INTERVAL_FACTOR} times the duration of the last one, has passed since the last
+ *     one finished.  Until then the last computed values are served.
+ * </p>
  */
 public class OWLAPIProjectMetricsManager {
 
+    /**
+     * The time that changes are collected for before expensive metrics are recomputed.
+     */
+    private static final long BACKGROUND_COMPUTATION_DELAY_MS = 2000;
+
+    /**
+     * The minimum time between the end of one background computation and the start of the next.
+     */
+    static final long MIN_BACKGROUND_COMPUTATION_INTERVAL_MS = 60 * 1000;
+
+    /**
+     * The time between background computations is at least this multiple of the duration of the last one, so that
+     * background computations for large ontologies take up a small share of a worker thread.
+     */
+    static final int BACKGROUND_COMPUTATION_INTERVAL_FACTOR = 20;
+
     public final WebProtegeLogger logger;
 
     private List<MetricCalculator> metrics = Lists.newArrayList();
@@ -39,6 +77,13 @@ public class OWLAPIProjectMetricsManager {
 
     private final Lock writeLock = readWriteLock.writeLock();
 
+    /**
+     * Held while cheap metrics are computed, and while the axioms of each type are collected for background metrics,
+     * so that the ontologies do not change underneath them.  This must be acquired before {@link #writeLock}, because changes are
+     * handled while the project lock is held.
+     */
+    private final Lock projectChangeReadLock;
+
     private Map<MetricCalculator, MetricValue> valueCache = Maps.newLinkedHashMap();
 
     private Set<MetricCalculator> dirtyMetrics = Sets.newHashSet();
@@ -47,10 +92,25 @@ public class OWLAPIProjectMetricsManager {
 
     private ProjectId projectId;
 
-    public OWLAPIProjectMetricsManager(ProjectId projectId, List<MetricCalculator> metrics, HasPostEvents<ProjectEvent<?>> eventBus, WebProtegeLogger logger) {
+    private final WebProtegeScheduler scheduler;
+
+    private final AtomicBoolean backgroundComputationPending = new AtomicBoolean(false);
+
+    private volatile boolean metricsRequested = false;
+
+    /**
+     * The earliest time at which the next background computation may start.
+     */
+    private volatile long nextBackgroundComputationTime = 0;
+
+    private volatile boolean disposed = false;
+
+    public OWLAPIProjectMetricsManager(ProjectId projectId, List<MetricCalculator> metrics, HasPostEvents<ProjectEvent<?>> eventBus, Lock projectChangeReadLock, WebProtegeScheduler scheduler, WebProtegeLogger logger) {
         this.projectId = projectId;
         this.logger = logger;
         this.eventBus = eventBus;
+        this.projectChangeReadLock = projectChangeReadLock;
+        this.scheduler = scheduler;
         this.metrics.addAll(metrics);
         markAllAsDirty();
     }
@@ -59,23 +119,15 @@ public class OWLAPIProjectMetricsManager {
         dirtyMetrics.addAll(metrics);
     }
 
-    // TODO:
-//    public void bind(EventBus eventBus) {
-//
-//    }
-
-//    TODO:
-//    public void unbind(EventBus eventBus) {
-//
-//    }
-
     // TODO: EventBUS
     public void handleOntologyChanges(List<? extends OWLOntologyChange> changes) {
+        boolean backgroundMetricsDirty = false;
         try {
             writeLock.lock();
             for(MetricCalculator metric : metrics) {
                 if(metric.getStateAfterChanges(changes) == OWLAPIProjectMetricState.DIRTY) {
                     dirtyMetrics.add(metric);
+                    backgroundMetricsDirty |= metric.isComputedInBackground();
                 }
             }
             if(!dirtyMetrics.isEmpty()) {
@@ -85,31 +137,170 @@ public class OWLAPIProjectMetricsManager {
         finally {
             writeLock.unlock();
         }
+        if(backgroundMetricsDirty && metricsRequested) {
+            scheduleBackgroundComputation();
+        }
     }
 
     private void recomputeDirtyMetrics() {
+        boolean backgroundMetricsDirty = false;
         try {
+            projectChangeReadLock.lock();
             writeLock.lock();
             for(Iterator<MetricCalculator> metricIt = dirtyMetrics.iterator(); metricIt.hasNext(); ) {
                 MetricCalculator metric = metricIt.next();
-                metricIt.remove();
-                try {
-                    MetricValue metricValue = metric.computeValue();
-                    valueCache.put(metric, metricValue);
-                } catch (Exception e) {
-                    logger.severe(e);
-                    // Mark as not computed
-                    valueCache.put(metric, null);
+                if(metric.isComputedInBackground()) {
+                    backgroundMetricsDirty = true;
+                    continue;
                 }
+                metricIt.remove();
+                computeValue(metric);
             }
         } finally {
+            writeLock.unlock();
+            projectChangeReadLock.unlock();
+        }
+        if(backgroundMetricsDirty) {
+            scheduleBackgroundComputation();
+        }
+    }
+
+    /**
+     * Computes the value of a metric and caches it.  The write lock must be held by the caller.
+     */
+    private void computeValue(MetricCalculator metric) {
+        try {
+            MetricValue metricValue = metric.computeValue();
+            valueCache.put(metric, metricValue);
+        } catch (Exception e) {
+            logger.severe(e);
+            // Mark as not computed
+            valueCache.put(metric, null);
+        }
+    }
+
+    private void scheduleBackgroundComputation() {
+        if(disposed || !backgroundComputationPending.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(BACKGROUND_COMPUTATION_DELAY_MS, nextBackgroundComputationTime - System.currentTimeMillis());
+        scheduler.schedule(TaskCategory.METRICS, new Runnable() {
+            public void run() {
+                computeBackgroundMetrics();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void computeBackgroundMetrics() {
+        // Cleared first, so that changes that arrive while computing schedule another computation
+        backgroundComputationPending.set(false);
+        if(disposed) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        // The metrics are taken off the dirty set before the ontologies are copied.  A change that arrives after the
+        // copy has been taken marks them as dirty again, so stale values are never left as clean.
+        List<MetricCalculator> backgroundMetrics = Lists.newArrayList();
+        try {
             writeLock.lock();
+            for(Iterator<MetricCalculator> metricIt = dirtyMetrics.iterator(); metricIt.hasNext(); ) {
+                MetricCalculator metric = metricIt.next();
+                if(metric.isComputedInBackground()) {
+                    metricIt.remove();
+                    backgroundMetrics.add(metric);
+                }
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+        if(backgroundMetrics.isEmpty()) {
+            return;
+        }
+        Map<OWLOntology, OWLOntology> snapshots;
+        try {
+            snapshots = createSnapshots(backgroundMetrics);
+        }
+        catch (OWLOntologyCreationException e) {
+            logger.severe(e);
+            return;
+        }
+        Map<MetricCalculator, MetricValue> computedValues = Maps.newLinkedHashMap();
+        for(MetricCalculator metric : backgroundMetrics) {
+            try {
+                computedValues.put(metric, metric.computeValue(snapshots.get(metric.getRootOntology())));
+            } catch (Exception e) {
+                logger.severe(e);
+                // Mark as not computed
+                computedValues.put(metric, null);
+            }
+        }
+        try {
+            writeLock.lock();
+            valueCache.putAll(computedValues);
+        }
+        finally {
+            writeLock.unlock();
         }
+        long elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        nextBackgroundComputationTime = System.currentTimeMillis() + Math.max(MIN_BACKGROUND_COMPUTATION_INTERVAL_MS, elapsed * BACKGROUND_COMPUTATION_INTERVAL_FACTOR);
+        logger.info(projectId, "Computed background metrics in %d ms", elapsed);
+        eventBus.postEvent(new MetricsChangedEvent(projectId));
+    }
+
+    /**
+     * Copies the axioms and annotations of the root ontologies of the specified metrics, along with their imports
+     * closures, into fresh in-memory ontologies.  The project lock is taken for each axiom type in turn, and only while
+     * the axioms of that type are collected.  Changes that are made between two axiom types being collected mark the
+     * metrics as dirty, so they are computed again.
+     * @return A map from root ontology to its copy.
+     */
+    private Map<OWLOntology, OWLOntology> createSnapshots(List<MetricCalculator> metrics) throws OWLOntologyCreationException {
+        Map<OWLOntology, OWLOntology> snapshots = Maps.newHashMap();
+        for(MetricCalculator metric : metrics) {
+            OWLOntology rootOntology = metric.getRootOntology();
+            if(snapshots.containsKey(rootOntology)) {
+                continue;
+            }
+            OWLOntologyManager snapshotManager = OWLManager.createOWLOntologyManager(rootOntology.getOWLOntologyManager().getOWLDataFactory());
+            OWLOntology snapshot = snapshotManager.createOntology(rootOntology.getOntologyID());
+            Set<OWLOntology> importsClosure;
+            Set<OWLAnnotation> annotations;
+            try {
+                projectChangeReadLock.lock();
+                importsClosure = Sets.newHashSet(rootOntology.getImportsClosure());
+                annotations = Sets.newHashSet(rootOntology.getAnnotations());
+            }
+            finally {
+                projectChangeReadLock.unlock();
+            }
+            for(OWLAnnotation annotation : annotations) {
+                snapshotManager.applyChange(new AddOntologyAnnotation(snapshot, annotation));
+            }
+            for(OWLOntology ontology : importsClosure) {
+                for(AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+                    List<OWLAxiom> axioms;
+                    try {
+                        projectChangeReadLock.lock();
+                        axioms = new ArrayList<OWLAxiom>(ontology.getAxioms(axiomType));
+                    }
+                    finally {
+                        projectChangeReadLock.unlock();
+                    }
+                    if(!axioms.isEmpty()) {
+                        snapshotManager.addAxioms(snapshot, Sets.newHashSet(axioms));
+                    }
+                }
+            }
+            snapshots.put(rootOntology, snapshot);
+        }
+        return snapshots;
     }
 
     public List<MetricValue> getMetrics() {
         logger.info("getMetrics()");
         Stopwatch stopwatch = Stopwatch.createStarted();
+        metricsRequested = true;
         recomputeDirtyMetrics();
         List<MetricValue> result = readMetrics();
         long ms = stopwatch.elapsed(TimeUnit.MILLISECONDS);
@@ -133,4 +324,8 @@ public class OWLAPIProjectMetricsManager {
             readLock.unlock();
         }
     }
+
+    public void dispose() {
+        disposed = true;
+    }
 }
@@ -25,8 +25,21 @@ public class ProfileMetricCalculator extends MetricCalculator {
 
     @Override
     public ProfileMetricValue computeValue() {
-        OWLProfileReport report = profile.checkOntology(getRootOntology());
-        return new ProfileMetricValue(profile.getName(), report.isInProfile());
+        return computeValue(getRootOntology());
+    }
+
+    @Override
+    public ProfileMetricValue computeValue(OWLOntology rootOntologySnapshot) {
+        OWLProfileReport report = profile.checkOntology(rootOntologySnapshot);
+        return new ProfileMetricValue(profile.getName(), report.isInProfile(), System.currentTimeMillis());
+    }
+
+    /**
+     * Checking a profile means looking at every axiom, so this is done in the background.
+     */
+    @Override
+    public boolean isComputedInBackground() {
+        return true;
     }
 
     @Override
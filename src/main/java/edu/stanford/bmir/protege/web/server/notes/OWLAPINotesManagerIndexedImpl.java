@@ -0,0 +1,228 @@
+package edu.stanford.bmir.protege.web.server.notes;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.notes.api.NoteIdGenerator;
+import edu.stanford.bmir.protege.web.server.notes.impl.IndexedNoteStore;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectDocumentStore;
+import edu.stanford.bmir.protege.web.shared.DataFactory;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+import edu.stanford.bmir.protege.web.shared.entity.OWLEntityData;
+import edu.stanford.bmir.protege.web.shared.event.NotePostedEvent;
+import edu.stanford.bmir.protege.web.shared.notes.*;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.apache.commons.io.FileUtils;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A notes manager that keeps the notes of a project in an {@link IndexedNoteStore}.  The first time that the
+ *     manager is created for a project that has notes in the older ChAO based notes ontology, those notes are
+ *     imported, and the notes ontology document is then moved out of the way.
+ * </p>
+ */
+public class OWLAPINotesManagerIndexedImpl implements OWLAPINotesManager, HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(OWLAPINotesManagerIndexedImpl.class);
+
+    private static final String NOTES_LOG_FILE_NAME = "notes-data.log";
+
+    private static final String NOTES_ONTOLOGY_DOCUMENT_NAME = "notes-data.binary";
+
+    private static final String LEGACY_NOTES_DOCUMENT_NAME = "notes-data.legacy";
+
+    private final OWLAPIProject project;
+
+    private final IndexedNoteStore noteStore;
+
+    public OWLAPINotesManagerIndexedImpl(OWLAPIProject project) {
+        this.project = project;
+        try {
+            long t0 = System.currentTimeMillis();
+            OWLAPIProjectDocumentStore documentStore = OWLAPIProjectDocumentStore.getProjectDocumentStore(project.getProjectId());
+            File notesDataDirectory = documentStore.getNotesDataDirectory();
+            File notesLogFile = new File(notesDataDirectory, NOTES_LOG_FILE_NAME);
+            if(!IndexedNoteStore.isLogPresent(notesLogFile)) {
+                importNotesOntologyIfNecessary(notesDataDirectory, notesLogFile);
+            }
+            noteStore = new IndexedNoteStore(notesLogFile, project.getDataFactory());
+            long t1 = System.currentTimeMillis();
+            LOGGER.info(project.getProjectId(), "Initialized notes manager in %d ms (%s)", (t1 - t0), noteStore);
+        }
+        catch (IOException e) {
+            // Can't start - too dangerous to do anything without human intervention
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Imports the notes from the ChAO based notes ontology, if there is one.  The notes are imported into a
+     * temporary log, which is forced to disk and only replaces the log once the import has finished, so an import
+     * that fails is tried again the next time that the project is loaded.
+     */
+    private void importNotesOntologyIfNecessary(File notesDataDirectory, File notesLogFile) throws IOException {
+        File notesOntologyDocument = new File(notesDataDirectory, NOTES_ONTOLOGY_DOCUMENT_NAME);
+        File legacyNotesDocument = new File(notesDataDirectory, LEGACY_NOTES_DOCUMENT_NAME);
+        if(!notesOntologyDocument.exists() && !legacyNotesDocument.exists()) {
+            return;
+        }
+        LOGGER.info(project.getProjectId(), "Importing notes from the notes ontology");
+        File importLogFile = new File(notesDataDirectory, NOTES_LOG_FILE_NAME + ".importing");
+        FileUtils.deleteQuietly(importLogFile);
+        // The log is forced to disk when the store is disposed, rather than once per imported note
+        IndexedNoteStore importStore = new IndexedNoteStore(importLogFile, project.getDataFactory(), false);
+        // Also imports the legacy notes document, if there is one
+        OWLAPINotesManagerNotesAPIImpl notesOntologyManager = null;
+        try {
+            notesOntologyManager = new OWLAPINotesManagerNotesAPIImpl(project);
+            // The notes ontology identifies the targets of notes by IRI, so the threads are matched up with the
+            // entities in the signature.  Puns share their threads, and so the threads are only added to the first pun.
+            Map<IRI, DiscussionThread> threadsByTargetIRI = notesOntologyManager.getDiscussionThreadsByTargetIRI();
+            for(OWLEntity entity : project.getRootOntology().getSignature(true)) {
+                DiscussionThread thread = threadsByTargetIRI.get(entity.getIRI());
+                if(thread == null) {
+                    continue;
+                }
+                for(Note rootNote : thread.getRootNotes()) {
+                    if(!importStore.getNote(rootNote.getNoteId()).isPresent()) {
+                        importStore.addNote(entity, rootNote);
+                        importReplies(thread, rootNote.getNoteId(), importStore);
+                    }
+                }
+            }
+            importStore.sync();
+            LOGGER.info(project.getProjectId(), "Imported %d notes", importStore.getNoteCount());
+            logSkippedNotes(threadsByTargetIRI, importStore);
+        }
+        finally {
+            if(notesOntologyManager != null) {
+                notesOntologyManager.dispose();
+            }
+            importStore.dispose();
+        }
+        if(!importLogFile.renameTo(notesLogFile)) {
+            throw new IOException("Could not rename the imported notes log " + importLogFile);
+        }
+        if(notesOntologyDocument.exists()) {
+            FileUtils.moveFile(notesOntologyDocument,
+                    new File(notesDataDirectory, NOTES_ONTOLOGY_DOCUMENT_NAME + ".imported-" + System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Logs the notes that were not imported because their targets are not in the signature of the project (for
+     * example, notes on entities that have since been deleted).  The type of an entity cannot be recovered from the
+     * notes ontology, so these notes cannot be attached to entities.  They remain in the retired notes ontology
+     * document.
+     */
+    private void logSkippedNotes(Map<IRI, DiscussionThread> threadsByTargetIRI, IndexedNoteStore importStore) {
+        int skippedNoteCount = 0;
+        int skippedTargetCount = 0;
+        for(DiscussionThread thread : threadsByTargetIRI.values()) {
+            int skippedInThread = 0;
+            for(NoteId noteId : thread.getNoteIds()) {
+                if(!importStore.getNote(noteId).isPresent()) {
+                    skippedInThread++;
+                }
+            }
+            if(skippedInThread > 0) {
+                skippedNoteCount += skippedInThread;
+                skippedTargetCount++;
+            }
+        }
+        if(skippedNoteCount > 0) {
+            LOGGER.info(project.getProjectId(), "Skipped %d notes on %d targets that are not in the signature of the project.  They remain in the retired notes ontology document.", skippedNoteCount, skippedTargetCount);
+        }
+    }
+
+    private void importReplies(DiscussionThread thread, NoteId noteId, IndexedNoteStore importStore) {
+        for(Note reply : thread.getReplies(noteId)) {
+            importStore.addReply(reply);
+            importReplies(thread, reply.getNoteId(), importStore);
+        }
+    }
+
+    @Override
+    public int getDirectNotesCount(OWLEntity entity) {
+        return noteStore.getDirectNoteCount(entity);
+    }
+
+    @Override
+    public int getIndirectNotesCount(OWLEntity entity) {
+        return noteStore.getNoteCount(entity);
+    }
+
+    @Override
+    public DiscussionThread getDiscusssionThread(OWLEntity targetEntity) {
+        return noteStore.getDiscussionThread(targetEntity);
+    }
+
+    @Override
+    public Note addNoteToEntity(OWLEntity targetEntity, NoteContent noteContent, UserId author) {
+        return addNoteToEntity(targetEntity, noteContent, author, System.currentTimeMillis());
+    }
+
+    @Override
+    public Note addNoteToEntity(OWLEntity targetEntity, NoteContent noteContent, UserId author, long timestamp) {
+        checkNotNull(targetEntity);
+        checkNotNull(noteContent);
+        checkNotNull(author);
+        NoteHeader noteHeader = new NoteHeader(NoteIdGenerator.createNoteId(), Optional.<NoteId>absent(), author, timestamp);
+        Note note = Note.createNote(noteHeader, noteContent);
+        noteStore.addNote(targetEntity, note);
+        OWLEntityData entityData = DataFactory.getOWLEntityData(targetEntity, project.getRenderingManager().getBrowserText(targetEntity));
+        final NotePostedEvent evt = new NotePostedEvent(project.getProjectId(), Optional.of(entityData), new NoteDetails(note.getHeader(), note.getContent()));
+        project.getEventManager().postEvent(evt);
+        return note;
+    }
+
+    @Override
+    public Note addReplyToNote(NoteId inReplyToId, NoteContent replyContent, UserId author) {
+        return addReplyToNote(inReplyToId, replyContent, author, System.currentTimeMillis());
+    }
+
+    @Override
+    public Note addReplyToNote(NoteId inReplyToId, NoteContent replyContent, UserId author, long timestamp) {
+        checkNotNull(inReplyToId);
+        checkNotNull(replyContent);
+        checkNotNull(author);
+        NoteHeader noteHeader = new NoteHeader(NoteIdGenerator.createNoteId(), Optional.of(inReplyToId), author, timestamp);
+        Note note = Note.createNote(noteHeader, replyContent);
+        noteStore.addReply(note);
+        project.getEventManager().postEvent(new NotePostedEvent(project.getProjectId(), new NoteDetails(note.getHeader(), replyContent), Optional.of(inReplyToId)));
+        return note;
+    }
+
+    @Override
+    public void deleteNoteAndReplies(NoteId noteId) {
+        if(noteStore.removeNote(noteId)) {
+            project.getEventManager().postEvent(new NoteDeletedEvent(project.getProjectId(), noteId));
+        }
+    }
+
+    @Override
+    public void setNoteStatus(NoteId noteId, NoteStatus noteStatus) {
+        if(!noteStore.setNoteStatus(noteId, noteStatus).isPresent()) {
+            LOGGER.info(project.getProjectId(), "Failed to find note by Id when changing the note status.  The noteId was %s", noteId);
+            return;
+        }
+        project.getEventManager().postEvent(new NoteStatusChangedEvent(project.getProjectId(), noteId, noteStatus));
+    }
+
+    @Override
+    public void dispose() {
+        noteStore.dispose();
+    }
+}
@@ -8,6 +8,7 @@ import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectDocumentStore;
 import edu.stanford.bmir.protege.web.server.owlapi.manager.WebProtegeOWLManager;
 import edu.stanford.bmir.protege.web.shared.DataFactory;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
 import edu.stanford.bmir.protege.web.shared.entity.OWLEntityData;
 import edu.stanford.bmir.protege.web.shared.event.NotePostedEvent;
 import edu.stanford.bmir.protege.web.shared.notes.*;
@@ -42,7 +43,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Bio-Medical Informatics Research Group<br>
  * Date: 20/04/2012
  */
-public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
+public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager, HasDispose {
 
 
     public static final String CHANGES_ONTOLOGY_FILE_NAME = "changes.owl";
@@ -62,6 +63,24 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
     
     private File notesOntologyDocument;
 
+    private final OWLOntologyChangeListener notesOntologyChangeListener = new OWLOntologyChangeListener() {
+        public void ontologiesChanged(List<? extends OWLOntologyChange> changes) throws OWLException {
+            handleNotesOntologyChanged(Collections.unmodifiableList(changes));
+        }
+    };
+
+    /**
+     * Caches the number of notes attached to entities.  Computing this requires the whole discussion thread to be
+     * built, and it is asked for every node that is displayed in a tree.  The cache is cleared whenever the notes
+     * ontology changes.
+     */
+    private final Map<OWLEntity, Integer> indirectNotesCountCache = new HashMap<OWLEntity, Integer>();
+
+    /**
+     * Incremented (while holding the lock on {@link #indirectNotesCountCache}) whenever the notes ontology changes.
+     */
+    private int notesGeneration = 0;
+
 
     public OWLAPINotesManagerNotesAPIImpl(OWLAPIProject project) {
         this.project = project;
@@ -78,11 +97,7 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
             }
 
             notesManager = NotesManager.createNotesManager(notesOntology, getChangeOntologyDocumentIRI().toString());
-            notesManager.getOWLOntology().getOWLOntologyManager().addOntologyChangeListener(new OWLOntologyChangeListener() {
-                public void ontologiesChanged(List<? extends OWLOntologyChange> changes) throws OWLException {
-                    handleNotesOntologyChanged(Collections.unmodifiableList(changes));
-                }
-            });
+            notesManager.getOWLOntology().getOWLOntologyManager().addOntologyChangeListener(notesOntologyChangeListener);
             long t1 = System.currentTimeMillis();
             importLegacyNotesIfNecessary();
 
@@ -151,6 +166,10 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
 
 
     private void handleNotesOntologyChanged(List<OWLOntologyChange> changes) {
+        synchronized (indirectNotesCountCache) {
+            notesGeneration++;
+            indirectNotesCountCache.clear();
+        }
         try {
             OWLOntologyManager notesOntologyManager = notesOntology.getOWLOntologyManager();
             if(notesOntologyManager.getOntologyFormat(notesOntology) instanceof BinaryOWLOntologyDocumentFormat) {
@@ -178,6 +197,16 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
 
     }
 
+    /**
+     * Stops writing changes to the notes ontology document, and releases the notes ontology.
+     */
+    @Override
+    public void dispose() {
+        OWLOntologyManager notesOntologyManager = notesManager.getOWLOntology().getOWLOntologyManager();
+        notesOntologyManager.removeOntologyChangeListener(notesOntologyChangeListener);
+        notesOntologyManager.removeOntology(notesOntology);
+    }
+
     private IRI getChangeOntologyDocumentIRI() {
         URL changeOntologyURL = OWLAPINotesManagerNotesAPIImpl.class.getResource("/" + CHANGES_ONTOLOGY_FILE_NAME);
         if (changeOntologyURL == null) {
@@ -259,7 +288,22 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
     }
 
     public int getIndirectNotesCount(OWLEntity entity) {
-        return getDiscusssionThread(entity).size();
+        int generation;
+        synchronized (indirectNotesCountCache) {
+            Integer cachedCount = indirectNotesCountCache.get(entity);
+            if(cachedCount != null) {
+                return cachedCount;
+            }
+            generation = notesGeneration;
+        }
+        int count = getDiscusssionThread(entity).size();
+        synchronized (indirectNotesCountCache) {
+            // Don't cache a count that was computed while the notes were changing
+            if(generation == notesGeneration) {
+                indirectNotesCountCache.put(entity, count);
+            }
+        }
+        return count;
     }
 
     @Override
@@ -332,6 +376,30 @@ public class OWLAPINotesManagerNotesAPIImpl implements OWLAPINotesManager {
         return new DiscussionThread(result);
     }
 
+    /**
+     * Gets the discussion threads for all of the things in the notes ontology that have notes attached to them.  The
+     * notes ontology only records the IRIs of the targets of notes, and not their types, so the threads are keyed by
+     * IRI.
+     * @return A map from the IRI of each target to its (non-empty) discussion thread.
+     */
+    public Map<IRI, DiscussionThread> getDiscussionThreadsByTargetIRI() {
+        Map<IRI, DiscussionThread> result = new HashMap<IRI, DiscussionThread>();
+        Set<IRI> noteIRIs = new HashSet<IRI>();
+        for(OWLNamedIndividual individual : notesOntology.getIndividualsInSignature()) {
+            // Only the IRI of the individual is used to look up the thread
+            DiscussionThread thread = getDiscusssionThread(individual);
+            if(thread.size() > 0) {
+                result.put(individual.getIRI(), thread);
+                for(NoteId noteId : thread.getNoteIds()) {
+                    noteIRIs.add(IRI.create(noteId.getLexicalForm()));
+                }
+            }
+        }
+        // Notes are individuals too, and have their replies attached to them.  They are not targets.
+        result.keySet().removeAll(noteIRIs);
+        return result;
+    }
+
 
     private void getAllNotesForAnnotation(Annotation annotation, Optional<NoteId> inReplyTo, Set<Note> result) {
         final Note noteForAnnotation = getNoteForAnnotation(annotation, inReplyTo);
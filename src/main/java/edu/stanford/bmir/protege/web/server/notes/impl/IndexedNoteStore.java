@@ -0,0 +1,777 @@
+package edu.stanford.bmir.protege.web.server.notes.impl;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.io.CountingInputStream;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.notes.api.NoteChangeException;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+import edu.stanford.bmir.protege.web.shared.notes.*;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A store for the notes of a project that keeps every note in memory, indexed by the entity that its thread is
+ *     attached to and by the note that it replies to.  Getting the number of notes on an entity is a map lookup,
+ *     getting a discussion thread takes time proportional to the size of the thread, and there is no need to build
+ *     a thread just to count it.
+ * </p>
+ * <p>
+ *     Changes are persisted by appending a record to a log file before the indexes are updated, so a change costs
+ *     one small write regardless of the number of notes.  Each record is forced to disk before the change is
+ *     applied, unless the store is opened without syncing (which is meant for bulk imports, where the log is only
+ *     forced when the store is disposed).  If a record cannot be written the log is truncated back to where the
+ *     record started.  The log is replayed when the store is opened.  A record that was only partly written (because
+ *     the server stopped in the middle of writing it) is cut off the end of the log.  If the log holds many records
+ *     for notes that have since been removed or changed, it is rewritten when the store is opened so that it only
+ *     contains the current notes.  The rewritten log replaces the old one with a rename, so there is always a
+ *     complete log on disk.
+ * </p>
+ * <p>
+ *     This class is thread safe.
+ * </p>
+ */
+public class IndexedNoteStore implements HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(IndexedNoteStore.class);
+
+    private static final int LOG_VERSION = 1;
+
+    private static final byte ADD_NOTE_RECORD = 1;
+
+    private static final byte SET_NOTE_STATUS_RECORD = 2;
+
+    private static final byte REMOVE_NOTE_RECORD = 3;
+
+    /**
+     * The number of records for removed or changed notes that the log must hold before it is rewritten.
+     */
+    private static final int MIN_STALE_RECORDS_FOR_COMPACTION = 1000;
+
+    private final File logFile;
+
+    private final OWLDataFactory dataFactory;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final Lock readLock = readWriteLock.readLock();
+
+    private final Lock writeLock = readWriteLock.writeLock();
+
+    private final Map<NoteId, Note> notesById = new HashMap<NoteId, Note>();
+
+    /**
+     * Maps each note, including replies, to the entity that its thread is attached to.
+     */
+    private final Map<NoteId, OWLEntity> note2Entity = new HashMap<NoteId, OWLEntity>();
+
+    private final Multimap<OWLEntity, NoteId> entity2ThreadRoots = LinkedHashMultimap.create();
+
+    private final Multimap<NoteId, NoteId> note2Replies = LinkedHashMultimap.create();
+
+    /**
+     * The number of notes, including replies, in the threads attached to an entity.
+     */
+    private final Map<OWLEntity, Integer> entity2NoteCount = new HashMap<OWLEntity, Integer>();
+
+    private final boolean syncEachRecord;
+
+    /**
+     * {@code null} once the store has been disposed, or if the log could not be restored after a failed write.
+     */
+    private FileOutputStream logOutputStream;
+
+    private long logRecordCount = 0;
+
+    /**
+     * Opens a store, replaying its log if the log exists.
+     * @param logFile The file that the log is kept in.  Not {@code null}.
+     * @param dataFactory The data factory that is used to recreate the entities that notes are attached to.
+     *                    Not {@code null}.
+     * @throws IOException if the log could not be read, or could not be opened for writing.
+     */
+    public IndexedNoteStore(File logFile, OWLDataFactory dataFactory) throws IOException {
+        this(logFile, dataFactory, true);
+    }
+
+    /**
+     * Opens a store, replaying its log if the log exists.
+     * @param logFile The file that the log is kept in.  Not {@code null}.
+     * @param dataFactory The data factory that is used to recreate the entities that notes are attached to.
+     *                    Not {@code null}.
+     * @param syncEachRecord {@code true} if each record should be forced to disk as it is written, or {@code false}
+     *                       if the log should only be forced to disk when the store is disposed.
+     * @throws IOException if the log could not be read, or could not be opened for writing.
+     */
+    public IndexedNoteStore(File logFile, OWLDataFactory dataFactory, boolean syncEachRecord) throws IOException {
+        this.logFile = checkNotNull(logFile);
+        this.dataFactory = checkNotNull(dataFactory);
+        this.syncEachRecord = syncEachRecord;
+        recoverCompactedLog(logFile);
+        if(logFile.exists()) {
+            replayLog();
+        }
+        else {
+            logFile.getParentFile().mkdirs();
+        }
+        if(isCompactionNecessary()) {
+            compactLog();
+        }
+        boolean writeHeader = !logFile.exists() || logFile.length() == 0;
+        logOutputStream = new FileOutputStream(logFile, true);
+        if(writeHeader) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            new DataOutputStream(header).writeInt(LOG_VERSION);
+            appendToLog(header);
+        }
+    }
+
+    /**
+     * Determines whether there is a log for a store, including a compacted log that has not yet been moved into
+     * place.
+     * @param logFile The file that the log is kept in.  Not {@code null}.
+     */
+    public static boolean isLogPresent(File logFile) {
+        return logFile.exists() || getCompactedLogFile(logFile).exists();
+    }
+
+    /**
+     * Gets the number of notes, including replies, in this store.
+     */
+    public int getNoteCount() {
+        try {
+            readLock.lock();
+            return notesById.size();
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of threads that are attached to an entity.
+     * @param entity The entity.  Not {@code null}.
+     * @return The number of notes, not including replies, that are attached to the entity.
+     */
+    public int getDirectNoteCount(OWLEntity entity) {
+        try {
+            readLock.lock();
+            return entity2ThreadRoots.get(checkNotNull(entity)).size();
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of notes in the threads that are attached to an entity.
+     * @param entity The entity.  Not {@code null}.
+     * @return The number of notes, including replies, that are attached to the entity.
+     */
+    public int getNoteCount(OWLEntity entity) {
+        try {
+            readLock.lock();
+            Integer count = entity2NoteCount.get(checkNotNull(entity));
+            return count != null ? count : 0;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a note.
+     * @param noteId The id of the note.  Not {@code null}.
+     * @return The note, or an absent value if this store does not contain a note with the specified id.
+     */
+    public Optional<Note> getNote(NoteId noteId) {
+        try {
+            readLock.lock();
+            return Optional.fromNullable(notesById.get(checkNotNull(noteId)));
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the entity that the thread containing a note is attached to.
+     * @param noteId The id of the note.  Not {@code null}.
+     * @return The entity, or an absent value if this store does not contain a note with the specified id.
+     */
+    public Optional<OWLEntity> getTarget(NoteId noteId) {
+        try {
+            readLock.lock();
+            return Optional.fromNullable(note2Entity.get(checkNotNull(noteId)));
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the threads that are attached to an entity.
+     * @param entity The entity.  Not {@code null}.
+     * @return The threads, as one {@link DiscussionThread}.  Not {@code null}.
+     */
+    public DiscussionThread getDiscussionThread(OWLEntity entity) {
+        try {
+            readLock.lock();
+            Set<Note> result = new HashSet<Note>();
+            for(NoteId rootId : entity2ThreadRoots.get(checkNotNull(entity))) {
+                collectThread(rootId, result);
+            }
+            return new DiscussionThread(result);
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a note that starts a thread on an entity.
+     * @param entity The entity.  Not {@code null}.
+     * @param note The note.  Not {@code null}.  The note must not be a reply.
+     * @throws NoteChangeException if this store already contains a note with the same id.
+     */
+    public void addNote(OWLEntity entity, Note note) throws NoteChangeException {
+        checkNotNull(entity);
+        checkArgument(!note.getInReplyTo().isPresent(), "note must not be a reply");
+        try {
+            writeLock.lock();
+            if(notesById.containsKey(note.getNoteId())) {
+                throw new NoteChangeException(note);
+            }
+            appendAddNoteRecord(Optional.of(entity), note);
+            indexNote(entity, note);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a reply to a note.
+     * @param reply The reply.  Not {@code null}.  The reply must be a reply to a note in this store.
+     * @throws NoteChangeException if this store already contains a note with the same id as the reply, or does not
+     * contain the note that is replied to.
+     */
+    public void addReply(Note reply) throws NoteChangeException {
+        checkArgument(reply.getInReplyTo().isPresent(), "reply must be a reply");
+        try {
+            writeLock.lock();
+            OWLEntity entity = note2Entity.get(reply.getInReplyTo().get());
+            if(entity == null || notesById.containsKey(reply.getNoteId())) {
+                throw new NoteChangeException(reply);
+            }
+            appendAddNoteRecord(Optional.<OWLEntity>absent(), reply);
+            indexNote(entity, reply);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the status of a note.
+     * @param noteId The id of the note.  Not {@code null}.
+     * @param noteStatus The status.  Not {@code null}.
+     * @return The note with its new status, or an absent value if this store does not contain a note with the
+     * specified id.
+     */
+    public Optional<Note> setNoteStatus(NoteId noteId, NoteStatus noteStatus) {
+        checkNotNull(noteStatus);
+        try {
+            writeLock.lock();
+            Note note = notesById.get(checkNotNull(noteId));
+            if(note == null) {
+                return Optional.absent();
+            }
+            appendSetNoteStatusRecord(noteId, noteStatus);
+            Note changedNote = withStatus(note, noteStatus);
+            notesById.put(noteId, changedNote);
+            return Optional.of(changedNote);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a note along with its replies.
+     * @param noteId The id of the note.  Not {@code null}.
+     * @return {@code true} if the note was removed, or {@code false} if this store does not contain a note with the
+     * specified id.
+     */
+    public boolean removeNote(NoteId noteId) {
+        try {
+            writeLock.lock();
+            if(!notesById.containsKey(checkNotNull(noteId))) {
+                return false;
+            }
+            appendRemoveNoteRecord(noteId);
+            unindexNote(noteId);
+            return true;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the records that have been written to the log to disk.  This is only needed if the store was opened
+     * without syncing each record.
+     * @throws IOException if the log could not be forced to disk.
+     */
+    public void sync() throws IOException {
+        try {
+            writeLock.lock();
+            if(logOutputStream == null) {
+                throw new IOException("The notes log " + logFile + " is not open for writing");
+            }
+            logOutputStream.getFD().sync();
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            writeLock.lock();
+            if(logOutputStream != null) {
+                if(!syncEachRecord) {
+                    logOutputStream.getFD().sync();
+                }
+                logOutputStream.close();
+                logOutputStream = null;
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        try {
+            readLock.lock();
+            return Objects.toStringHelper("IndexedNoteStore")
+                    .add("notes", notesById.size())
+                    .add("entities", entity2NoteCount.size())
+                    .add("logRecords", logRecordCount)
+                    .toString();
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //////  Indexes
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void collectThread(NoteId noteId, Set<Note> result) {
+        Note note = notesById.get(noteId);
+        result.add(note);
+        for(NoteId replyId : note2Replies.get(noteId)) {
+            collectThread(replyId, result);
+        }
+    }
+
+    private void indexNote(OWLEntity entity, Note note) {
+        NoteId noteId = note.getNoteId();
+        notesById.put(noteId, note);
+        note2Entity.put(noteId, entity);
+        Optional<NoteId> inReplyTo = note.getInReplyTo();
+        if(inReplyTo.isPresent()) {
+            note2Replies.put(inReplyTo.get(), noteId);
+        }
+        else {
+            entity2ThreadRoots.put(entity, noteId);
+        }
+        Integer count = entity2NoteCount.get(entity);
+        entity2NoteCount.put(entity, count != null ? count + 1 : 1);
+    }
+
+    private void unindexNote(NoteId noteId) {
+        Note note = notesById.get(noteId);
+        OWLEntity entity = note2Entity.get(noteId);
+        int removedCount = unindexNoteAndReplies(noteId);
+        Optional<NoteId> inReplyTo = note.getInReplyTo();
+        if(inReplyTo.isPresent()) {
+            note2Replies.remove(inReplyTo.get(), noteId);
+        }
+        else {
+            entity2ThreadRoots.remove(entity, noteId);
+        }
+        int count = entity2NoteCount.get(entity) - removedCount;
+        if(count > 0) {
+            entity2NoteCount.put(entity, count);
+        }
+        else {
+            entity2NoteCount.remove(entity);
+        }
+    }
+
+    private int unindexNoteAndReplies(NoteId noteId) {
+        int removedCount = 1;
+        for(NoteId replyId : note2Replies.removeAll(noteId)) {
+            removedCount += unindexNoteAndReplies(replyId);
+        }
+        notesById.remove(noteId);
+        note2Entity.remove(noteId);
+        return removedCount;
+    }
+
+    private static Note withStatus(Note note, NoteStatus noteStatus) {
+        NoteContent content = note.getContent();
+        NoteContent changedContent = NoteContent.builder()
+                .setSubject(content.getSubject())
+                .setBody(content.getBody())
+                .setNoteType(content.getNoteType())
+                .setNoteStatus(noteStatus)
+                .build();
+        return Note.createNote(note.getHeader(), changedContent);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //////  Log
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void appendAddNoteRecord(Optional<OWLEntity> entity, Note note) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            writeAddNoteRecord(new DataOutputStream(record), entity, note);
+            appendToLog(record);
+            logRecordCount++;
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void appendSetNoteStatusRecord(NoteId noteId, NoteStatus noteStatus) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream recordOutputStream = new DataOutputStream(record);
+            recordOutputStream.writeByte(SET_NOTE_STATUS_RECORD);
+            writeString(recordOutputStream, noteId.getLexicalForm());
+            writeString(recordOutputStream, noteStatus.name());
+            appendToLog(record);
+            logRecordCount++;
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void appendRemoveNoteRecord(NoteId noteId) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream recordOutputStream = new DataOutputStream(record);
+            recordOutputStream.writeByte(REMOVE_NOTE_RECORD);
+            writeString(recordOutputStream, noteId.getLexicalForm());
+            appendToLog(record);
+            logRecordCount++;
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends a record to the log as a single write.  If the write fails then the log is truncated to its original
+     * length, so that later records do not follow a partly written one.  If the log cannot be truncated then no
+     * further records are written to it.
+     */
+    private void appendToLog(ByteArrayOutputStream record) throws IOException {
+        if(logOutputStream == null) {
+            throw new IOException("The notes log " + logFile + " is not open for writing");
+        }
+        FileChannel channel = logOutputStream.getChannel();
+        long baseOffset = channel.size();
+        try {
+            record.writeTo(logOutputStream);
+            if(syncEachRecord) {
+                channel.force(false);
+            }
+        }
+        catch (IOException e) {
+            try {
+                channel.truncate(baseOffset);
+            }
+            catch (IOException truncateException) {
+                LOGGER.severe(truncateException);
+                closeLogAfterFailure();
+            }
+            throw e;
+        }
+    }
+
+    private void closeLogAfterFailure() {
+        try {
+            logOutputStream.close();
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        logOutputStream = null;
+    }
+
+    private void replayLog() throws IOException {
+        long t0 = System.currentTimeMillis();
+        CountingInputStream countingInputStream = new CountingInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+        DataInputStream inputStream = new DataInputStream(countingInputStream);
+        long endOfLastRecord = 0;
+        try {
+            int version = inputStream.readInt();
+            if(version != LOG_VERSION) {
+                throw new IOException("Unsupported notes log version: " + version);
+            }
+            endOfLastRecord = countingInputStream.getCount();
+            while(true) {
+                int recordType = inputStream.read();
+                if(recordType == -1) {
+                    break;
+                }
+                replayRecord((byte) recordType, inputStream);
+                logRecordCount++;
+                endOfLastRecord = countingInputStream.getCount();
+            }
+        }
+        catch (EOFException e) {
+            LOGGER.info("The notes log %s ends with a partly written record.  The record will be discarded.", logFile);
+            inputStream.close();
+            RandomAccessFile file = new RandomAccessFile(logFile, "rw");
+            try {
+                file.setLength(endOfLastRecord);
+            }
+            finally {
+                file.close();
+            }
+        }
+        finally {
+            inputStream.close();
+        }
+        long t1 = System.currentTimeMillis();
+        LOGGER.info("Replayed %d notes log records in %d ms", logRecordCount, (t1 - t0));
+    }
+
+    private void replayRecord(byte recordType, DataInputStream inputStream) throws IOException {
+        if(recordType == ADD_NOTE_RECORD) {
+            Optional<OWLEntity> entity = Optional.absent();
+            if(inputStream.readBoolean()) {
+                entity = Optional.of(readEntity(inputStream));
+            }
+            Note note = readNote(inputStream);
+            if(entity.isPresent()) {
+                indexNote(entity.get(), note);
+            }
+            else {
+                OWLEntity repliedToEntity = note2Entity.get(note.getInReplyTo().get());
+                if(repliedToEntity != null) {
+                    indexNote(repliedToEntity, note);
+                }
+            }
+        }
+        else if(recordType == SET_NOTE_STATUS_RECORD) {
+            NoteId noteId = NoteId.createNoteIdFromLexicalForm(readString(inputStream));
+            NoteStatus noteStatus = NoteStatus.valueOf(readString(inputStream));
+            Note note = notesById.get(noteId);
+            if(note != null) {
+                notesById.put(noteId, withStatus(note, noteStatus));
+            }
+        }
+        else if(recordType == REMOVE_NOTE_RECORD) {
+            NoteId noteId = NoteId.createNoteIdFromLexicalForm(readString(inputStream));
+            if(notesById.containsKey(noteId)) {
+                unindexNote(noteId);
+            }
+        }
+        else {
+            throw new IOException("Unknown notes log record type: " + recordType);
+        }
+    }
+
+    private boolean isCompactionNecessary() {
+        long staleRecordCount = logRecordCount - notesById.size();
+        return staleRecordCount >= MIN_STALE_RECORDS_FOR_COMPACTION && staleRecordCount >= notesById.size();
+    }
+
+    /**
+     * Rewrites the log so that it only contains the current notes.  The rewritten log is written to a separate file
+     * and forced to disk, and is then renamed over the existing log, so that a failure part way through leaves the
+     * existing log intact.
+     */
+    private void compactLog() throws IOException {
+        File compactedLogFile = getCompactedLogFile(logFile);
+        FileOutputStream fileOutputStream = new FileOutputStream(compactedLogFile);
+        try {
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+            outputStream.writeInt(LOG_VERSION);
+            for(OWLEntity entity : entity2ThreadRoots.keySet()) {
+                for(NoteId rootId : entity2ThreadRoots.get(entity)) {
+                    writeThread(outputStream, Optional.of(entity), rootId);
+                }
+            }
+            outputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        finally {
+            fileOutputStream.close();
+        }
+        // Renaming over an existing file replaces it atomically on POSIX file systems.  Elsewhere the old log has to
+        // be deleted first, and the compacted log is recovered when the store is next opened if we stop in between.
+        if(!compactedLogFile.renameTo(logFile)) {
+            if(!logFile.delete() || !compactedLogFile.renameTo(logFile)) {
+                throw new IOException("Could not replace the notes log with the compacted log: " + compactedLogFile);
+            }
+        }
+        LOGGER.info("Compacted notes log from %d to %d records", logRecordCount, notesById.size());
+        logRecordCount = notesById.size();
+    }
+
+    private static File getCompactedLogFile(File logFile) {
+        return new File(logFile.getParentFile(), logFile.getName() + ".compacting");
+    }
+
+    /**
+     * A compacted log is only complete if the log that it replaces has gone.  Otherwise it is left over from a
+     * compaction that did not finish.
+     */
+    private static void recoverCompactedLog(File logFile) throws IOException {
+        File compactedLogFile = getCompactedLogFile(logFile);
+        if(!compactedLogFile.exists()) {
+            return;
+        }
+        if(logFile.exists()) {
+            if(!compactedLogFile.delete()) {
+                throw new IOException("Could not delete the incomplete compacted notes log: " + compactedLogFile);
+            }
+        }
+        else {
+            LOGGER.info("Recovering the compacted notes log %s", compactedLogFile);
+            if(!compactedLogFile.renameTo(logFile)) {
+                throw new IOException("Could not recover the compacted notes log: " + compactedLogFile);
+            }
+        }
+    }
+
+    private void writeThread(DataOutputStream outputStream, Optional<OWLEntity> entity, NoteId noteId) throws IOException {
+        writeAddNoteRecord(outputStream, entity, notesById.get(noteId));
+        for(NoteId replyId : note2Replies.get(noteId)) {
+            writeThread(outputStream, Optional.<OWLEntity>absent(), replyId);
+        }
+    }
+
+    private static void writeAddNoteRecord(DataOutputStream outputStream, Optional<OWLEntity> entity, Note note) throws IOException {
+        outputStream.writeByte(ADD_NOTE_RECORD);
+        outputStream.writeBoolean(entity.isPresent());
+        if(entity.isPresent()) {
+            writeString(outputStream, entity.get().getEntityType().getName());
+            writeString(outputStream, entity.get().getIRI().toString());
+        }
+        NoteHeader header = note.getHeader();
+        writeString(outputStream, header.getNoteId().getLexicalForm());
+        writeOptionalString(outputStream, header.getReplyToId().isPresent() ? Optional.of(header.getReplyToId().get().getLexicalForm()) : Optional.<String>absent());
+        writeString(outputStream, header.getAuthor().getUserName());
+        outputStream.writeLong(header.getTimestamp());
+        NoteContent content = note.getContent();
+        writeOptionalString(outputStream, content.getSubject());
+        writeOptionalString(outputStream, content.getBody());
+        writeOptionalString(outputStream, content.getNoteType().isPresent() ? Optional.of(content.getNoteType().get().name()) : Optional.<String>absent());
+        writeOptionalString(outputStream, content.getNoteStatus().isPresent() ? Optional.of(content.getNoteStatus().get().name()) : Optional.<String>absent());
+    }
+
+    private OWLEntity readEntity(DataInputStream inputStream) throws IOException {
+        String entityTypeName = readString(inputStream);
+        IRI iri = IRI.create(readString(inputStream));
+        for(EntityType<?> entityType : EntityType.values()) {
+            if(entityType.getName().equals(entityTypeName)) {
+                return dataFactory.getOWLEntity(entityType, iri);
+            }
+        }
+        throw new IOException("Unknown entity type in notes log: " + entityTypeName);
+    }
+
+    private static Note readNote(DataInputStream inputStream) throws IOException {
+        NoteId noteId = NoteId.createNoteIdFromLexicalForm(readString(inputStream));
+        Optional<String> inReplyTo = readOptionalString(inputStream);
+        UserId author = UserId.getUserId(readString(inputStream));
+        long timestamp = inputStream.readLong();
+        Optional<String> subject = readOptionalString(inputStream);
+        Optional<String> body = readOptionalString(inputStream);
+        Optional<String> noteType = readOptionalString(inputStream);
+        Optional<String> noteStatus = readOptionalString(inputStream);
+        NoteHeader header = new NoteHeader(noteId,
+                inReplyTo.isPresent() ? Optional.of(NoteId.createNoteIdFromLexicalForm(inReplyTo.get())) : Optional.<NoteId>absent(),
+                author,
+                timestamp);
+        NoteContent content = NoteContent.builder()
+                .setSubject(subject)
+                .setBody(body)
+                .setNoteType(noteType.isPresent() ? Optional.of(NoteType.valueOf(noteType.get())) : Optional.<NoteType>absent())
+                .setNoteStatus(noteStatus.isPresent() ? Optional.of(NoteStatus.valueOf(noteStatus.get())) : Optional.<NoteStatus>absent())
+                .build();
+        return Note.createNote(header, content);
+    }
+
+    /**
+     * Strings are written as a length followed by UTF-8 bytes, rather than with {@link DataOutputStream#writeUTF},
+     * because note bodies can be longer than 64K.
+     */
+    private static void writeString(DataOutputStream outputStream, String s) throws IOException {
+        byte[] bytes = s.getBytes("UTF-8");
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException {
+        int length = inputStream.readInt();
+        if(length < 0) {
+            throw new IOException("Invalid string length in notes log: " + length);
+        }
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static void writeOptionalString(DataOutputStream outputStream, Optional<String> s) throws IOException {
+        outputStream.writeBoolean(s.isPresent());
+        if(s.isPresent()) {
+            writeString(outputStream, s.get());
+        }
+    }
+
+    private static Optional<String> readOptionalString(DataInputStream inputStream) throws IOException {
+        if(inputStream.readBoolean()) {
+            return Optional.of(readString(inputStream));
+        }
+        return Optional.absent();
+    }
+}
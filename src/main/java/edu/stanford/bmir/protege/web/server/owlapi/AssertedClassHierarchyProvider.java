@@ -98,12 +98,14 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
     private void handleChanges(List<? extends OWLOntologyChange> changes) {
         Set<OWLClass> oldTerminalElements = new HashSet<OWLClass>(rootFinder.getTerminalElements());
         Set<OWLClass> changedClasses = new HashSet<OWLClass>();
-        changedClasses.add(root);
         List<OWLAxiomChange> filteredChanges = filterIrrelevantChanges(changes);
         updateImplicitRoots(filteredChanges);
+        // The root is only reported as changed if its children might have changed, that is, if it is mentioned by a
+        // changed axiom or if the set of implicit roots has changed.  Listeners that cache closures drop everything
+        // that passes through a changed node, which for the root is everything.
         for (OWLOntologyChange change : filteredChanges) {
             for (OWLEntity entity : ((OWLAxiomChange) change).getEntities()) {
-                if (entity instanceof OWLClass && !entity.equals(root)) {
+                if (entity instanceof OWLClass) {
                     changedClasses.add((OWLClass) entity);
                 }
             }
@@ -111,16 +113,22 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         for (OWLClass cls : changedClasses) {
             registerNodeChanged(cls);
         }
+        boolean rootChildrenChanged = false;
         for (OWLClass cls : rootFinder.getTerminalElements()) {
             if (!oldTerminalElements.contains(cls)) {
                 registerNodeChanged(cls);
+                rootChildrenChanged = true;
             }
         }
         for (OWLClass cls : oldTerminalElements) {
             if (!rootFinder.getTerminalElements().contains(cls)) {
                 registerNodeChanged(cls);
+                rootChildrenChanged = true;
             }
         }
+        if (rootChildrenChanged) {
+            registerNodeChanged(root);
+        }
         notifyNodeChanges();
     }
 
@@ -200,11 +208,9 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         }
         else {
             result = extractChildren(object);
-            for (Iterator<OWLClass> it = result.iterator(); it.hasNext();) {
-                OWLClass curChild = it.next();
-                if (getAncestors(object).contains(curChild)) {
-                    it.remove();
-                }
+            // Filter out children that are also ancestors (cycles)
+            if (!result.isEmpty()) {
+                result.removeAll(getAncestors(object));
             }
         }
 
@@ -272,15 +278,44 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         }
         Set<OWLClass> ancestors = getAncestors(object);
         if (ancestors.contains(object)) {
-            for (OWLClass cls : ancestors) {
-                if (getAncestors(cls).contains(object)) {
-                    result.add(cls);
-                }
-            }
+            result.addAll(getAncestorsInCycleWith(object, ancestors));
             result.remove(object);
             result.remove(root);
         }
         return result;
     }
 
+    /**
+     * Gets the ancestors of a class that it is in a cycle with, which are the ancestors that can be reached by walking
+     * back down from the class.  The walk down only follows the (reversed) parent edges between the ancestors, so
+     * the parents of each ancestor are only looked up once, rather than computing the ancestors of every ancestor.
+     */
+    private Set<OWLClass> getAncestorsInCycleWith(OWLClass object, Set<OWLClass> ancestors) {
+        Map<OWLClass, Set<OWLClass>> ancestorChildren = new HashMap<OWLClass, Set<OWLClass>>();
+        for (OWLClass ancestor : ancestors) {
+            for (OWLClass parent : getParents(ancestor)) {
+                Set<OWLClass> children = ancestorChildren.get(parent);
+                if (children == null) {
+                    children = new HashSet<OWLClass>();
+                    ancestorChildren.put(parent, children);
+                }
+                children.add(ancestor);
+            }
+        }
+        Set<OWLClass> result = new HashSet<OWLClass>();
+        Deque<OWLClass> stack = new ArrayDeque<OWLClass>();
+        stack.push(object);
+        while (!stack.isEmpty()) {
+            Set<OWLClass> children = ancestorChildren.get(stack.pop());
+            if (children != null) {
+                for (OWLClass child : children) {
+                    if (result.add(child)) {
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
 }
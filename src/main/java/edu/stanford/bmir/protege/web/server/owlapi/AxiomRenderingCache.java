@@ -0,0 +1,166 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Memoises the renderings of axioms.  Change lists and frames render the same axioms over and over again, and the
+ *     rendering of an axiom only changes when the rendering of one of the entities (or IRIs) that it mentions changes.
+ *     The cache keeps an index from each IRI to the cached axioms that mention it, so that it can drop just those
+ *     axioms when it is told (by an {@link EntityRenderingCache}) that the rendering of an IRI has changed.
+ * </p>
+ * <p>
+ *     The number of cached renderings is bounded.  When the bound is reached the cache is cleared and starts filling
+ *     up again.  This class is thread safe.
+ * </p>
+ */
+public abstract class AxiomRenderingCache implements EntityRenderingCache.InvalidationListener {
+
+    private final int maxSize;
+
+    private final ConcurrentMap<OWLAxiom, String> renderings = new ConcurrentHashMap<OWLAxiom, String>();
+
+    /**
+     * Guarded by this.
+     */
+    private final Map<IRI, Set<OWLAxiom>> iri2Axioms = new HashMap<IRI, Set<OWLAxiom>>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param maxSize The maximum number of renderings to hold.  Must be positive.
+     */
+    protected AxiomRenderingCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Computes the rendering of an axiom on a cache miss.
+     * @param axiom The axiom.  Not {@code null}.
+     * @return The rendering.  Not {@code null}.
+     */
+    protected abstract String computeRendering(OWLAxiom axiom);
+
+    /**
+     * Gets the rendering of an axiom, computing it if it is not cached.
+     * @param axiom The axiom.  Not {@code null}.
+     * @return The rendering.  Not {@code null}.
+     */
+    public String getRendering(OWLAxiom axiom) {
+        String rendering = renderings.get(axiom);
+        if (rendering != null) {
+            return rendering;
+        }
+        long startGeneration = generation.get();
+        rendering = computeRendering(axiom);
+        Set<IRI> iris = getIRIs(axiom);
+        synchronized (this) {
+            // Don't keep a rendering that might have been computed from stale short forms
+            if (generation.get() == startGeneration) {
+                if (renderings.size() >= maxSize) {
+                    clear();
+                }
+                renderings.put(axiom, rendering);
+                for (IRI iri : iris) {
+                    Set<OWLAxiom> axioms = iri2Axioms.get(iri);
+                    if (axioms == null) {
+                        axioms = new HashSet<OWLAxiom>(4);
+                        iri2Axioms.put(iri, axioms);
+                    }
+                    axioms.add(axiom);
+                }
+            }
+        }
+        return rendering;
+    }
+
+    public int size() {
+        return renderings.size();
+    }
+
+    /**
+     * Gets the number of IRIs that have index entries.
+     */
+    synchronized int getIndexedIRICount() {
+        return iri2Axioms.size();
+    }
+
+    @Override
+    public synchronized void handleInvalidated(IRI iri) {
+        generation.incrementAndGet();
+        Set<OWLAxiom> axioms = iri2Axioms.remove(iri);
+        if (axioms != null) {
+            for (OWLAxiom axiom : axioms) {
+                renderings.remove(axiom);
+                removeFromIndex(axiom);
+            }
+        }
+    }
+
+    /**
+     * Removes an axiom from the index entries of all of the IRIs that it mentions, dropping entries that become empty.
+     * Must be called while holding the lock on this.
+     */
+    private void removeFromIndex(OWLAxiom axiom) {
+        for (IRI axiomIRI : getIRIs(axiom)) {
+            Set<OWLAxiom> axioms = iri2Axioms.get(axiomIRI);
+            if (axioms != null) {
+                axioms.remove(axiom);
+                if (axioms.isEmpty()) {
+                    iri2Axioms.remove(axiomIRI);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void handleInvalidatedAll() {
+        generation.incrementAndGet();
+        clear();
+    }
+
+    private void clear() {
+        renderings.clear();
+        iri2Axioms.clear();
+    }
+
+    /**
+     * Gets the IRIs whose renderings an axiom rendering depends upon.  These are the IRIs of the entities in the
+     * signature of the axiom along with any IRIs that appear as annotation subjects or values.
+     */
+    private static Set<IRI> getIRIs(OWLAxiom axiom) {
+        Set<IRI> result = new HashSet<IRI>();
+        for (OWLEntity entity : axiom.getSignature()) {
+            result.add(entity.getIRI());
+        }
+        if (axiom instanceof OWLAnnotationAssertionAxiom) {
+            OWLAnnotationAssertionAxiom ax = (OWLAnnotationAssertionAxiom) axiom;
+            if (ax.getSubject() instanceof IRI) {
+                result.add((IRI) ax.getSubject());
+            }
+            if (ax.getValue() instanceof IRI) {
+                result.add((IRI) ax.getValue());
+            }
+        }
+        for (OWLAnnotation annotation : axiom.getAnnotations()) {
+            if (annotation.getValue() instanceof IRI) {
+                result.add((IRI) annotation.getValue());
+            }
+        }
+        return result;
+    }
+}
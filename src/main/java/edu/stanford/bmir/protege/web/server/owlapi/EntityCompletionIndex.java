@@ -0,0 +1,207 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.shared.entity.EntityNameUtils;
+import edu.stanford.bmir.protege.web.shared.search.EntityNameMatchResult;
+import edu.stanford.bmir.protege.web.shared.search.EntityNameMatcher;
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A word start index of entity short forms that is used to find auto-completions for partially typed entity
+ *     names.  For each entity type there is a sorted map from the lower case tail of a short form, starting at each
+ *     word start, to the entities that have that short form.  Completions for a prefix are found by walking the
+ *     sorted range of keys that start with the prefix.  The walk stops after a fixed number of candidates, which
+ *     depends on the number of completions that are asked for rather than on the number of entities, so the work
+ *     done per keystroke is bounded.
+ * </p>
+ * <p>
+ *     This class is thread safe.
+ * </p>
+ */
+public class EntityCompletionIndex {
+
+    /**
+     * The number of candidates that are examined per requested completion.
+     */
+    private static final int CANDIDATES_PER_COMPLETION = 8;
+
+    private static final int MIN_CANDIDATES = 64;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final Map<OWLEntity, String> entity2ShortForm = new HashMap<OWLEntity, String>();
+
+    private final Map<EntityType<?>, TreeMap<String, Set<OWLEntity>>> entityType2WordStartIndex = new HashMap<EntityType<?>, TreeMap<String, Set<OWLEntity>>>();
+
+    /**
+     * Adds an entity to the index, replacing any short form that it was previously indexed with.
+     * @param entity The entity.  Not {@code null}.
+     * @param shortForm The short form of the entity.  Not {@code null}.
+     */
+    public void add(OWLEntity entity, String shortForm) {
+        checkNotNull(entity);
+        checkNotNull(shortForm);
+        try {
+            readWriteLock.writeLock().lock();
+            removeInternal(entity);
+            entity2ShortForm.put(entity, shortForm);
+            TreeMap<String, Set<OWLEntity>> wordStartIndex = entityType2WordStartIndex.get(entity.getEntityType());
+            if (wordStartIndex == null) {
+                wordStartIndex = new TreeMap<String, Set<OWLEntity>>();
+                entityType2WordStartIndex.put(entity.getEntityType(), wordStartIndex);
+            }
+            for (String key : getKeys(shortForm)) {
+                Set<OWLEntity> entities = wordStartIndex.get(key);
+                if (entities == null) {
+                    entities = new HashSet<OWLEntity>(2);
+                    wordStartIndex.put(key, entities);
+                }
+                entities.add(entity);
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an entity from the index.
+     * @param entity The entity.  Not {@code null}.
+     */
+    public void remove(OWLEntity entity) {
+        try {
+            readWriteLock.writeLock().lock();
+            removeInternal(entity);
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(OWLEntity entity) {
+        String shortForm = entity2ShortForm.remove(entity);
+        if (shortForm == null) {
+            return;
+        }
+        TreeMap<String, Set<OWLEntity>> wordStartIndex = entityType2WordStartIndex.get(entity.getEntityType());
+        for (String key : getKeys(shortForm)) {
+            Set<OWLEntity> entities = wordStartIndex.get(key);
+            if (entities != null) {
+                entities.remove(entity);
+                if (entities.isEmpty()) {
+                    wordStartIndex.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the keys for a short form.  These are the lower case tails of the short form that start at the beginning
+     * of the short form and at each word start within it.
+     */
+    private static Set<String> getKeys(String shortForm) {
+        Set<String> keys = new HashSet<String>();
+        keys.add(shortForm.toLowerCase());
+        int index = 0;
+        while (index < shortForm.length()) {
+            int wordStart = EntityNameUtils.indexOfWord(shortForm, index);
+            if (wordStart == -1) {
+                break;
+            }
+            keys.add(shortForm.substring(wordStart).toLowerCase());
+            index = wordStart + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * Gets completions for a prefix.
+     * @param prefix The prefix that has been typed.  Not {@code null}.  May be empty.
+     * @param entityTypes The types of entities to complete.  Not {@code null}.
+     * @param limit The maximum number of completions.  Not negative.
+     * @return The completions, best first.  Each result contains the entity, its short form and the position of
+     * the prefix in the short form.  Not {@code null}.
+     */
+    public List<EntitySearchResult> getCompletions(String prefix, Set<EntityType<?>> entityTypes, int limit) {
+        checkNotNull(prefix);
+        checkNotNull(entityTypes);
+        checkArgument(limit >= 0, "limit must not be negative");
+        String lowerCasePrefix = prefix.toLowerCase();
+        int maxCandidates = Math.max(MIN_CANDIDATES, limit * CANDIDATES_PER_COMPLETION);
+        EntityNameMatcher matcher = new EntityNameMatcher(prefix);
+        List<CompletionMatch> matches = new ArrayList<CompletionMatch>();
+        try {
+            readWriteLock.readLock().lock();
+            for (EntityType<?> entityType : entityTypes) {
+                TreeMap<String, Set<OWLEntity>> wordStartIndex = entityType2WordStartIndex.get(entityType);
+                if (wordStartIndex == null) {
+                    continue;
+                }
+                Set<OWLEntity> candidates = new HashSet<OWLEntity>();
+                // Character.MAX_VALUE sorts after any character that can follow the prefix
+                SortedMap<String, Set<OWLEntity>> range = wordStartIndex.subMap(lowerCasePrefix, lowerCasePrefix + Character.MAX_VALUE);
+                for (Set<OWLEntity> entities : range.values()) {
+                    candidates.addAll(entities);
+                    if (candidates.size() >= maxCandidates) {
+                        break;
+                    }
+                }
+                for (OWLEntity candidate : candidates) {
+                    String shortForm = entity2ShortForm.get(candidate);
+                    Optional<EntityNameMatchResult> matchResult = matcher.findIn(shortForm);
+                    if (matchResult.isPresent()) {
+                        matches.add(new CompletionMatch(new EntitySearchResult(matchResult.get(), candidate, shortForm)));
+                    }
+                }
+            }
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+        Collections.sort(matches);
+        List<EntitySearchResult> result = new ArrayList<EntitySearchResult>();
+        for (CompletionMatch match : matches) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(match.getSearchResult());
+        }
+        return result;
+    }
+
+
+    private static class CompletionMatch implements Comparable<CompletionMatch> {
+
+        private final EntitySearchResult searchResult;
+
+        private CompletionMatch(EntitySearchResult searchResult) {
+            this.searchResult = searchResult;
+        }
+
+        public EntitySearchResult getSearchResult() {
+            return searchResult;
+        }
+
+        @Override
+        public int compareTo(CompletionMatch other) {
+            int diff = searchResult.getMatchResult().compareTo(other.searchResult.getMatchResult());
+            if (diff != 0) {
+                return diff;
+            }
+            return searchResult.getShortForm().compareToIgnoreCase(other.searchResult.getShortForm());
+        }
+    }
+}
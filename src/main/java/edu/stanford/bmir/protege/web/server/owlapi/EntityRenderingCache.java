@@ -0,0 +1,217 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import com.google.common.base.Objects;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.ShortFormProvider;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A per-entity cache of the short form (in the project's default language) and the deprecation status of
+ *     entities.  Both of these are computed by looking at the annotation assertions for an entity across the imports
+ *     closure of the root ontology, and both are needed whenever an entity is rendered.
+ * </p>
+ * <p>
+ *     The cache does not listen for changes itself.  Its owner must invalidate entries when the ontologies change,
+ *     <em>before</em> asking for fresh values.  Lookups do not block each other, and a value that was being computed
+ *     while the entity was invalidated is never left in the cache.  This class is thread safe.
+ * </p>
+ */
+public class EntityRenderingCache implements ShortFormProvider {
+
+    private final OWLOntology rootOntology;
+
+    private final ShortFormProvider shortFormProvider;
+
+    private final ConcurrentMap<OWLEntity, String> shortFormCache = new ConcurrentHashMap<OWLEntity, String>();
+
+    private final ConcurrentMap<OWLEntity, Boolean> deprecatedCache = new ConcurrentHashMap<OWLEntity, Boolean>();
+
+    /**
+     * Incremented whenever any entry is invalidated.  See {@link #put(ConcurrentMap, OWLEntity, Object, long)}.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<InvalidationListener>();
+
+    /**
+     * @param rootOntology The root ontology of the project.  Not {@code null}.
+     * @param shortFormProvider The provider used to compute short forms on a cache miss.  This must be thread safe.
+     *                          Not {@code null}.
+     */
+    public EntityRenderingCache(OWLOntology rootOntology, ShortFormProvider shortFormProvider) {
+        this.rootOntology = checkNotNull(rootOntology);
+        this.shortFormProvider = checkNotNull(shortFormProvider);
+    }
+
+    @Override
+    public String getShortForm(OWLEntity entity) {
+        String shortForm = shortFormCache.get(entity);
+        if (shortForm != null) {
+            hitCount.incrementAndGet();
+            return shortForm;
+        }
+        missCount.incrementAndGet();
+        long startGeneration = generation.get();
+        shortForm = shortFormProvider.getShortForm(entity);
+        put(shortFormCache, entity, shortForm, startGeneration);
+        return shortForm;
+    }
+
+    /**
+     * Determines whether an entity is deprecated, that is, whether there is an owl:deprecated annotation assertion
+     * on its IRI in the imports closure of the root ontology.
+     * @param entity The entity.  Not {@code null}.
+     * @return {@code true} if the entity is deprecated, otherwise {@code false}.
+     */
+    public boolean isDeprecated(OWLEntity entity) {
+        Boolean deprecated = deprecatedCache.get(entity);
+        if (deprecated != null) {
+            hitCount.incrementAndGet();
+            return deprecated;
+        }
+        missCount.incrementAndGet();
+        long startGeneration = generation.get();
+        deprecated = computeDeprecated(entity);
+        put(deprecatedCache, entity, deprecated, startGeneration);
+        return deprecated;
+    }
+
+    private boolean computeDeprecated(OWLEntity entity) {
+        if (!rootOntology.containsAnnotationPropertyInSignature(OWLRDFVocabulary.OWL_DEPRECATED.getIRI(), true)) {
+            return false;
+        }
+        for (OWLOntology ont : rootOntology.getImportsClosure()) {
+            for (OWLAnnotationAssertionAxiom ax : ont.getAnnotationAssertionAxioms(entity.getIRI())) {
+                if (ax.isDeprecatedIRIAssertion()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a computed value into a cache, unless an invalidation happened after the computation started, in which case
+     * the value may be stale.  Invalidation increments the generation before removing entries, so if the invalidation
+     * removes the entry before this put then the check after the put will see the new generation.
+     */
+    private <V> void put(ConcurrentMap<OWLEntity, V> cache, OWLEntity entity, V value, long startGeneration) {
+        if (generation.get() != startGeneration) {
+            return;
+        }
+        cache.put(entity, value);
+        if (generation.get() != startGeneration) {
+            cache.remove(entity, value);
+        }
+    }
+
+    /**
+     * Invalidates the cached values for an entity.
+     * @param entity The entity.  Not {@code null}.
+     */
+    public void invalidate(OWLEntity entity) {
+        generation.incrementAndGet();
+        shortFormCache.remove(entity);
+        deprecatedCache.remove(entity);
+        fireInvalidated(entity.getIRI());
+    }
+
+    /**
+     * Invalidates the cached values for all entities that have the specified IRI.  This should be called when the
+     * annotation assertions for the IRI change.
+     * @param iri The IRI.  Not {@code null}.
+     */
+    public void invalidate(IRI iri) {
+        OWLDataFactory dataFactory = rootOntology.getOWLOntologyManager().getOWLDataFactory();
+        generation.incrementAndGet();
+        for (EntityType<?> entityType : EntityType.values()) {
+            OWLEntity entity = dataFactory.getOWLEntity(entityType, iri);
+            shortFormCache.remove(entity);
+            deprecatedCache.remove(entity);
+        }
+        fireInvalidated(iri);
+    }
+
+    private void fireInvalidated(IRI iri) {
+        for (InvalidationListener listener : listeners) {
+            listener.handleInvalidated(iri);
+        }
+    }
+
+    /**
+     * Invalidates all cached values.  This should be called if the imports closure changes.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        shortFormCache.clear();
+        deprecatedCache.clear();
+        for (InvalidationListener listener : listeners) {
+            listener.handleInvalidatedAll();
+        }
+    }
+
+    /**
+     * Adds a listener that is notified when entries are invalidated.  Caches of renderings that are built from the
+     * short forms of entities can use this to invalidate their own entries.
+     * @param listener The listener.  Not {@code null}.
+     */
+    public void addInvalidationListener(InvalidationListener listener) {
+        listeners.add(checkNotNull(listener));
+    }
+
+    public void removeInvalidationListener(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper("EntityRenderingCache")
+                .add("shortForms", shortFormCache.size())
+                .add("deprecated", deprecatedCache.size())
+                .add("hits", hitCount.get())
+                .add("misses", missCount.get())
+                .toString();
+    }
+
+    public static interface InvalidationListener {
+
+        /**
+         * Called when the cached values for entities with the specified IRI have been invalidated.
+         * @param iri The IRI.
+         */
+        void handleInvalidated(IRI iri);
+
+        /**
+         * Called when all cached values have been invalidated.
+         */
+        void handleInvalidatedAll();
+    }
+}
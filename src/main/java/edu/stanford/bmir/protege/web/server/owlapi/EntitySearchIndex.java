@@ -0,0 +1,387 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.shared.entity.EntityNameUtils;
+import edu.stanford.bmir.protege.web.shared.search.EntityNameMatchResult;
+import edu.stanford.bmir.protege.web.shared.search.EntityNameMatchType;
+import edu.stanford.bmir.protege.web.shared.search.EntityNameMatcher;
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     An in-memory index of the short forms and annotation values of entities, which supports ranked searches
+ *     without scanning every short form.  Each indexed text is broken into lower case trigrams and lower case words.
+ *     Search strings of three or more characters are looked up in the trigram index and shorter search strings are
+ *     looked up as word prefixes in the word index.  The candidates are then checked, and ranked, with an
+ *     {@link EntityNameMatcher}.
+ * </p>
+ * <p>
+ *     A short search string may also match in the middle of a word ("ea" in "Heart"), which the word index cannot
+ *     find.  Such substring matches rank below word prefix matches, so they are only looked for, by scanning every
+ *     indexed entity, when the word prefix matches do not fill the requested number of results.  Short searches
+ *     with a small limit in a large ontology are therefore usually answered from the word index alone.
+ * </p>
+ * <p>
+ *     The index itself is not tied to an ontology.  Callers add and remove entities as the ontology changes.  This
+ *     class is thread safe.
+ * </p>
+ */
+public class EntitySearchIndex {
+
+    /**
+     * Annotation values longer than this (e.g. definitions and comments) are not indexed.
+     */
+    public static final int MAX_INDEXED_ANNOTATION_VALUE_LENGTH = 200;
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final Map<OWLEntity, IndexedEntity> entity2IndexedEntity = new HashMap<OWLEntity, IndexedEntity>();
+
+    private final Map<String, Set<OWLEntity>> trigram2Entities = new HashMap<String, Set<OWLEntity>>();
+
+    private final TreeMap<String, Set<OWLEntity>> word2Entities = new TreeMap<String, Set<OWLEntity>>();
+
+    /**
+     * Adds an entity to the index, or reindexes it if it is already in the index.
+     * @param entity The entity.  Not {@code null}.
+     * @param shortForm The short form of the entity.  Not {@code null}.
+     * @param annotationValues The annotation values of the entity that should be searchable.  Not {@code null}.
+     */
+    public void add(OWLEntity entity, String shortForm, Collection<String> annotationValues) {
+        checkNotNull(entity);
+        checkNotNull(shortForm);
+        Set<String> indexedAnnotationValues = new HashSet<String>();
+        for (String value : annotationValues) {
+            if (value.length() <= MAX_INDEXED_ANNOTATION_VALUE_LENGTH && !value.equals(shortForm)) {
+                indexedAnnotationValues.add(value);
+            }
+        }
+        IndexedEntity indexedEntity = new IndexedEntity(entity, shortForm, indexedAnnotationValues);
+        try {
+            readWriteLock.writeLock().lock();
+            removeInternal(entity);
+            entity2IndexedEntity.put(entity, indexedEntity);
+            for (String key : indexedEntity.getTrigrams()) {
+                getOrCreate(trigram2Entities, key).add(entity);
+            }
+            for (String key : indexedEntity.getWords()) {
+                getOrCreate(word2Entities, key).add(entity);
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an entity from the index.
+     * @param entity The entity.  Not {@code null}.
+     */
+    public void remove(OWLEntity entity) {
+        try {
+            readWriteLock.writeLock().lock();
+            removeInternal(entity);
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(OWLEntity entity) {
+        IndexedEntity indexedEntity = entity2IndexedEntity.remove(entity);
+        if (indexedEntity == null) {
+            return;
+        }
+        for (String key : indexedEntity.getTrigrams()) {
+            removeFromPostings(trigram2Entities, key, entity);
+        }
+        for (String key : indexedEntity.getWords()) {
+            removeFromPostings(word2Entities, key, entity);
+        }
+    }
+
+    public int size() {
+        try {
+            readWriteLock.readLock().lock();
+            return entity2IndexedEntity.size();
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches for entities.
+     * @param searchString The search string.  Not {@code null}.
+     * @param entityTypes The types of entities to search for.  Not {@code null}.
+     * @param includeAnnotationValues {@code true} if entities whose annotation values, but not short forms, match the
+     *                                search string should be returned.  These are ranked after entities whose short
+     *                                forms match, and their match results describe the match in the annotation value.
+     * @param limit The maximum number of results.  Not negative.
+     * @return The best matches, best match first.  Not {@code null}.
+     */
+    public List<EntitySearchResult> search(String searchString,
+                                           Set<EntityType<?>> entityTypes,
+                                           boolean includeAnnotationValues,
+                                           int limit) {
+        checkNotNull(searchString);
+        checkNotNull(entityTypes);
+        checkArgument(limit >= 0, "limit must not be negative");
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        EntityNameMatcher matcher = new EntityNameMatcher(searchString);
+        // Worst result at the head
+        PriorityQueue<RankedResult> bestResults = new PriorityQueue<RankedResult>(Math.min(limit, 1024), Collections.<RankedResult>reverseOrder());
+        try {
+            readWriteLock.readLock().lock();
+            String lowerCaseSearchString = searchString.toLowerCase();
+            Collection<OWLEntity> candidates = getCandidates(lowerCaseSearchString);
+            int wordPrefixMatchCount = addMatches(candidates, Collections.<OWLEntity>emptySet(), matcher, entityTypes, includeAnnotationValues, limit, bestResults);
+            if (isShortSearchString(lowerCaseSearchString) && wordPrefixMatchCount < limit) {
+                // There may be better results that only match in the middle of a word
+                addMatches(entity2IndexedEntity.keySet(), candidates, matcher, entityTypes, includeAnnotationValues, limit, bestResults);
+            }
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+        List<RankedResult> rankedResults = new ArrayList<RankedResult>(bestResults);
+        Collections.sort(rankedResults);
+        List<EntitySearchResult> results = new ArrayList<EntitySearchResult>(rankedResults.size());
+        for (RankedResult rankedResult : rankedResults) {
+            results.add(rankedResult.toEntitySearchResult());
+        }
+        return results;
+    }
+
+    /**
+     * Matches candidates against the search string and adds the matches to the best results, keeping at most
+     * {@code limit} results.  Must be called with the read lock held.
+     * @return The number of matches in short forms that are word prefix matches or better.
+     */
+    private int addMatches(Collection<OWLEntity> candidates,
+                           Collection<OWLEntity> excludedCandidates,
+                           EntityNameMatcher matcher,
+                           Set<EntityType<?>> entityTypes,
+                           boolean includeAnnotationValues,
+                           int limit,
+                           PriorityQueue<RankedResult> bestResults) {
+        int wordPrefixMatchCount = 0;
+        for (OWLEntity candidate : candidates) {
+            if (!entityTypes.contains(candidate.getEntityType()) || excludedCandidates.contains(candidate)) {
+                continue;
+            }
+            IndexedEntity indexedEntity = entity2IndexedEntity.get(candidate);
+            Optional<RankedResult> result = indexedEntity.match(matcher, includeAnnotationValues);
+            if (result.isPresent()) {
+                if (result.get().isWordPrefixMatchOrBetter()) {
+                    wordPrefixMatchCount++;
+                }
+                bestResults.add(result.get());
+                if (bestResults.size() > limit) {
+                    bestResults.poll();
+                }
+            }
+        }
+        return wordPrefixMatchCount;
+    }
+
+    private static boolean isShortSearchString(String searchString) {
+        return !searchString.isEmpty() && searchString.length() < GRAM_LENGTH;
+    }
+
+    /**
+     * Gets the entities that may match the specified search string.  For short search strings these are only the
+     * entities that have a word that starts with the search string.  Must be called with the read lock held.
+     */
+    private Collection<OWLEntity> getCandidates(String lowerCaseSearchString) {
+        if (lowerCaseSearchString.isEmpty()) {
+            return entity2IndexedEntity.keySet();
+        }
+        if (isShortSearchString(lowerCaseSearchString)) {
+            Set<OWLEntity> result = new HashSet<OWLEntity>();
+            // Character.MAX_VALUE sorts after any character that can follow the prefix
+            for (Set<OWLEntity> entities : word2Entities.subMap(lowerCaseSearchString, lowerCaseSearchString + Character.MAX_VALUE).values()) {
+                result.addAll(entities);
+            }
+            return result;
+        }
+        // Intersect the postings, smallest first
+        List<Set<OWLEntity>> postings = new ArrayList<Set<OWLEntity>>();
+        for (String trigram : getTrigrams(lowerCaseSearchString)) {
+            Set<OWLEntity> entities = trigram2Entities.get(trigram);
+            if (entities == null) {
+                return Collections.emptySet();
+            }
+            postings.add(entities);
+        }
+        Collections.sort(postings, new Comparator<Set<OWLEntity>>() {
+            @Override
+            public int compare(Set<OWLEntity> o1, Set<OWLEntity> o2) {
+                return o1.size() - o2.size();
+            }
+        });
+        Set<OWLEntity> result = new HashSet<OWLEntity>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> getTrigrams(String lowerCaseText) {
+        Set<String> result = new HashSet<String>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseText.length(); i++) {
+            result.add(lowerCaseText.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+
+    private static Set<String> getWords(String text) {
+        Set<String> result = new HashSet<String>();
+        int index = 0;
+        while (index < text.length()) {
+            int wordStart = EntityNameUtils.indexOfWord(text, index);
+            if (wordStart == -1) {
+                break;
+            }
+            int wordEnd = EntityNameUtils.indexOfWordEnd(text, wordStart);
+            result.add(text.substring(wordStart, wordEnd).toLowerCase());
+            index = wordEnd;
+        }
+        return result;
+    }
+
+    private static <K> Set<OWLEntity> getOrCreate(Map<K, Set<OWLEntity>> map, K key) {
+        Set<OWLEntity> entities = map.get(key);
+        if (entities == null) {
+            entities = new HashSet<OWLEntity>(4);
+            map.put(key, entities);
+        }
+        return entities;
+    }
+
+    private static <K> void removeFromPostings(Map<K, Set<OWLEntity>> map, K key, OWLEntity entity) {
+        Set<OWLEntity> entities = map.get(key);
+        if (entities != null) {
+            entities.remove(entity);
+            if (entities.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+
+    private static class IndexedEntity {
+
+        private final OWLEntity entity;
+
+        private final String shortForm;
+
+        private final Set<String> annotationValues;
+
+        private IndexedEntity(OWLEntity entity, String shortForm, Set<String> annotationValues) {
+            this.entity = entity;
+            this.shortForm = shortForm;
+            this.annotationValues = annotationValues;
+        }
+
+        public Set<String> getTrigrams() {
+            Set<String> result = EntitySearchIndex.getTrigrams(shortForm.toLowerCase());
+            for (String value : annotationValues) {
+                result.addAll(EntitySearchIndex.getTrigrams(value.toLowerCase()));
+            }
+            return result;
+        }
+
+        public Set<String> getWords() {
+            Set<String> result = EntitySearchIndex.getWords(shortForm);
+            for (String value : annotationValues) {
+                result.addAll(EntitySearchIndex.getWords(value));
+            }
+            return result;
+        }
+
+        public Optional<RankedResult> match(EntityNameMatcher matcher, boolean includeAnnotationValues) {
+            Optional<EntityNameMatchResult> shortFormMatch = matcher.findIn(shortForm);
+            if (shortFormMatch.isPresent()) {
+                return Optional.of(new RankedResult(entity, shortForm, shortFormMatch.get(), false));
+            }
+            if (!includeAnnotationValues) {
+                return Optional.absent();
+            }
+            EntityNameMatchResult bestAnnotationValueMatch = null;
+            for (String value : annotationValues) {
+                Optional<EntityNameMatchResult> valueMatch = matcher.findIn(value);
+                if (valueMatch.isPresent()) {
+                    if (bestAnnotationValueMatch == null || valueMatch.get().compareTo(bestAnnotationValueMatch) < 0) {
+                        bestAnnotationValueMatch = valueMatch.get();
+                    }
+                }
+            }
+            if (bestAnnotationValueMatch == null) {
+                return Optional.absent();
+            }
+            return Optional.of(new RankedResult(entity, shortForm, bestAnnotationValueMatch, true));
+        }
+    }
+
+
+    private static class RankedResult implements Comparable<RankedResult> {
+
+        private final OWLEntity entity;
+
+        private final String shortForm;
+
+        private final EntityNameMatchResult matchResult;
+
+        private final boolean annotationValueMatch;
+
+        private RankedResult(OWLEntity entity, String shortForm, EntityNameMatchResult matchResult, boolean annotationValueMatch) {
+            this.entity = entity;
+            this.shortForm = shortForm;
+            this.matchResult = matchResult;
+            this.annotationValueMatch = annotationValueMatch;
+        }
+
+        public EntitySearchResult toEntitySearchResult() {
+            return new EntitySearchResult(matchResult, entity, shortForm);
+        }
+
+        /**
+         * Determines whether this is a match in the short form that ranks above every substring match.
+         */
+        public boolean isWordPrefixMatchOrBetter() {
+            return !annotationValueMatch && matchResult.getMatchType().compareTo(EntityNameMatchType.WORD_PREFIX_MATCH) <= 0;
+        }
+
+        @Override
+        public int compareTo(RankedResult other) {
+            if (this.annotationValueMatch != other.annotationValueMatch) {
+                return this.annotationValueMatch ? 1 : -1;
+            }
+            int diff = this.matchResult.compareTo(other.matchResult);
+            if (diff != 0) {
+                return diff;
+            }
+            diff = this.shortForm.compareToIgnoreCase(other.shortForm);
+            if (diff != 0) {
+                return diff;
+            }
+            return this.entity.compareTo(other.entity);
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package edu.stanford.bmir.protege.web.server.owlapi;
 
 import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
+import edu.stanford.bmir.protege.web.server.hierarchy.HierarchyClosureIndex;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
-import org.protege.editor.owl.model.hierarchy.OWLAnnotationPropertyHierarchyProvider;
-import org.protege.editor.owl.model.hierarchy.OWLDataPropertyHierarchyProvider;
-import org.protege.editor.owl.model.hierarchy.OWLObjectPropertyHierarchyProvider;
 import org.semanticweb.owlapi.model.*;
 
 import java.util.ArrayList;
@@ -42,7 +40,7 @@ public class GetParentsStrategy extends OntologyServiceStrategy<List<EntityData>
         for(OWLEntity entity : entites) {
             entity.accept(new OWLEntityVisitor() {
                 public void visit(OWLClass owlClass) {
-                    AssertedClassHierarchyProvider provider = project.getClassHierarchyProvider();
+                    HierarchyClosureIndex<OWLClass> provider = project.getClassHierarchyIndex();
                     if(direct) {
                         result.addAll(rm.getEntityData(provider.getParents(owlClass)));
                     }
@@ -52,7 +50,7 @@ public class GetParentsStrategy extends OntologyServiceStrategy<List<EntityData>
                 }
 
                 public void visit(OWLObjectProperty owlObjectProperty) {
-                    OWLObjectPropertyHierarchyProvider provider = project.getObjectPropertyHierarchyProvider();
+                    HierarchyClosureIndex<OWLObjectProperty> provider = project.getObjectPropertyHierarchyIndex();
                     if(direct) {
                         result.addAll(rm.getEntityData(provider.getParents(owlObjectProperty)));
                     }
@@ -62,7 +60,7 @@ public class GetParentsStrategy extends OntologyServiceStrategy<List<EntityData>
                 }
 
                 public void visit(OWLDataProperty owlDataProperty) {
-                    OWLDataPropertyHierarchyProvider provider = project.getDataPropertyHierarchyProvider();
+                    HierarchyClosureIndex<OWLDataProperty> provider = project.getDataPropertyHierarchyIndex();
                     if(direct) {
                         result.addAll(rm.getEntityData(provider.getParents(owlDataProperty)));
                     }
@@ -80,7 +78,7 @@ public class GetParentsStrategy extends OntologyServiceStrategy<List<EntityData>
                 }
 
                 public void visit(OWLAnnotationProperty owlAnnotationProperty) {
-                    OWLAnnotationPropertyHierarchyProvider provider = project.getAnnotationPropertyHierarchyProvider();
+                    HierarchyClosureIndex<OWLAnnotationProperty> provider = project.getAnnotationPropertyHierarchyIndex();
                     if(direct) {
                         result.addAll(rm.getEntityData(provider.getParents(owlAnnotationProperty)));
                     }
@@ -0,0 +1,101 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     An eviction policy that evicts projects that have not been accessed for longer than a dormant period and then
+ *     evicts the least recently used projects until the number of resident projects and their estimated total size
+ *     are within the specified bounds.  Projects that were preloaded, and have not been accessed since, are never
+ *     considered to be dormant.  They were loaded so that they are ready when they are first used, which may be long
+ *     after the server started, so only the bounds evict them.
+ * </p>
+ */
+public class LRUProjectEvictionPolicy implements ProjectEvictionPolicy {
+
+    private final long dormantTime;
+
+    private final int maxResidentProjects;
+
+    private final long maxEstimatedSize;
+
+    /**
+     * Creates an LRU eviction policy.
+     * @param dormantTime The time, in ms, after the last access at which a project is considered to be dormant and
+     *                    is evicted.  Not negative.
+     * @param maxResidentProjects The maximum number of resident projects.  Zero for no maximum.
+     * @param maxEstimatedSize The maximum estimated total size, in bytes, of the resident projects.  Zero for no
+     *                         maximum.
+     */
+    public LRUProjectEvictionPolicy(long dormantTime, int maxResidentProjects, long maxEstimatedSize) {
+        checkArgument(dormantTime >= 0, "dormantTime must not be negative");
+        checkArgument(maxResidentProjects >= 0, "maxResidentProjects must not be negative");
+        checkArgument(maxEstimatedSize >= 0, "maxEstimatedSize must not be negative");
+        this.dormantTime = dormantTime;
+        this.maxResidentProjects = maxResidentProjects;
+        this.maxEstimatedSize = maxEstimatedSize;
+    }
+
+    @Override
+    public List<ProjectId> selectProjectsForEviction(List<ResidentProjectInfo> residentProjects, long currentTime) {
+        List<ResidentProjectInfo> leastRecentlyUsedFirst = new ArrayList<ResidentProjectInfo>(residentProjects);
+        Collections.sort(leastRecentlyUsedFirst, new Comparator<ResidentProjectInfo>() {
+            @Override
+            public int compare(ResidentProjectInfo o1, ResidentProjectInfo o2) {
+                if (o1.getLastAccessTime() < o2.getLastAccessTime()) {
+                    return -1;
+                }
+                else if (o1.getLastAccessTime() > o2.getLastAccessTime()) {
+                    return 1;
+                }
+                else {
+                    return 0;
+                }
+            }
+        });
+        long totalEstimatedSize = 0;
+        for (ResidentProjectInfo info : leastRecentlyUsedFirst) {
+            totalEstimatedSize += info.getEstimatedSize();
+        }
+        int remainingProjects = leastRecentlyUsedFirst.size();
+        List<ProjectId> result = new ArrayList<ProjectId>();
+        // Every project is checked, because a preloaded project that is kept may be followed by dormant projects.
+        for (ResidentProjectInfo info : leastRecentlyUsedFirst) {
+            // The most recently used project is never evicted to satisfy the bounds, even if it is larger than the
+            // maximum size on its own, otherwise it would be reloaded on its next access.
+            boolean overBounds = remainingProjects > 1
+                    && (isOverCountBound(remainingProjects) || isOverSizeBound(totalEstimatedSize));
+            if (isDormant(info, currentTime) || overBounds) {
+                result.add(info.getProjectId());
+                remainingProjects--;
+                totalEstimatedSize -= info.getEstimatedSize();
+            }
+        }
+        return result;
+    }
+
+    private boolean isDormant(ResidentProjectInfo info, long currentTime) {
+        if (info.isPreloaded()) {
+            return false;
+        }
+        return info.getLastAccessTime() == 0 || currentTime - info.getLastAccessTime() > dormantTime;
+    }
+
+    private boolean isOverCountBound(int residentProjects) {
+        return maxResidentProjects > 0 && residentProjects > maxResidentProjects;
+    }
+
+    private boolean isOverSizeBound(long totalEstimatedSize) {
+        return maxEstimatedSize > 0 && totalEstimatedSize > maxEstimatedSize;
+    }
+}
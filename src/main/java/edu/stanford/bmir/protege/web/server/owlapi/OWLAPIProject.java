@@ -12,17 +12,23 @@ import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
 import edu.stanford.bmir.protege.web.server.change.*;
 import edu.stanford.bmir.protege.web.server.crud.persistence.ProjectEntityCrudKitSettings;
 import edu.stanford.bmir.protege.web.server.crud.persistence.ProjectEntityCrudKitSettingsRepositoryManager;
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
+import edu.stanford.bmir.protege.web.server.events.EventInterestManager;
 import edu.stanford.bmir.protege.web.server.events.EventLifeTime;
 import edu.stanford.bmir.protege.web.server.events.EventManager;
 import edu.stanford.bmir.protege.web.server.events.HighLevelEventGenerator;
+import edu.stanford.bmir.protege.web.server.events.PostCommitEventPipeline;
+import edu.stanford.bmir.protege.web.server.hierarchy.HierarchyClosureIndex;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
 import edu.stanford.bmir.protege.web.server.notes.OWLAPINotesManager;
-import edu.stanford.bmir.protege.web.server.notes.OWLAPINotesManagerNotesAPIImpl;
+import edu.stanford.bmir.protege.web.server.notes.OWLAPINotesManagerIndexedImpl;
 import edu.stanford.bmir.protege.web.server.owlapi.change.OWLAPIChangeManager;
 import edu.stanford.bmir.protege.web.server.owlapi.manager.WebProtegeOWLManager;
 import edu.stanford.bmir.protege.web.server.metrics.OWLAPIProjectMetricsManager;
 import edu.stanford.bmir.protege.web.server.permissions.ProjectPermissionsManager;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
 import edu.stanford.bmir.protege.web.server.watches.WatchManager;
 import edu.stanford.bmir.protege.web.server.watches.WatchManagerImpl;
 import edu.stanford.bmir.protege.web.shared.crud.EntityCrudKitSettings;
@@ -48,7 +54,6 @@ import org.semanticweb.owlapi.util.NonMappingOntologyIRIMapper;
 import org.semanticweb.owlapi.util.OWLObjectDuplicator;
 import org.semanticweb.owlapi.util.OWLOntologyChangeVisitorAdapterEx;
 import org.semanticweb.owlapi.vocab.Namespaces;
-import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 import uk.ac.manchester.cs.owl.owlapi.EmptyInMemOWLOntologyFactory;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 import uk.ac.manchester.cs.owl.owlapi.ParsableOWLOntologyFactory;
@@ -56,6 +61,7 @@ import uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer.ManchesterOWLSyntaxOntol
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -89,6 +95,13 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
     private final EventManager<ProjectEvent<?>> projectEventManager;
 
+    private final EventInterestManager eventInterestManager = new EventInterestManager();
+
+    /**
+     * Background work for the project is run on the scheduler that is shared by all projects.
+     */
+    private final WebProtegeScheduler scheduler = WebProtegeScheduler.get();
+
     private OWLOntology ontology;
 
     private AssertedClassHierarchyProvider classHierarchyProvider = new AssertedClassHierarchyProvider(WebProtegeOWLManager.createOWLOntologyManager());
@@ -99,9 +112,17 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
     private OWLAnnotationPropertyHierarchyProvider annotationPropertyHierarchyProvider;
 
+    private HierarchyClosureIndex<OWLClass> classHierarchyIndex;
+
+    private HierarchyClosureIndex<OWLObjectProperty> objectPropertyHierarchyIndex;
+
+    private HierarchyClosureIndex<OWLDataProperty> dataPropertyHierarchyIndex;
+
+    private HierarchyClosureIndex<OWLAnnotationProperty> annotationPropertyHierarchyIndex;
+
     private OWLAPISearchManager searchManager;
 
-    private OWLAPINotesManager notesManager;
+    private OWLAPINotesManagerIndexedImpl notesManager;
 
     private OWLAPIChangeManager changeManager;
 
@@ -109,8 +130,12 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
     private OWLAPIProjectMetricsManager metricsManager;
 
+    private RootOntologyDocumentCompactor documentCompactor;
+
+    private PostCommitEventPipeline eventPipeline;
+
     // TODO Dependency injection
-    private final WatchManager watchManager;
+    private final WatchManagerImpl watchManager;
 
 
     private final ReadWriteLock projectChangeLock = new ReentrantReadWriteLock();
@@ -138,7 +163,7 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
      */
     private OWLAPIProject(OWLAPIProjectDocumentStore documentStore) throws IOException, OWLParserException {
         this.documentStore = documentStore;
-        this.projectEventManager = EventManager.create(PROJECT_EVENT_LIFE_TIME);
+        this.projectEventManager = EventManager.create(PROJECT_EVENT_LIFE_TIME, scheduler);
         final boolean useCachingInDataFactory = false;
         final boolean useCompressionInDataFactory = false;
 
@@ -171,12 +196,12 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
         manager.setDelegate(delegateManager);
 
-        this.projectAccessManager = new ProjectAccessManager(getProjectId(), projectEventManager);
-        this.watchManager = new WatchManagerImpl(this);
-
+        this.projectAccessManager = new ProjectAccessManager(getProjectId(), projectEventManager, scheduler);
         entityCrudKitHandlerCache = new ProjectEntityCrudKitHandlerCache(getProjectId());
         loadProject();
         initialiseProjectMachinery();
+        // Indexes the watched branches, so it needs the hierarchy providers and indexes
+        this.watchManager = new WatchManagerImpl(this);
 
     }
 
@@ -212,7 +237,7 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
         changeManager = new OWLAPIChangeManager(this);
 
-        notesManager = new OWLAPINotesManagerNotesAPIImpl(this);
+        notesManager = new OWLAPINotesManagerIndexedImpl(this);
 
 
         // MH: All of this is highly dodgy and not at all thread safe.  It is therefore BROKEN!  Needs fixing.
@@ -229,12 +254,34 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
         annotationPropertyHierarchyProvider = new OWLAnnotationPropertyHierarchyProvider(manager);
         annotationPropertyHierarchyProvider.setOntologies(manager.getOntologies());
 
+        classHierarchyIndex = new HierarchyClosureIndex<OWLClass>(classHierarchyProvider);
+        objectPropertyHierarchyIndex = new HierarchyClosureIndex<OWLObjectProperty>(objectPropertyHierarchyProvider);
+        dataPropertyHierarchyIndex = new HierarchyClosureIndex<OWLDataProperty>(dataPropertyHierarchyProvider);
+        annotationPropertyHierarchyIndex = new HierarchyClosureIndex<OWLAnnotationProperty>(annotationPropertyHierarchyProvider);
+
         metricsManager = new OWLAPIProjectMetricsManager(
                 getProjectId(),
                 DefaultMetricsCalculators.getDefaultMetrics(getRootOntology()),
                 projectEventManager,
+                projectChangeReadLock,
+                scheduler,
                 WebProtegeLoggerManager.get(OWLAPIProjectMetadataManager.class));
 
+        WebProtegeProperties properties = WebProtegeProperties.get();
+        documentCompactor = new RootOntologyDocumentCompactor(
+                documentStore,
+                getRootOntology(),
+                projectChangeReadLock,
+                properties.getOntologyCompactionMinTailSize(),
+                properties.getOntologyCompactionTailRatio(),
+                scheduler);
+
+        eventPipeline = new PostCommitEventPipeline(
+                getProjectId(),
+                projectEventManager,
+                projectChangeReadLock,
+                scheduler.getExecutor(TaskCategory.EVENT_GENERATION),
+                properties.getEventsPipelineMaxPendingRevisions());
     }
 
 
@@ -252,23 +299,13 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
      * @return {@code true} if the entity is deprecated in this project, otherwise {@code false}.
      */
     public boolean isDeprecated(OWLEntity entity) {
-        if (!getRootOntology().containsAnnotationPropertyInSignature(OWLRDFVocabulary.OWL_DEPRECATED.getIRI(), true)) {
-            return false;
-        }
-        // TODO: Cache
-        for (OWLOntology ont : getRootOntology().getImportsClosure()) {
-            for (OWLAnnotationAssertionAxiom ax : ont.getAnnotationAssertionAxioms(entity.getIRI())) {
-                if (ax.isDeprecatedIRIAssertion()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return renderingManager.getRenderingCache().isDeprecated(entity);
     }
 
     private void handleOntologiesChanged(List<? extends OWLOntologyChange> changes) {
         documentStore.saveOntologyChanges(Collections.unmodifiableList(changes));
         metricsManager.handleOntologyChanges(changes);
+        documentCompactor.compactIfNecessary();
     }
 
 
@@ -276,6 +313,14 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
         return projectEventManager;
     }
 
+    public EventInterestManager getEventInterestManager() {
+        return eventInterestManager;
+    }
+
+    public WebProtegeScheduler getScheduler() {
+        return scheduler;
+    }
+
     public ProjectAccessManager getProjectAccessManager() {
         return projectAccessManager;
     }
@@ -304,6 +349,26 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
         return annotationPropertyHierarchyProvider;
     }
 
+    /**
+     * Gets the index of the asserted class hierarchy.  This should be used in preference to the class hierarchy
+     * provider for ancestor and descendant queries.
+     */
+    public HierarchyClosureIndex<OWLClass> getClassHierarchyIndex() {
+        return classHierarchyIndex;
+    }
+
+    public HierarchyClosureIndex<OWLObjectProperty> getObjectPropertyHierarchyIndex() {
+        return objectPropertyHierarchyIndex;
+    }
+
+    public HierarchyClosureIndex<OWLDataProperty> getDataPropertyHierarchyIndex() {
+        return dataPropertyHierarchyIndex;
+    }
+
+    public HierarchyClosureIndex<OWLAnnotationProperty> getAnnotationPropertyHierarchyIndex() {
+        return annotationPropertyHierarchyIndex;
+    }
+
     public OWLAPIProjectMetricsManager getMetricsManager() {
         return metricsManager;
     }
@@ -368,7 +433,7 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
     public EntityCrudContext getEntityCrudContext(UserId userId) {
         PrefixedNameExpander expander = PrefixedNameExpander.builder().withNamespaces(Namespaces.values()).build();
-        return new EntityCrudContext(userId, getRootOntology(), getDataFactory(), expander);
+        return new EntityCrudContext(getProjectId(), userId, getRootOntology(), getDataFactory(), expander);
     }
 
     @SuppressWarnings("unchecked")
@@ -408,6 +473,11 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
      * ontology changes will take place between the {@link ChangeListGenerator#generateChanges(OWLAPIProject,
      * edu.stanford.bmir.protege.web.server.change.ChangeGenerationContext)}
      * method being called and the changes being applied.
+     * <p>
+     *     By the time that this method returns the browser text and hierarchy events for the changes have been
+     *     posted.  The remaining events (frame changed, deprecated and so on) are generated and posted in the
+     *     background, and clients receive them when they next ask for events.
+     * </p>
      * @param changeDescriptionGenerator A generator that describes the changes that took place.
      * @return A {@link ChangeApplicationResult} that describes the changes which took place an any renaminings.
      * @throws NullPointerException      if any parameters are {@code null}.
@@ -523,18 +593,31 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
             LOGGER.info(getProjectId(), "%s applied %d changes to %s", userId, appliedChanges.size(), getProjectId());
 
             if (!(changeListGenerator instanceof SilentChangeListGenerator)) {
-                List<ProjectEvent<?>> highLevelEvents = new ArrayList<ProjectEvent<?>>();
-                HighLevelEventGenerator hle = new HighLevelEventGenerator(this, userId, revisionNumber);
-                highLevelEvents.addAll(hle.getHighLevelEvents(appliedChanges, revisionNumber));
-                highLevelEvents.addAll(shortFormChangeComputer.getShortFormChanges(appliedChanges, getProjectId()));
-
+                // The browser text and hierarchy changes are differences between the state of the project before
+                // and after this revision, so they are computed and posted before the next writer can change the
+                // project.  This keeps them in revision order, and they are posted whether or not the events below
+                // can be generated.
+                List<ProjectEvent<?>> diffEvents = new ArrayList<ProjectEvent<?>>();
+                diffEvents.addAll(shortFormChangeComputer.getShortFormChanges(appliedChanges, getProjectId()));
                 for(HierarchyChangeComputer<?> computer : computers) {
-                    highLevelEvents.addAll(computer.get(appliedChanges));
+                    diffEvents.addAll(computer.get(appliedChanges));
                 }
                 if(changeListGenerator instanceof HasHighLevelEvents) {
-                    highLevelEvents.addAll(((HasHighLevelEvents) changeListGenerator).getHighLevelEvents());
+                    diffEvents.addAll(((HasHighLevelEvents) changeListGenerator).getHighLevelEvents());
                 }
-                projectEventManager.postEvents(highLevelEvents);
+                if(!diffEvents.isEmpty()) {
+                    projectEventManager.postEvents(diffEvents);
+                }
+                // The remaining events only describe the current state of entities, so they are generated in the
+                // background and nobody waits for them.
+                final RevisionNumber eventRevisionNumber = revisionNumber;
+                eventPipeline.submit(revisionNumber, new Callable<List<ProjectEvent<?>>>() {
+                    @Override
+                    public List<ProjectEvent<?>> call() {
+                        HighLevelEventGenerator hle = new HighLevelEventGenerator(OWLAPIProject.this, userId, eventRevisionNumber);
+                        return hle.getHighLevelEvents(appliedChanges, eventRevisionNumber);
+                    }
+                });
             }
         }
         finally {
@@ -759,12 +842,25 @@ public class OWLAPIProject implements HasDispose, HasDataFactory, HasContainsEnt
 
     @Override
     public void dispose() {
+        eventPipeline.dispose();
+        // Sends the collected watch notifications, so it needs the hierarchy indexes
+        watchManager.dispose();
         projectEventManager.dispose();
+        notesManager.dispose();
+        classHierarchyIndex.dispose();
+        objectPropertyHierarchyIndex.dispose();
+        dataPropertyHierarchyIndex.dispose();
+        annotationPropertyHierarchyIndex.dispose();
         classHierarchyProvider.dispose();
         objectPropertyHierarchyProvider.dispose();
         dataPropertyHierarchyProvider.dispose();
         annotationPropertyHierarchyProvider.dispose();
         projectAccessManager.dispose();
+        changeManager.dispose();
+        documentCompactor.dispose();
+        metricsManager.dispose();
+        searchManager.dispose();
+        renderingManager.dispose();
 
     }
 }
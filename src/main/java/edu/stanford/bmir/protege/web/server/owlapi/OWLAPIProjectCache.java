@@ -3,23 +3,34 @@ package edu.stanford.bmir.protege.web.server.owlapi;
 import com.google.common.base.Optional;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import edu.stanford.bmir.protege.web.client.rpc.data.NewProjectSettings;
-import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerEx;
+import edu.stanford.bmir.protege.web.server.WebProtegeFileStore;
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerEx;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.project.ProjectAlreadyExistsException;
 import edu.stanford.bmir.protege.web.shared.project.ProjectDocumentNotFoundException;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
-import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.model.OWLOntology;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
@@ -30,134 +41,399 @@ public class OWLAPIProjectCache {
 
     private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(OWLAPIProjectCache.class);
 
+    /**
+     * Interned project ids are used as per-project locks.  Projects are published to, and purged from, the project
+     * map while the lock for the project is held.
+     */
     private final Interner<ProjectId> projectIdInterner;
 
+    private Map<ProjectId, OWLAPIProject> projectId2ProjectMap = new ConcurrentHashMap<ProjectId, OWLAPIProject>();
 
-    private final ReadWriteLock projectMapReadWriteLoc = new ReentrantReadWriteLock();
-
-    private final Lock READ_LOCK = projectMapReadWriteLoc.readLock();
+    /**
+     * Loads that are in progress.  Callers that request a project that is being loaded share the in-flight load.
+     */
+    private final ConcurrentMap<ProjectId, ListenableFuture<OWLAPIProject>> projectId2LoadMap = new ConcurrentHashMap<ProjectId, ListenableFuture<OWLAPIProject>>();
 
-    private final Lock WRITE_LOCK = projectMapReadWriteLoc.writeLock();
+    /**
+     * Disposals of purged projects that are in progress.  A load of a project that is being disposed of does not
+     * start until the disposal has finished, so that the new instance never reads project files that the old
+     * instance is still writing.  Disposals are registered, and looked up, while the lock for the project is held.
+     */
+    private final ConcurrentMap<ProjectId, ListenableFuture<Void>> projectId2DisposalMap = new ConcurrentHashMap<ProjectId, ListenableFuture<Void>>();
 
-    private Map<ProjectId, OWLAPIProject> projectId2ProjectMap = new ConcurrentHashMap<ProjectId, OWLAPIProject>();
+    private final Executor loadExecutor;
 
 
     private final ReadWriteLock LAST_ACCESS_LOCK = new ReentrantReadWriteLock();
 
-    private final ReadWriteLock PROJECT_ID_LOCK = new ReentrantReadWriteLock();
-
     private Map<ProjectId, Long> lastAccessMap = new HashMap<ProjectId, Long>();
 
+    /**
+     * The times at which resident projects were loaded.  Projects that are loaded without being accessed (for
+     * example, preloaded projects) are treated as having been accessed when they were loaded.
+     */
+    private final Map<ProjectId, Long> projectId2LoadTimeMap = new ConcurrentHashMap<ProjectId, Long>();
 
+    /**
+     * The ids of resident projects that were preloaded and have not been accessed since.  The eviction policy does
+     * not treat these as dormant.
+     */
+    private final Set<ProjectId> preloadedProjectIds = Collections.newSetFromMap(new ConcurrentHashMap<ProjectId, Boolean>());
+
+    private final ProjectAccessStatisticsStore accessStatisticsStore;
 
     /**
-     * The period between purge checks (in ms).  Every 30 seconds.
+     * A rough estimate of the number of bytes of heap that a loaded project uses per axiom.  This covers the axiom
+     * itself, the ontology indexes and the per-project machinery (hierarchies, renderings etc.) that grows with the
+     * size of the ontology.
      */
-    public static final int PURGE_CHECK_PERIOD_MS = 30 * 1000;
+    public static final long ESTIMATED_BYTES_PER_AXIOM = 1024;
+
+    private final ProjectEvictionPolicy evictionPolicy;
 
     /**
-     * Elapsed time from the last access after which a project should be considered dormant (and should therefore
-     * be purged).  This can interact with the frequency with which clients poll the project event queue (which is
-     * be default every 10 seconds).
+     * The ids of projects that have been evicted.  Used to count reloads.
      */
-    private static final long DORMANT_PROJECT_TIME_MS = 3 * 60 * 1000;
+    private final Set<ProjectId> evictedProjectIds = Collections.newSetFromMap(new ConcurrentHashMap<ProjectId, Boolean>());
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong reloadCount = new AtomicLong();
 
 
     public OWLAPIProjectCache() {
-        Timer timer = new Timer(true);
-        timer.schedule(new TimerTask() {
+        this(createDefaultEvictionPolicy(),
+             WebProtegeProperties.get().getProjectCacheEvictionCheckPeriod(),
+             WebProtegeProperties.get().getProjectLoadPoolSize(),
+             new ProjectAccessStatisticsStore(WebProtegeFileStore.getInstance().getProjectAccessStatisticsFile()),
+             WebProtegeScheduler.get());
+    }
+
+    /**
+     * Creates a project cache.
+     * @param evictionPolicy The policy that decides which projects are evicted.  Not {@code null}.
+     * @param evictionCheckPeriod The period, in ms, between eviction checks.
+     * @param loadPoolSize The maximum number of projects that are loaded in parallel.  Greater than zero.
+     * @param accessStatisticsStore A store that records project accesses.  It is saved at each eviction check.
+     *                              Not {@code null}.
+     * @param scheduler The scheduler that projects are loaded, and eviction checks are run, on.  Not {@code null}.
+     */
+    public OWLAPIProjectCache(ProjectEvictionPolicy evictionPolicy,
+                              long evictionCheckPeriod,
+                              int loadPoolSize,
+                              ProjectAccessStatisticsStore accessStatisticsStore,
+                              WebProtegeScheduler scheduler) {
+        this.evictionPolicy = checkNotNull(evictionPolicy);
+        this.accessStatisticsStore = checkNotNull(accessStatisticsStore);
+        accessStatisticsStore.load();
+        projectIdInterner = Interners.newWeakInterner();
+        scheduler.setMaxConcurrency(TaskCategory.PROJECT_LOADING, loadPoolSize);
+        loadExecutor = scheduler.getExecutor(TaskCategory.PROJECT_LOADING);
+        // The scheduler logs exceptions thrown by the check, and carries on running it
+        scheduler.scheduleWithFixedDelay(TaskCategory.PROJECT_EVICTION, new Runnable() {
             @Override
             public void run() {
-                purgeDormantProjects();
+                evictProjects();
+                accessStatisticsStore.saveIfChanged();
             }
-        }, 0, PURGE_CHECK_PERIOD_MS);
-        projectIdInterner = Interners.newWeakInterner();
+        }, evictionCheckPeriod, evictionCheckPeriod, TimeUnit.MILLISECONDS);
+    }
 
+    private static ProjectEvictionPolicy createDefaultEvictionPolicy() {
+        WebProtegeProperties properties = WebProtegeProperties.get();
+        long maxSize = properties.getProjectCacheMaxSize() * 1024L * 1024L;
+        if (maxSize == 0) {
+            maxSize = Runtime.getRuntime().maxMemory() / 2;
+        }
+        return new LRUProjectEvictionPolicy(properties.getProjectCacheDormantTime(),
+                                            properties.getProjectCacheMaxProjects(),
+                                            maxSize);
     }
 
 
-    /**
-     * Gets the list of cached project ids.
-     * @return A list of cached project ids.
-     */
-    private List<ProjectId> getCachedProjectIds() {
-        try {
+    private void evictProjects() {
+        List<ResidentProjectInfo> residentProjects = getResidentProjects();
+        List<ProjectId> projectsToEvict = evictionPolicy.selectProjectsForEviction(residentProjects, System.currentTimeMillis());
+        if (projectsToEvict.isEmpty()) {
+            return;
+        }
+        for (ProjectId projectId : projectsToEvict) {
+            if (purge(projectId)) {
+                evictedProjectIds.add(projectId);
+                evictionCount.incrementAndGet();
+            }
+        }
+        LOGGER.info("Evicted %d projects.  Resident projects: %d.  Estimated size: %d MB.  Total evictions: %d.  Total reloads: %d.",
+                    projectsToEvict.size(),
+                    getResidentProjectCount(),
+                    getEstimatedResidentSize() / (1024 * 1024),
+                    evictionCount.get(),
+                    reloadCount.get());
+        WebProtegeLoggerEx loggerEx = new WebProtegeLoggerEx(LOGGER);
+        loggerEx.logMemoryUsage();
+    }
 
-            READ_LOCK.lock();
-            return new ArrayList<ProjectId>(lastAccessMap.keySet());
+    private List<ResidentProjectInfo> getResidentProjects() {
+        List<ResidentProjectInfo> result = new ArrayList<ResidentProjectInfo>();
+        for (Map.Entry<ProjectId, OWLAPIProject> entry : projectId2ProjectMap.entrySet()) {
+            ProjectId projectId = entry.getKey();
+            long lastAccessTime = getLastAccessTime(projectId);
+            if (lastAccessTime == 0) {
+                Long loadTime = projectId2LoadTimeMap.get(projectId);
+                if (loadTime != null) {
+                    lastAccessTime = loadTime;
+                }
+            }
+            result.add(new ResidentProjectInfo(projectId,
+                                               lastAccessTime,
+                                               estimateSize(entry.getValue()),
+                                               preloadedProjectIds.contains(projectId)));
         }
-        finally {
-            READ_LOCK.unlock();
+        return result;
+    }
+
+    /**
+     * Estimates the amount of heap used by a project.  The estimate is based on the number of axioms in the imports
+     * closure of the root ontology.
+     * @param project The project.
+     * @return The estimated size in bytes.
+     */
+    private static long estimateSize(OWLAPIProject project) {
+        long axiomCount = 0;
+        for (OWLOntology ontology : project.getRootOntology().getImportsClosure()) {
+            axiomCount += ontology.getAxiomCount();
         }
+        return axiomCount * ESTIMATED_BYTES_PER_AXIOM;
+    }
+
+    /**
+     * Gets the store that records accesses of the projects in this cache.
+     */
+    public ProjectAccessStatisticsStore getAccessStatisticsStore() {
+        return accessStatisticsStore;
     }
 
+    /**
+     * Gets the number of projects that are resident in this cache.
+     */
+    public int getResidentProjectCount() {
+        return projectId2ProjectMap.size();
+    }
 
-    private void purgeDormantProjects() {
-        // No locking needed
-        for (ProjectId projectId : getCachedProjectIds()) {
-            long time = getLastAccessTime(projectId);
-            long lastAccessTimeDiff = System.currentTimeMillis() - time;
-            if (time == 0 || lastAccessTimeDiff > DORMANT_PROJECT_TIME_MS) {
-                purge(projectId);
-            }
+    /**
+     * Gets the estimated total size of the projects that are resident in this cache.
+     * @return The size in bytes.
+     */
+    public long getEstimatedResidentSize() {
+        long size = 0;
+        for (OWLAPIProject project : projectId2ProjectMap.values()) {
+            size += estimateSize(project);
         }
+        return size;
     }
 
+    /**
+     * Gets the number of projects that have been evicted from this cache.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gets the number of times that an evicted project has been loaded back into this cache.
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
 
 
 
+
+    /**
+     * Gets the specified project, loading it if necessary.  If the project is being loaded then this method waits
+     * for the in-flight load to finish.
+     * @param projectId The project id.
+     * @return The project.  Not {@code null}.
+     * @throws ProjectDocumentNotFoundException if the project does not exist.
+     */
     public OWLAPIProject getProject(ProjectId projectId) throws ProjectDocumentNotFoundException {
-        return getProjectInternal(projectId, AccessMode.NORMAL);
+        ListenableFuture<OWLAPIProject> future = loadProject(projectId);
+        try {
+            OWLAPIProject project = future.get();
+            logProjectAccess(projectId, project);
+            return project;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted whilst waiting for project " + projectId.getId() + " to load", e);
+        }
+        catch (ExecutionException e) {
+            throw getLoadFailure(e);
+        }
     }
 
-    public Optional<OWLAPIProject> getProjectIfActive(ProjectId projectId) {
+    /**
+     * Gets the specified project if it is loaded, or if it finishes loading within the specified time.  Otherwise,
+     * the project carries on loading in the background.  Obtaining a project with this method counts as an access of
+     * the project.
+     * @param projectId The project id.
+     * @param maxWaitMs The maximum time, in milliseconds, to wait for the project to load.
+     * @return The project, or absent if it is still being loaded.  Not {@code null}.
+     * @throws ProjectDocumentNotFoundException if the project does not exist.
+     */
+    public Optional<OWLAPIProject> getProjectIfLoadedWithin(ProjectId projectId, long maxWaitMs) throws ProjectDocumentNotFoundException {
+        ListenableFuture<OWLAPIProject> future = loadProject(projectId);
         try {
-            READ_LOCK.lock();
-            if(!isActive(projectId)) {
-                return Optional.absent();
-            }
-            else {
-                return Optional.of(getProjectInternal(projectId, AccessMode.QUIET));
-            }
+            OWLAPIProject project = future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            logProjectAccess(projectId, project);
+            return Optional.of(project);
         }
-        finally {
-            READ_LOCK.unlock();
+        catch (TimeoutException e) {
+            return Optional.absent();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.absent();
+        }
+        catch (ExecutionException e) {
+            throw getLoadFailure(e);
         }
+    }
+
+    private static RuntimeException getLoadFailure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new RuntimeException(cause);
+    }
 
+    /**
+     * Gets the specified project if it is active.  This method never loads a project.
+     * @param projectId The project id.
+     * @return The project if it is active, otherwise absent.
+     */
+    public Optional<OWLAPIProject> getProjectIfActive(ProjectId projectId) {
+        if(!isActive(projectId)) {
+            return Optional.absent();
+        }
+        return Optional.fromNullable(projectId2ProjectMap.get(projectId));
     }
 
-    private enum AccessMode {
-        NORMAL,
-        QUIET
+    /**
+     * Determines whether the specified project is being loaded.
+     * @param projectId The project id.
+     * @return {@code true} if the project is being loaded, otherwise {@code false}.
+     */
+    public boolean isLoading(ProjectId projectId) {
+        return projectId2LoadMap.containsKey(projectId);
     }
 
-    private OWLAPIProject getProjectInternal(ProjectId projectId, AccessMode accessMode) {
-        // Per project lock
+    /**
+     * Starts loading the specified project, if it is not already loaded or being loaded, on the project load pool.
+     * The returned future is shared by all callers that request the project while it is being loaded.  Loading a
+     * project with this method does not count as an access of the project.
+     * @param projectId The project id.
+     * @return A future for the project.  Not {@code null}.
+     */
+    public ListenableFuture<OWLAPIProject> loadProject(final ProjectId projectId) {
+        OWLAPIProject residentProject = projectId2ProjectMap.get(projectId);
+        if (residentProject != null) {
+            return Futures.immediateFuture(residentProject);
+        }
+        ListenableFutureTask<OWLAPIProject> loadTask = ListenableFutureTask.create(new Callable<OWLAPIProject>() {
+            @Override
+            public OWLAPIProject call() throws Exception {
+                return loadAndPublishProject(projectId);
+            }
+        });
+        ListenableFuture<OWLAPIProject> existingLoad = projectId2LoadMap.putIfAbsent(projectId, loadTask);
+        if (existingLoad != null) {
+            return existingLoad;
+        }
+        ListenableFuture<Void> disposal;
         synchronized (getInternedProjectId(projectId)) {
-            try {
-                OWLAPIProject project = projectId2ProjectMap.get(projectId);
-                if (project == null) {
-                    LOGGER.info("Request for unloaded project. Loading %s.", projectId.getId());
-                    OWLAPIProjectDocumentStore documentStore = OWLAPIProjectDocumentStore.getProjectDocumentStore(projectId);
-                    project = OWLAPIProject.getProject(documentStore);
-                    projectId2ProjectMap.put(projectId, project);
-                    WebProtegeLoggerEx loggerEx = new WebProtegeLoggerEx(LOGGER);
-                    loggerEx.logMemoryUsage();
-                }
-                if (accessMode == AccessMode.NORMAL) {
-                    logProjectAccess(projectId);
+            // The project may have been published between the check above and registering the load.
+            residentProject = projectId2ProjectMap.get(projectId);
+            if (residentProject != null) {
+                projectId2LoadMap.remove(projectId, loadTask);
+                return Futures.immediateFuture(residentProject);
+            }
+            disposal = projectId2DisposalMap.get(projectId);
+        }
+        // The load is only unregistered after the project has been published, so that callers always find one or
+        // the other.
+        final ListenableFutureTask<OWLAPIProject> registeredLoadTask = loadTask;
+        loadTask.addListener(new Runnable() {
+            @Override
+            public void run() {
+                projectId2LoadMap.remove(projectId, registeredLoadTask);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        if (disposal != null) {
+            // The previous instance of the project is still being disposed of.  Load once it has been.
+            disposal.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    loadExecutor.execute(registeredLoadTask);
                 }
-                return project;
+            }, MoreExecutors.sameThreadExecutor());
+        }
+        else {
+            loadExecutor.execute(loadTask);
+        }
+        return loadTask;
+    }
+
+    /**
+     * Starts preloading the specified project.  This is the same as {@link #loadProject(ProjectId)} except that, once
+     * loaded, the project is not evicted for being dormant until it has been accessed.
+     * @param projectId The project id.
+     * @return A future for the project.  Not {@code null}.
+     */
+    public ListenableFuture<OWLAPIProject> preloadProject(final ProjectId projectId) {
+        ListenableFuture<OWLAPIProject> future = loadProject(projectId);
+        Futures.addCallback(future, new FutureCallback<OWLAPIProject>() {
+            @Override
+            public void onSuccess(OWLAPIProject project) {
+                markAsPreloaded(projectId, project);
             }
-            catch (IOException e) {
-                throw new RuntimeException(e);
+
+            @Override
+            public void onFailure(Throwable t) {
             }
-            catch (OWLParserException e) {
-                throw new RuntimeException(e);
+        });
+        return future;
+    }
+
+    private void markAsPreloaded(ProjectId projectId, OWLAPIProject project) {
+        synchronized (getInternedProjectId(projectId)) {
+            // Not if it has been purged, or if it was accessed before the preload finished
+            if (projectId2ProjectMap.get(projectId) == project && getLastAccessTime(projectId) == 0) {
+                preloadedProjectIds.add(projectId);
             }
         }
     }
 
+    private OWLAPIProject loadAndPublishProject(ProjectId projectId) throws IOException {
+        long t0 = System.currentTimeMillis();
+        LOGGER.info("Request for unloaded project. Loading %s.", projectId.getId());
+        OWLAPIProjectDocumentStore documentStore = OWLAPIProjectDocumentStore.getProjectDocumentStore(projectId);
+        OWLAPIProject project = OWLAPIProject.getProject(documentStore);
+        synchronized (getInternedProjectId(projectId)) {
+            projectId2LoadTimeMap.put(projectId, System.currentTimeMillis());
+            projectId2ProjectMap.put(projectId, project);
+        }
+        if (evictedProjectIds.remove(projectId)) {
+            reloadCount.incrementAndGet();
+        }
+        long t1 = System.currentTimeMillis();
+        LOGGER.info("Loaded project %s in %d ms.", projectId.getId(), (t1 - t0));
+        WebProtegeLoggerEx loggerEx = new WebProtegeLoggerEx(LOGGER);
+        loggerEx.logMemoryUsage();
+        return project;
+    }
+
     /**
      * Gets an interned {@link ProjectId} that is equal to the specified {@link ProjectId}.
      * @param projectId The project id to intern.
@@ -178,29 +454,57 @@ public class OWLAPIProjectCache {
         }
     }
 
-    public void purge(ProjectId projectId) {
+    /**
+     * Purges the specified project from this cache.  The project is disposed of on the calling thread.  A load of
+     * the project that is requested while it is being disposed of does not start until the disposal has finished.
+     * @param projectId The project id.
+     * @return {@code true} if the project was resident and has been purged, otherwise {@code false}.
+     */
+    public boolean purge(ProjectId projectId) {
+        OWLAPIProject project;
+        SettableFuture<Void> disposal = SettableFuture.create();
+        // Only the project being purged is locked.  Other projects remain accessible.
+        synchronized (getInternedProjectId(projectId)) {
+            try {
+                LAST_ACCESS_LOCK.writeLock().lock();
+                project = projectId2ProjectMap.remove(projectId);
+                projectId2LoadTimeMap.remove(projectId);
+                preloadedProjectIds.remove(projectId);
+                lastAccessMap.remove(projectId);
+            }
+            finally {
+                LAST_ACCESS_LOCK.writeLock().unlock();
+            }
+            if (project == null) {
+                return false;
+            }
+            projectId2DisposalMap.put(projectId, disposal);
+            // A load that published the project may not have been unregistered yet.  It must not be shared by later
+            // requests for the project.
+            ListenableFuture<OWLAPIProject> finishedLoad = projectId2LoadMap.get(projectId);
+            if (finishedLoad != null && finishedLoad.isDone()) {
+                projectId2LoadMap.remove(projectId, finishedLoad);
+            }
+        }
         try {
-            WRITE_LOCK.lock();
-            LAST_ACCESS_LOCK.writeLock().lock();
-            OWLAPIProject project = projectId2ProjectMap.remove(projectId);
-            lastAccessMap.remove(projectId);
             project.dispose();
         }
         finally {
-            final int projectsBeingAccessed = lastAccessMap.size();
-            LAST_ACCESS_LOCK.writeLock().unlock();
-            WRITE_LOCK.unlock();
-            LOGGER.info("Purged project: %s.  %d projects are now being accessed.", projectId.getId(), projectsBeingAccessed);
+            projectId2DisposalMap.remove(projectId, disposal);
+            // Starts any load that is waiting for the disposal
+            disposal.set(null);
         }
+        LOGGER.info("Purged project: %s.  %d projects are now resident.", projectId.getId(), getResidentProjectCount());
+        return true;
     }
 
     public boolean isActive(ProjectId projectId) {
         try {
-            READ_LOCK.lock();
+            LAST_ACCESS_LOCK.readLock().lock();
             return lastAccessMap.containsKey(projectId);
         }
         finally {
-            READ_LOCK.unlock();
+            LAST_ACCESS_LOCK.readLock().unlock();
         }
     }
 
@@ -227,18 +531,26 @@ public class OWLAPIProjectCache {
         }
     }
 
-    private void logProjectAccess(final ProjectId projectId) {
-        try {
-            LAST_ACCESS_LOCK.writeLock().lock();
-            long currentTime = System.currentTimeMillis();
-            int currentSize = lastAccessMap.size();
-            lastAccessMap.put(projectId, currentTime);
-            if(lastAccessMap.size() > currentSize) {
-                LOGGER.info("%d projects are now being accessed", lastAccessMap.size());
+    private void logProjectAccess(final ProjectId projectId, OWLAPIProject project) {
+        synchronized (getInternedProjectId(projectId)) {
+            if (projectId2ProjectMap.get(projectId) != project) {
+                // Purged since it was obtained.  Don't resurrect the access record.
+                return;
+            }
+            try {
+                LAST_ACCESS_LOCK.writeLock().lock();
+                long currentTime = System.currentTimeMillis();
+                int currentSize = lastAccessMap.size();
+                lastAccessMap.put(projectId, currentTime);
+                preloadedProjectIds.remove(projectId);
+                accessStatisticsStore.recordAccess(projectId, currentTime);
+                if(lastAccessMap.size() > currentSize) {
+                    LOGGER.info("%d projects are now being accessed", lastAccessMap.size());
+                }
+            }
+            finally {
+                LAST_ACCESS_LOCK.writeLock().unlock();
             }
-        }
-        finally {
-            LAST_ACCESS_LOCK.writeLock().unlock();
         }
     }
 
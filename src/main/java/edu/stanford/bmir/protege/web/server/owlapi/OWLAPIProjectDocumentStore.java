@@ -65,8 +65,20 @@ public class OWLAPIProjectDocumentStore {
 
     private static final String ROOT_ONTOLOGY_DOCUMENT_NAME = "root-ontology.binary";
 
+    /**
+     * Records the length of the snapshot at the start of the root ontology document.  Anything beyond this length
+     * consists of appended change chunks.
+     */
+    private static final String ROOT_ONTOLOGY_SNAPSHOT_LENGTH_FILE_NAME = "root-ontology.snapshot-length";
+
     private static final String CHANGE_DATA_FILE_NAME = "change-data.binary";
 
+    private static final String CHANGE_DATA_INDEX_FILE_NAME = "change-data.index";
+
+    private static final String CHANGE_DATA_CHECKPOINTS_DIRECTORY_NAME = "checkpoints";
+
+    private static final String CHANGE_DATA_ENTITY_INDEX_FILE_NAME = "change-data.entities.index";
+
 
     private static Map<ProjectId, ReadWriteLock> projectLockMap = new WeakHashMap<ProjectId, ReadWriteLock>();
 
@@ -75,6 +87,13 @@ public class OWLAPIProjectDocumentStore {
     private static Map<ProjectId, ReadWriteLock> projectAttributesCacheLock = new WeakHashMap<ProjectId,
             ReadWriteLock>();
 
+    /**
+     * The lengths of the snapshots at the start of the root ontology documents of projects.  The length is checked
+     * after every commit, so it is cached rather than read from disk each time.  It is cached here, rather than in a
+     * document store, because a new document store is created each time one is asked for.
+     */
+    private static Map<ProjectId, Long> rootOntologySnapshotLengthCache = new WeakHashMap<ProjectId, Long>();
+
 
     private static ReadWriteLock getProjectReadWriteLock(ProjectId projectId) {
         // Synchronized on the class because it should be global over all instances of document store for the
@@ -113,9 +132,31 @@ public class OWLAPIProjectDocumentStore {
     }
 
 
+    private static Long getCachedRootOntologySnapshotLength(ProjectId projectId) {
+        synchronized (OWLAPIProjectDocumentStore.class) {
+            return rootOntologySnapshotLengthCache.get(projectId);
+        }
+    }
+
+    private static void setCachedRootOntologySnapshotLength(ProjectId projectId, Long snapshotLength) {
+        synchronized (OWLAPIProjectDocumentStore.class) {
+            if (snapshotLength == null) {
+                rootOntologySnapshotLengthCache.remove(projectId);
+            }
+            else {
+                rootOntologySnapshotLengthCache.put(projectId, snapshotLength);
+            }
+        }
+    }
+
+
     private OWLAPIProjectDocumentStore(ProjectId projectId) {
-        this.projectId = projectId;
-        this.projectFileStore = OWLAPIProjectFileStore.getProjectFileStore(projectId);
+        this(projectId, OWLAPIProjectFileStore.getProjectFileStore(projectId));
+    }
+
+    OWLAPIProjectDocumentStore(ProjectId projectId, OWLAPIProjectFileStore projectFileStore) {
+        this.projectId = checkNotNull(projectId);
+        this.projectFileStore = checkNotNull(projectFileStore);
     }
 
     private OWLAPIProjectDocumentStore(NewProjectSettings newProjectSettings) throws
@@ -273,6 +314,143 @@ public class OWLAPIProjectDocumentStore {
         deleteCacheFiles();
     }
 
+    /**
+     * Gets the length of the binary root ontology document.
+     * @return The length in bytes.
+     */
+    public long getRootOntologyDocumentLength() {
+        return getBinaryOntologyDocumentFile().length();
+    }
+
+    /**
+     * Gets the length of the snapshot at the start of the binary root ontology document.  The remainder of the
+     * document consists of change chunks that have been appended since the snapshot was written.
+     * @return The length in bytes.  Zero if the length of the snapshot is not known.
+     */
+    public long getRootOntologyDocumentSnapshotLength() {
+        Long cachedLength = getCachedRootOntologySnapshotLength(projectId);
+        if (cachedLength != null) {
+            return cachedLength;
+        }
+        File snapshotLengthFile = getRootOntologySnapshotLengthFile();
+        if (!snapshotLengthFile.exists()) {
+            return 0;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new FileInputStream(snapshotLengthFile));
+            long snapshotLength = inputStream.readLong();
+            if (snapshotLength > getRootOntologyDocumentLength()) {
+                // A snapshot cannot be longer than the document that it starts.  The recorded length is stale.
+                logger.info(projectId, "Ignoring recorded root ontology snapshot length of %d bytes.  The document is only %d bytes long.", snapshotLength, getRootOntologyDocumentLength());
+                return 0;
+            }
+            setCachedRootOntologySnapshotLength(projectId, snapshotLength);
+            return snapshotLength;
+        } catch (IOException e) {
+            logger.info(projectId, "Could not read the root ontology snapshot length: %s", e.getMessage());
+            return 0;
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    logger.severe(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites the binary root ontology document as a fresh snapshot of the specified ontology, discarding the
+     * change chunks that have been appended to it.  The new document is written to a temporary file and then swapped
+     * in while the project document lock is held.  The caller must make sure that the ontology is not modified
+     * while this method runs.
+     * @param rootOntology The root ontology, whose state corresponds to the current contents of the document.
+     *                     Not {@code null}.
+     * @param expectedDocumentLength The length that the document is expected to have.  If the document has a different
+     *                               length then it has been modified by something else and it is not compacted.
+     * @return {@code true} if the document was compacted, otherwise {@code false}.
+     */
+    public boolean compactRootOntologyDocument(OWLOntology rootOntology, long expectedDocumentLength) {
+        checkNotNull(rootOntology);
+        try {
+            getProjectReadWriteLock(projectId).writeLock().lock();
+            File documentFile = getBinaryOntologyDocumentFile();
+            long originalLength = documentFile.length();
+            if (originalLength != expectedDocumentLength) {
+                logger.info(projectId, "Not compacting root ontology document.  The document has been modified elsewhere.");
+                return false;
+            }
+            long originalSnapshotLength = getRootOntologyDocumentSnapshotLength();
+            long t0 = System.currentTimeMillis();
+            File tempFile = new File(documentFile.getParentFile(), documentFile.getName() + ".compacting");
+            try {
+                FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+                OutputStream outputStream = new BufferedOutputStream(fileOutputStream);
+                try {
+                    rootOntology.getOWLOntologyManager().saveOntology(rootOntology,
+                                                                      new BinaryOWLOntologyDocumentFormat(),
+                                                                      outputStream);
+                    // The rename must not reach the disk before the new contents do, otherwise a crash could leave
+                    // an empty or truncated document in place of the original.
+                    outputStream.flush();
+                    fileOutputStream.getFD().sync();
+                } finally {
+                    outputStream.close();
+                }
+                // The length is recorded before the rename.  If the rename does not happen then the recorded length
+                // is shorter than the real snapshot, which only brings the next compaction forward.  Recording it
+                // after the rename could leave a length that is longer than the new document.
+                writeRootOntologySnapshotLength(tempFile.length());
+                if (!tempFile.renameTo(documentFile)) {
+                    writeRootOntologySnapshotLength(originalSnapshotLength);
+                    throw new IOException("Could not replace " + documentFile.getAbsolutePath() + " with " + tempFile.getAbsolutePath());
+                }
+            } catch (IOException e) {
+                logger.severe(e);
+                tempFile.delete();
+                return false;
+            } catch (OWLOntologyStorageException e) {
+                logger.severe(e);
+                tempFile.delete();
+                return false;
+            }
+            long compactedLength = documentFile.length();
+            long t1 = System.currentTimeMillis();
+            logger.info(projectId, "Compacted root ontology document in %d ms.  Size before: %d bytes (%d bytes of appended changes).  Size after: %d bytes.",
+                        (t1 - t0), originalLength, originalLength - originalSnapshotLength, compactedLength);
+            return true;
+        } finally {
+            getProjectReadWriteLock(projectId).writeLock().unlock();
+        }
+    }
+
+    private void writeRootOntologySnapshotLength(long snapshotLength) {
+        File snapshotLengthFile = getRootOntologySnapshotLengthFile();
+        File tempFile = new File(snapshotLengthFile.getParentFile(), snapshotLengthFile.getName() + ".tmp");
+        try {
+            FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+            DataOutputStream outputStream = new DataOutputStream(fileOutputStream);
+            try {
+                outputStream.writeLong(snapshotLength);
+                outputStream.flush();
+                fileOutputStream.getFD().sync();
+            } finally {
+                outputStream.close();
+            }
+            if (!tempFile.renameTo(snapshotLengthFile)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + snapshotLengthFile.getAbsolutePath());
+            }
+            setCachedRootOntologySnapshotLength(projectId, snapshotLength);
+        } catch (IOException e) {
+            logger.severe(e);
+            tempFile.delete();
+            // Read it again next time, in case the rename did happen
+            setCachedRootOntologySnapshotLength(projectId, null);
+        }
+    }
+
     public ProjectId getProjectId() {
         return projectId;
     }
@@ -356,6 +534,18 @@ public class OWLAPIProjectDocumentStore {
         return new File(projectFileStore.getChangesDataDirectory(), CHANGE_DATA_FILE_NAME);
     }
 
+    public File getChangeDataIndexFile() {
+        return new File(projectFileStore.getChangesDataDirectory(), CHANGE_DATA_INDEX_FILE_NAME);
+    }
+
+    public File getChangeDataCheckpointsDirectory() {
+        return new File(projectFileStore.getChangesDataDirectory(), CHANGE_DATA_CHECKPOINTS_DIRECTORY_NAME);
+    }
+
+    public File getChangeDataEntityIndexFile() {
+        return new File(projectFileStore.getChangesDataDirectory(), CHANGE_DATA_ENTITY_INDEX_FILE_NAME);
+    }
+
     public File getConfigurationsDirectory() {
         return projectFileStore.getConfigurationsDirectory();
     }
@@ -539,6 +729,7 @@ public class OWLAPIProjectDocumentStore {
         binaryDocumentFile.getParentFile().mkdirs();
         rootOntologyManager.saveOntology(ontology, new BinaryOWLOntologyDocumentFormat(),
                                          IRI.create(binaryDocumentFile));
+        writeRootOntologySnapshotLength(binaryDocumentFile.length());
         ImportsCacheManager cacheManager = new ImportsCacheManager(projectId);
         cacheManager.cacheImports(ontology);
     }
@@ -555,4 +746,8 @@ public class OWLAPIProjectDocumentStore {
     private File getBinaryOntologyDocumentFile() {
         return new File(projectFileStore.getOntologyDataDirectory(), ROOT_ONTOLOGY_DOCUMENT_NAME);
     }
+
+    private File getRootOntologySnapshotLengthFile() {
+        return new File(projectFileStore.getOntologyDataDirectory(), ROOT_ONTOLOGY_SNAPSHOT_LENGTH_FILE_NAME);
+    }
 }
@@ -113,7 +113,7 @@ public class OWLAPIProjectFileStore {
      * @param webProtegeDataDirectory The root directory where data will be stored.
      * @param projectId The id of the project
      */
-    private OWLAPIProjectFileStore(File webProtegeDataDirectory, ProjectId projectId) {
+    OWLAPIProjectFileStore(File webProtegeDataDirectory, ProjectId projectId) {
         checkNotNull(webProtegeDataDirectory);
         File baseDirectory = new File(webProtegeDataDirectory, BASE_DIRECTORY_NAME);
         File allProjectsDirectory = new File(baseDirectory, ALL_PROJECTS_DIRECTORY_NAME);
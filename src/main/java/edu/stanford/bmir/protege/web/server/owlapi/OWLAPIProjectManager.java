@@ -1,7 +1,10 @@
 package edu.stanford.bmir.protege.web.server.owlapi;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
 import edu.stanford.bmir.protege.web.client.rpc.data.NewProjectSettings;
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.project.ProjectAlreadyExistsException;
 import edu.stanford.bmir.protege.web.shared.project.ProjectDocumentNotFoundException;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
@@ -14,6 +17,12 @@ import edu.stanford.bmir.protege.web.shared.project.ProjectId;
  */
 public class OWLAPIProjectManager {
 
+    /**
+     * The maximum time (in ms) that a request waits for a project to load before the client is told that the project
+     * is still loading.
+     */
+    public static final long MAX_LOAD_WAIT_TIME_MS = 2000;
+
     private static OWLAPIProjectManager instance = new OWLAPIProjectManager();
 
     private final OWLAPIProjectCache projectCache;
@@ -30,6 +39,30 @@ public class OWLAPIProjectManager {
         return projectCache.getProject(projectId);
     }
 
+    /**
+     * Starts loading the specified project, without waiting for the load to finish.
+     * @param projectId The project id.
+     * @return A future for the project.  Not {@code null}.
+     */
+    public ListenableFuture<OWLAPIProject> loadProject(ProjectId projectId) {
+        return projectCache.loadProject(projectId);
+    }
+
+    /**
+     * Gets the specified project, waiting at most {@link #MAX_LOAD_WAIT_TIME_MS} for it to load.  Request handlers
+     * use this rather than {@link #getProject(ProjectId)} so that a long load does not tie up a request thread.
+     * @param projectId The project id.
+     * @return The project, or absent if it is still being loaded.  Not {@code null}.
+     * @throws ProjectDocumentNotFoundException if the project does not exist.
+     */
+    public Optional<OWLAPIProject> getProjectIfLoaded(ProjectId projectId) throws ProjectDocumentNotFoundException {
+        return projectCache.getProjectIfLoadedWithin(projectId, MAX_LOAD_WAIT_TIME_MS);
+    }
+
+    public boolean isLoading(ProjectId projectId) {
+        return projectCache.isLoading(projectId);
+    }
+
     public Optional<OWLAPIProject> getProjectIfActive(ProjectId projectId) throws ProjectDocumentNotFoundException {
         return projectCache.getProjectIfActive(projectId);
     }
@@ -45,4 +78,22 @@ public class OWLAPIProjectManager {
     public long getLastAccessTime(ProjectId projectId) {
         return projectCache.getLastAccessTime(projectId);
     }
+
+    /**
+     * Starts loading the most used projects in the background.  This method returns immediately.
+     */
+    public void startPreloadingProjects() {
+        WebProtegeProperties properties = WebProtegeProperties.get();
+        long maxSize = properties.getProjectPreloadMaxSize() * 1024L * 1024L;
+        if (maxSize == 0) {
+            maxSize = Runtime.getRuntime().maxMemory() / 4;
+        }
+        ProjectPreloader preloader = new ProjectPreloader(projectCache,
+                                                          projectCache.getAccessStatisticsStore(),
+                                                          WebProtegeScheduler.get(),
+                                                          properties.getProjectPreloadMaxProjects(),
+                                                          properties.getProjectPreloadConcurrency(),
+                                                          maxSize);
+        preloader.start();
+    }
 }
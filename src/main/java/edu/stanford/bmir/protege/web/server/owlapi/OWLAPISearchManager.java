@@ -1,81 +1,144 @@
 package edu.stanford.bmir.protege.web.server.owlapi;
 
 import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
-import org.semanticweb.owlapi.model.OWLEntity;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
+import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.util.BidirectionalShortFormProvider;
+import org.semanticweb.owlapi.util.OWLAxiomVisitorAdapter;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 06/04/2012
+ * <p>
+ *     Maintains an {@link EntitySearchIndex} of the short forms and annotation values of the entities in a project.
+ *     The index is built when the project is loaded and is then updated as the project ontologies change.
+ * </p>
  */
-public class OWLAPISearchManager {
+public class OWLAPISearchManager implements HasDispose {
+
+    /**
+     * The maximum number of results that {@link #search(String)} returns.  Short search strings match a large part
+     * of a big ontology, and every result is rendered and sent to the client.
+     */
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
+    private static final Set<EntityType<?>> ALL_ENTITY_TYPES = new HashSet<EntityType<?>>(EntityType.values());
 
     private OWLAPIProject project;
 
+    private final OWLOntologyManager ontologyManager;
+
+    private final OWLOntologyChangeListener ontologyChangeListener = new OWLOntologyChangeListener() {
+        public void ontologiesChanged(List<? extends OWLOntologyChange> changes) throws OWLException {
+            updateIndex(changes);
+        }
+    };
+
+    private final EntitySearchIndex searchIndex = new EntitySearchIndex();
+
+    /**
+     * Used to compute the short forms of entities that have changed.  The project's bidirectional short form provider
+     * is updated by its own change listener, which may or may not have run when this manager receives the changes.
+     */
+    private final WebProtegeShortFormProvider shortFormProvider;
+
     public OWLAPISearchManager(OWLAPIProject project) {
         this.project = project;
+        this.shortFormProvider = new WebProtegeShortFormProvider(project);
+        buildIndex();
+        ontologyManager = project.getRootOntology().getOWLOntologyManager();
+        ontologyManager.addOntologyChangeListener(ontologyChangeListener);
+    }
+
+    private void buildIndex() {
+        // The project short form provider has already computed the short forms of every entity (including built in
+        // entities), so reuse them.
+        BidirectionalShortFormProvider sfp = project.getRenderingManager().getShortFormProvider();
+        for (String shortForm : sfp.getShortForms()) {
+            for (OWLEntity entity : sfp.getEntities(shortForm)) {
+                searchIndex.add(entity, shortForm, getAnnotationValues(entity));
+            }
+        }
+    }
+
+    private void updateIndex(List<? extends OWLOntologyChange> changes) {
+        final OWLOntology rootOntology = project.getRootOntology();
+        final Set<OWLEntity> changedEntities = new HashSet<OWLEntity>();
+        for (OWLOntologyChange change : changes) {
+            changedEntities.addAll(change.getSignature());
+            if (change.isAxiomChange()) {
+                change.getAxiom().accept(new OWLAxiomVisitorAdapter() {
+                    @Override
+                    public void visit(OWLAnnotationAssertionAxiom axiom) {
+                        if (axiom.getSubject() instanceof IRI) {
+                            changedEntities.addAll(rootOntology.getEntitiesInSignature((IRI) axiom.getSubject(), true));
+                        }
+                    }
+                });
+            }
+        }
+        for (OWLEntity entity : changedEntities) {
+            if (rootOntology.containsEntityInSignature(entity, true)) {
+                searchIndex.add(entity, shortFormProvider.getShortForm(entity), getAnnotationValues(entity));
+            }
+            else if (!entity.isBuiltIn()) {
+                searchIndex.remove(entity);
+            }
+        }
+    }
+
+    private Set<String> getAnnotationValues(OWLEntity entity) {
+        Set<String> result = new HashSet<String>();
+        for (OWLOntology ontology : project.getRootOntology().getImportsClosure()) {
+            for (OWLAnnotationAssertionAxiom ax : ontology.getAnnotationAssertionAxioms(entity.getIRI())) {
+                if (ax.getValue() instanceof OWLLiteral) {
+                    result.add(((OWLLiteral) ax.getValue()).getLiteral());
+                }
+            }
+        }
+        return result;
     }
-    
+
+    /**
+     * Gets the search index for the project.
+     * @return The search index.  Not {@code null}.
+     */
+    public EntitySearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Searches for entities whose short forms or annotation values contain the specified string.
+     * @param search The search string.  Leading and trailing wildcards (*) are ignored.
+     * @return The matching entities, best match first.  At most {@link #MAX_SEARCH_RESULTS} entities are returned.
+     */
     public List<EntityData> search(final String search) {
         final String normalizedSearchString;
-        if(search.startsWith("*") && search.endsWith("*")) {
+        if(search.startsWith("*") && search.endsWith("*") && search.length() > 1) {
             normalizedSearchString = search.substring(1, search.length() - 1);
         }
         else {
             normalizedSearchString = search;
         }
         List<EntityData> result = new ArrayList<EntityData>();
-
         RenderingManager rm = project.getRenderingManager();
-        BidirectionalShortFormProvider sfp = rm.getShortFormProvider();
-        // Needs to be more efficient, but will do for now
-        Set<String> shortForms = sfp.getShortForms();
-        Pattern pattern = Pattern.compile(normalizedSearchString, Pattern.CASE_INSENSITIVE);
-
-        
-        for(String shortForm : shortForms) {
-            Matcher matcher = pattern.matcher(shortForm);
-            if(matcher.find()) {
-                Set<OWLEntity> entities = sfp.getEntities(shortForm);
-                for(OWLEntity entity : entities) {
-                    EntityData entityData = rm.getEntityData(entity);
-                    result.add(entityData);
-                }
-            }
+        for(EntitySearchResult searchResult : searchIndex.search(normalizedSearchString, ALL_ENTITY_TYPES, true, MAX_SEARCH_RESULTS)) {
+            result.add(rm.getEntityData(searchResult.getEntity()));
         }
-        Collections.sort(result, new Comparator<EntityData>() {
-            @Override
-            public int compare(EntityData entityData, EntityData entityData2) {
-                String browserText1 = entityData.getBrowserText();
-                String browserText2 = entityData2.getBrowserText();
-                if (browserText1 == null) {
-                    if(browserText2 == null) {
-                        return 0;
-                    }
-                    else {
-                        return 1;
-                    }
-                }
-                else if(browserText2 == null) {
-                    return -1;
-                }
-                if(browserText1.equalsIgnoreCase(normalizedSearchString)) {
-                    return -1;
-                }
-                else if(browserText2.equalsIgnoreCase(normalizedSearchString)) {
-                    return 1;
-                }
-                return browserText1.compareToIgnoreCase(browserText2);
-            }
-        });
         return result;
     }
 
-
+    /**
+     * Stops updating the index when the project ontologies change, so that the ontology manager no longer holds on
+     * to the index.
+     */
+    @Override
+    public void dispose() {
+        ontologyManager.removeOntologyChangeListener(ontologyChangeListener);
+    }
 }
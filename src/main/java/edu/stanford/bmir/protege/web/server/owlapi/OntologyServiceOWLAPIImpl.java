@@ -5,6 +5,8 @@ import edu.stanford.bmir.protege.web.client.rpc.data.*;
 import edu.stanford.bmir.protege.web.server.PaginationServerUtil;
 import edu.stanford.bmir.protege.web.server.URLUtil;
 import edu.stanford.bmir.protege.web.server.WebProtegeRemoteServiceServlet;
+import edu.stanford.bmir.protege.web.server.hierarchy.SubclassesPager;
+import edu.stanford.bmir.protege.web.shared.pagination.PageRequest;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 import edu.stanford.bmir.protege.web.shared.watches.Watch;
@@ -14,9 +16,6 @@ import org.ncbo.stanford.util.BioPortalServerConstants;
 import org.ncbo.stanford.util.BioPortalUtil;
 import org.ncbo.stanford.util.BioportalConcept;
 import org.ncbo.stanford.util.HTMLUtil;
-import org.protege.editor.owl.model.hierarchy.OWLAnnotationPropertyHierarchyProvider;
-import org.protege.editor.owl.model.hierarchy.OWLDataPropertyHierarchyProvider;
-import org.protege.editor.owl.model.hierarchy.OWLObjectPropertyHierarchyProvider;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
@@ -394,58 +393,11 @@ public class OntologyServiceOWLAPIImpl extends WebProtegeRemoteServiceServlet im
         if (className == null) {
             return Collections.emptyList();
         }
-        List<SubclassEntityData> result = new ArrayList<SubclassEntityData>();
         OWLAPIProject project = getProject(projectName);
         RenderingManager rm = project.getRenderingManager();
-        AssertedClassHierarchyProvider hierarchyProvider = project.getClassHierarchyProvider();
         OWLClass cls = rm.getEntity(className, EntityType.CLASS);
-
-        boolean checkForDeprecated = project.getRootOntology().containsAnnotationPropertyInSignature(OWLRDFVocabulary.OWL_DEPRECATED.getIRI());
-        for (OWLClass subclass : new ArrayList<OWLClass>(hierarchyProvider.getChildren(cls))) {
-            boolean deprecated = false;
-            if(checkForDeprecated) {
-                deprecated = project.isDeprecated(subclass);
-            }
-//            if (!deprecated) {
-                Set<OWLClass> children = hierarchyProvider.getChildren(subclass);
-                int subClassSubClassesCount = children.size();
-                String browserText = rm.getBrowserText(subclass);
-                String name = subclass.getIRI().toString();
-                SubclassEntityData data = new SubclassEntityData(name, browserText, new HashSet<EntityData>(0), subClassSubClassesCount);
-                data.setDeprecated(deprecated);
-                int directNotesCount = project.getNotesManager().getIndirectNotesCount(subclass);
-//                int indirectNotesCount = project.getNotesManager().getIndirectNotesCount(cls);
-                data.setLocalAnnotationsCount(directNotesCount);
-            Set<Watch<?>> directWatches = project.getWatchManager().getDirectWatches(subclass, getUserId());
-            if(!directWatches.isEmpty()) {
-                data.setWatches(directWatches);
-            }
-                data.setValueType(ValueType.Cls);
-                result.add(data);
-//            }
-        }
-        Collections.sort(result, new Comparator<SubclassEntityData>() {
-            public int compare(SubclassEntityData o1, SubclassEntityData o2) {
-                if(o1.isDeprecated()) {
-                    if(!o2.isDeprecated()) {
-                        return 1;
-                    }
-                }
-                else if(o2.isDeprecated()) {
-                    return -1;
-                }
-                String browserText1 = o1.getBrowserText();
-                String browserText2 = o2.getBrowserText();
-                if(browserText1.startsWith("'")) {
-                    browserText1 = browserText1.substring(1);
-                }
-                if(browserText2.startsWith("'")) {
-                    browserText2 = browserText2.substring(1);
-                }
-                return browserText1.compareToIgnoreCase(browserText2);
-            }
-        });
-        return result;
+        SubclassesPager pager = new SubclassesPager(project, getUserId());
+        return pager.getSubclasses(cls, PageRequest.requestSinglePage()).getPageElements();
     }
 
     public List<EntityData> moveCls(String projectName, String clsName, String oldParentName, String newParentName, boolean checkForCycles, String user, String operationDescription) {
@@ -551,8 +503,7 @@ public class OntologyServiceOWLAPIImpl extends WebProtegeRemoteServiceServlet im
         // Which entity does it refer to?  All messed up.
         for (OWLEntity entity : matchingEntities) {
             if (entity.isOWLObjectProperty()) {
-                OWLObjectPropertyHierarchyProvider hierarchyProvider = project.getObjectPropertyHierarchyProvider();
-                Set<OWLObjectProperty> subProperties = hierarchyProvider.getChildren(entity.asOWLObjectProperty());
+                Set<OWLObjectProperty> subProperties = project.getObjectPropertyHierarchyIndex().getChildren(entity.asOWLObjectProperty());
                 for (OWLObjectProperty subProperty : subProperties) {
                     final EntityData entityData = rm.getEntityData(subProperty);
                     int notesCount = project.getNotesManager().getDirectNotesCount(subProperty);
@@ -561,8 +512,7 @@ public class OntologyServiceOWLAPIImpl extends WebProtegeRemoteServiceServlet im
                 }
             }
             else if (entity.isOWLDataProperty()) {
-                OWLDataPropertyHierarchyProvider hierarchyProvider = project.getDataPropertyHierarchyProvider();
-                Set<OWLDataProperty> subProperties = hierarchyProvider.getChildren(entity.asOWLDataProperty());
+                Set<OWLDataProperty> subProperties = project.getDataPropertyHierarchyIndex().getChildren(entity.asOWLDataProperty());
                 for (OWLDataProperty subProperty : subProperties) {
                     final EntityData entityData = rm.getEntityData(subProperty);
                     int notesCount = project.getNotesManager().getDirectNotesCount(subProperty);
@@ -571,8 +521,7 @@ public class OntologyServiceOWLAPIImpl extends WebProtegeRemoteServiceServlet im
                 }
             }
             else if (entity.isOWLAnnotationProperty()) {
-                OWLAnnotationPropertyHierarchyProvider hierarchyProvider = project.getAnnotationPropertyHierarchyProvider();
-                Set<OWLAnnotationProperty> subProperties = hierarchyProvider.getChildren(entity.asOWLAnnotationProperty());
+                Set<OWLAnnotationProperty> subProperties = project.getAnnotationPropertyHierarchyIndex().getChildren(entity.asOWLAnnotationProperty());
                 for (OWLAnnotationProperty subProperty : subProperties) {
                     final EntityData entityData = rm.getEntityData(subProperty);
                     int notesCount = project.getNotesManager().getDirectNotesCount(subProperty);
@@ -2,6 +2,8 @@ package edu.stanford.bmir.protege.web.server.owlapi;
 
 import edu.stanford.bmir.protege.web.server.events.HasPostEvents;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.HasDispose;
 import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
 import edu.stanford.bmir.protege.web.shared.event.UserStartingViewingProjectEvent;
@@ -10,6 +12,8 @@ import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -30,7 +34,7 @@ public class ProjectAccessManager implements HasDispose {
 
     private Map<UserId, Long> userIdAccessTimeMap = new HashMap<UserId, Long>();
 
-    private Timer purgeTimer = new Timer(true);
+    private final ScheduledFuture<?> purgeFuture;
 
 
     private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -41,15 +45,15 @@ public class ProjectAccessManager implements HasDispose {
 
     private HasPostEvents<ProjectEvent<?>> postEvents;
 
-    public ProjectAccessManager(ProjectId projectId, HasPostEvents<ProjectEvent<?>> postEvents) {
+    public ProjectAccessManager(ProjectId projectId, HasPostEvents<ProjectEvent<?>> postEvents, WebProtegeScheduler scheduler) {
         this.projectId = projectId;
         this.postEvents = postEvents;
-        purgeTimer.schedule(new TimerTask() {
+        purgeFuture = scheduler.scheduleWithFixedDelay(TaskCategory.PROJECT_ACCESS_PURGING, new Runnable() {
             @Override
             public void run() {
                 purgeUsers();
             }
-        }, PURGE_PERIOD, PURGE_PERIOD);
+        }, PURGE_PERIOD, PURGE_PERIOD, TimeUnit.MILLISECONDS);
     }
 
     public void logAccessForUser(UserId userId) {
@@ -98,6 +102,6 @@ public class ProjectAccessManager implements HasDispose {
 
     @Override
     public void dispose() {
-        purgeTimer.cancel();
+        purgeFuture.cancel(false);
     }
 }
@@ -0,0 +1,168 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import java.io.*;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Records how often and how recently projects are accessed, and persists this across restarts, so that the
+ *     projects that are most likely to be used can be loaded when the server starts.
+ * </p>
+ */
+public class ProjectAccessStatisticsStore {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(ProjectAccessStatisticsStore.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final long MS_PER_DAY = 24 * 60 * 60 * 1000;
+
+    private final File file;
+
+    private final Map<ProjectId, Long> lastAccessTimes = new HashMap<ProjectId, Long>();
+
+    private final Map<ProjectId, Integer> accessCounts = new HashMap<ProjectId, Integer>();
+
+    private boolean changed = false;
+
+    /**
+     * @param file The file that the statistics are persisted to.  Not {@code null}.
+     */
+    public ProjectAccessStatisticsStore(File file) {
+        this.file = checkNotNull(file);
+    }
+
+    /**
+     * Loads the statistics from the file, if it exists.
+     */
+    public synchronized void load() {
+        if (!file.exists()) {
+            return;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            int version = inputStream.readInt();
+            if (version != FORMAT_VERSION) {
+                LOGGER.info("Ignoring project access statistics with unknown format version %d", version);
+                return;
+            }
+            int count = inputStream.readInt();
+            for (int i = 0; i < count; i++) {
+                ProjectId projectId = ProjectId.get(inputStream.readUTF());
+                accessCounts.put(projectId, inputStream.readInt());
+                lastAccessTimes.put(projectId, inputStream.readLong());
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                }
+                catch (IOException e) {
+                    LOGGER.severe(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the statistics to the file if they have changed since they were last saved.
+     */
+    public synchronized void saveIfChanged() {
+        if (!changed) {
+            return;
+        }
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                outputStream.writeInt(FORMAT_VERSION);
+                outputStream.writeInt(accessCounts.size());
+                for (ProjectId projectId : accessCounts.keySet()) {
+                    outputStream.writeUTF(projectId.getId());
+                    outputStream.writeInt(accessCounts.get(projectId));
+                    outputStream.writeLong(lastAccessTimes.get(projectId));
+                }
+            }
+            finally {
+                outputStream.close();
+            }
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete " + file.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+            }
+            changed = false;
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+    }
+
+    /**
+     * Records an access of a project.
+     * @param projectId The project id.
+     * @param accessTime The time of the access.
+     */
+    public synchronized void recordAccess(ProjectId projectId, long accessTime) {
+        Integer accessCount = accessCounts.get(checkNotNull(projectId));
+        accessCounts.put(projectId, accessCount == null ? 1 : accessCount + 1);
+        lastAccessTimes.put(projectId, accessTime);
+        changed = true;
+    }
+
+    /**
+     * Removes the statistics for a project, for example, because it could not be loaded.
+     * @param projectId The project id.
+     */
+    public synchronized void remove(ProjectId projectId) {
+        if (accessCounts.remove(projectId) != null) {
+            lastAccessTimes.remove(projectId);
+            changed = true;
+        }
+    }
+
+    /**
+     * Gets the projects that have been used the most, taking into account both how often and how recently they
+     * have been accessed.
+     * @param maxCount The maximum number of projects to return.
+     * @param currentTime The current time.
+     * @return The ids of the projects, most used first.  Not {@code null}.
+     */
+    public synchronized List<ProjectId> getMostUsedProjects(int maxCount, final long currentTime) {
+        List<ProjectId> projectIds = new ArrayList<ProjectId>(accessCounts.keySet());
+        final Map<ProjectId, Double> scores = new HashMap<ProjectId, Double>();
+        for (ProjectId projectId : projectIds) {
+            scores.put(projectId, getScore(accessCounts.get(projectId), lastAccessTimes.get(projectId), currentTime));
+        }
+        Collections.sort(projectIds, new Comparator<ProjectId>() {
+            @Override
+            public int compare(ProjectId o1, ProjectId o2) {
+                return Double.compare(scores.get(o2), scores.get(o1));
+            }
+        });
+        return projectIds.subList(0, Math.min(maxCount, projectIds.size()));
+    }
+
+    /**
+     * Scores a project by its access count, discounted by the number of days since it was last accessed.
+     */
+    public static double getScore(int accessCount, long lastAccessTime, long currentTime) {
+        double daysSinceLastAccess = Math.max(0, currentTime - lastAccessTime) / (double) MS_PER_DAY;
+        return accessCount / (1.0 + daysSinceLastAccess);
+    }
+}
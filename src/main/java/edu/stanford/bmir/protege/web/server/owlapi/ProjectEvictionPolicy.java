@@ -0,0 +1,25 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import java.util.List;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Decides which of the projects that are resident in the {@link OWLAPIProjectCache} should be evicted.
+ * </p>
+ */
+public interface ProjectEvictionPolicy {
+
+    /**
+     * Selects the projects that should be evicted from the cache.
+     * @param residentProjects The projects that are currently resident.  Not {@code null}.
+     * @param currentTime The current time.
+     * @return The ids of the projects that should be evicted, in the order in which they should be evicted.
+     * Not {@code null}.
+     */
+    List<ProjectId> selectProjectsForEviction(List<ResidentProjectInfo> residentProjects, long currentTime);
+}
@@ -0,0 +1,159 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Loads the projects that have been used the most into the {@link OWLAPIProjectCache} after the server starts,
+ *     so that the first users to open them do not pay the cost of loading them.  Preloading is started on the
+ *     {@link WebProtegeScheduler} and never blocks a thread: a fixed number of loads are kept in flight, and each
+ *     load that finishes starts the next one.  Preloading stops once the estimated size of the resident projects
+ *     reaches a memory budget.  Preloaded projects are not evicted for being dormant until they have been accessed.
+ * </p>
+ */
+public class ProjectPreloader {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(ProjectPreloader.class);
+
+    private final OWLAPIProjectCache projectCache;
+
+    private final ProjectAccessStatisticsStore statisticsStore;
+
+    private final WebProtegeScheduler scheduler;
+
+    private final int maxProjects;
+
+    private final int concurrency;
+
+    private final long maxEstimatedSize;
+
+    private final Queue<ProjectId> pendingProjectIds = new ConcurrentLinkedQueue<ProjectId>();
+
+    private final AtomicInteger activeLoadChains = new AtomicInteger();
+
+    private final AtomicInteger loadedCount = new AtomicInteger();
+
+    private final AtomicBoolean budgetReached = new AtomicBoolean();
+
+    private volatile long startTime;
+
+    /**
+     * @param projectCache The cache to load projects into.  Not {@code null}.
+     * @param statisticsStore The access statistics used to choose the projects.  Not {@code null}.
+     * @param scheduler The scheduler that preloading is started on.  Not {@code null}.
+     * @param maxProjects The maximum number of projects to preload.
+     * @param concurrency The maximum number of projects that are preloaded at the same time.  Greater than zero.
+     * @param maxEstimatedSize The estimated size, in bytes, of the resident projects at which preloading stops.
+     */
+    public ProjectPreloader(OWLAPIProjectCache projectCache,
+                            ProjectAccessStatisticsStore statisticsStore,
+                            WebProtegeScheduler scheduler,
+                            int maxProjects,
+                            int concurrency,
+                            long maxEstimatedSize) {
+        checkArgument(concurrency > 0, "concurrency must be greater than zero");
+        this.projectCache = checkNotNull(projectCache);
+        this.statisticsStore = checkNotNull(statisticsStore);
+        this.scheduler = checkNotNull(scheduler);
+        this.maxProjects = maxProjects;
+        this.concurrency = concurrency;
+        this.maxEstimatedSize = maxEstimatedSize;
+    }
+
+    /**
+     * Starts preloading projects in the background.  This method returns immediately.
+     */
+    public void start() {
+        if (maxProjects <= 0) {
+            return;
+        }
+        // The scheduler logs exceptions thrown by the task
+        scheduler.getExecutor(TaskCategory.PROJECT_PRELOADING).execute(new Runnable() {
+            @Override
+            public void run() {
+                startPreloading();
+            }
+        });
+    }
+
+    private void startPreloading() {
+        startTime = System.currentTimeMillis();
+        List<ProjectId> projectIds = statisticsStore.getMostUsedProjects(maxProjects, startTime);
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Preloading up to %d projects", projectIds.size());
+        pendingProjectIds.addAll(projectIds);
+        int loadChainCount = Math.min(concurrency, projectIds.size());
+        activeLoadChains.set(loadChainCount);
+        for (int i = 0; i < loadChainCount; i++) {
+            preloadNextProject();
+        }
+    }
+
+    /**
+     * Starts loading the next pending project.  This is called when preloading starts, and then from the callback of
+     * each load that finishes, so that at most {@link #concurrency} loads are in flight.
+     */
+    private void preloadNextProject() {
+        final ProjectId projectId = pendingProjectIds.poll();
+        if (projectId == null) {
+            finishLoadChain();
+            return;
+        }
+        if (isOverBudget()) {
+            pendingProjectIds.clear();
+            if (budgetReached.compareAndSet(false, true)) {
+                LOGGER.info("Stopped preloading projects.  The preload memory budget has been reached.");
+            }
+            finishLoadChain();
+            return;
+        }
+        ListenableFuture<OWLAPIProject> future = projectCache.preloadProject(projectId);
+        Futures.addCallback(future, new FutureCallback<OWLAPIProject>() {
+            @Override
+            public void onSuccess(OWLAPIProject result) {
+                loadedCount.incrementAndGet();
+                preloadNextProject();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                LOGGER.info("Could not preload project %s: %s", projectId.getId(), t.getMessage());
+                // Don't try to preload it next time
+                statisticsStore.remove(projectId);
+                preloadNextProject();
+            }
+        });
+    }
+
+    private void finishLoadChain() {
+        if (activeLoadChains.decrementAndGet() == 0) {
+            long t1 = System.currentTimeMillis();
+            LOGGER.info("Preloaded %d projects in %d ms", loadedCount.get(), (t1 - startTime));
+        }
+    }
+
+    private boolean isOverBudget() {
+        return maxEstimatedSize > 0 && projectCache.getEstimatedResidentSize() >= maxEstimatedSize;
+    }
+}
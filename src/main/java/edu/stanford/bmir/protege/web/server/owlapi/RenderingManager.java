@@ -53,6 +53,30 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
 
     private ManchesterSyntaxObjectRenderer.HighlightChecker highlightChecker;
 
+    /**
+     * The maximum number of axiom renderings held by each of the axiom rendering caches.
+     */
+    private static final int MAX_CACHED_AXIOM_RENDERINGS = 50000;
+
+    /**
+     * Used to render objects in frames.  Shared between threads.
+     */
+    private ManchesterSyntaxObjectRenderer frameObjectRenderer;
+
+    /**
+     * Used to render objects as HTML browser text.  Shared between threads.
+     */
+    private ManchesterSyntaxObjectRenderer htmlObjectRenderer;
+
+    /**
+     * Used by the browser text renderers for objects other than entities and IRIs.  Shared between threads.
+     */
+    private EscapingShortFormProvider escapingShortFormProvider;
+
+    private AxiomRenderingCache axiomBrowserTextCache;
+
+    private AxiomRenderingCache axiomHTMLBrowserTextCache;
+
     public RenderingManager(OWLAPIProject prj) {
         this.project = prj;
 
@@ -60,6 +84,8 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
 
         shortFormProvider = new WebProtegeBidirectionalShortFormProvider(project);
 
+        escapingShortFormProvider = new EscapingShortFormProvider(shortFormProvider);
+
         ontologyIRIShortFormProvider = new WebProtegeOntologyIRIShortFormProvider(project.getRootOntology());
 
         entityIRIChecker = new ManchesterSyntaxObjectRenderer
@@ -90,6 +116,37 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
                 return false;
             }
         };
+
+        HttpLinkRenderer linkRenderer = new DefaultHttpLinkRenderer();
+        LiteralRenderer literalRenderer = new MarkdownLiteralRenderer();
+        frameObjectRenderer = new ManchesterSyntaxObjectRenderer(shortFormProvider,
+                entityIRIChecker,
+                LiteralStyle.REGULAR,
+                linkRenderer,
+                literalRenderer);
+        htmlObjectRenderer = new ManchesterSyntaxObjectRenderer(shortFormProvider,
+                new DefaultEntityIRIChecker(project.getRootOntology()),
+                LiteralStyle.BRACKETED,
+                linkRenderer,
+                literalRenderer);
+
+        axiomBrowserTextCache = new AxiomRenderingCache(MAX_CACHED_AXIOM_RENDERINGS) {
+            @Override
+            protected String computeRendering(OWLAxiom axiom) {
+                return renderBrowserText(axiom);
+            }
+        };
+        axiomHTMLBrowserTextCache = new AxiomRenderingCache(MAX_CACHED_AXIOM_RENDERINGS) {
+            @Override
+            protected String computeRendering(OWLAxiom axiom) {
+                StringBuilder sb = new StringBuilder();
+                htmlObjectRenderer.render(axiom, highlightChecker, deprecatedEntityChecker, sb);
+                return sb.toString();
+            }
+        };
+        EntityRenderingCache renderingCache = shortFormProvider.getRenderingCache();
+        renderingCache.addInvalidationListener(axiomBrowserTextCache);
+        renderingCache.addInvalidationListener(axiomHTMLBrowserTextCache);
     }
 
 
@@ -139,6 +196,18 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
         return shortFormProvider;
     }
 
+    public EntityCompletionIndex getEntityCompletionIndex() {
+        return shortFormProvider.getCompletionIndex();
+    }
+
+    /**
+     * Gets the cache of entity short forms and deprecation flags for the project.
+     * @return The cache.  Not {@code null}.
+     */
+    public EntityRenderingCache getRenderingCache() {
+        return shortFormProvider.getRenderingCache();
+    }
+
     public OntologyIRIShortFormProvider getOntologyIRIShortFormProvider() {
         return ontologyIRIShortFormProvider;
     }
@@ -746,12 +815,22 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
      * @return The browser text for the object.
      */
     public String getBrowserText(OWLObject object) {
+        if (object instanceof OWLAxiom) {
+            return axiomBrowserTextCache.getRendering((OWLAxiom) object);
+        }
+        return renderBrowserText(object);
+    }
+
+    private String renderBrowserText(OWLObject object) {
+        // The OWL API renderer is not thread safe and holds its own buffer.  It is cheap to create, so a fresh one is
+        // used for each rendering.  (Renderers must not be held in thread locals: pooled threads would keep them, and
+        // through them the project, alive after the project has been disposed.)
         OWLObjectRenderer owlObjectRenderer = new ManchesterOWLSyntaxOWLObjectRendererImpl();
         if (object instanceof OWLEntity || object instanceof IRI) {
             owlObjectRenderer.setShortFormProvider(shortFormProvider);
         }
         else {
-            owlObjectRenderer.setShortFormProvider(new EscapingShortFormProvider(shortFormProvider));
+            owlObjectRenderer.setShortFormProvider(escapingShortFormProvider);
         }
         String browserText = owlObjectRenderer.render(object);
         if(browserText == null) {
@@ -766,14 +845,9 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
             return "";
         }
         OWLEntity entity = (OWLEntity) subject;
-        ManchesterSyntaxObjectRenderer objectRenderer = new ManchesterSyntaxObjectRenderer(shortFormProvider,
-                entityIRIChecker,
-                LiteralStyle.REGULAR,
-                new DefaultHttpLinkRenderer(),
-                new MarkdownLiteralRenderer());
         ManchesterSyntaxEntityFrameRenderer renderer = new ManchesterSyntaxEntityFrameRenderer(
                 project.getRootOntology(),
-                shortFormProvider, ontologyIRIShortFormProvider, objectRenderer,
+                shortFormProvider, ontologyIRIShortFormProvider, frameObjectRenderer,
                 highlightChecker, deprecatedEntityChecker, new DefaultItemStyleProvider(), NestedAnnotationStyle.COMPACT);
         StringBuilder builder = new StringBuilder();
         renderer.render(entity, builder);
@@ -781,12 +855,10 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
     }
 
     public String getHTMLBrowserText(OWLObject object) {
-        return getHTMLBrowserText(object, new ManchesterSyntaxObjectRenderer.HighlightChecker() {
-            @Override
-            public boolean isHighlighted(OWLEntity entity) {
-                return false;
-            }
-        });
+        if (object instanceof OWLAxiom) {
+            return axiomHTMLBrowserTextCache.getRendering((OWLAxiom) object);
+        }
+        return getHTMLBrowserText(object, highlightChecker);
     }
 
     public String getHTMLBrowserText(OWLObject object, final Set<String> highlightedPhrases) {
@@ -799,18 +871,19 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
     }
 
     public String getHTMLBrowserText(OWLObject object, ManchesterSyntaxObjectRenderer.HighlightChecker highlightChecker) {
-        ManchesterSyntaxObjectRenderer renderer = new ManchesterSyntaxObjectRenderer(
-                project.getRenderingManager().getShortFormProvider(),
-                new DefaultEntityIRIChecker(project.getRootOntology()),
-                LiteralStyle.BRACKETED,
-                new DefaultHttpLinkRenderer(),
-                new MarkdownLiteralRenderer());
-        return renderer.render(object, highlightChecker, new ManchesterSyntaxObjectRenderer.DeprecatedChecker() {
-            @Override
-            public boolean isDeprecated(OWLEntity entity) {
-                return project.isDeprecated(entity);
-            }
-        });
+        StringBuilder sb = new StringBuilder();
+        getHTMLBrowserText(object, highlightChecker, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Renders an object as HTML browser text into the specified builder.
+     * @param object The object.  Not {@code null}.
+     * @param highlightChecker Determines which entities are highlighted.  Not {@code null}.
+     * @param sb The builder that the rendering is appended to.  Not {@code null}.
+     */
+    public void getHTMLBrowserText(OWLObject object, ManchesterSyntaxObjectRenderer.HighlightChecker highlightChecker, StringBuilder sb) {
+        htmlObjectRenderer.render(object, highlightChecker, deprecatedEntityChecker, sb);
     }
 
 
@@ -901,7 +974,11 @@ public class RenderingManager implements BrowserTextProvider, HasGetFrameRenderi
         return result;
     }
 
+    /**
+     * Logs the statistics of the rendering cache.
+     */
     public void dispose() {
+        WebProtegeLoggerManager.get(RenderingManager.class).info(project.getProjectId(), "%s", getRenderingCache());
     }
 
 
@@ -0,0 +1,82 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Describes a project that is resident in the {@link OWLAPIProjectCache}.  Instances are snapshots that are
+ *     handed to a {@link ProjectEvictionPolicy}.
+ * </p>
+ */
+public class ResidentProjectInfo {
+
+    private final ProjectId projectId;
+
+    private final long lastAccessTime;
+
+    private final long estimatedSize;
+
+    private final boolean preloaded;
+
+    /**
+     * Describes a resident project that was not preloaded.
+     * @param projectId The project id.  Not {@code null}.
+     * @param lastAccessTime The time stamp of the last access of the project.  Zero if the project has not been
+     *                       accessed.
+     * @param estimatedSize The estimated heap size of the project, in bytes.
+     */
+    public ResidentProjectInfo(ProjectId projectId, long lastAccessTime, long estimatedSize) {
+        this(projectId, lastAccessTime, estimatedSize, false);
+    }
+
+    /**
+     * Describes a resident project.
+     * @param projectId The project id.  Not {@code null}.
+     * @param lastAccessTime The time stamp of the last access of the project.  Zero if the project has not been
+     *                       accessed.
+     * @param estimatedSize The estimated heap size of the project, in bytes.
+     * @param preloaded {@code true} if the project was preloaded and has not been accessed since, otherwise
+     *                  {@code false}.
+     */
+    public ResidentProjectInfo(ProjectId projectId, long lastAccessTime, long estimatedSize, boolean preloaded) {
+        this.projectId = checkNotNull(projectId);
+        this.lastAccessTime = lastAccessTime;
+        this.estimatedSize = estimatedSize;
+        this.preloaded = preloaded;
+    }
+
+    public ProjectId getProjectId() {
+        return projectId;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Determines whether the project was preloaded and has not been accessed since.
+     */
+    public boolean isPreloaded() {
+        return preloaded;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper("ResidentProjectInfo")
+                .addValue(projectId)
+                .add("lastAccessTime", lastAccessTime)
+                .add("estimatedSize", estimatedSize)
+                .add("preloaded", preloaded)
+                .toString();
+    }
+}
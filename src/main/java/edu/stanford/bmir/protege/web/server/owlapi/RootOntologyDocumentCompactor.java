@@ -0,0 +1,153 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Changes to a project are appended to the end of its binary root ontology document, which means that the
+ *     document, and the time that it takes to load it, grows with every edit.  A compactor keeps an eye on the size of
+ *     the appended changes and, once they become large in comparison to the snapshot at the start of the document,
+ *     rewrites the document as a fresh snapshot on a background thread.
+ * </p>
+ * <p>
+ *     While the document is being rewritten the project change read lock is held.  This blocks edits, whose changes
+ *     must not be appended to the old document, but not reads.
+ * </p>
+ */
+public class RootOntologyDocumentCompactor {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(RootOntologyDocumentCompactor.class);
+
+    private final OWLAPIProjectDocumentStore documentStore;
+
+    private final OWLOntology rootOntology;
+
+    private final Lock projectChangeReadLock;
+
+    private final long minTailSize;
+
+    private final int tailRatio;
+
+    private final Executor compactionExecutor;
+
+    private final AtomicBoolean compactionPending = new AtomicBoolean(false);
+
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a compactor for a project's root ontology document.
+     * @param documentStore The document store for the project.  Not {@code null}.
+     * @param rootOntology The root ontology of the project.  Not {@code null}.
+     * @param projectChangeReadLock A lock which, when held, prevents changes being applied to the root ontology.
+     *                              Not {@code null}.
+     * @param minTailSize The minimum number of bytes of appended changes that the document must have before it is
+     *                    compacted.  Not negative.
+     * @param tailRatio The size of the appended changes, as a percentage of the snapshot size, at which the
+     *                  document is compacted.  Not negative.
+     * @param scheduler The scheduler that compactions are run on.  Not {@code null}.
+     */
+    public RootOntologyDocumentCompactor(OWLAPIProjectDocumentStore documentStore,
+                                         OWLOntology rootOntology,
+                                         Lock projectChangeReadLock,
+                                         long minTailSize,
+                                         int tailRatio,
+                                         WebProtegeScheduler scheduler) {
+        this.documentStore = checkNotNull(documentStore);
+        this.rootOntology = checkNotNull(rootOntology);
+        this.projectChangeReadLock = checkNotNull(projectChangeReadLock);
+        checkArgument(minTailSize >= 0, "minTailSize must not be negative");
+        checkArgument(tailRatio >= 0, "tailRatio must not be negative");
+        this.minTailSize = minTailSize;
+        this.tailRatio = tailRatio;
+        this.compactionExecutor = scheduler.getExecutor(TaskCategory.DOCUMENT_COMPACTION);
+    }
+
+    /**
+     * Determines whether a document should be compacted.
+     * @param documentLength The length of the document in bytes.
+     * @param snapshotLength The length of the snapshot at the start of the document in bytes.
+     * @param minTailSize The minimum number of bytes of appended changes for compaction.
+     * @param tailRatio The size of the appended changes, as a percentage of the snapshot size, for compaction.
+     * @return {@code true} if the document should be compacted, otherwise {@code false}.
+     */
+    public static boolean isCompactionRequired(long documentLength, long snapshotLength, long minTailSize, int tailRatio) {
+        long tailSize = documentLength - snapshotLength;
+        if (tailSize <= 0) {
+            return false;
+        }
+        long threshold = Math.max(minTailSize, (snapshotLength / 100) * tailRatio);
+        return tailSize >= threshold;
+    }
+
+    /**
+     * Schedules a compaction of the document if the appended changes have grown large enough.  This should be called
+     * after changes have been appended to the document, while the project change write lock is still held, so that
+     * the document length that is observed corresponds to the state of the root ontology.
+     */
+    public void compactIfNecessary() {
+        if (disposed) {
+            return;
+        }
+        final long documentLength = documentStore.getRootOntologyDocumentLength();
+        long snapshotLength = documentStore.getRootOntologyDocumentSnapshotLength();
+        if (!isCompactionRequired(documentLength, snapshotLength, minTailSize, tailRatio)) {
+            return;
+        }
+        if (!compactionPending.compareAndSet(false, true)) {
+            return;
+        }
+        LOGGER.info(documentStore.getProjectId(), "Scheduling compaction of root ontology document.  Document size: %d bytes.  Snapshot size: %d bytes.", documentLength, snapshotLength);
+        compactionExecutor.execute(new Runnable() {
+            public void run() {
+                try {
+                    compact();
+                }
+                finally {
+                    compactionPending.set(false);
+                }
+            }
+        });
+    }
+
+    private void compact() {
+        if (disposed) {
+            return;
+        }
+        try {
+            projectChangeReadLock.lock();
+            if (disposed) {
+                return;
+            }
+            // Read the length again.  Changes may have been appended since the compaction was scheduled.
+            long documentLength = documentStore.getRootOntologyDocumentLength();
+            documentStore.compactRootOntologyDocument(rootOntology, documentLength);
+        }
+        catch (RuntimeException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            projectChangeReadLock.unlock();
+        }
+    }
+
+    /**
+     * Disposes of this compactor.  Compactions that have not started will not be run.
+     */
+    public void dispose() {
+        disposed = true;
+    }
+}
@@ -32,14 +32,33 @@ public class WebProtegeBidirectionalShortFormProvider implements BidirectionalSh
 
     private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
+    /**
+     * Kept in step with the short forms held by the delegate.
+     */
+    private final EntityCompletionIndex completionIndex = new EntityCompletionIndex();
+
+    /**
+     * Caches the short forms that the delegate computes, along with deprecation flags.  Entries are invalidated before
+     * the delegate is updated so that the delegate sees fresh values.
+     */
+    private final EntityRenderingCache renderingCache;
+
     public WebProtegeBidirectionalShortFormProvider(OWLAPIProject project) {
         this.project = project;
         final Set<OWLOntology> importsClosure = project.getRootOntology().getImportsClosure();
-        delegate = new BidirectionalShortFormProviderAdapter(importsClosure, new WebProtegeShortFormProvider(project)) {
+        renderingCache = new EntityRenderingCache(project.getRootOntology(), new WebProtegeShortFormProvider(project));
+        delegate = new BidirectionalShortFormProviderAdapter(importsClosure, renderingCache) {
+            @Override
+            public void add(OWLEntity entity) {
+                super.add(entity);
+                completionIndex.add(entity, getShortForm(entity));
+            }
+
             @Override
             public void remove(OWLEntity entity) {
                 if (!entity.isBuiltIn()) {
                     super.remove(entity);
+                    completionIndex.remove(entity);
                 }
             }
         };
@@ -121,9 +140,35 @@ public class WebProtegeBidirectionalShortFormProvider implements BidirectionalSh
         }
     }
 
+    /**
+     * Gets an index of the short forms held by this provider that can be used for auto-completion.
+     * @return The index.  Not {@code null}.
+     */
+    public EntityCompletionIndex getCompletionIndex() {
+        return completionIndex;
+    }
+
+    /**
+     * Gets the cache of per-entity short forms and deprecation flags that backs this provider.
+     * @return The cache.  Not {@code null}.
+     */
+    public EntityRenderingCache getRenderingCache() {
+        return renderingCache;
+    }
+
     public void dispose() {
     }
 
+    /**
+     * Replaces the short form of an entity, clearing out any previous short form, which would otherwise still map to
+     * the entity.  The OWL API deprecates update(), but short of rebuilding every short form it is the only way to
+     * drop a stale one.
+     */
+    @SuppressWarnings("deprecation")
+    private void updateShortForm(OWLEntity entity) {
+        delegate.update(entity);
+    }
+
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -149,16 +194,24 @@ public class WebProtegeBidirectionalShortFormProvider implements BidirectionalSh
                         @Override
                         public void visit(OWLAnnotationAssertionAxiom axiom) {
                             if(axiom.getSubject() instanceof IRI) {
+                                // The rendering (or deprecation) of entities with this IRI may have changed, even if
+                                // they are not in the signature of the ontologies
+                                renderingCache.invalidate((IRI) axiom.getSubject());
                                 entities.addAll(project.getRootOntology().getEntitiesInSignature((IRI) axiom.getSubject(), true));
                             }
                         }
                     });
                 }
+                else if(chg.isImportChange()) {
+                    // Annotations may have come or gone with the imported ontology
+                    renderingCache.invalidateAll();
+                }
                 for (OWLEntity entity : entities) {
                     if (!processed.contains(entity)) {
                         processed.add(entity);
+                        renderingCache.invalidate(entity);
                         if (project.getRootOntology().containsEntityInSignature(entity, true)) {
-                            delegate.add(entity);
+                            updateShortForm(entity);
                         }
                         else {
                             delegate.remove(entity);
@@ -27,6 +27,11 @@ public class WebProtegeShortFormProvider implements ShortFormProvider {
 
     private final Map<String, String> builtinPrefixes = new HashMap<String, String>();
 
+    /**
+     * Renders built in entities.  Its namespace util is not thread safe, so calls must synchronize on it.
+     */
+    private final QNameShortFormProvider builtinShortFormProvider;
+
 //    private final List<String> languages;
 
     public WebProtegeShortFormProvider(OWLAPIProject project) {
@@ -39,6 +44,7 @@ public class WebProtegeShortFormProvider implements ShortFormProvider {
         builtinPrefixes.put("dc", DublinCoreVocabulary.NAME_SPACE);
         builtinPrefixes.put("foaf:", "http://xmlns.com/foaf/0.1/");
         builtinPrefixes.put("dcterms:", "http://purl.org/dc/terms/");
+        builtinShortFormProvider = new QNameShortFormProvider(builtinPrefixes);
 
 //        languages = new ArrayList<String>();
 //        // TODO: Configurable.
@@ -65,11 +71,12 @@ public class WebProtegeShortFormProvider implements ShortFormProvider {
         return false;
     }
 
-    public synchronized String getShortForm(OWLEntity owlEntity) {
+    public String getShortForm(OWLEntity owlEntity) {
         try {
             if(owlEntity.isBuiltIn() || startsWithBuiltInPrefix(owlEntity)) {
-                QNameShortFormProvider qNameShortFormProvider = new QNameShortFormProvider(builtinPrefixes);
-                return qNameShortFormProvider.getShortForm(owlEntity);
+                synchronized (builtinShortFormProvider) {
+                    return builtinShortFormProvider.getShortForm(owlEntity);
+                }
             }
             int matchedIndex = Integer.MAX_VALUE;
 //        int matchedLangIndex = Integer.MAX_VALUE;
@@ -0,0 +1,15 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Receives the index entries of revisions, in revision number order, once they have been committed to the change
+ *     data file by a {@link ChangeLogWriter}.
+ * </p>
+ */
+public interface ChangeLogCommitHandler {
+
+    void handleCommitted(RevisionIndexEntry entry);
+}
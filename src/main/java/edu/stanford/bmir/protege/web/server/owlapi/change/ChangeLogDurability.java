@@ -0,0 +1,33 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Specifies how hard a {@link ChangeLogWriter} tries to make sure that revisions have reached the disk before
+ *     they are considered to be committed.
+ * </p>
+ */
+public enum ChangeLogDurability {
+
+    /**
+     * There is no group commit window.  The thread that logs a revision writes and forces it to disk straight away,
+     * and waits until it has been forced.  Revisions that other threads queued in the meantime are written with the
+     * same append and sync, so concurrent commits share the cost of the sync, but no revision is ever delayed to wait
+     * for others.
+     */
+    SYNC,
+
+    /**
+     * Revisions that arrive within the group commit window are written with a single append and forced to disk with
+     * a single sync.  The thread that logs a revision does not wait for it to be written.
+     */
+    BATCHED,
+
+    /**
+     * Revisions that arrive within the group commit window are written with a single append.  Writes are never forced
+     * to disk, which is left to the operating system.
+     */
+    ASYNC
+}
@@ -0,0 +1,437 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import com.google.common.util.concurrent.SettableFuture;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Appends revisions to the change data file using group commit.  Revisions are queued by the threads that log
+ *     them and are written by a drain task that runs on the {@link WebProtegeScheduler}.  The first revision that is
+ *     queued schedules a drain at the end of a short window, and revisions that arrive within the window are
+ *     coalesced into one append (and, depending on the {@link ChangeLogDurability}, one sync), so that bursts of
+ *     edits do not serialise on disk I/O.  In {@link ChangeLogDurability#SYNC} mode there is no window and the
+ *     thread that logs a revision drains the queue itself, committing its revision along with any others that are
+ *     already queued.
+ * </p>
+ * <p>
+ *     Revisions must be written without gaps, because the revision index and replay expect consecutive revision
+ *     numbers.  If a revision cannot be serialised or written then it, and every revision that was queued after it,
+ *     fails and the writer is marked as failed.  A failed writer does not write any further revisions, and appending to
+ *     it throws an {@link IllegalStateException}.
+ * </p>
+ * <p>
+ *     The writer keeps simple statistics about queue depth and commit latency.  The commit latency of a batch is
+ *     the time between the first revision in the batch being queued and the batch being committed.
+ * </p>
+ */
+public class ChangeLogWriter {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(ChangeLogWriter.class);
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final long SLOW_COMMIT_THRESHOLD_MS = 1000;
+
+    private final ProjectId projectId;
+
+    private final File changeDataFile;
+
+    private final ChangeLogDurability durability;
+
+    private final long groupCommitWindowMs;
+
+    private final ChangeLogCommitHandler commitHandler;
+
+    private final BlockingQueue<PendingRevision> queue = new LinkedBlockingQueue<PendingRevision>();
+
+    private final WebProtegeScheduler scheduler;
+
+    /**
+     * Held while the queue is drained.
+     */
+    private final Object drainLock = new Object();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    /**
+     * Guarded by this.
+     */
+    private boolean shutDown = false;
+
+    /**
+     * The exception that caused this writer to fail, or {@code null} if it has not failed.  Guarded by this.
+     */
+    private Throwable failure = null;
+
+    /**
+     * The future for the most recently queued revision.  Guarded by this.
+     */
+    private Future<RevisionIndexEntry> lastQueuedRevision = null;
+
+    private final AtomicLong committedBatchCount = new AtomicLong();
+
+    private final AtomicLong committedRevisionCount = new AtomicLong();
+
+    private final AtomicLong totalCommitLatency = new AtomicLong();
+
+    private final AtomicLong maxCommitLatency = new AtomicLong();
+
+    private volatile long lastCommitLatency = 0;
+
+    /**
+     * Creates a change log writer.
+     * @param projectId The id of the project that the change data file belongs to.  Not {@code null}.
+     * @param changeDataFile The change data file.  Not {@code null}.
+     * @param durability The durability mode.  Not {@code null}.
+     * @param groupCommitWindowMs The length of time, in milliseconds, that the writer waits for further revisions
+     * to arrive before committing a batch.  Must not be negative.  Ignored in {@link ChangeLogDurability#SYNC} mode.
+     * @param commitHandler A handler that is notified of each revision once it has been committed.  The handler is
+     * called on the thread that commits the revision.  Not {@code null}.
+     * @param scheduler The scheduler that revisions are committed on.  Not {@code null}.
+     */
+    public ChangeLogWriter(ProjectId projectId, File changeDataFile, ChangeLogDurability durability, long groupCommitWindowMs, ChangeLogCommitHandler commitHandler, WebProtegeScheduler scheduler) {
+        checkArgument(groupCommitWindowMs >= 0, "groupCommitWindowMs must not be negative");
+        this.projectId = checkNotNull(projectId);
+        this.changeDataFile = checkNotNull(changeDataFile);
+        this.durability = checkNotNull(durability);
+        this.groupCommitWindowMs = groupCommitWindowMs;
+        this.commitHandler = checkNotNull(commitHandler);
+        this.scheduler = checkNotNull(scheduler);
+    }
+
+    public ChangeLogDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Queues a revision to be appended to the change data file.  In {@link ChangeLogDurability#SYNC} mode this
+     * method does not return until the revision has been committed, possibly in the same batch as revisions that were
+     * queued by other threads.
+     * @param task The revision.  Not {@code null}.
+     * @return A future for the index entry of the revision, which is available once the revision has been
+     * committed.  Not {@code null}.
+     * @throws IllegalStateException if this writer has been shut down or has failed.
+     */
+    public Future<RevisionIndexEntry> append(ChangeSerializationTask task) {
+        Future<RevisionIndexEntry> future = enqueue(new PendingRevision(checkNotNull(task)));
+        if (durability == ChangeLogDurability.SYNC) {
+            drain();
+        }
+        else {
+            scheduleDrain();
+        }
+        return future;
+    }
+
+    /**
+     * Queues a revision to be appended to the change data file and waits until it has been committed, regardless
+     * of the durability mode.
+     * @param task The revision.  Not {@code null}.
+     * @throws IllegalStateException if this writer has been shut down or has failed.
+     */
+    public void appendAndWait(ChangeSerializationTask task) {
+        Future<RevisionIndexEntry> future = enqueue(new PendingRevision(checkNotNull(task)));
+        // The caller is going to wait anyway, so it may as well do the work
+        drain();
+        awaitCommit(future);
+    }
+
+    /**
+     * Waits until every revision that has been queued so far has been committed.
+     */
+    public void flush() {
+        Future<RevisionIndexEntry> future;
+        synchronized (this) {
+            future = lastQueuedRevision;
+        }
+        if (future != null) {
+            awaitCommit(future);
+        }
+    }
+
+    /**
+     * Commits any queued revisions on the calling thread.  Revisions cannot be appended after this method has been
+     * called.
+     */
+    public void shutDown() {
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            shutDown = true;
+        }
+        // Drained here rather than waiting for a scheduled drain, which might be stuck behind other tasks (or behind
+        // this one, if the project is being disposed on a worker thread).
+        drain();
+        LOGGER.info(projectId, "Change log writer stopped.  Committed %d revisions in %d batches (mean commit latency: %d ms, max commit latency: %d ms)",
+                committedRevisionCount.get(), committedBatchCount.get(), getMeanCommitLatency(), maxCommitLatency.get());
+    }
+
+    /**
+     * Determines whether this writer has failed.  A failed writer does not write any further revisions.
+     * @return {@code true} if this writer has failed, otherwise {@code false}.
+     */
+    public synchronized boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Gets the number of revisions that are waiting to be committed.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getCommittedBatchCount() {
+        return committedBatchCount.get();
+    }
+
+    public long getCommittedRevisionCount() {
+        return committedRevisionCount.get();
+    }
+
+    /**
+     * Gets the latency, in milliseconds, of the most recently committed batch.
+     */
+    public long getLastCommitLatency() {
+        return lastCommitLatency;
+    }
+
+    /**
+     * Gets the mean latency, in milliseconds, of the batches committed so far.
+     */
+    public long getMeanCommitLatency() {
+        long batches = committedBatchCount.get();
+        return batches == 0 ? 0 : totalCommitLatency.get() / batches;
+    }
+
+    /**
+     * Gets the maximum latency, in milliseconds, of the batches committed so far.
+     */
+    public long getMaxCommitLatency() {
+        return maxCommitLatency.get();
+    }
+
+    private synchronized Future<RevisionIndexEntry> enqueue(PendingRevision pendingRevision) {
+        if (shutDown) {
+            throw new IllegalStateException("The change log writer has been shut down");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("The change log writer has failed.  Revisions can no longer be written to " + changeDataFile, failure);
+        }
+        queue.add(pendingRevision);
+        lastQueuedRevision = pendingRevision.future;
+        return pendingRevision.future;
+    }
+
+    private void awaitCommit(Future<RevisionIndexEntry> future) {
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            // Already logged by the thread that committed the revision
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(TaskCategory.CHANGE_LOG_WRITING, new Runnable() {
+                    public void run() {
+                        drain();
+                    }
+                }, groupCommitWindowMs, TimeUnit.MILLISECONDS);
+            }
+            catch (RuntimeException e) {
+                // Otherwise no drain would ever be scheduled again.  Commit on this thread rather than leaving the
+                // queued revisions behind.
+                LOGGER.severe(e);
+                drainScheduled.set(false);
+                drain();
+            }
+        }
+    }
+
+    /**
+     * Commits the queued revisions, in batches of at most {@link #MAX_BATCH_SIZE} revisions.  Drains are serialised,
+     * so revisions are committed in the order in which they were queued.
+     */
+    private void drain() {
+        synchronized (drainLock) {
+            // Cleared first, so that revisions that are queued while committing schedule another drain
+            drainScheduled.set(false);
+            while (true) {
+                List<PendingRevision> batch = new ArrayList<PendingRevision>();
+                queue.drainTo(batch, MAX_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                commitBatch(batch);
+            }
+        }
+    }
+
+    private void commitBatch(List<PendingRevision> batch) {
+        Throwable previousFailure;
+        synchronized (this) {
+            previousFailure = failure;
+        }
+        if (previousFailure != null) {
+            failRevisions(batch, previousFailure);
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        List<PendingRevision> serialized = new ArrayList<PendingRevision>(batch.size());
+        List<long[]> relativeOffsets = new ArrayList<long[]>(batch.size());
+        IOException serializationFailure = null;
+        for (PendingRevision pendingRevision : batch) {
+            try {
+                byte[] bytes = pendingRevision.task.serialize();
+                long start = buffer.size();
+                buffer.write(bytes);
+                serialized.add(pendingRevision);
+                relativeOffsets.add(new long[]{start, buffer.size()});
+            }
+            catch (IOException e) {
+                // Stop here.  The revisions before this one are still written, so that there is no gap.
+                serializationFailure = e;
+                break;
+            }
+        }
+        if (!serialized.isEmpty()) {
+            long baseOffset;
+            try {
+                baseOffset = write(buffer);
+            }
+            catch (IOException e) {
+                markFailed(e);
+                failRevisions(batch, e);
+                return;
+            }
+            List<RevisionIndexEntry> entries = new ArrayList<RevisionIndexEntry>(serialized.size());
+            for (int i = 0; i < serialized.size(); i++) {
+                long[] offsets = relativeOffsets.get(i);
+                RevisionIndexEntry entry = serialized.get(i).task.createIndexEntry(baseOffset + offsets[0], baseOffset + offsets[1]);
+                entries.add(entry);
+                try {
+                    commitHandler.handleCommitted(entry);
+                }
+                catch (RuntimeException e) {
+                    LOGGER.severe(e);
+                }
+            }
+            recordCommit(serialized.size(), System.currentTimeMillis() - batch.get(0).queuedAt);
+            for (int i = 0; i < serialized.size(); i++) {
+                serialized.get(i).future.set(entries.get(i));
+            }
+        }
+        if (serializationFailure != null) {
+            markFailed(serializationFailure);
+            failRevisions(batch.subList(serialized.size(), batch.size()), serializationFailure);
+        }
+    }
+
+    /**
+     * Marks this writer as failed.  The revisions that are still queued are failed when they are drained.
+     */
+    private void markFailed(Throwable cause) {
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            failure = cause;
+        }
+        LOGGER.severe(cause);
+        LOGGER.info(projectId, "Change log writer failed.  No further revisions will be written to %s.", changeDataFile);
+    }
+
+    private static void failRevisions(List<PendingRevision> revisions, Throwable cause) {
+        for (PendingRevision pendingRevision : revisions) {
+            pendingRevision.future.setException(cause);
+        }
+    }
+
+    /**
+     * Appends the contents of the buffer to the change data file as a single write.  If the write fails then
+     * the change data file is truncated to its original length so that a partially written batch is not left behind.
+     * @return The offset in the change data file at which the buffer was written.
+     */
+    private long write(ByteArrayOutputStream buffer) throws IOException {
+        File parentFile = changeDataFile.getParentFile();
+        if (parentFile != null) {
+            parentFile.mkdirs();
+        }
+        FileOutputStream outputStream = new FileOutputStream(changeDataFile, true);
+        try {
+            FileChannel channel = outputStream.getChannel();
+            long baseOffset = channel.size();
+            try {
+                buffer.writeTo(outputStream);
+                if (durability != ChangeLogDurability.ASYNC) {
+                    // The file length is synced along with the data, which is all that is required to read it back
+                    channel.force(false);
+                }
+            }
+            catch (IOException e) {
+                channel.truncate(baseOffset);
+                throw e;
+            }
+            return baseOffset;
+        }
+        finally {
+            outputStream.close();
+        }
+    }
+
+    private void recordCommit(int revisionCount, long latency) {
+        committedBatchCount.incrementAndGet();
+        committedRevisionCount.addAndGet(revisionCount);
+        totalCommitLatency.addAndGet(latency);
+        lastCommitLatency = latency;
+        long max = maxCommitLatency.get();
+        while (latency > max && !maxCommitLatency.compareAndSet(max, latency)) {
+            max = maxCommitLatency.get();
+        }
+        if (latency > SLOW_COMMIT_THRESHOLD_MS) {
+            LOGGER.info(projectId, "Slow change log commit: %d revisions committed in %d ms (%d revisions still queued)", revisionCount, latency, queue.size());
+        }
+    }
+
+    private static class PendingRevision {
+
+        private final ChangeSerializationTask task;
+
+        private final long queuedAt;
+
+        private final SettableFuture<RevisionIndexEntry> future = SettableFuture.create();
+
+        private PendingRevision(ChangeSerializationTask task) {
+            this.task = task;
+            this.queuedAt = System.currentTimeMillis();
+        }
+    }
+}
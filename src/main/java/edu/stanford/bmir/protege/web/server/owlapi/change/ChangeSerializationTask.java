@@ -6,22 +6,22 @@ import org.semanticweb.binaryowl.BinaryOWLMetadata;
 import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Callable;
 
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 15/05/2012
+ * <p>
+ *     A revision that is waiting to be written to the change data file by a {@link ChangeLogWriter}.
+ * </p>
  */
-public class ChangeSerializationTask implements Callable<Integer> {
-
-    private File file;
+public class ChangeSerializationTask {
 
     private UserId userId;
 
@@ -35,8 +35,7 @@ public class ChangeSerializationTask implements Callable<Integer> {
 
     private RevisionType type;
 
-    public ChangeSerializationTask(File file, UserId userId, long timestamp, RevisionNumber revisionNumber, RevisionType type, String highlevelDescription, List<OWLOntologyChange> changes) {
-        this.file = file;
+    public ChangeSerializationTask(UserId userId, long timestamp, RevisionNumber revisionNumber, RevisionType type, String highlevelDescription, List<OWLOntologyChange> changes) {
         this.type = type;
         this.userId = userId;
         this.timestamp = timestamp;
@@ -45,14 +44,34 @@ public class ChangeSerializationTask implements Callable<Integer> {
         this.changes = new ArrayList<OWLOntologyChange>(changes);
     }
 
-    public Integer call() throws IOException {
+    public RevisionNumber getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    /**
+     * Serializes the changes in the binary OWL change log format.
+     * @return The bytes that should be appended to the change data file.  Not {@code null}.
+     * @throws IOException If there was a problem serializing the changes.
+     */
+    public byte[] serialize() throws IOException {
         BinaryOWLMetadata metadata = new BinaryOWLMetadata();
         metadata.setStringAttribute(OWLAPIChangeManager.USERNAME_METADATA_ATTRIBUTE, userId.getUserName());
         metadata.setLongAttribute(OWLAPIChangeManager.REVISION_META_DATA_ATTRIBUTE, revisionNumber.getValue());
         metadata.setStringAttribute(OWLAPIChangeManager.DESCRIPTION_META_DATA_ATTRIBUTE, highlevelDescription);
         metadata.setStringAttribute(OWLAPIChangeManager.REVISION_TYPE_META_DATA_ATTRIBUTE, type.name());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
-        changeLog.appendChanges(Collections.unmodifiableList(changes), timestamp, metadata, file);
-        return 0;
+        changeLog.appendChanges(Collections.unmodifiableList(changes), timestamp, metadata, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Creates the index entry for this revision once it has been written to the change data file.
+     * @param startOffset The offset of the first byte of the revision in the change data file.
+     * @param endOffset The offset of the byte immediately after the revision in the change data file.
+     * @return The index entry.  Not {@code null}.
+     */
+    public RevisionIndexEntry createIndexEntry(long startOffset, long endOffset) {
+        return new RevisionIndexEntry(revisionNumber, userId, timestamp, changes.size(), type, startOffset, endOffset);
     }
 }
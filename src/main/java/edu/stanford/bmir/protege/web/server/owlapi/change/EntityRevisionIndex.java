@@ -0,0 +1,329 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import org.semanticweb.owlapi.change.AxiomChangeData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.util.AxiomSubjectProvider;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     An inverted index from the IRIs of the subjects of changes to the numbers of the revisions that contain those
+ *     changes.  The index makes it possible to find the revisions that affect a given set of entities without
+ *     loading and inspecting every revision in the change history.
+ * </p>
+ * <p>
+ *     The index is persisted as an append-only file of (revision number, subject IRIs) records that sits next to the
+ *     change data file.  When a project is loaded any revisions that are missing from the index file are read from
+ *     the {@link RevisionStore} and appended to the index, so the index is maintained incrementally rather than being
+ *     rebuilt from scratch.
+ * </p>
+ */
+public class EntityRevisionIndex {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(EntityRevisionIndex.class);
+
+    private static final int INDEX_FORMAT_VERSION = 1;
+
+    private final ProjectId projectId;
+
+    private final File indexFile;
+
+    private final RevisionStore revisionStore;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final Lock readLock = readWriteLock.readLock();
+
+    private final Lock writeLock = readWriteLock.writeLock();
+
+    /**
+     * Maps subject IRIs to revision numbers.  The revision numbers for any given IRI are held in ascending order.
+     */
+    private final ListMultimap<IRI, RevisionNumber> iri2Revisions = ArrayListMultimap.create();
+
+    /**
+     * Revisions that have been indexed in memory but which have not yet been written to the index file.
+     */
+    private final Map<RevisionNumber, Set<IRI>> unpersistedRevisions = new HashMap<RevisionNumber, Set<IRI>>();
+
+    private RevisionNumber lastIndexedRevisionNumber = null;
+
+    private boolean indexWritable = false;
+
+    public EntityRevisionIndex(ProjectId projectId, File indexFile, RevisionStore revisionStore) {
+        this.projectId = checkNotNull(projectId);
+        this.indexFile = checkNotNull(indexFile);
+        this.revisionStore = checkNotNull(revisionStore);
+    }
+
+    /**
+     * Loads the index and brings it up to date with the revision store.  The revision store must have been loaded
+     * before this method is called.
+     */
+    public void load() {
+        writeLock.lock();
+        try {
+            long t0 = System.currentTimeMillis();
+            iri2Revisions.clear();
+            unpersistedRevisions.clear();
+            lastIndexedRevisionNumber = null;
+            indexWritable = false;
+            boolean loadedCleanly = readIndexFile();
+            List<RevisionIndexEntry> entries = revisionStore.getEntries();
+            if (lastIndexedRevisionNumber != null && revisionStore.getIndexForRevisionNumber(lastIndexedRevisionNumber) == -1) {
+                // The index refers to revisions that are not in the change history.  Start again.
+                LOGGER.info(projectId, "Entity revision index is out of date with respect to the change data file");
+                iri2Revisions.clear();
+                lastIndexedRevisionNumber = null;
+                loadedCleanly = false;
+            }
+            if (!loadedCleanly) {
+                writeIndexFile();
+            }
+            int firstUnindexed = lastIndexedRevisionNumber == null ? 0 : revisionStore.getIndexForRevisionNumber(lastIndexedRevisionNumber) + 1;
+            final int[] caughtUp = {0};
+            if (firstUnindexed < entries.size()) {
+                revisionStore.readRevisions(firstUnindexed, entries.size() - 1, Predicates.<RevisionIndexEntry>alwaysTrue(), new RevisionHandler() {
+                    public void handleRevision(Revision revision) {
+                        Set<IRI> subjects = getSubjectIRIs(revision);
+                        indexRevision(revision.getRevisionNumber(), subjects);
+                        if (indexWritable) {
+                            appendToIndexFile(revision.getRevisionNumber(), subjects);
+                        }
+                        caughtUp[0]++;
+                    }
+                });
+            }
+            long t1 = System.currentTimeMillis();
+            LOGGER.info(projectId, "Entity revision index loaded.  Indexed %d subjects (%d revisions added to the index) in %d ms", iri2Revisions.keySet().size(), caughtUp[0], (t1 - t0));
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Indexes a revision that has not yet been written to the change data file.  The revision is written to the
+     * index file when {@link #markPersisted(RevisionNumber)} is called for it.
+     * @param revision The revision.  Not {@code null}.
+     */
+    public void addRevision(Revision revision) {
+        Set<IRI> subjects = getSubjectIRIs(revision);
+        writeLock.lock();
+        try {
+            indexRevision(revision.getRevisionNumber(), subjects);
+            unpersistedRevisions.put(revision.getRevisionNumber(), subjects);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the index record for a revision that has been written to the change data file.
+     * @param revisionNumber The revision number.  Not {@code null}.
+     */
+    public void markPersisted(RevisionNumber revisionNumber) {
+        writeLock.lock();
+        try {
+            Set<IRI> subjects = unpersistedRevisions.remove(revisionNumber);
+            if (subjects != null && indexWritable) {
+                appendToIndexFile(revisionNumber, subjects);
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the numbers of the revisions that contain changes whose subjects are any of the specified entities.
+     * @param entities The entities.  Not {@code null}.
+     * @return The revision numbers, in ascending order.  Not {@code null}.
+     */
+    public SortedSet<RevisionNumber> getRevisionNumbers(Collection<? extends OWLEntity> entities) {
+        readLock.lock();
+        try {
+            SortedSet<RevisionNumber> result = new TreeSet<RevisionNumber>();
+            for (OWLEntity entity : entities) {
+                result.addAll(iri2Revisions.get(entity.getIRI()));
+            }
+            return result;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the IRIs of the subjects of the axiom changes in a revision.  Subjects that are entities are represented
+     * by their IRIs.
+     * @param revision The revision.  Not {@code null}.
+     * @return The subject IRIs.  Not {@code null}.
+     */
+    public static Set<IRI> getSubjectIRIs(Revision revision) {
+        Set<IRI> result = new HashSet<IRI>();
+        AxiomSubjectProvider axiomSubjectProvider = new AxiomSubjectProvider();
+        for (OWLOntologyChangeRecord change : revision) {
+            if (change.getData() instanceof AxiomChangeData) {
+                OWLObject subject = axiomSubjectProvider.getSubject(((AxiomChangeData) change.getData()).getAxiom());
+                if (subject instanceof OWLEntity) {
+                    result.add(((OWLEntity) subject).getIRI());
+                }
+                else if (subject instanceof IRI) {
+                    result.add((IRI) subject);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void indexRevision(RevisionNumber revisionNumber, Set<IRI> subjects) {
+        for (IRI subject : subjects) {
+            iri2Revisions.put(subject, revisionNumber);
+        }
+        lastIndexedRevisionNumber = revisionNumber;
+    }
+
+    /**
+     * Reads the index file into memory.
+     * @return {@code true} if the whole of the index file could be read, otherwise {@code false}.  Records that were
+     * read before an error was encountered are retained.
+     */
+    private boolean readIndexFile() {
+        if (!indexFile.exists()) {
+            return false;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            int version = inputStream.readInt();
+            if (version != INDEX_FORMAT_VERSION) {
+                return false;
+            }
+            Map<String, IRI> iriCache = new HashMap<String, IRI>();
+            while (inputStream.available() > 0) {
+                RevisionNumber revisionNumber = RevisionNumber.getRevisionNumber(inputStream.readLong());
+                int subjectCount = inputStream.readInt();
+                Set<IRI> subjects = new HashSet<IRI>(subjectCount);
+                for (int i = 0; i < subjectCount; i++) {
+                    String iriString = inputStream.readUTF();
+                    IRI iri = iriCache.get(iriString);
+                    if (iri == null) {
+                        iri = IRI.create(iriString);
+                        iriCache.put(iriString, iri);
+                    }
+                    subjects.add(iri);
+                }
+                indexRevision(revisionNumber, subjects);
+            }
+            indexWritable = true;
+            return true;
+        }
+        catch (IOException e) {
+            // Includes a truncated final record
+            LOGGER.info(projectId, "Could not read entity revision index: %s", e.getMessage());
+            return false;
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    /**
+     * Rewrites the index file from the contents of the in-memory index.
+     */
+    private void writeIndexFile() {
+        SortedMap<RevisionNumber, Set<IRI>> revisions = new TreeMap<RevisionNumber, Set<IRI>>();
+        for (Map.Entry<IRI, RevisionNumber> entry : iri2Revisions.entries()) {
+            Set<IRI> subjects = revisions.get(entry.getValue());
+            if (subjects == null) {
+                subjects = new HashSet<IRI>();
+                revisions.put(entry.getValue(), subjects);
+            }
+            subjects.add(entry.getKey());
+        }
+        File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        DataOutputStream outputStream = null;
+        try {
+            indexFile.getParentFile().mkdirs();
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            outputStream.writeInt(INDEX_FORMAT_VERSION);
+            for (Map.Entry<RevisionNumber, Set<IRI>> entry : revisions.entrySet()) {
+                writeRecord(outputStream, entry.getKey(), entry.getValue());
+            }
+            outputStream.close();
+            outputStream = null;
+            if (indexFile.exists() && !indexFile.delete()) {
+                throw new IOException("Could not delete stale entity revision index " + indexFile.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(indexFile)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + indexFile.getAbsolutePath());
+            }
+            indexWritable = true;
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+            indexWritable = false;
+        }
+        finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private void appendToIndexFile(RevisionNumber revisionNumber, Set<IRI> subjects) {
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+            writeRecord(outputStream, revisionNumber, subjects);
+        }
+        catch (IOException e) {
+            // Stop maintaining the index file.  It will be brought up to date next time the project is loaded.
+            LOGGER.severe(e);
+            indexWritable = false;
+            indexFile.delete();
+        }
+        finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private static void writeRecord(DataOutput output, RevisionNumber revisionNumber, Set<IRI> subjects) throws IOException {
+        output.writeLong(revisionNumber.getValue());
+        output.writeInt(subjects.size());
+        for (IRI subject : subjects) {
+            output.writeUTF(subject.toString());
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+    }
+}
@@ -1,34 +1,30 @@
 package edu.stanford.bmir.protege.web.server.owlapi.change;
 
-import com.google.common.collect.Interner;
-import com.google.common.collect.Interners;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import edu.stanford.bmir.protege.web.client.rpc.data.ChangeData;
 import edu.stanford.bmir.protege.web.client.rpc.data.EntityData;
 import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
 import edu.stanford.bmir.protege.web.shared.revision.RevisionSummary;
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectDocumentStore;
 import edu.stanford.bmir.protege.web.server.owlapi.manager.WebProtegeOWLManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 import edu.stanford.bmir.protege.web.shared.watches.EntityFrameWatch;
 import edu.stanford.bmir.protege.web.shared.watches.HierarchyBranchWatch;
 import edu.stanford.bmir.protege.web.shared.watches.Watch;
-import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
-import org.semanticweb.binaryowl.BinaryOWLMetadata;
-import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
-import org.semanticweb.binaryowl.BinaryOWLParseException;
-import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
-import org.semanticweb.binaryowl.chunk.SkipSetting;
 import org.semanticweb.owlapi.change.*;
 import org.semanticweb.owlapi.model.*;
 import uk.ac.manchester.cs.jfact.datatypes.cardinality;
 
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -55,152 +51,98 @@ public class OWLAPIChangeManager {
     private final OWLAPIProject project;
 
 
-    private List<Revision> revisions = new ArrayList<Revision>();
+    private final RevisionStore revisionStore;
 
+    private final EntityRevisionIndex entityRevisionIndex;
 
-//    private ListMultimap<OWLEntity, Revision> entity2Revisions = ArrayListMultimap.create();
+    private final ChangeLogWriter changeLogWriter;
 
+    private final RevisionCheckpointStore checkpointStore;
 
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    private final RevisionCheckpointPolicy checkpointPolicy;
+
+    /**
+     * The number of revisions logged since the last checkpoint.  Guarded by the write lock.
+     */
+    private int revisionsSinceCheckpoint = 0;
 
-    private final Lock readLock = readWriteLock.readLock();
+    /**
+     * The number of changes logged since the last checkpoint.  Guarded by the write lock.
+     */
+    private long changesSinceCheckpoint = 0;
+
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
     private final Lock writeLock = readWriteLock.writeLock();
 
-    private ExecutorService changeSerializationExucutor = Executors.newSingleThreadExecutor();
+    private final Executor checkpointExecutor;
 
     public OWLAPIChangeManager(OWLAPIProject project) {
         this.project = project;
+        OWLAPIProjectDocumentStore documentStore = OWLAPIProjectDocumentStore.getProjectDocumentStore(project.getProjectId());
+        this.revisionStore = new RevisionStore(project.getProjectId(), getChangeHistoryFile(), documentStore.getChangeDataIndexFile(), project.getDataFactory());
+        this.entityRevisionIndex = new EntityRevisionIndex(project.getProjectId(), documentStore.getChangeDataEntityIndexFile(), revisionStore);
+        this.checkpointPolicy = RevisionCheckpointPolicy.get();
+        this.checkpointStore = new RevisionCheckpointStore(project.getProjectId(), documentStore.getChangeDataCheckpointsDirectory(), project.getDataFactory(), checkpointPolicy.getRetentionCount());
+        this.checkpointExecutor = project.getScheduler().getExecutor(TaskCategory.REVISION_CHECKPOINTING);
+        WebProtegeProperties properties = WebProtegeProperties.get();
+        this.changeLogWriter = new ChangeLogWriter(project.getProjectId(), getChangeHistoryFile(), properties.getChangeLogDurability(), properties.getChangeLogGroupCommitWindow(), new ChangeLogCommitHandler() {
+            public void handleCommitted(RevisionIndexEntry entry) {
+                revisionStore.markPersisted(entry);
+                entityRevisionIndex.markPersisted(entry.getRevisionNumber());
+            }
+        }, project.getScheduler());
         read();
     }
 
     /**
-     * Only called from the constructor of this class
+     * Writes any changes that are waiting to be written to the change data file and releases the resources held by
+     * this change manager.
      */
-    private void read() {
-        revisions.clear();
-        try {
-            File changeHistoryFile = getChangeHistoryFile();
-            if (!changeHistoryFile.exists()) {
-                // Create it with the baseline?
-                persistBaseline();
-            }
-            long t0 = System.currentTimeMillis();
-            BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
-            final BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(changeHistoryFile));
-            final Interner<OWLAxiom> axiomInterner = getAxiomInterner();
-            final Interner<String> metadataInterner = Interners.newStrongInterner();
-            final Interner<OWLOntologyID> ontologyIDInterner = Interners.newStrongInterner();
-            changeLog.readChanges(inputStream, project.getDataFactory(), new BinaryOWLChangeLogHandler() {
-                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long l) {
-
-                    BinaryOWLMetadata metadata = list.getMetadata();
-                    String userName = metadataInterner.intern(metadata.getStringAttribute(USERNAME_METADATA_ATTRIBUTE, ""));
-                    Long revisionNumberValue = metadata.getLongAttribute(REVISION_META_DATA_ATTRIBUTE, 0l);
-                    RevisionNumber revisionNumber = RevisionNumber.getRevisionNumber(revisionNumberValue);
-
-                    String description = metadataInterner.intern(metadata.getStringAttribute(DESCRIPTION_META_DATA_ATTRIBUTE, ""));
-
-                    RevisionType type = RevisionType.valueOf(metadata.getStringAttribute(REVISION_TYPE_META_DATA_ATTRIBUTE, RevisionType.EDIT.name()));
-
-                    final UserId userId = UserId.getUserId(userName);
-                    final List<OWLOntologyChangeRecord> changeRecords = internChangeRecords(list, axiomInterner, ontologyIDInterner);
-
-                    Revision revision = new Revision(userId, revisionNumber, changeRecords, list.getTimestamp(), description, type);
-                    addRevision(revision);
-                }
-            }, SkipSetting.SKIP_NONE);
-            inputStream.close();
-            long t1 = System.currentTimeMillis();
-            LOGGER.info(project.getProjectId(), "Change history loading complete.  Loaded %d revisions in %d ms", revisions.size(), (t1 - t0));
-
-        }
-        catch (BinaryOWLParseException e) {
-            handleCorruptChangeLog(e);
-        }
-        catch (EOFException e) {
-            // Was the last record that we tried to read malformed?
-            e.printStackTrace();
-        }
-        catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
-        catch (IOException e) {
-            e.printStackTrace();
-        }
-
+    public void dispose() {
+        changeLogWriter.shutDown();
     }
 
+    public ChangeLogWriter getChangeLogWriter() {
+        return changeLogWriter;
+    }
 
     /**
-     * Gets an axiom interner that will ensure the same copies of axioms that are used between project ontologies
-     * and the change manager.
-     * @return The interner.  This should be disposed of as soon as possible.
+     * Only called from the constructor of this class.  Only the revision index is loaded.  Change records are
+     * loaded from the change history file on demand.
      */
-    private Interner<OWLAxiom> getAxiomInterner() {
-        final Interner<OWLAxiom> axiomInterner = Interners.newStrongInterner();
-        for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
-            for(OWLAxiom ax : project.getRootOntology().getAxioms(axiomType)) {
-                axiomInterner.intern(ax);
-            }
-        }
-        return axiomInterner;
+    private void read() {
+        File changeHistoryFile = getChangeHistoryFile();
+        if (!changeHistoryFile.exists()) {
+            // Create it with the baseline?
+            persistBaseline();
+        }
+        revisionStore.load();
+        entityRevisionIndex.load();
+        checkpointStore.load();
+        initialiseCheckpointCounters();
     }
 
-    private List<OWLOntologyChangeRecord> internChangeRecords(OntologyChangeRecordList list, final Interner<OWLAxiom> axiomInterner, Interner<OWLOntologyID> ontologyIDInterner) {
-        List<OWLOntologyChangeRecord> result = new ArrayList<OWLOntologyChangeRecord>();
-        List<OWLOntologyChangeRecord> records = list.getChangeRecords();
-
-        for(OWLOntologyChangeRecord record : records) {
-            OWLOntologyID id = record.getOntologyID();
-            OWLOntologyChangeData changeData = record.getData();
-            OWLOntologyChangeData internedData = changeData.accept(new OWLOntologyChangeDataVisitor<OWLOntologyChangeData, RuntimeException>() {
-                @Override
-                public OWLOntologyChangeData visit(AddAxiomData data) throws RuntimeException {
-                    final OWLAxiom ax = axiomInterner.intern(data.getAxiom());
-                    if (ax != null) {
-                        return new AddAxiomData(ax);
-                    }
-                    else {
-                        return data;
-                    }
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(RemoveAxiomData data) throws RuntimeException {
-                    return data;
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(AddOntologyAnnotationData data) throws RuntimeException {
-                    return data;
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(RemoveOntologyAnnotationData data) throws RuntimeException {
-                    return data;
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(SetOntologyIDData data) throws RuntimeException {
-                    return data;
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(AddImportData data) throws RuntimeException {
-                    return data;
-                }
-
-                @Override
-                public OWLOntologyChangeData visit(RemoveImportData data) throws RuntimeException {
-                    return data;
+    /**
+     * Counts the revisions and changes that have been logged since the latest checkpoint.
+     */
+    private void initialiseCheckpointCounters() {
+        writeLock.lock();
+        try {
+            revisionsSinceCheckpoint = 0;
+            changesSinceCheckpoint = 0;
+            Optional<RevisionNumber> latestCheckpoint = checkpointStore.getLatestCheckpoint();
+            for (RevisionIndexEntry entry : revisionStore.getEntries()) {
+                if (!latestCheckpoint.isPresent() || entry.getRevisionNumber().compareTo(latestCheckpoint.get()) > 0) {
+                    revisionsSinceCheckpoint++;
+                    changesSinceCheckpoint += entry.getChangeCount();
                 }
-            });
-            OWLOntologyChangeRecord rec = new OWLOntologyChangeRecord(id, internedData);
-            result.add(rec);
-
+            }
+        }
+        finally {
+            writeLock.unlock();
         }
-        return result;
     }
 
 
@@ -211,30 +153,14 @@ public class OWLAPIChangeManager {
     private void addRevision(Revision revision) {
         try {
             writeLock.lock();
-            revisions.add(revision);
-//            indexRevision(revision);
+            revisionStore.addRevision(revision);
+            entityRevisionIndex.addRevision(revision);
         }
         finally {
             writeLock.unlock();
         }
     }
 
-//    /**
-//     * Performs indexing of a revision (against its signature etc.).
-//     * @param revision The revision.
-//     */
-//    private void indexRevision(Revision revision) {
-//        try {
-//            writeLock.lock();
-//            for(OWLEntity entity : revision.getEntities(project)) {
-//                entity2Revisions.put(entity, revision);
-//            }
-//        }
-//        finally {
-//            writeLock.unlock();
-//        }
-//    }
-
     private void persistBaseline() {
         try {
             // Sort the basline axioms in a nice order
@@ -308,7 +234,11 @@ public class OWLAPIChangeManager {
         try {
             // Requires a read lock -
             RevisionNumber revisionNumber = getCurrentRevision().getNextRevisionNumber();
+            // Revisions are looked up by timestamp using a binary search, so timestamps must never go backwards
             long timestamp = System.currentTimeMillis();
+            if (!revisionStore.isEmpty()) {
+                timestamp = Math.max(timestamp, revisionStore.getEntry(revisionStore.size() - 1).getTimestamp());
+            }
             final String highlevelDescription = desc != null ? desc : "";
             List<OWLOntologyChangeRecord> records = new ArrayList<OWLOntologyChangeRecord>(changes.size());
             for (OWLOntologyChange change : changes) {
@@ -318,6 +248,9 @@ public class OWLAPIChangeManager {
             addRevision(revision);
 
             persistChanges(timestamp, revisionNumber, revisionType, userId, changes, highlevelDescription, immediately);
+            if (revisionType == RevisionType.EDIT) {
+                checkpointIfNecessary(revisionNumber, changes.size());
+            }
 //            fireProjectChangedEvent(userId, changes, revisionNumber, timestamp, revision);
 
         }
@@ -341,17 +274,12 @@ public class OWLAPIChangeManager {
     private void persistChanges(long timestamp, RevisionNumber revision, RevisionType type, UserId userId, List<? extends OWLOntologyChange> changes, String highlevelDescription, boolean immediately) {
         try {
             writeLock.lock();
-            ChangeSerializationTask changeSerializationTask = new ChangeSerializationTask(getChangeHistoryFile(), userId, timestamp, revision, type, highlevelDescription, Collections.unmodifiableList(changes));
+            ChangeSerializationTask changeSerializationTask = new ChangeSerializationTask(userId, timestamp, revision, type, highlevelDescription, Collections.unmodifiableList(changes));
             if (!immediately) {
-                changeSerializationExucutor.submit(changeSerializationTask);
+                changeLogWriter.append(changeSerializationTask);
             }
             else {
-                try {
-                    changeSerializationTask.call();
-                }
-                catch (IOException e) {
-                    e.printStackTrace();
-                }
+                changeLogWriter.appendAndWait(changeSerializationTask);
             }
         }
         finally {
@@ -360,6 +288,38 @@ public class OWLAPIChangeManager {
     }
 
 
+    /**
+     * Schedules a checkpoint for the specified revision if the checkpoint policy says that one is due.  The checkpoint
+     * is written in the background.  Revisions that have not yet been committed to the change data file are read
+     * from memory.
+     */
+    private void checkpointIfNecessary(final RevisionNumber revisionNumber, int changeCount) {
+        writeLock.lock();
+        try {
+            revisionsSinceCheckpoint++;
+            changesSinceCheckpoint += changeCount;
+            if (!checkpointPolicy.isCheckpointDue(revisionsSinceCheckpoint, changesSinceCheckpoint)) {
+                return;
+            }
+            revisionsSinceCheckpoint = 0;
+            changesSinceCheckpoint = 0;
+            checkpointExecutor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        checkpointStore.writeCheckpoint(revisionNumber, getOntologyManagerForRevision(revisionNumber));
+                    }
+                    catch (RuntimeException e) {
+                        LOGGER.severe(e);
+                    }
+                }
+            });
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+
     private File getChangeHistoryFile() {
         OWLAPIProjectDocumentStore documentStore = OWLAPIProjectDocumentStore.getProjectDocumentStore(project.getProjectId());
         File file = documentStore.getChangeDataFile();
@@ -370,49 +330,67 @@ public class OWLAPIChangeManager {
     }
 
 
-    private void handleCorruptChangeLog(BinaryOWLParseException e) {
-        // The change log appears to be corrupt.  We somehow need a way of backing up the old log and creating
-        // a fresh one.
-        WebProtegeLoggerManager.get(OWLAPIChangeManager.class).severe(new RuntimeException("Corrupt change log", e));
-    }
-
     public RevisionNumber getCurrentRevision() {
-        readLock.lock();
-        try {
-            if (revisions.isEmpty()) {
-                return RevisionNumber.getRevisionNumber(0);
-            }
-            Revision lastRevisionChangeList = revisions.get(revisions.size() - 1);
-            return lastRevisionChangeList.getRevisionNumber();
-        }
-        finally {
-            readLock.unlock();
+        int size = revisionStore.size();
+        if (size == 0) {
+            return RevisionNumber.getRevisionNumber(0);
         }
+        return revisionStore.getEntry(size - 1).getRevisionNumber();
     }
 
+    /**
+     * Builds the ontologies for the specified revision.  The ontologies are built from the latest checkpoint at or
+     * before the revision (if there is one) followed by the revisions after the checkpoint.
+     * @param revision The revision.  Not {@code null}.
+     * @return A fresh manager containing the ontologies of the revision.
+     */
     public OWLOntologyManager getOntologyManagerForRevision(RevisionNumber revision) {
         try {
-            readLock.lock();
-            int revisionIndex = getRevisionIndexForRevision(revision);
+            int revisionIndex = revisionStore.getIndexForRevisionNumber(revision);
             if (revisionIndex == -1) {
                 throw new IllegalArgumentException("Unknown revision: " + revision);
             }
-            OWLOntologyManager manager = WebProtegeOWLManager.createOWLOntologyManager();
+            final OWLOntologyManager manager = WebProtegeOWLManager.createOWLOntologyManager();
             final OWLOntologyID singletonOntologyId = new OWLOntologyID();
-            for (int index = 0; index < revisionIndex + 1; index++) {
-                Revision rev = revisions.get(index);
-                for (OWLOntologyChangeRecord record : rev) {
-                    // Anonymous ontologies are not handled nicely at all.
-                    OWLOntologyChangeRecord normalisedChangeRecord = normaliseChangeRecord(record, singletonOntologyId);
-                    OWLOntologyID ontologyId = normalisedChangeRecord.getOntologyID();
-                    if(!manager.contains(ontologyId)) {
-                        manager.createOntology(ontologyId);
+            final List<OWLOntologyCreationException> creationExceptions = new ArrayList<OWLOntologyCreationException>();
+            RevisionHandler handler = new RevisionHandler() {
+                public void handleRevision(Revision rev) {
+                    if (!creationExceptions.isEmpty()) {
+                        return;
                     }
-
-                    OWLOntologyChange change = normalisedChangeRecord.createOntologyChange(manager);
-                    manager.applyChange(change);
+                    try {
+                        for (OWLOntologyChangeRecord record : rev) {
+                            // Anonymous ontologies are not handled nicely at all.
+                            OWLOntologyChangeRecord normalisedChangeRecord = normaliseChangeRecord(record, singletonOntologyId);
+                            OWLOntologyID ontologyId = normalisedChangeRecord.getOntologyID();
+                            if(!manager.contains(ontologyId)) {
+                                manager.createOntology(ontologyId);
+                            }
+
+                            OWLOntologyChange change = normalisedChangeRecord.createOntologyChange(manager);
+                            manager.applyChange(change);
+                        }
+                    }
+                    catch (OWLOntologyCreationException e) {
+                        creationExceptions.add(e);
+                    }
+                }
+            };
+            int firstReplayedIndex = 0;
+            RevisionNumber targetRevisionNumber = revisionStore.getEntry(revisionIndex).getRevisionNumber();
+            Optional<RevisionNumber> checkpoint = checkpointStore.getCheckpointAtOrBefore(targetRevisionNumber);
+            if (checkpoint.isPresent()) {
+                int checkpointIndex = revisionStore.getIndexForRevisionNumber(checkpoint.get());
+                Optional<Revision> checkpointRevision = checkpointIndex != -1 ? checkpointStore.readCheckpoint(checkpoint.get()) : Optional.<Revision>absent();
+                if (checkpointRevision.isPresent()) {
+                    handler.handleRevision(checkpointRevision.get());
+                    firstReplayedIndex = checkpointIndex + 1;
                 }
             }
+            revisionStore.readRevisions(firstReplayedIndex, revisionIndex, Predicates.<RevisionIndexEntry>alwaysTrue(), handler);
+            if (!creationExceptions.isEmpty()) {
+                throw creationExceptions.get(0);
+            }
             if(manager.getOntologies().isEmpty()) {
                 // No revisions exported.  Just create an empty ontology
                 manager.createOntology(project.getRootOntology().getOntologyID());
@@ -422,9 +400,6 @@ public class OWLAPIChangeManager {
         catch (OWLOntologyCreationException e) {
             throw new RuntimeException("Problem creating ontology: " + e);
         }
-        finally {
-            readLock.unlock();
-        }
     }
 
     private OWLOntologyChangeRecord normaliseChangeRecord(OWLOntologyChangeRecord changeRecord, OWLOntologyID singletonAnonymousId) {
@@ -438,58 +413,9 @@ public class OWLAPIChangeManager {
         }
     }
 
-    private int getRevisionIndexForRevision(RevisionNumber revision) {
-        try {
-            readLock.lock();
-            if (revisions.isEmpty()) {
-                return -1;
-            }
-            if (revision.isHead()) {
-                return revisions.size() - 1;
-            }
-            Revision firstRevision = revisions.get(0);
-            if (revision.compareTo(firstRevision.getRevisionNumber()) < 0) {
-                return -1;
-            }
-            Revision lastRevision = revisions.get(revisions.size() - 1);
-            if (lastRevision.getRevisionNumber() == revision) {
-                return revisions.size() - 1;
-            }
-            Revision dummy = Revision.createEmptyRevisionWithRevisionNumber(revision);
-            return Collections.binarySearch(revisions, dummy);
-        }
-        finally {
-            readLock.unlock();
-        }
-    }
-
-    private int getRevisionIndexForTimestamp(long timestamp) {
-        if (revisions.isEmpty()) {
-            return -1;
-        }
-        Revision firstRevision = revisions.get(0);
-        if (timestamp < firstRevision.getTimestamp()) {
-            return -1;
-        }
-        Revision lastRevision = revisions.get(revisions.size() - 1);
-        if (timestamp > lastRevision.getTimestamp()) {
-            return -revisions.size();
-        }
-        return Collections.binarySearch(revisions, Revision.createEmptyRevisionWithTimestamp(timestamp), new Revision.RevisionTimeStampComparator());
-    }
-
-    private int getRevisionFloorIndexForTimestamp(long timestamp) {
-        int index = getRevisionIndexForTimestamp(timestamp);
-        if (index >= 0) {
-            return index;
-        }
-        int insertionIndex = -index - 1;
-        return insertionIndex - 1;
-    }
-
     public List<ChangeData> getChangeDataForWatches(Set<Watch<?>> watches) {
-        Set<OWLEntity> superEntities = new HashSet<OWLEntity>();
-        Set<OWLEntity> directWatches = new HashSet<OWLEntity>();
+        final Set<OWLEntity> superEntities = new HashSet<OWLEntity>();
+        final Set<OWLEntity> directWatches = new HashSet<OWLEntity>();
         for (Watch<?> watch : watches) {
             if (watch instanceof HierarchyBranchWatch) {
                 OWLEntity entity = ((HierarchyBranchWatch) watch).getEntity();
@@ -504,11 +430,10 @@ public class OWLAPIChangeManager {
             return Collections.emptyList();
         }
 
-        List<ChangeData> result = new ArrayList<ChangeData>();
+        final List<ChangeData> result = new ArrayList<ChangeData>();
 
-        List<Revision> revisionsCopy = getRevisionsCopy();
-        for (Revision revision : revisionsCopy) {
-            if (revision.getRevisionType() != RevisionType.BASELINE) {
+        revisionStore.readRevisions(0, revisionStore.size() - 1, new RevisionTypeFilter(RevisionType.EDIT), new RevisionHandler() {
+            public void handleRevision(Revision revision) {
                 if (isWatchedRevision(superEntities, directWatches, revision)) {
                     for (OWLEntity entity : revision.getEntities(project)) {
                         ChangeData changeData = createChangeDataFromRevision(entity, revision);
@@ -516,7 +441,7 @@ public class OWLAPIChangeManager {
                     }
                 }
             }
-        }
+        });
         return result;
     }
 
@@ -526,92 +451,32 @@ public class OWLAPIChangeManager {
             if (directWatches.contains(entity)) {
                 return true;
             }
-            boolean watchedByAncestor = isWatchedByAncestor(superEntities, entity);
-            if (watchedByAncestor) {
-                return true;
+            // The watch manager indexes the members of watched branches, so the ancestors of the entity are not needed
+            for (OWLEntity root : project.getWatchManager().getWatchedBranchRoots(entity)) {
+                if (superEntities.contains(root)) {
+                    return true;
+                }
             }
         }
         return false;
     }
 
-    private Boolean isWatchedByAncestor(final Set<OWLEntity> watchedAncestors, OWLEntity entity) {
-        return entity.accept(new OWLEntityVisitorEx<Boolean>() {
-            @Override
-            public Boolean visit(OWLClass cls) {
-                final Set<? extends OWLEntity> ancestors = project.getClassHierarchyProvider().getAncestors(cls);
-                return isWatchedByAncestor(ancestors);
-            }
-
-
-            @Override
-            public Boolean visit(OWLObjectProperty property) {
-                return isWatchedByAncestor(project.getObjectPropertyHierarchyProvider().getAncestors(property));
-            }
-
-            @Override
-            public Boolean visit(OWLDataProperty property) {
-                return isWatchedByAncestor(project.getDataPropertyHierarchyProvider().getAncestors(property));
-            }
-
-            @Override
-            public Boolean visit(OWLNamedIndividual individual) {
-                final Set<OWLClassExpression> types = individual.getTypes(project.getRootOntology().getImportsClosure());
-                for (OWLClassExpression ce : types) {
-                    if (!ce.isAnonymous()) {
-                        if (isWatchedByAncestor(project.getClassHierarchyProvider().getAncestors(ce.asOWLClass()))) {
-                            return true;
-                        }
-                    }
+    public List<ChangeData> getChangeDataInTimestampInterval(long fromTimestamp, long toTimestamp, final RevisionType revisionType) {
+        final List<ChangeData> result = new ArrayList<ChangeData>();
+        Predicate<RevisionIndexEntry> typeFilter = new Predicate<RevisionIndexEntry>() {
+            public boolean apply(RevisionIndexEntry entry) {
+                return entry.getRevisionType() == RevisionType.EDIT || revisionType == RevisionType.BASELINE;
+            }
+        };
+        int fromIndex = revisionStore.getFirstIndexAtOrAfter(fromTimestamp);
+        int toIndex = revisionStore.getLastIndexAtOrBefore(toTimestamp);
+        revisionStore.readRevisions(fromIndex, toIndex, typeFilter, new RevisionHandler() {
+            public void handleRevision(Revision revision) {
+                for (OWLEntity entity : revision.getEntities(project)) {
+                    result.add(createChangeDataFromRevision(entity, revision));
                 }
-                return false;
             }
-
-            @Override
-            public Boolean visit(OWLDatatype datatype) {
-                return false;
-            }
-
-            @Override
-            public Boolean visit(OWLAnnotationProperty property) {
-                return isWatchedByAncestor(project.getAnnotationPropertyHierarchyProvider().getAncestors(property));
-            }
-
-            private Boolean isWatchedByAncestor(Set<? extends OWLEntity> ancestors) {
-                for (OWLEntity anc : ancestors) {
-                    if (watchedAncestors.contains(anc)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-
         });
-    }
-
-    private List<Revision> getRevisionsCopy() {
-        try {
-            readLock.lock();
-            return new ArrayList<Revision>(revisions);
-        }
-        finally {
-            readLock.unlock();
-        }
-    }
-
-
-    public List<ChangeData> getChangeDataInTimestampInterval(long fromTimestamp, long toTimestamp, RevisionType revisionType) {
-        List<Revision> revisions = getRevisionsCopy();
-        List<ChangeData> result = new ArrayList<ChangeData>();
-        for (Revision revision : revisions) {
-            if (revision.getRevisionType() == RevisionType.EDIT || revisionType == RevisionType.BASELINE) {
-                long ts = revision.getTimestamp();
-                if (ts >= fromTimestamp && ts <= toTimestamp) {
-                    for (OWLEntity entity : revision.getEntities(project)) {
-                        result.add(createChangeDataFromRevision(entity, revision));
-                    }
-                }
-            }
-        }
         return result;
     }
 
@@ -621,13 +486,26 @@ public class OWLAPIChangeManager {
 
     }
 
-    public List<ChangeData> getChangeDataForEntitiesInTimeStampInterval(Set<OWLEntity> entites, long fromTimestamp, long toTimestamp) {
-        List<Revision> revisions = getRevisionsCopy();
-
-        List<ChangeData> result = new ArrayList<ChangeData>();
-        for (Revision changeList : revisions) {
-            long ts = changeList.getTimestamp();
-            if (ts >= fromTimestamp && ts <= toTimestamp) {
+    public List<ChangeData> getChangeDataForEntitiesInTimeStampInterval(final Set<OWLEntity> entites, long fromTimestamp, long toTimestamp) {
+        final List<ChangeData> result = new ArrayList<ChangeData>();
+        final SortedSet<RevisionNumber> candidateRevisions = entityRevisionIndex.getRevisionNumbers(entites);
+        if (candidateRevisions.isEmpty()) {
+            return result;
+        }
+        // Narrow the range to the candidate revisions so that only the matching index entries are scanned
+        int fromIndex = Math.max(revisionStore.getFirstIndexAtOrAfter(fromTimestamp), revisionStore.getIndexForRevisionNumber(candidateRevisions.first()));
+        int toIndex = revisionStore.getLastIndexAtOrBefore(toTimestamp);
+        int lastCandidateIndex = revisionStore.getIndexForRevisionNumber(candidateRevisions.last());
+        if (lastCandidateIndex != -1) {
+            toIndex = Math.min(toIndex, lastCandidateIndex);
+        }
+        Predicate<RevisionIndexEntry> candidateFilter = new Predicate<RevisionIndexEntry>() {
+            public boolean apply(RevisionIndexEntry entry) {
+                return candidateRevisions.contains(entry.getRevisionNumber());
+            }
+        };
+        revisionStore.readRevisions(fromIndex, toIndex, candidateFilter, new RevisionHandler() {
+            public void handleRevision(Revision changeList) {
                 Set<OWLEntity> changeEntities = changeList.getEntities(project);
                 for (OWLEntity entity : entites) {
                     if (changeEntities.contains(entity)) {
@@ -636,53 +514,44 @@ public class OWLAPIChangeManager {
                     }
                 }
             }
-        }
+        });
         return result;
     }
 
     public int getChangeSetCount(long fromTimestamp, long toTimestamp) {
-        try {
-            readLock.lock();
-            int count = 0;
-            for (Revision changeList : revisions) {
-                long ts = changeList.getTimestamp();
-                if (ts >= fromTimestamp && ts <= toTimestamp) {
-                    count++;
-                }
-            }
-            return count;
-        }
-        finally {
-            readLock.unlock();
-        }
+        int fromIndex = revisionStore.getFirstIndexAtOrAfter(fromTimestamp);
+        int toIndex = revisionStore.getLastIndexAtOrBefore(toTimestamp);
+        return Math.max(0, toIndex - fromIndex + 1);
     }
 
     public RevisionSummary getRevisionSummary(RevisionNumber revisionNumber) {
-        int index = getRevisionIndexForRevision(revisionNumber);
+        int index = revisionStore.getIndexForRevisionNumber(revisionNumber);
         if (index == -1) {
             throw new RuntimeException("Unknown revision: " + revisionNumber);
         }
-        Revision revision = revisions.get(index);
-        return getRevisionSummaryFromRevision(revision);
+        return revisionStore.getEntry(index).toRevisionSummary();
     }
 
 
     public List<RevisionSummary> getRevisionSummaries() {
         List<RevisionSummary> result = new ArrayList<RevisionSummary>();
-        try {
-            readLock.lock();
-            for (Revision revision : revisions) {
-                result.add(getRevisionSummaryFromRevision(revision));
-            }
-        }
-        finally {
-            readLock.unlock();
+        for (RevisionIndexEntry entry : revisionStore.getEntries()) {
+            result.add(entry.toRevisionSummary());
         }
         return result;
     }
 
-    private RevisionSummary getRevisionSummaryFromRevision(Revision revision) {
-        return new RevisionSummary(revision.getRevisionNumber(), revision.getUserId(), revision.getTimestamp(), revision.getSize());
+    private static class RevisionTypeFilter implements Predicate<RevisionIndexEntry> {
+
+        private final RevisionType revisionType;
+
+        private RevisionTypeFilter(RevisionType revisionType) {
+            this.revisionType = revisionType;
+        }
+
+        public boolean apply(RevisionIndexEntry entry) {
+            return entry.getRevisionType() == revisionType;
+        }
     }
 
 }
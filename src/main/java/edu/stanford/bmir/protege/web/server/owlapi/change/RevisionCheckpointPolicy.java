@@ -0,0 +1,72 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Determines when a snapshot checkpoint of a project's change history should be written and how many
+ *     checkpoints should be retained.  A checkpoint is due once a given number of revisions, or a given number of
+ *     changes, have accumulated since the last checkpoint.
+ * </p>
+ */
+public class RevisionCheckpointPolicy {
+
+    private final int revisionInterval;
+
+    private final int changeInterval;
+
+    private final int retentionCount;
+
+    /**
+     * Constructs a policy.
+     * @param revisionInterval The number of revisions after which a checkpoint is due.  Must be greater than zero.
+     * @param changeInterval The number of changes after which a checkpoint is due.  Must be greater than zero.
+     * @param retentionCount The number of checkpoints to retain.  Must be greater than zero.
+     */
+    public RevisionCheckpointPolicy(int revisionInterval, int changeInterval, int retentionCount) {
+        checkArgument(revisionInterval > 0, "revisionInterval must be greater than zero");
+        checkArgument(changeInterval > 0, "changeInterval must be greater than zero");
+        checkArgument(retentionCount > 0, "retentionCount must be greater than zero");
+        this.revisionInterval = revisionInterval;
+        this.changeInterval = changeInterval;
+        this.retentionCount = retentionCount;
+    }
+
+    /**
+     * Gets the policy that is specified by the webprotege.properties file.
+     * @return The policy.  Not {@code null}.
+     */
+    public static RevisionCheckpointPolicy get() {
+        WebProtegeProperties properties = WebProtegeProperties.get();
+        return new RevisionCheckpointPolicy(properties.getChangeCheckpointRevisionInterval(),
+                                            properties.getChangeCheckpointChangeInterval(),
+                                            properties.getChangeCheckpointRetentionCount());
+    }
+
+    public int getRevisionInterval() {
+        return revisionInterval;
+    }
+
+    public int getChangeInterval() {
+        return changeInterval;
+    }
+
+    public int getRetentionCount() {
+        return retentionCount;
+    }
+
+    /**
+     * Determines whether a checkpoint is due.
+     * @param revisionsSinceLastCheckpoint The number of revisions since the last checkpoint.
+     * @param changesSinceLastCheckpoint The number of changes since the last checkpoint.
+     * @return {@code true} if a checkpoint should be written, otherwise {@code false}.
+     */
+    public boolean isCheckpointDue(int revisionsSinceLastCheckpoint, long changesSinceLastCheckpoint) {
+        return revisionsSinceLastCheckpoint >= revisionInterval || changesSinceLastCheckpoint >= changeInterval;
+    }
+}
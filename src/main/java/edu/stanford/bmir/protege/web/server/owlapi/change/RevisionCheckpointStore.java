@@ -0,0 +1,235 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Stores snapshot checkpoints of a project's change history.  A checkpoint for revision R contains the changes
+ *     that are required to build the ontologies of revision R from nothing.  Checkpoints are written in the same
+ *     binary OWL change log format as the change data file, with one change list per checkpoint, so that a
+ *     checkpoint can be replayed in exactly the same way as a revision.
+ * </p>
+ */
+public class RevisionCheckpointStore {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(RevisionCheckpointStore.class);
+
+    private static final String CHECKPOINT_FILE_PREFIX = "checkpoint-";
+
+    private static final String CHECKPOINT_FILE_SUFFIX = ".binary";
+
+    private static final Pattern CHECKPOINT_FILE_NAME_PATTERN = Pattern.compile(CHECKPOINT_FILE_PREFIX + "(\\d+)" + Pattern.quote(CHECKPOINT_FILE_SUFFIX));
+
+    private static final UserId CHECKPOINT_USER_ID = UserId.getUserId("system");
+
+    private final ProjectId projectId;
+
+    private final File checkpointsDirectory;
+
+    private final OWLDataFactory dataFactory;
+
+    private final int retentionCount;
+
+    /**
+     * The revision numbers (as long values) of the checkpoints that exist on disk.
+     */
+    private final TreeSet<Long> checkpoints = new TreeSet<Long>();
+
+    public RevisionCheckpointStore(ProjectId projectId, File checkpointsDirectory, OWLDataFactory dataFactory, int retentionCount) {
+        this.projectId = checkNotNull(projectId);
+        this.checkpointsDirectory = checkNotNull(checkpointsDirectory);
+        this.dataFactory = checkNotNull(dataFactory);
+        this.retentionCount = retentionCount;
+    }
+
+    /**
+     * Scans the checkpoints directory for existing checkpoints.
+     */
+    public synchronized void load() {
+        checkpoints.clear();
+        File[] files = checkpointsDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = CHECKPOINT_FILE_NAME_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                checkpoints.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+    }
+
+    /**
+     * Gets the revision number of the latest checkpoint whose revision number is less than or equal to the
+     * specified revision number.
+     * @param revisionNumber The revision number.  Not {@code null}.
+     * @return The revision number of the checkpoint, or an absent value if there is no such checkpoint.
+     */
+    public synchronized Optional<RevisionNumber> getCheckpointAtOrBefore(RevisionNumber revisionNumber) {
+        Long floor = checkpoints.floor(revisionNumber.getValue());
+        if (floor == null) {
+            return Optional.absent();
+        }
+        return Optional.of(RevisionNumber.getRevisionNumber(floor));
+    }
+
+    /**
+     * Gets the revision number of the latest checkpoint.
+     * @return The revision number of the latest checkpoint, or an absent value if there are no checkpoints.
+     */
+    public synchronized Optional<RevisionNumber> getLatestCheckpoint() {
+        if (checkpoints.isEmpty()) {
+            return Optional.absent();
+        }
+        return Optional.of(RevisionNumber.getRevisionNumber(checkpoints.last()));
+    }
+
+    /**
+     * Reads a checkpoint.
+     * @param revisionNumber The revision number of the checkpoint.  Not {@code null}.
+     * @return A revision containing the changes that build the ontologies of the checkpointed revision from nothing,
+     * or an absent value if the checkpoint could not be read.
+     */
+    public Optional<Revision> readCheckpoint(final RevisionNumber revisionNumber) {
+        File file = getCheckpointFile(revisionNumber);
+        final List<Revision> result = new ArrayList<Revision>();
+        InputStream inputStream = null;
+        try {
+            inputStream = new BufferedInputStream(new FileInputStream(file));
+            BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+            changeLog.readChanges(inputStream, dataFactory, new BinaryOWLChangeLogHandler() {
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    result.add(new Revision(CHECKPOINT_USER_ID, revisionNumber, list.getChangeRecords(), list.getTimestamp(), "", RevisionType.BASELINE));
+                }
+            }, SkipSetting.SKIP_NONE);
+        }
+        catch (BinaryOWLParseException e) {
+            LOGGER.severe(e);
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+        if (result.size() != 1) {
+            LOGGER.info(projectId, "Discarding unreadable checkpoint for %s", revisionNumber);
+            discardCheckpoint(revisionNumber);
+            return Optional.absent();
+        }
+        return Optional.of(result.get(0));
+    }
+
+    /**
+     * Writes a checkpoint for the specified revision and then deletes any checkpoints that fall outside of the
+     * retention limit.
+     * @param revisionNumber The revision number.  Not {@code null}.
+     * @param manager A manager containing the ontologies of the revision.  Not {@code null}.
+     */
+    public void writeCheckpoint(RevisionNumber revisionNumber, OWLOntologyManager manager) {
+        long t0 = System.currentTimeMillis();
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for (OWLOntology ontology : manager.getOntologies()) {
+            for (OWLImportsDeclaration declaration : ontology.getImportsDeclarations()) {
+                changes.add(new AddImport(ontology, declaration));
+            }
+            for (OWLAnnotation annotation : ontology.getAnnotations()) {
+                changes.add(new AddOntologyAnnotation(ontology, annotation));
+            }
+            for (OWLAxiom axiom : ontology.getAxioms()) {
+                changes.add(new AddAxiom(ontology, axiom));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        checkpointsDirectory.mkdirs();
+        File file = getCheckpointFile(revisionNumber);
+        File tempFile = new File(checkpointsDirectory, file.getName() + ".tmp");
+        try {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+            BinaryOWLMetadata metadata = new BinaryOWLMetadata();
+            metadata.setLongAttribute(OWLAPIChangeManager.REVISION_META_DATA_ATTRIBUTE, revisionNumber.getValue());
+            metadata.setStringAttribute(OWLAPIChangeManager.REVISION_TYPE_META_DATA_ATTRIBUTE, RevisionType.BASELINE.name());
+            BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+            changeLog.appendChanges(changes, System.currentTimeMillis(), metadata, tempFile);
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not replace checkpoint " + file.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+            }
+            synchronized (this) {
+                checkpoints.add(revisionNumber.getValue());
+            }
+            long t1 = System.currentTimeMillis();
+            LOGGER.info(projectId, "Wrote checkpoint for %s (%d changes) in %d ms", revisionNumber, changes.size(), (t1 - t0));
+            applyRetentionPolicy();
+        }
+        catch (IOException e) {
+            tempFile.delete();
+            LOGGER.severe(e);
+        }
+    }
+
+    private void applyRetentionPolicy() {
+        List<Long> discarded = new ArrayList<Long>();
+        synchronized (this) {
+            while (checkpoints.size() > retentionCount) {
+                discarded.add(checkpoints.pollFirst());
+            }
+        }
+        for (Long revision : discarded) {
+            File file = getCheckpointFile(RevisionNumber.getRevisionNumber(revision));
+            if (!file.delete()) {
+                LOGGER.info(projectId, "Could not delete checkpoint %s", file.getName());
+            }
+        }
+    }
+
+    private void discardCheckpoint(RevisionNumber revisionNumber) {
+        synchronized (this) {
+            checkpoints.remove(revisionNumber.getValue());
+        }
+        getCheckpointFile(revisionNumber).delete();
+    }
+
+    private File getCheckpointFile(RevisionNumber revisionNumber) {
+        return new File(checkpointsDirectory, CHECKPOINT_FILE_PREFIX + revisionNumber.getValue() + CHECKPOINT_FILE_SUFFIX);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Receives revisions, in revision number order, as they are loaded from a {@link RevisionStore}.
+ * </p>
+ */
+public interface RevisionHandler {
+
+    void handleRevision(Revision revision);
+}
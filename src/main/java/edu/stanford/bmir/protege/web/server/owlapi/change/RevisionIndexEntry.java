@@ -0,0 +1,145 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionSummary;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     An entry in the revision index.  An entry holds the summary level metadata for a revision along with the
+ *     position of the revision's change records in the change data file.  Entries do not hold any axiom data.
+ * </p>
+ */
+public class RevisionIndexEntry implements Comparable<RevisionIndexEntry> {
+
+    /**
+     * The offset used for revisions that have not been written to the change data file (or whose position in
+     * the change data file is unknown).
+     */
+    public static final long UNKNOWN_OFFSET = -1;
+
+    private final RevisionNumber revisionNumber;
+
+    private final UserId userId;
+
+    private final long timestamp;
+
+    private final int changeCount;
+
+    private final RevisionType revisionType;
+
+    private final long startOffset;
+
+    private final long endOffset;
+
+    public RevisionIndexEntry(RevisionNumber revisionNumber, UserId userId, long timestamp, int changeCount, RevisionType revisionType, long startOffset, long endOffset) {
+        this.revisionNumber = checkNotNull(revisionNumber);
+        this.userId = checkNotNull(userId);
+        this.timestamp = timestamp;
+        this.changeCount = changeCount;
+        this.revisionType = checkNotNull(revisionType);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    public RevisionNumber getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public UserId getUserId() {
+        return userId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    public RevisionType getRevisionType() {
+        return revisionType;
+    }
+
+    /**
+     * Gets the offset, in the change data file, of the first byte of the revision's change records.
+     * @return The offset, or {@link #UNKNOWN_OFFSET} if the revision has not been persisted.
+     */
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * Gets the offset, in the change data file, immediately after the last byte of the revision's change records.
+     * @return The offset, or {@link #UNKNOWN_OFFSET} if the revision has not been persisted.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public boolean isPersisted() {
+        return startOffset != UNKNOWN_OFFSET && endOffset != UNKNOWN_OFFSET;
+    }
+
+    public RevisionIndexEntry withOffsets(long startOffset, long endOffset) {
+        return new RevisionIndexEntry(revisionNumber, userId, timestamp, changeCount, revisionType, startOffset, endOffset);
+    }
+
+    public RevisionSummary toRevisionSummary() {
+        return new RevisionSummary(revisionNumber, userId, timestamp, changeCount);
+    }
+
+    public void write(DataOutput output) throws IOException {
+        output.writeLong(revisionNumber.getValue());
+        output.writeUTF(userId.getUserName());
+        output.writeLong(timestamp);
+        output.writeInt(changeCount);
+        output.writeUTF(revisionType.name());
+        output.writeLong(startOffset);
+        output.writeLong(endOffset);
+    }
+
+    public static RevisionIndexEntry read(DataInput input) throws IOException {
+        RevisionNumber revisionNumber = RevisionNumber.getRevisionNumber(input.readLong());
+        UserId userId = UserId.getUserId(input.readUTF());
+        long timestamp = input.readLong();
+        int changeCount = input.readInt();
+        RevisionType revisionType = RevisionType.valueOf(input.readUTF());
+        long startOffset = input.readLong();
+        long endOffset = input.readLong();
+        return new RevisionIndexEntry(revisionNumber, userId, timestamp, changeCount, revisionType, startOffset, endOffset);
+    }
+
+    public int compareTo(RevisionIndexEntry o) {
+        return this.revisionNumber.compareTo(o.revisionNumber);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("RevisionIndexEntry(");
+        sb.append(revisionNumber);
+        sb.append(" ");
+        sb.append(userId);
+        sb.append(" Timestamp(");
+        sb.append(timestamp);
+        sb.append(") ChangeCount(");
+        sb.append(changeCount);
+        sb.append(") Offsets(");
+        sb.append(startOffset);
+        sb.append(", ");
+        sb.append(endOffset);
+        sb.append("))");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,556 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A store of project revisions that only keeps summary level metadata ({@link RevisionIndexEntry}s) in memory.
+ *     The change records for a revision are read from the change data file on demand, using the offsets recorded
+ *     in the index.  The index is persisted next to the change data file so that it does not have to be rebuilt
+ *     each time a project is loaded.  If the index is missing, or it does not agree with the change data file, then
+ *     it is rebuilt with a single pass over the change data file.
+ * </p>
+ * <p>
+ *     Revisions that have been added to the store, but which have not yet been written to the change data file, are
+ *     held in memory until the store is notified that they have been persisted.
+ * </p>
+ */
+public class RevisionStore {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(RevisionStore.class);
+
+    private static final int INDEX_FORMAT_VERSION = 2;
+
+    private final ProjectId projectId;
+
+    private final File changeDataFile;
+
+    private final File indexFile;
+
+    private final OWLDataFactory dataFactory;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final Lock readLock = readWriteLock.readLock();
+
+    private final Lock writeLock = readWriteLock.writeLock();
+
+    private final List<RevisionIndexEntry> entries = new ArrayList<RevisionIndexEntry>();
+
+    private final Map<RevisionNumber, Revision> unpersistedRevisions = new HashMap<RevisionNumber, Revision>();
+
+    private boolean indexWritable = false;
+
+    public RevisionStore(ProjectId projectId, File changeDataFile, File indexFile, OWLDataFactory dataFactory) {
+        this.projectId = checkNotNull(projectId);
+        this.changeDataFile = checkNotNull(changeDataFile);
+        this.indexFile = checkNotNull(indexFile);
+        this.dataFactory = checkNotNull(dataFactory);
+    }
+
+    /**
+     * Loads the revision index.  Any revisions previously held by this store are discarded.
+     */
+    public void load() {
+        writeLock.lock();
+        try {
+            long t0 = System.currentTimeMillis();
+            entries.clear();
+            unpersistedRevisions.clear();
+            indexWritable = false;
+            if (!changeDataFile.exists()) {
+                return;
+            }
+            List<RevisionIndexEntry> loadedEntries = readIndexFile();
+            boolean rebuilt = false;
+            if (loadedEntries == null) {
+                loadedEntries = rebuildIndex();
+                rebuilt = true;
+            }
+            entries.addAll(loadedEntries);
+            if (rebuilt) {
+                if (isConsistentWithChangeDataFile(entries)) {
+                    writeIndexFile(entries);
+                }
+                else {
+                    indexFile.delete();
+                }
+            }
+            indexWritable = indexFile.exists();
+            long t1 = System.currentTimeMillis();
+            LOGGER.info(projectId, "Revision index %s.  Indexed %d revisions in %d ms", rebuilt ? "rebuilt" : "loaded", entries.size(), (t1 - t0));
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a revision that has not yet been written to the change data file.  The revision is held in memory until
+     * {@link #markPersisted(RevisionIndexEntry)} is called for it.
+     * @param revision The revision.  Not {@code null}.
+     */
+    public void addRevision(Revision revision) {
+        writeLock.lock();
+        try {
+            entries.add(new RevisionIndexEntry(revision.getRevisionNumber(), revision.getUserId(), revision.getTimestamp(), revision.getSize(), revision.getRevisionType(), RevisionIndexEntry.UNKNOWN_OFFSET, RevisionIndexEntry.UNKNOWN_OFFSET));
+            unpersistedRevisions.put(revision.getRevisionNumber(), revision);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records the position of a revision that has been written to the change data file.  Once a revision has been
+     * persisted its change records are dropped from memory and are read from disk on demand.
+     * @param persistedEntry The index entry describing the persisted revision.  Not {@code null}.  If the offsets
+     * of the entry are not known then the revision will continue to be held in memory.
+     */
+    public void markPersisted(RevisionIndexEntry persistedEntry) {
+        writeLock.lock();
+        try {
+            if (!persistedEntry.isPersisted()) {
+                return;
+            }
+            int index = getIndexForRevisionNumber(persistedEntry.getRevisionNumber());
+            if (index < 0) {
+                return;
+            }
+            entries.set(index, entries.get(index).withOffsets(persistedEntry.getStartOffset(), persistedEntry.getEndOffset()));
+            unpersistedRevisions.remove(persistedEntry.getRevisionNumber());
+            if (indexWritable) {
+                appendToIndexFile(entries.get(index));
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        readLock.lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public RevisionIndexEntry getEntry(int index) {
+        readLock.lock();
+        try {
+            checkElementIndex(index, entries.size());
+            return entries.get(index);
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a snapshot of the index entries held by this store.
+     * @return A copy of the entries, ordered by revision number.  Not {@code null}.
+     */
+    public List<RevisionIndexEntry> getEntries() {
+        readLock.lock();
+        try {
+            return new ArrayList<RevisionIndexEntry>(entries);
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the index of the entry for the specified revision number.
+     * @param revisionNumber The revision number.  Not {@code null}.
+     * @return The index of the entry, or a negative value if there is no such entry.  If the revision number
+     * is the head revision number then the index of the last entry is returned.
+     */
+    public int getIndexForRevisionNumber(RevisionNumber revisionNumber) {
+        readLock.lock();
+        try {
+            if (entries.isEmpty()) {
+                return -1;
+            }
+            if (revisionNumber.isHead()) {
+                return entries.size() - 1;
+            }
+            RevisionIndexEntry last = entries.get(entries.size() - 1);
+            if (last.getRevisionNumber().equals(revisionNumber)) {
+                return entries.size() - 1;
+            }
+            RevisionIndexEntry key = new RevisionIndexEntry(revisionNumber, UserId.getGuest(), 0, 0, RevisionType.EDIT, RevisionIndexEntry.UNKNOWN_OFFSET, RevisionIndexEntry.UNKNOWN_OFFSET);
+            int index = Collections.binarySearch(entries, key);
+            return index < 0 ? -1 : index;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the index of the first entry whose timestamp is greater than or equal to the specified timestamp.
+     * @param timestamp The timestamp.
+     * @return The index, which is equal to the number of entries if there is no such entry.
+     */
+    public int getFirstIndexAtOrAfter(long timestamp) {
+        readLock.lock();
+        try {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).getTimestamp() < timestamp) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the index of the last entry whose timestamp is less than or equal to the specified timestamp.
+     * @param timestamp The timestamp.
+     * @return The index, which is -1 if there is no such entry.
+     */
+    public int getLastIndexAtOrBefore(long timestamp) {
+        readLock.lock();
+        try {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).getTimestamp() <= timestamp) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Loads a single revision.
+     * @param index The index of the revision.
+     * @return The revision.  Not {@code null}.
+     */
+    public Revision getRevision(int index) {
+        List<Revision> revisions = getRevisions(index, index);
+        if (revisions.isEmpty()) {
+            throw new RuntimeException("Could not load revision at index " + index);
+        }
+        return revisions.get(0);
+    }
+
+    /**
+     * Loads the revisions whose indexes lie in the specified range.
+     * @param fromIndex The index of the first revision (inclusive).
+     * @param toIndex The index of the last revision (inclusive).
+     * @return The revisions.  Not {@code null}.
+     */
+    public List<Revision> getRevisions(int fromIndex, int toIndex) {
+        final List<Revision> result = new ArrayList<Revision>();
+        readRevisions(fromIndex, toIndex, Predicates.<RevisionIndexEntry>alwaysTrue(), new RevisionHandler() {
+            public void handleRevision(Revision revision) {
+                result.add(revision);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reads the revisions whose indexes lie in the specified range and whose index entries match the specified
+     * filter.  The filter is applied to the index entries before any change records are read, so revisions that
+     * do not match the filter are never loaded.  Consecutive matching revisions are read with a single pass over
+     * the change data file.
+     * @param fromIndex The index of the first revision (inclusive).
+     * @param toIndex The index of the last revision (inclusive).
+     * @param filter A filter for index entries.  Not {@code null}.
+     * @param handler A handler that receives the revisions, in order.  Not {@code null}.
+     */
+    public void readRevisions(int fromIndex, int toIndex, Predicate<RevisionIndexEntry> filter, RevisionHandler handler) {
+        List<RevisionIndexEntry> selectedEntries = new ArrayList<RevisionIndexEntry>();
+        Map<RevisionNumber, Revision> inMemoryRevisions = new HashMap<RevisionNumber, Revision>();
+        readLock.lock();
+        try {
+            int from = Math.max(fromIndex, 0);
+            int to = Math.min(toIndex, entries.size() - 1);
+            for (int index = from; index <= to; index++) {
+                RevisionIndexEntry entry = entries.get(index);
+                if (filter.apply(entry)) {
+                    selectedEntries.add(entry);
+                    Revision revision = unpersistedRevisions.get(entry.getRevisionNumber());
+                    if (revision != null) {
+                        inMemoryRevisions.put(entry.getRevisionNumber(), revision);
+                    }
+                }
+            }
+        }
+        finally {
+            readLock.unlock();
+        }
+        int runStart = 0;
+        while (runStart < selectedEntries.size()) {
+            RevisionIndexEntry first = selectedEntries.get(runStart);
+            Revision inMemoryRevision = inMemoryRevisions.get(first.getRevisionNumber());
+            if (inMemoryRevision != null) {
+                handler.handleRevision(inMemoryRevision);
+                runStart++;
+                continue;
+            }
+            // Extend the run while the selected entries are contiguous in the change data file
+            int runEnd = runStart;
+            while (runEnd + 1 < selectedEntries.size()) {
+                RevisionIndexEntry next = selectedEntries.get(runEnd + 1);
+                if (inMemoryRevisions.containsKey(next.getRevisionNumber()) || next.getStartOffset() != selectedEntries.get(runEnd).getEndOffset()) {
+                    break;
+                }
+                runEnd++;
+            }
+            readPersistedRevisions(first.getStartOffset(), selectedEntries.get(runEnd).getEndOffset(), handler);
+            runStart = runEnd + 1;
+        }
+    }
+
+    private void readPersistedRevisions(long startOffset, long endOffset, final RevisionHandler handler) {
+        InputStream inputStream = null;
+        try {
+            FileInputStream fileInputStream = new FileInputStream(changeDataFile);
+            fileInputStream.getChannel().position(startOffset);
+            inputStream = ByteStreams.limit(new BufferedInputStream(fileInputStream), endOffset - startOffset);
+            final Interner<String> metadataInterner = Interners.newStrongInterner();
+            BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+            changeLog.readChanges(inputStream, dataFactory, new BinaryOWLChangeLogHandler() {
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    handler.handleRevision(toRevision(list, metadataInterner));
+                }
+            }, SkipSetting.SKIP_NONE);
+        }
+        catch (BinaryOWLParseException e) {
+            handleCorruptChangeLog(e);
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    private static Revision toRevision(OntologyChangeRecordList list, Interner<String> metadataInterner) {
+        BinaryOWLMetadata metadata = list.getMetadata();
+        String userName = metadataInterner.intern(metadata.getStringAttribute(OWLAPIChangeManager.USERNAME_METADATA_ATTRIBUTE, ""));
+        Long revisionNumberValue = metadata.getLongAttribute(OWLAPIChangeManager.REVISION_META_DATA_ATTRIBUTE, 0l);
+        RevisionNumber revisionNumber = RevisionNumber.getRevisionNumber(revisionNumberValue);
+        String description = metadataInterner.intern(metadata.getStringAttribute(OWLAPIChangeManager.DESCRIPTION_META_DATA_ATTRIBUTE, ""));
+        RevisionType type = RevisionType.valueOf(metadata.getStringAttribute(OWLAPIChangeManager.REVISION_TYPE_META_DATA_ATTRIBUTE, RevisionType.EDIT.name()));
+        UserId userId = UserId.getUserId(userName);
+        return new Revision(userId, revisionNumber, list.getChangeRecords(), list.getTimestamp(), description, type);
+    }
+
+    /**
+     * Rebuilds the index by reading the whole of the change data file.  Change records are discarded as soon as
+     * they have been counted.
+     * @return The rebuilt index entries.  Not {@code null}.
+     */
+    private List<RevisionIndexEntry> rebuildIndex() throws IOException {
+        final List<RevisionIndexEntry> result = new ArrayList<RevisionIndexEntry>();
+        final Interner<String> metadataInterner = Interners.newStrongInterner();
+        // The file positions reported by the change log reader are not byte offsets, so the bytes are counted here.
+        // The reader does not read ahead, so when a revision has been read the count is the end offset of the revision.
+        final CountingInputStream inputStream = new CountingInputStream(new BufferedInputStream(new FileInputStream(changeDataFile)));
+        try {
+            BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+            changeLog.readChanges(inputStream, dataFactory, new BinaryOWLChangeLogHandler() {
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    // The start of this revision is the end of the previous one
+                    long startOffset = result.isEmpty() ? 0 : result.get(result.size() - 1).getEndOffset();
+                    long endOffset = inputStream.getCount();
+                    Revision revision = toRevision(list, metadataInterner);
+                    result.add(new RevisionIndexEntry(revision.getRevisionNumber(), revision.getUserId(), revision.getTimestamp(), revision.getSize(), revision.getRevisionType(), startOffset, endOffset));
+                }
+            }, SkipSetting.SKIP_NONE);
+        }
+        catch (BinaryOWLParseException e) {
+            handleCorruptChangeLog(e);
+        }
+        catch (EOFException e) {
+            // Was the last record that we tried to read malformed?
+            LOGGER.severe(e);
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the index file.
+     * @return The entries in the index file, or {@code null} if the index file does not exist or it does not agree
+     * with the change data file.
+     */
+    private List<RevisionIndexEntry> readIndexFile() {
+        if (!indexFile.exists()) {
+            return null;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            int version = inputStream.readInt();
+            if (version != INDEX_FORMAT_VERSION) {
+                return null;
+            }
+            List<RevisionIndexEntry> result = new ArrayList<RevisionIndexEntry>();
+            while (inputStream.available() > 0) {
+                result.add(RevisionIndexEntry.read(inputStream));
+            }
+            if (!isConsistentWithChangeDataFile(result)) {
+                LOGGER.info(projectId, "Revision index is out of date with respect to the change data file");
+                return null;
+            }
+            return result;
+        }
+        catch (IOException e) {
+            // Includes a truncated final entry
+            LOGGER.info(projectId, "Could not read revision index: %s", e.getMessage());
+            return null;
+        }
+        catch (IllegalArgumentException e) {
+            LOGGER.info(projectId, "Could not read revision index: %s", e.getMessage());
+            return null;
+        }
+        finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    private boolean isConsistentWithChangeDataFile(List<RevisionIndexEntry> entries) {
+        if (entries.isEmpty()) {
+            // An empty change data file has a valid, empty, index
+            return changeDataFile.length() == 0;
+        }
+        if (entries.get(0).getStartOffset() != 0) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            RevisionIndexEntry entry = entries.get(i);
+            if (!entry.isPersisted()) {
+                return false;
+            }
+            if (i > 0 && entries.get(i - 1).getEndOffset() != entry.getStartOffset()) {
+                return false;
+            }
+        }
+        return entries.get(entries.size() - 1).getEndOffset() == changeDataFile.length();
+    }
+
+    private void writeIndexFile(List<RevisionIndexEntry> entries) {
+        File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            outputStream.writeInt(INDEX_FORMAT_VERSION);
+            for (RevisionIndexEntry entry : entries) {
+                entry.write(outputStream);
+            }
+            outputStream.close();
+            outputStream = null;
+            if (indexFile.exists() && !indexFile.delete()) {
+                throw new IOException("Could not delete stale revision index " + indexFile.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(indexFile)) {
+                throw new IOException("Could not rename " + tempFile.getAbsolutePath() + " to " + indexFile.getAbsolutePath());
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+        finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private void appendToIndexFile(RevisionIndexEntry entry) {
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+            entry.write(outputStream);
+        }
+        catch (IOException e) {
+            // Stop maintaining the index.  It will be rebuilt next time the project is loaded.
+            LOGGER.severe(e);
+            indexWritable = false;
+            indexFile.delete();
+        }
+        finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private void handleCorruptChangeLog(BinaryOWLParseException e) {
+        // The change log appears to be corrupt.  We somehow need a way of backing up the old log and creating
+        // a fresh one.
+        LOGGER.severe(new RuntimeException("Corrupt change log", e));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+        catch (IOException e) {
+            LOGGER.severe(e);
+        }
+    }
+}
@@ -17,20 +17,24 @@ import static org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntax.*;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 11/07/2013
+ * <p>
+ *     Instances hold no per-render state, so a single instance may be shared between threads provided that the
+ *     supplied collaborators are thread safe.
+ * </p>
  */
 public class ManchesterSyntaxObjectRenderer {
 
-    private ShortFormProvider shortFormProvider;
+    private final ShortFormProvider shortFormProvider;
 
-    private EntityIRIChecker entityIRIChecker;
+    private final EntityIRIChecker entityIRIChecker;
 
-    private LiteralStyle literalStyle;
+    private final LiteralStyle literalStyle;
 
-    private PrettyPrint prettyPrintOverride = PrettyPrint.ON;
+    private final PrettyPrint prettyPrintOverride = PrettyPrint.ON;
 
-    private HttpLinkRenderer linkRenderer;
+    private final HttpLinkRenderer linkRenderer;
 
-    private LiteralRenderer literalRenderer;
+    private final LiteralRenderer literalRenderer;
 
     public ManchesterSyntaxObjectRenderer(ShortFormProvider shortFormProvider,
                                           EntityIRIChecker entityIRIChecker,
@@ -47,9 +51,20 @@ public class ManchesterSyntaxObjectRenderer {
 
     public String render(OWLObject object, HighlightChecker highlightChecker, DeprecatedChecker checker) {
         StringBuilder sb = new StringBuilder();
+        render(object, highlightChecker, checker, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Renders an object into the specified builder.
+     * @param object The object to render.
+     * @param highlightChecker Determines which entities are highlighted.
+     * @param checker Determines which entities are deprecated.
+     * @param sb The builder that the rendering is appended to.
+     */
+    public void render(OWLObject object, HighlightChecker highlightChecker, DeprecatedChecker checker, StringBuilder sb) {
         EntityRenderer entityRenderer = new EntityRenderer(sb, shortFormProvider, entityIRIChecker, highlightChecker, checker, literalStyle, literalRenderer,  prettyPrintOverride, linkRenderer);
         object.accept(entityRenderer);
-        return sb.toString();
     }
 
 
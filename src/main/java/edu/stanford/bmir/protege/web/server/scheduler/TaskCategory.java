@@ -0,0 +1,85 @@
+package edu.stanford.bmir.protege.web.server.scheduler;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     The categories of tasks that are run by the {@link WebProtegeScheduler}.  Statistics are kept per category, and
+ *     each category has a limit on the number of its tasks that may run at the same time, so that one kind of work
+ *     (project loading, say) cannot occupy every worker thread.
+ * </p>
+ */
+public enum TaskCategory {
+
+    PROJECT_LOADING("Project loading", 2),
+
+    PROJECT_EVICTION("Project eviction", 1),
+
+    /**
+     * Preloading only starts project loads, which run as {@link #PROJECT_LOADING} tasks.
+     */
+    PROJECT_PRELOADING("Project preloading", 1),
+
+    EVENT_PURGING("Event purging", 1),
+
+    PROJECT_ACCESS_PURGING("Project access purging", 1),
+
+    /**
+     * Each change log writer serialises its own commits, so commits for a few projects may be written in parallel.
+     * Writes are IO bound, so more than this would only contend for the disk.
+     */
+    CHANGE_LOG_WRITING("Change log writing", 2),
+
+    /**
+     * Each project generates the events for its revisions one at a time, in revision order, so the events of
+     * a few projects may be generated in parallel.  The limit leaves workers free for other categories when many
+     * projects are being edited at once.
+     */
+    EVENT_GENERATION("Event generation", 4),
+
+    /**
+     * Checkpoints are IO bound, so they are written one at a time across all projects.
+     */
+    REVISION_CHECKPOINTING("Revision checkpointing", 1),
+
+    /**
+     * Compactions are IO bound, so they are run one at a time across all projects.
+     */
+    DOCUMENT_COMPACTION("Document compaction", 1),
+
+    /**
+     * Expensive metrics are CPU bound, so they are computed one project at a time.
+     */
+    METRICS("Metrics", 1),
+
+    WATCH_NOTIFICATIONS("Watch notifications", 1),
+
+    /**
+     * Each delivery holds a pooled mail connection.  The mail manager sets the limit to the number of connections
+     * that are configured.
+     */
+    MAIL_DELIVERY("Mail delivery", 2);
+
+
+    private final String displayName;
+
+    private final int defaultMaxConcurrency;
+
+    private TaskCategory(String displayName, int defaultMaxConcurrency) {
+        this.displayName = displayName;
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the number of tasks in this category that may run at the same time, unless it is changed with
+     * {@link WebProtegeScheduler#setMaxConcurrency(TaskCategory, int)}.
+     */
+    public int getDefaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+}
@@ -0,0 +1,110 @@
+package edu.stanford.bmir.protege.web.server.scheduler;
+
+import com.google.common.base.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     A snapshot of the statistics for a {@link TaskCategory}.
+ * </p>
+ */
+public class TaskCategoryStatistics {
+
+    private final TaskCategory category;
+
+    private final int queuedTaskCount;
+
+    private final int runningTaskCount;
+
+    private final long completedTaskCount;
+
+    private final long failedTaskCount;
+
+    private final long totalRunTime;
+
+    private final long maxRunTime;
+
+    public TaskCategoryStatistics(TaskCategory category,
+                                  int queuedTaskCount,
+                                  int runningTaskCount,
+                                  long completedTaskCount,
+                                  long failedTaskCount,
+                                  long totalRunTime,
+                                  long maxRunTime) {
+        this.category = checkNotNull(category);
+        this.queuedTaskCount = queuedTaskCount;
+        this.runningTaskCount = runningTaskCount;
+        this.completedTaskCount = completedTaskCount;
+        this.failedTaskCount = failedTaskCount;
+        this.totalRunTime = totalRunTime;
+        this.maxRunTime = maxRunTime;
+    }
+
+    public TaskCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Gets the number of tasks that are waiting for the concurrency limit of the category.  Delayed and periodic
+     * tasks that are waiting for their time to come are not included.
+     */
+    public int getQueuedTaskCount() {
+        return queuedTaskCount;
+    }
+
+    public int getRunningTaskCount() {
+        return runningTaskCount;
+    }
+
+    /**
+     * Gets the number of task runs that have finished, including those that failed.
+     */
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    /**
+     * Gets the number of task runs that threw an exception.
+     */
+    public long getFailedTaskCount() {
+        return failedTaskCount;
+    }
+
+    /**
+     * Gets the total run time, in milliseconds, of the task runs that have finished.
+     */
+    public long getTotalRunTime() {
+        return totalRunTime;
+    }
+
+    /**
+     * Gets the mean run time, in milliseconds, of the task runs that have finished.
+     */
+    public long getMeanRunTime() {
+        return completedTaskCount == 0 ? 0 : totalRunTime / completedTaskCount;
+    }
+
+    /**
+     * Gets the longest run time, in milliseconds, of the task runs that have finished.
+     */
+    public long getMaxRunTime() {
+        return maxRunTime;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper("TaskCategoryStatistics")
+                .addValue(category.getDisplayName())
+                .add("queued", queuedTaskCount)
+                .add("running", runningTaskCount)
+                .add("completed", completedTaskCount)
+                .add("failed", failedTaskCount)
+                .add("meanRunTime", getMeanRunTime())
+                .add("maxRunTime", maxRunTime)
+                .toString();
+    }
+}
@@ -0,0 +1,392 @@
+package edu.stanford.bmir.protege.web.server.scheduler;
+
+import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Runs the background work of all projects on one bounded pool of worker threads, so that the number of threads
+ *     does not grow with the number of loaded projects.  Each task belongs to a {@link TaskCategory}.  The scheduler
+ *     limits the number of tasks of each category that run at the same time and keeps statistics (queue length, run
+ *     times and failures) per category.
+ * </p>
+ * <p>
+ *     Components that run periodic or delayed tasks hold on to the returned {@link ScheduledFuture} and cancel it when
+ *     they are disposed.  Exceptions thrown by tasks are logged and do not stop periodic tasks from running again.
+ * </p>
+ */
+public class WebProtegeScheduler {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(WebProtegeScheduler.class);
+
+    private static final long SHUT_DOWN_TIMEOUT_MS = 10000;
+
+    private static WebProtegeScheduler instance;
+
+    private final ScheduledThreadPoolExecutor pool;
+
+    private final Map<TaskCategory, CategoryExecutor> executors = new EnumMap<TaskCategory, CategoryExecutor>(TaskCategory.class);
+
+    /**
+     * Creates a scheduler.
+     * @param poolSize The number of worker threads.  Greater than zero.
+     */
+    public WebProtegeScheduler(int poolSize) {
+        checkArgument(poolSize > 0, "poolSize must be greater than zero");
+        pool = new ScheduledThreadPoolExecutor(poolSize, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "WebProtege worker " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Cancelled periodic tasks belong to disposed projects.  Don't hang on to them until their next run time.
+        pool.setRemoveOnCancelPolicy(true);
+        for (TaskCategory category : TaskCategory.values()) {
+            executors.put(category, new CategoryExecutor(category));
+        }
+    }
+
+    /**
+     * Gets the scheduler that is shared by all projects.  It is created on first use with the number of workers
+     * given by {@link WebProtegeProperties#getSchedulerPoolSize()}.
+     */
+    public static synchronized WebProtegeScheduler get() {
+        if (instance == null) {
+            instance = new WebProtegeScheduler(WebProtegeProperties.get().getSchedulerPoolSize());
+        }
+        return instance;
+    }
+
+    /**
+     * Gets an executor that runs tasks of the specified category on the worker pool, subject to the concurrency limit
+     * of the category.  Tasks are started in the order in which they were submitted.
+     * @param category The category.  Not {@code null}.
+     * @return The executor.  Not {@code null}.
+     */
+    public Executor getExecutor(TaskCategory category) {
+        return executors.get(checkNotNull(category));
+    }
+
+    /**
+     * Sets the number of tasks of the specified category that may run at the same time.
+     * @param category The category.  Not {@code null}.
+     * @param maxConcurrency The limit.  Greater than zero.
+     */
+    public void setMaxConcurrency(TaskCategory category, int maxConcurrency) {
+        checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+        executors.get(checkNotNull(category)).setMaxConcurrency(maxConcurrency);
+    }
+
+    /**
+     * Runs a task once after the specified delay.  When the delay has elapsed the task is handed to the executor for
+     * its category, so it is subject to the concurrency limit of the category.
+     * @param category The category of the task.  Not {@code null}.
+     * @param task The task.  Not {@code null}.
+     * @param delay The delay.
+     * @param timeUnit The unit of the delay.  Not {@code null}.
+     * <p>
+     *     If this scheduler has been shut down the delay is ignored and the task is run on the calling thread, in the
+     *     same way as tasks that are handed to a category executor after shut down.  Delayed tasks are typically
+     *     flushes and retries, which should not be lost.
+     * </p>
+     * @return A future that can be used to cancel the task before it has been handed over.  Not {@code null}.
+     */
+    public ScheduledFuture<?> schedule(TaskCategory category, final Runnable task, long delay, TimeUnit timeUnit) {
+        checkNotNull(task);
+        final CategoryExecutor executor = executors.get(checkNotNull(category));
+        try {
+            return pool.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    executor.execute(task);
+                }
+            }, delay, timeUnit);
+        }
+        catch (RejectedExecutionException e) {
+            executor.execute(task);
+            return new FinishedScheduledFuture(false);
+        }
+    }
+
+    /**
+     * Runs a task periodically, with the specified delay between the end of one run and the start of the next.
+     * Periodic tasks are expected to be short.  They run directly on the worker pool and are not subject to the
+     * concurrency limit of their category.
+     * @param category The category of the task.  Not {@code null}.
+     * @param task The task.  Not {@code null}.
+     * @param initialDelay The delay before the first run.
+     * @param delay The delay between runs.  Greater than zero.
+     * @param timeUnit The unit of the delays.  Not {@code null}.
+     * <p>
+     *     If this scheduler has been shut down the task is not run at all, in the same way as periodic tasks that were
+     *     scheduled before shut down, and the returned future is already cancelled.
+     * </p>
+     * @return A future that is used to cancel the task.  Not {@code null}.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(TaskCategory category, final Runnable task, long initialDelay, long delay, TimeUnit timeUnit) {
+        checkNotNull(task);
+        final CategoryExecutor executor = executors.get(checkNotNull(category));
+        try {
+            return pool.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    executor.runTask(task);
+                }
+            }, initialDelay, delay, timeUnit);
+        }
+        catch (RejectedExecutionException e) {
+            LOGGER.info("Not scheduling periodic %s task because the scheduler has been shut down.", category.getDisplayName());
+            return new FinishedScheduledFuture(true);
+        }
+    }
+
+    /**
+     * Gets a snapshot of the statistics for the specified category.
+     * @param category The category.  Not {@code null}.
+     * @return The statistics.  Not {@code null}.
+     */
+    public TaskCategoryStatistics getStatistics(TaskCategory category) {
+        return executors.get(checkNotNull(category)).getStatistics();
+    }
+
+    /**
+     * Logs the statistics for the categories that have run tasks.
+     */
+    public void logStatistics() {
+        for (TaskCategory category : TaskCategory.values()) {
+            TaskCategoryStatistics statistics = getStatistics(category);
+            if (statistics.getCompletedTaskCount() > 0 || statistics.getRunningTaskCount() > 0 || statistics.getQueuedTaskCount() > 0) {
+                LOGGER.info("%s", statistics);
+            }
+        }
+    }
+
+    /**
+     * Shuts down this scheduler.  Periodic tasks are cancelled.  Tasks that have already been handed to the worker
+     * pool are given a short time to finish.  One-off tasks that are submitted after this method has been called,
+     * whether delayed or not, are run on the thread that submits them.  Periodic tasks that are submitted after this
+     * method has been called are never run.
+     */
+    public void shutDown() {
+        logStatistics();
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(SHUT_DOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.info("Background tasks did not finish within %d ms.  Interrupting them.", SHUT_DOWN_TIMEOUT_MS);
+                pool.shutdownNow();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The future that is returned for tasks that are submitted after shut down.  The task has either already run on
+     * the submitting thread or will never run.
+     */
+    private static class FinishedScheduledFuture implements ScheduledFuture<Object> {
+
+        private final boolean cancelled;
+
+        private FinishedScheduledFuture(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public Object get() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return get();
+        }
+    }
+
+    /**
+     * Queues the tasks of one category and hands them to the worker pool while fewer than the maximum number of
+     * tasks of the category are running.
+     */
+    private class CategoryExecutor implements Executor {
+
+        private final TaskCategory category;
+
+        /**
+         * Guarded by this.
+         */
+        private final Queue<Runnable> queue = new LinkedList<Runnable>();
+
+        /**
+         * Guarded by this.
+         */
+        private int runningTaskCount = 0;
+
+        /**
+         * Guarded by this.
+         */
+        private int maxConcurrency;
+
+        private final AtomicLong completedTaskCount = new AtomicLong();
+
+        private final AtomicLong failedTaskCount = new AtomicLong();
+
+        private final AtomicLong totalRunTime = new AtomicLong();
+
+        private final AtomicLong maxRunTime = new AtomicLong();
+
+        /**
+         * The number of tasks, queued or periodic, that are running.  This differs from {@link #runningTaskCount},
+         * which only counts the tasks that are subject to the concurrency limit.
+         */
+        private final AtomicInteger activeTaskCount = new AtomicInteger();
+
+        private CategoryExecutor(TaskCategory category) {
+            this.category = category;
+            this.maxConcurrency = category.getDefaultMaxConcurrency();
+        }
+
+        private void setMaxConcurrency(int maxConcurrency) {
+            synchronized (this) {
+                this.maxConcurrency = maxConcurrency;
+            }
+            startQueuedTasks();
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            checkNotNull(task);
+            synchronized (this) {
+                queue.add(task);
+            }
+            startQueuedTasks();
+        }
+
+        private void startQueuedTasks() {
+            while (true) {
+                final Runnable task;
+                synchronized (this) {
+                    if (runningTaskCount >= maxConcurrency || queue.isEmpty()) {
+                        return;
+                    }
+                    task = queue.poll();
+                    runningTaskCount++;
+                }
+                try {
+                    pool.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                runTask(task);
+                            }
+                            finally {
+                                synchronized (CategoryExecutor.this) {
+                                    runningTaskCount--;
+                                }
+                                startQueuedTasks();
+                            }
+                        }
+                    });
+                }
+                catch (RejectedExecutionException e) {
+                    // Shut down.  Run the task on this thread rather than losing it (it might be writing changes).
+                    try {
+                        runTask(task);
+                    }
+                    finally {
+                        synchronized (this) {
+                            runningTaskCount--;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Runs a task on the current thread and records its run time.
+         */
+        private void runTask(Runnable task) {
+            activeTaskCount.incrementAndGet();
+            long start = System.currentTimeMillis();
+            try {
+                task.run();
+            }
+            catch (Throwable t) {
+                failedTaskCount.incrementAndGet();
+                LOGGER.severe(t);
+            }
+            finally {
+                activeTaskCount.decrementAndGet();
+                long runTime = System.currentTimeMillis() - start;
+                completedTaskCount.incrementAndGet();
+                totalRunTime.addAndGet(runTime);
+                long max = maxRunTime.get();
+                while (runTime > max && !maxRunTime.compareAndSet(max, runTime)) {
+                    max = maxRunTime.get();
+                }
+            }
+        }
+
+        private TaskCategoryStatistics getStatistics() {
+            int queued;
+            synchronized (this) {
+                queued = queue.size();
+            }
+            return new TaskCategoryStatistics(category,
+                                              queued,
+                                              activeTaskCount.get(),
+                                              completedTaskCount.get(),
+                                              failedTaskCount.get(),
+                                              totalRunTime.get(),
+                                              maxRunTime.get());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package edu.stanford.bmir.protege.web.server.watches;
+
+import edu.stanford.bmir.protege.web.server.hierarchy.HierarchyClosureIndex;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Indexes the members of the watched branches of a hierarchy, so that finding the watched branches that contain
+ *     an entity does not need the ancestors of the entity.  Each entity that is in a watched branch is given a compact
+ *     int id, and each branch root has a bit set of the ids of the members of its branch (the root and its
+ *     descendants).  The union of these bit sets is also kept, so that checking whether an entity is in any watched
+ *     branch is a single bit set lookup.  Finding the branches that contain an entity is one lookup per watched
+ *     root.
+ * </p>
+ * <p>
+ *     The index listens to the hierarchy provider.  When a node changes, only the branches that contain the node are
+ *     marked as stale.  The provider reports both ends of an edge that is added or removed, so a branch that gains a
+ *     node is marked because it contains the parent end of the new edge.  When the whole hierarchy changes every
+ *     branch is marked.  Stale branches are recomputed, from the descendants held by the {@link HierarchyClosureIndex},
+ *     the next time that they are needed.
+ * </p>
+ * <p>
+ *     This class is thread safe.
+ * </p>
+ */
+public class BranchWatchIndex<N extends OWLEntity> {
+
+    private final OWLObjectHierarchyProvider<N> hierarchyProvider;
+
+    private final HierarchyClosureIndex<N> hierarchyClosureIndex;
+
+    private final OWLObjectHierarchyProviderListener<N> hierarchyProviderListener;
+
+    private final Map<N, Integer> node2Id = new HashMap<N, Integer>();
+
+    private final Map<N, BitSet> root2Members = new LinkedHashMap<N, BitSet>();
+
+    private final Set<N> staleRoots = new HashSet<N>();
+
+    private BitSet allMembers = new BitSet();
+
+    private boolean allMembersStale = false;
+
+    public BranchWatchIndex(OWLObjectHierarchyProvider<N> hierarchyProvider,
+                            HierarchyClosureIndex<N> hierarchyClosureIndex) {
+        this.hierarchyProvider = checkNotNull(hierarchyProvider);
+        this.hierarchyClosureIndex = checkNotNull(hierarchyClosureIndex);
+        this.hierarchyProviderListener = new OWLObjectHierarchyProviderListener<N>() {
+            @Override
+            public void nodeChanged(N node) {
+                handleNodeChanged(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+                handleHierarchyChanged();
+            }
+        };
+        hierarchyProvider.addListener(hierarchyProviderListener);
+    }
+
+    public void dispose() {
+        hierarchyProvider.removeListener(hierarchyProviderListener);
+    }
+
+    /**
+     * Adds a watched branch.  Adding a branch that is already watched has no effect.
+     * @param root The root of the branch.  Not {@code null}.
+     */
+    public synchronized void addRoot(N root) {
+        if (!root2Members.containsKey(checkNotNull(root))) {
+            root2Members.put(root, new BitSet());
+            staleRoots.add(root);
+            allMembersStale = true;
+        }
+    }
+
+    /**
+     * Removes a watched branch.
+     * @param root The root of the branch.  Not {@code null}.
+     */
+    public synchronized void removeRoot(N root) {
+        if (root2Members.remove(checkNotNull(root)) != null) {
+            staleRoots.remove(root);
+            allMembersStale = true;
+        }
+    }
+
+    /**
+     * Determines whether a node is in any watched branch.
+     * @param node The node.  Not {@code null}.
+     * @return {@code true} if the node is a watched root or a descendant of a watched root, otherwise {@code false}.
+     */
+    public synchronized boolean isInWatchedBranch(N node) {
+        Integer id = node2Id.get(checkNotNull(node));
+        if (id == null && staleRoots.isEmpty()) {
+            return false;
+        }
+        BitSet members = getAllMembers();
+        id = node2Id.get(node);
+        return id != null && members.get(id);
+    }
+
+    /**
+     * Gets the roots of the watched branches that contain a node.
+     * @param node The node.  Not {@code null}.
+     * @return The roots.  This includes the node itself if it is a watched root.  Not {@code null}.
+     */
+    public synchronized Set<N> getWatchedRoots(N node) {
+        if (!isInWatchedBranch(node)) {
+            return Collections.emptySet();
+        }
+        int id = node2Id.get(node);
+        Set<N> result = new HashSet<N>();
+        for (N root : root2Members.keySet()) {
+            if (getMembers(root).get(id)) {
+                result.add(root);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void handleNodeChanged(N node) {
+        Integer id = node2Id.get(node);
+        if (id == null) {
+            // Not in any branch, and not the parent end of an edge into a branch
+            return;
+        }
+        for (Map.Entry<N, BitSet> entry : root2Members.entrySet()) {
+            if (entry.getValue().get(id)) {
+                staleRoots.add(entry.getKey());
+                allMembersStale = true;
+            }
+        }
+    }
+
+    private synchronized void handleHierarchyChanged() {
+        staleRoots.addAll(root2Members.keySet());
+        allMembersStale = true;
+    }
+
+    private BitSet getAllMembers() {
+        if (allMembersStale) {
+            BitSet members = new BitSet();
+            for (N root : root2Members.keySet()) {
+                members.or(getMembers(root));
+            }
+            allMembers = members;
+            allMembersStale = false;
+        }
+        return allMembers;
+    }
+
+    private BitSet getMembers(N root) {
+        BitSet members = root2Members.get(root);
+        if (staleRoots.remove(root)) {
+            members.clear();
+            members.set(getId(root));
+            for (N descendant : hierarchyClosureIndex.getDescendants(root)) {
+                members.set(getId(descendant));
+            }
+        }
+        return members;
+    }
+
+    private int getId(N node) {
+        Integer id = node2Id.get(node);
+        if (id == null) {
+            id = node2Id.size();
+            node2Id.put(node, id);
+        }
+        return id;
+    }
+}
@@ -51,6 +51,20 @@ public interface WatchManager {
 
     boolean hasEntityBasedWatch(OWLEntity entity, UserId userId);
 
+    /**
+     * Gets the roots of the watched hierarchy branches that contain the specified entity.  An individual is in a
+     * branch if one of its named types is.
+     * @param entity The entity.  Not {@code null}.
+     * @return The roots.  This includes the entity itself if there is a branch watch on it.  Not {@code null}.
+     */
+    Set<OWLEntity> getWatchedBranchRoots(OWLEntity entity);
+
+    /**
+     * Gets the users that watch the specified entity, either directly or through a branch watch.
+     * @param entity The entity.  Not {@code null}.
+     * @return The users.  Not {@code null}.
+     */
+    Set<UserId> getWatchers(OWLEntity entity);
 
 
 
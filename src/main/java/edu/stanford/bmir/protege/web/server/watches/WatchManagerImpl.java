@@ -2,7 +2,6 @@ package edu.stanford.bmir.protege.web.server.watches;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import edu.stanford.bmir.protege.web.server.MetaProjectManager;
 import edu.stanford.bmir.protege.web.server.app.App;
 import edu.stanford.bmir.protege.web.server.app.WebProtegeProperties;
@@ -11,17 +10,17 @@ import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
 import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProjectFileStore;
 import edu.stanford.bmir.protege.web.shared.HasDispose;
 import edu.stanford.bmir.protege.web.shared.event.*;
+import edu.stanford.bmir.protege.web.shared.project.UnknownProjectException;
 import edu.stanford.bmir.protege.web.shared.user.UserId;
 import edu.stanford.bmir.protege.web.shared.watches.*;
 import edu.stanford.smi.protege.server.metaproject.User;
 import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.OWLEntityVisitorAdapter;
 import org.semanticweb.owlapi.util.OWLEntityVisitorExAdapter;
 
 import java.io.*;
 import java.net.URLEncoder;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -42,12 +41,20 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
 
     private static final String HIERARCHY_BRANCH_WATCH_NAME = "HierarchyBranchWatch";
 
-    private ExecutorService emailExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setPriority(Thread.MIN_PRIORITY).setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
-        @Override
-        public void uncaughtException(Thread t, Throwable e) {
-            WebProtegeLoggerManager.get(WatchManagerImpl.class).severe(e);
-        }
-    }).build());
+    /**
+     * The maximum number of changed entities that are listed in a digest.
+     */
+    private static final int MAX_DIGEST_ENTITIES = 100;
+
+    private final WatchNotificationAggregator watchNotificationAggregator;
+
+    private final BranchWatchIndex<OWLClass> classBranchWatchIndex;
+
+    private final BranchWatchIndex<OWLObjectProperty> objectPropertyBranchWatchIndex;
+
+    private final BranchWatchIndex<OWLDataProperty> dataPropertyBranchWatchIndex;
+
+    private final BranchWatchIndex<OWLAnnotationProperty> annotationPropertyBranchWatchIndex;
 
     private Multimap<UserId, Watch<?>> userId2Watch = HashMultimap.create();
 
@@ -68,6 +75,23 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
 
     public WatchManagerImpl(OWLAPIProject project) {
         this.project = project;
+        this.watchNotificationAggregator = new WatchNotificationAggregator(project.getProjectId(),
+                project.getScheduler(),
+                WebProtegeProperties.get().getWatchesNotificationDigestWindow(),
+                new WatchNotificationAggregator.ChangedEntitiesHandler() {
+                    @Override
+                    public void handleChangedEntities(Set<OWLEntity> changedEntities) {
+                        sendDigests(changedEntities);
+                    }
+                });
+        this.classBranchWatchIndex = new BranchWatchIndex<OWLClass>(project.getClassHierarchyProvider(),
+                project.getClassHierarchyIndex());
+        this.objectPropertyBranchWatchIndex = new BranchWatchIndex<OWLObjectProperty>(project.getObjectPropertyHierarchyProvider(),
+                project.getObjectPropertyHierarchyIndex());
+        this.dataPropertyBranchWatchIndex = new BranchWatchIndex<OWLDataProperty>(project.getDataPropertyHierarchyProvider(),
+                project.getDataPropertyHierarchyIndex());
+        this.annotationPropertyBranchWatchIndex = new BranchWatchIndex<OWLAnnotationProperty>(project.getAnnotationPropertyHierarchyProvider(),
+                project.getAnnotationPropertyHierarchyIndex());
         final OWLAPIProjectFileStore projectFileStore = OWLAPIProjectFileStore.getProjectFileStore(project.getProjectId());
         watchFile = new File(projectFileStore.getProjectDirectory(), WATCHES_FILE_NAME);
 
@@ -77,31 +101,31 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
         project.getEventManager().addHandler(ClassFrameChangedEvent.TYPE, new ClassFrameChangedEventHandler() {
             @Override
             public void classFrameChanged(ClassFrameChangedEvent event) {
-                handleFrameChanged(event.getEntity());
+                watchNotificationAggregator.entityChanged(event.getEntity());
             }
         });
         project.getEventManager().addHandler(ObjectPropertyFrameChangedEvent.TYPE, new ObjectPropertyFrameChangedEventHandler() {
             @Override
             public void objectPropertyFrameChanged(ObjectPropertyFrameChangedEvent event) {
-                handleFrameChanged(event.getEntity());
+                watchNotificationAggregator.entityChanged(event.getEntity());
             }
         });
         project.getEventManager().addHandler(DataPropertyFrameChangedEvent.TYPE, new DataPropertyFrameChangedEventHandler() {
             @Override
             public void dataPropertyFrameChanged(DataPropertyFrameChangedEvent event) {
-                handleFrameChanged(event.getEntity());
+                watchNotificationAggregator.entityChanged(event.getEntity());
             }
         });
         project.getEventManager().addHandler(AnnotationPropertyFrameChangedEvent.TYPE, new AnnotationPropertyFrameChangedEventHandler() {
             @Override
             public void annotationPropertyFrameChanged(AnnotationPropertyFrameChangedEvent event) {
-                handleFrameChanged(event.getEntity());
+                watchNotificationAggregator.entityChanged(event.getEntity());
             }
         });
         project.getEventManager().addHandler(NamedIndividualFrameChangedEvent.TYPE, new NamedIndividualFrameChangedEventHandler() {
             @Override
             public void namedIndividualFrameChanged(NamedIndividualFrameChangedEvent event) {
-                handleFrameChanged(event.getEntity());
+                watchNotificationAggregator.entityChanged(event.getEntity());
             }
         });
     }
@@ -128,6 +152,9 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
             userId2Watch.put(checkNotNull(userId), checkNotNull(watch));
             watch2UserId.put(watch, userId);
             watchObject2Watch.put(watch.getWatchedObject(), watch);
+            if (watch instanceof HierarchyBranchWatch) {
+                updateBranchWatchIndex(((HierarchyBranchWatch) watch).getEntity(), true);
+            }
         }
         finally {
             writeLock.unlock();
@@ -154,7 +181,13 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
             writeLock.lock();
             removed = userId2Watch.remove(checkNotNull(userId), checkNotNull(watch));
             watch2UserId.remove(watch, userId);
-            watchObject2Watch.remove(watch.getWatchedObject(), watch);
+            if (!watch2UserId.containsKey(watch)) {
+                // Nobody else has the watch
+                watchObject2Watch.remove(watch.getWatchedObject(), watch);
+                if (watch instanceof HierarchyBranchWatch) {
+                    updateBranchWatchIndex(((HierarchyBranchWatch) watch).getEntity(), false);
+                }
+            }
         }
         finally {
             writeLock.unlock();
@@ -205,56 +238,110 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-    private void handleFrameChanged(OWLEntity entity) {
+    /**
+     * Sends each user that watches any of the changed entities a digest of the changes to the entities that they
+     * watch.
+     * @param changedEntities The entities that have changed, in the order in which they changed.
+     */
+    private void sendDigests(Set<OWLEntity> changedEntities) {
+        Map<UserId, Set<OWLEntity>> watchedChanges = getWatchedChanges(changedEntities);
+        for (UserId userId : watchedChanges.keySet()) {
+            List<OWLEntity> userChanges = new ArrayList<OWLEntity>();
+            Set<OWLEntity> watchedEntities = watchedChanges.get(userId);
+            for (OWLEntity entity : changedEntities) {
+                if (watchedEntities.contains(entity)) {
+                    userChanges.add(entity);
+                }
+            }
+            try {
+                sendDigest(userId, userChanges);
+            }
+            catch (RuntimeException e) {
+                WebProtegeLoggerManager.get(WatchManagerImpl.class).severe(e);
+            }
+        }
+    }
+
+    /**
+     * Finds the users that watch the changed entities.
+     */
+    private Map<UserId, Set<OWLEntity>> getWatchedChanges(Set<OWLEntity> changedEntities) {
+        Map<UserId, Set<OWLEntity>> result = new HashMap<UserId, Set<OWLEntity>>();
         try {
             readLock.lock();
-            List<Watch<?>> watches = new ArrayList<Watch<?>>();
-            watches.addAll(watchObject2Watch.get(entity));
-            for (OWLEntity anc : getRelatedWatchEntities(entity)) {
-                watches.addAll(watchObject2Watch.get(anc));
-            }
-            for (Watch<?> watch : watches) {
-                for (UserId userId : watch2UserId.get(watch)) {
-                    // Dispatch
-                    fireWatch(watch, userId, entity);
+            for (OWLEntity entity : changedEntities) {
+                for (UserId userId : getWatchers(entity)) {
+                    Set<OWLEntity> entities = result.get(userId);
+                    if (entities == null) {
+                        entities = new HashSet<OWLEntity>();
+                        result.put(userId, entities);
+                    }
+                    entities.add(entity);
                 }
             }
         }
         finally {
             readLock.unlock();
         }
+        return result;
     }
 
+    @Override
+    public Set<UserId> getWatchers(OWLEntity entity) {
+        try {
+            readLock.lock();
+            Set<UserId> result = new HashSet<UserId>();
+            for (Watch<?> watch : watchObject2Watch.get(checkNotNull(entity))) {
+                result.addAll(watch2UserId.get(watch));
+            }
+            for (OWLEntity root : getWatchedBranchRoots(entity)) {
+                for (Watch<?> watch : watchObject2Watch.get(root)) {
+                    if (watch instanceof HierarchyBranchWatch) {
+                        result.addAll(watch2UserId.get(watch));
+                    }
+                }
+            }
+            return result;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
 
-    private Set<? extends OWLEntity> getRelatedWatchEntities(OWLEntity entity) {
-        return entity.accept(new OWLEntityVisitorExAdapter<Set<? extends OWLEntity>>() {
+    @Override
+    public Set<OWLEntity> getWatchedBranchRoots(OWLEntity entity) {
+        return entity.accept(new OWLEntityVisitorExAdapter<Set<OWLEntity>>() {
             @Override
-            protected Set<? extends OWLEntity> getDefaultReturnValue(OWLEntity object) {
+            protected Set<OWLEntity> getDefaultReturnValue(OWLEntity object) {
                 return Collections.emptySet();
             }
 
             @Override
-            public Set<? extends OWLEntity> visit(OWLClass desc) {
-                return project.getClassHierarchyProvider().getAncestors(desc);
+            public Set<OWLEntity> visit(OWLClass desc) {
+                return Collections.<OWLEntity>unmodifiableSet(classBranchWatchIndex.getWatchedRoots(desc));
             }
 
             @Override
-            public Set<? extends OWLEntity> visit(OWLDataProperty property) {
-                return project.getDataPropertyHierarchyProvider().getAncestors(property);
+            public Set<OWLEntity> visit(OWLObjectProperty property) {
+                return Collections.<OWLEntity>unmodifiableSet(objectPropertyBranchWatchIndex.getWatchedRoots(property));
             }
 
             @Override
-            public Set<? extends OWLEntity> visit(OWLObjectProperty property) {
-                return project.getObjectPropertyHierarchyProvider().getAncestors(property);
+            public Set<OWLEntity> visit(OWLDataProperty property) {
+                return Collections.<OWLEntity>unmodifiableSet(dataPropertyBranchWatchIndex.getWatchedRoots(property));
             }
 
             @Override
-            public Set<? extends OWLEntity> visit(OWLNamedIndividual individual) {
-                Set<OWLClassExpression> types = individual.getTypes(project.getRootOntology().getImportsClosure());
-                Set<OWLClass> result = new HashSet<OWLClass>();
-                for(OWLClassExpression ce : types) {
-                    if(!ce.isAnonymous()) {
-                        result.addAll(project.getClassHierarchyProvider().getAncestors(ce.asOWLClass()));
+            public Set<OWLEntity> visit(OWLAnnotationProperty property) {
+                return Collections.<OWLEntity>unmodifiableSet(annotationPropertyBranchWatchIndex.getWatchedRoots(property));
+            }
+
+            @Override
+            public Set<OWLEntity> visit(OWLNamedIndividual individual) {
+                Set<OWLEntity> result = new HashSet<OWLEntity>();
+                for (OWLClassExpression ce : individual.getTypes(project.getRootOntology().getImportsClosure())) {
+                    if (!ce.isAnonymous() && classBranchWatchIndex.isInWatchedBranch(ce.asOWLClass())) {
+                        result.addAll(classBranchWatchIndex.getWatchedRoots(ce.asOWLClass()));
                     }
                 }
                 return result;
@@ -262,38 +349,118 @@ public class WatchManagerImpl implements WatchManager, HasDispose {
         });
     }
 
-    private void fireWatch(final Watch<?> watch, final UserId userId, final OWLEntity entity) {
+    private void updateBranchWatchIndex(OWLEntity root, final boolean add) {
+        root.accept(new OWLEntityVisitorAdapter() {
+            @Override
+            public void visit(OWLClass cls) {
+                if (add) {
+                    classBranchWatchIndex.addRoot(cls);
+                }
+                else {
+                    classBranchWatchIndex.removeRoot(cls);
+                }
+            }
 
-        emailExecutor.submit(new Runnable() {
             @Override
-            public void run() {
-                final User user = MetaProjectManager.getManager().getMetaProject().getUser(userId.getUserName());
-                final String email = user.getEmail();
-                if (email == null) {
-                    return;
+            public void visit(OWLObjectProperty property) {
+                if (add) {
+                    objectPropertyBranchWatchIndex.addRoot(property);
                 }
+                else {
+                    objectPropertyBranchWatchIndex.removeRoot(property);
+                }
+            }
 
-                final String displayName = "watched project";
-                final String emailSubject = String.format("Changes made in %s by %s", displayName, user.getName());
-                String message = "\nChanges were made to " + entity.getEntityType().getName() + " " + project.getRenderingManager().getBrowserText(entity) + " " + entity.getIRI().toQuotedString();
-                message = message + (" on " + new Date() + "\n\n");
-                message = message + "You can view this " + entity.getEntityType().getName() + " at the link below:";
-                StringBuilder directLinkBuilder = new StringBuilder();
-                directLinkBuilder.append("http://");
-                directLinkBuilder.append(WebProtegeProperties.get().getApplicationHostName());
-                directLinkBuilder.append("#Edit:projectId=");
-                directLinkBuilder.append(project.getProjectId().getId());
-                directLinkBuilder.append(";tab=ClassesTab&id=");
-                directLinkBuilder.append(URLEncoder.encode(entity.getIRI().toString()));
-                message += "\n" + directLinkBuilder.toString();
-                App.get().getMailManager().sendMail(email, emailSubject, message);
+            @Override
+            public void visit(OWLDataProperty property) {
+                if (add) {
+                    dataPropertyBranchWatchIndex.addRoot(property);
+                }
+                else {
+                    dataPropertyBranchWatchIndex.removeRoot(property);
+                }
+            }
 
+            @Override
+            public void visit(OWLAnnotationProperty property) {
+                if (add) {
+                    annotationPropertyBranchWatchIndex.addRoot(property);
+                }
+                else {
+                    annotationPropertyBranchWatchIndex.removeRoot(property);
+                }
             }
         });
     }
 
+    private void sendDigest(UserId userId, List<OWLEntity> changedEntities) {
+        final User user = MetaProjectManager.getManager().getMetaProject().getUser(userId.getUserName());
+        if (user == null) {
+            return;
+        }
+        final String email = user.getEmail();
+        if (email == null) {
+            return;
+        }
+        final String emailSubject = String.format("%d %s changed in %s",
+                changedEntities.size(),
+                changedEntities.size() == 1 ? "entity was" : "entities were",
+                getProjectDisplayName());
+        StringBuilder message = new StringBuilder();
+        message.append("\nChanges were made to the following entities that you are watching, up to ");
+        message.append(new Date());
+        message.append(".  You can view each entity at the link below it.\n\n");
+        int listed = 0;
+        for (OWLEntity entity : changedEntities) {
+            if (listed == MAX_DIGEST_ENTITIES) {
+                message.append("... and ");
+                message.append(changedEntities.size() - listed);
+                message.append(" more.\n");
+                break;
+            }
+            message.append(entity.getEntityType().getName());
+            message.append(" ");
+            message.append(project.getRenderingManager().getBrowserText(entity));
+            message.append(" ");
+            message.append(entity.getIRI().toQuotedString());
+            message.append("\n    ");
+            message.append(getDirectLink(entity));
+            message.append("\n\n");
+            listed++;
+        }
+        App.get().getMailManager().sendMail(email, emailSubject, message.toString());
+    }
+
+    private String getProjectDisplayName() {
+        try {
+            return MetaProjectManager.getManager().getProjectDetails(project.getProjectId()).getDisplayName();
+        }
+        catch (UnknownProjectException e) {
+            return "watched project";
+        }
+    }
+
+    private String getDirectLink(OWLEntity entity) {
+        StringBuilder directLinkBuilder = new StringBuilder();
+        directLinkBuilder.append("http://");
+        directLinkBuilder.append(WebProtegeProperties.get().getApplicationHostName());
+        directLinkBuilder.append("#Edit:projectId=");
+        directLinkBuilder.append(project.getProjectId().getId());
+        directLinkBuilder.append(";tab=ClassesTab&id=");
+        directLinkBuilder.append(URLEncoder.encode(entity.getIRI().toString()));
+        return directLinkBuilder.toString();
+    }
+
+    /**
+     * Sends the digests for the changes that have been collected.
+     */
     @Override
     public void dispose() {
+        watchNotificationAggregator.dispose();
+        classBranchWatchIndex.dispose();
+        objectPropertyBranchWatchIndex.dispose();
+        dataPropertyBranchWatchIndex.dispose();
+        annotationPropertyBranchWatchIndex.dispose();
     }
 
     private void readWatches() {
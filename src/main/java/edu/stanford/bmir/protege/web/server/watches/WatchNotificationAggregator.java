@@ -0,0 +1,188 @@
+package edu.stanford.bmir.protege.web.server.watches;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.logging.WebProtegeLoggerManager;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.HasDispose;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Collects the entities that change in a project over a window of time, so that watchers can be sent one digest
+ *     of the changes rather than one notification per change.  The window starts with the first change after a
+ *     flush.  An entity that changes several times in a window is only collected once.  At the end of the window
+ *     the collected entities are handed, in the order in which they first changed, to a
+ *     {@link ChangedEntitiesHandler}.
+ * </p>
+ */
+public class WatchNotificationAggregator implements HasDispose {
+
+    private static final WebProtegeLogger LOGGER = WebProtegeLoggerManager.get(WatchNotificationAggregator.class);
+
+    /**
+     * Handles the entities that changed in a window.
+     */
+    public static interface ChangedEntitiesHandler {
+
+        /**
+         * Called at the end of a window.
+         * @param changedEntities The entities that changed.  Not {@code null}.  Not empty.
+         */
+        void handleChangedEntities(Set<OWLEntity> changedEntities);
+    }
+
+    private final ProjectId projectId;
+
+    private final WebProtegeScheduler scheduler;
+
+    private final long windowMs;
+
+    private final ChangedEntitiesHandler handler;
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private Set<OWLEntity> changedEntities = new LinkedHashSet<OWLEntity>();
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private ScheduledFuture<?> flushFuture = null;
+
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private boolean disposed = false;
+
+    // Statistics.  Guarded by lock.
+
+    private long changeCount = 0;
+
+    private long duplicateChangeCount = 0;
+
+    private long flushCount = 0;
+
+    /**
+     * Creates an aggregator.
+     * @param projectId The project whose changes are collected.  Not {@code null}.
+     * @param scheduler The scheduler that windows are timed with.  Not {@code null}.
+     * @param windowMs The length of a window in milliseconds.  Not negative.
+     * @param handler The handler for the entities that changed in a window.  Not {@code null}.
+     */
+    public WatchNotificationAggregator(ProjectId projectId,
+                                       WebProtegeScheduler scheduler,
+                                       long windowMs,
+                                       ChangedEntitiesHandler handler) {
+        checkArgument(windowMs >= 0, "windowMs must not be negative");
+        this.projectId = checkNotNull(projectId);
+        this.scheduler = checkNotNull(scheduler);
+        this.windowMs = windowMs;
+        this.handler = checkNotNull(handler);
+    }
+
+    /**
+     * Records that an entity has changed.
+     * @param entity The entity.  Not {@code null}.
+     */
+    public void entityChanged(OWLEntity entity) {
+        checkNotNull(entity);
+        try {
+            lock.lock();
+            if(disposed) {
+                return;
+            }
+            changeCount++;
+            if(!changedEntities.add(entity)) {
+                duplicateChangeCount++;
+            }
+            if(flushFuture == null) {
+                flushFuture = scheduler.schedule(TaskCategory.WATCH_NOTIFICATIONS, new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the entities that have changed since the last flush to the handler, without waiting for the end of the
+     * window.
+     */
+    public void flush() {
+        Set<OWLEntity> flushedEntities;
+        try {
+            lock.lock();
+            if(flushFuture != null) {
+                flushFuture.cancel(false);
+                flushFuture = null;
+            }
+            if(changedEntities.isEmpty()) {
+                return;
+            }
+            flushedEntities = changedEntities;
+            changedEntities = new LinkedHashSet<OWLEntity>();
+            flushCount++;
+        }
+        finally {
+            lock.unlock();
+        }
+        handler.handleChangedEntities(Collections.unmodifiableSet(flushedEntities));
+    }
+
+    /**
+     * Flushes the entities that have changed, and ignores later changes.
+     */
+    @Override
+    public void dispose() {
+        try {
+            lock.lock();
+            disposed = true;
+        }
+        finally {
+            lock.unlock();
+        }
+        flush();
+        LOGGER.info(projectId, "%s", this);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            lock.lock();
+            return Objects.toStringHelper("WatchNotificationAggregator")
+                    .addValue(projectId)
+                    .add("pending", changedEntities.size())
+                    .add("changes", changeCount)
+                    .add("duplicates", duplicateChangeCount)
+                    .add("flushes", flushCount)
+                    .toString();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
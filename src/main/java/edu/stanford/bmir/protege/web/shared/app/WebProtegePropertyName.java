@@ -59,7 +59,67 @@ public enum WebProtegePropertyName {
     OPEN_ID_ENABLED("openid.enabled", PropertyValue.ofBoolean(true), ClientVisibility.VISIBLE),
 
     @WebProtegePropertiesDocumentation(description = "Specifies whether or not users should be allowed to sign up for accounts", example = "false")
-    USER_ACCOUNT_CREATION_ENABLED("user.account.creation.enabled", PropertyValue.ofBoolean(true), ClientVisibility.VISIBLE);
+    USER_ACCOUNT_CREATION_ENABLED("user.account.creation.enabled", PropertyValue.ofBoolean(true), ClientVisibility.VISIBLE),
+
+    @WebProtegePropertiesDocumentation(description = "The number of revisions after which a snapshot checkpoint of a project's change history is written", example = "500")
+    CHANGE_CHECKPOINT_REVISION_INTERVAL("change.checkpoint.revision.interval", PropertyValue.ofInteger(500), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The number of changed axioms after which a snapshot checkpoint of a project's change history is written", example = "50000")
+    CHANGE_CHECKPOINT_CHANGE_INTERVAL("change.checkpoint.change.interval", PropertyValue.ofInteger(50000), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The number of snapshot checkpoints that are retained for each project", example = "5")
+    CHANGE_CHECKPOINT_RETENTION_COUNT("change.checkpoint.retention.count", PropertyValue.ofInteger(5), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "Specifies how project change logs are written to disk.  One of SYNC (each revision is synced to disk before the edit completes), BATCHED (revisions are written and synced in groups) or ASYNC (revisions are written in groups and are never explicitly synced)", example = "BATCHED")
+    CHANGE_LOG_DURABILITY("change.log.durability", PropertyValue.ofString("BATCHED"), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The length of time, in milliseconds, that the change log writer waits for further revisions to arrive before writing a group of revisions to disk", example = "10")
+    CHANGE_LOG_GROUP_COMMIT_WINDOW("change.log.group.commit.window", PropertyValue.ofInteger(10), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The minimum number of bytes of appended changes that a root ontology document must have before it is compacted", example = "1048576")
+    ONTOLOGY_COMPACTION_MIN_TAIL_SIZE("ontology.compaction.min.tail.size", PropertyValue.ofInteger(1048576), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The size of the appended changes, as a percentage of the size of the snapshot, at which a root ontology document is compacted", example = "100")
+    ONTOLOGY_COMPACTION_TAIL_RATIO("ontology.compaction.tail.ratio", PropertyValue.ofInteger(100), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The time, in milliseconds, after its last access at which a project is evicted from memory", example = "180000")
+    PROJECT_CACHE_DORMANT_TIME("project.cache.dormant.time", PropertyValue.ofInteger(180000), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of projects that are kept in memory.  Zero for no maximum", example = "50")
+    PROJECT_CACHE_MAX_PROJECTS("project.cache.max.projects", PropertyValue.ofInteger(0), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum estimated size, in megabytes, of the projects that are kept in memory.  Zero for half of the maximum heap size", example = "2048")
+    PROJECT_CACHE_MAX_SIZE("project.cache.max.size", PropertyValue.ofInteger(0), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The period, in milliseconds, between checks for projects that should be evicted from memory", example = "30000")
+    PROJECT_CACHE_EVICTION_CHECK_PERIOD("project.cache.eviction.check.period", PropertyValue.ofInteger(30000), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of projects that are loaded in parallel", example = "2")
+    PROJECT_LOAD_POOL_SIZE("project.load.pool.size", PropertyValue.ofInteger(2), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of projects that are preloaded when webprotege starts.  Zero disables preloading", example = "10")
+    PROJECT_PRELOAD_MAX_PROJECTS("project.preload.max.projects", PropertyValue.ofInteger(10), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of projects that are preloaded at the same time", example = "2")
+    PROJECT_PRELOAD_CONCURRENCY("project.preload.concurrency", PropertyValue.ofInteger(2), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The estimated size, in megabytes, of the resident projects at which preloading stops.  Zero for a quarter of the maximum heap size", example = "1024")
+    PROJECT_PRELOAD_MAX_SIZE("project.preload.max.size", PropertyValue.ofInteger(0), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The number of worker threads that run background tasks (project loading, event purging, change log writing, checkpointing etc.) for all projects", example = "8")
+    SCHEDULER_POOL_SIZE("scheduler.pool.size", PropertyValue.ofInteger(8), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum time, in milliseconds, that a request for project events is held on the server waiting for events.  Zero disables long polling", example = "25000")
+    EVENTS_LONG_POLL_MAX_WAIT_TIME("events.long.poll.max.wait.time", PropertyValue.ofInteger(25000), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of requests for project events that are held on the server at the same time", example = "50")
+    EVENTS_LONG_POLL_MAX_WAITING_REQUESTS("events.long.poll.max.waiting.requests", PropertyValue.ofInteger(50), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The maximum number of revisions per project whose events are waiting to be generated.  Writers wait when this is reached", example = "32")
+    EVENTS_PIPELINE_MAX_PENDING_REVISIONS("events.pipeline.max.pending.revisions", PropertyValue.ofInteger(32), ClientVisibility.HIDDEN),
+
+    @WebProtegePropertiesDocumentation(description = "The time, in milliseconds, over which changes to watched entities are collected into one notification email per user", example = "300000")
+    WATCHES_NOTIFICATION_DIGEST_WINDOW("watches.notification.digest.window", PropertyValue.ofInteger(300000), ClientVisibility.HIDDEN);
 
 
     private static class PropertyValue {
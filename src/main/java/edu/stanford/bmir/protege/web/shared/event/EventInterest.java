@@ -0,0 +1,114 @@
+package edu.stanford.bmir.protege.web.shared.event;
+
+import com.google.common.base.Objects;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Describes the project events that a client is interested in.  The entities are the entities that the client
+ *     displays, including the nodes of hierarchies that it displays or has expanded.  Events that are about other
+ *     entities are not sent to the client.  Project changed events (as shown in the project feed and the changes
+ *     list) are sent if their subjects include one of the entities, or if the client asks for all of them.  The
+ *     interest returned by {@link #getAllEvents()} matches every event.
+ * </p>
+ */
+public class EventInterest implements Serializable {
+
+    private static final long serialVersionUID = 3358781083565345682L;
+
+    private Set<OWLEntity> entities;
+
+    private boolean allProjectChangesIncluded;
+
+    private boolean allEventsIncluded;
+
+    /**
+     * For serialization purposes only.
+     */
+    private EventInterest() {
+    }
+
+    private EventInterest(boolean allEventsIncluded) {
+        this.entities = new HashSet<OWLEntity>();
+        this.allProjectChangesIncluded = allEventsIncluded;
+        this.allEventsIncluded = allEventsIncluded;
+    }
+
+    /**
+     * Creates an {@link EventInterest}.
+     * @param entities The entities that the client displays.  Not {@code null}.
+     * @param allProjectChangesIncluded {@code true} if the client wants every project changed event, for example
+     *                                  because it shows the project feed.
+     * @throws NullPointerException if {@code entities} is {@code null}.
+     */
+    public EventInterest(Collection<? extends OWLEntity> entities, boolean allProjectChangesIncluded) {
+        this.entities = new HashSet<OWLEntity>(checkNotNull(entities));
+        this.allProjectChangesIncluded = allProjectChangesIncluded;
+    }
+
+    /**
+     * Gets an interest that matches every event.
+     * @return The interest.  Not {@code null}.
+     */
+    public static EventInterest getAllEvents() {
+        return new EventInterest(true);
+    }
+
+    public Set<OWLEntity> getEntities() {
+        return Collections.unmodifiableSet(entities);
+    }
+
+    public boolean isInterestedIn(OWLEntity entity) {
+        return allEventsIncluded || entities.contains(entity);
+    }
+
+    public boolean isAllProjectChangesIncluded() {
+        return allProjectChangesIncluded;
+    }
+
+    /**
+     * Determines whether this interest matches every event.
+     */
+    public boolean isAllEventsIncluded() {
+        return allEventsIncluded;
+    }
+
+    @Override
+    public int hashCode() {
+        return "EventInterest".hashCode() + entities.hashCode() + (allProjectChangesIncluded ? 1 : 0) + (allEventsIncluded ? 2 : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+        if(!(obj instanceof EventInterest)) {
+            return false;
+        }
+        EventInterest other = (EventInterest) obj;
+        return this.entities.equals(other.entities)
+                && this.allProjectChangesIncluded == other.allProjectChangesIncluded
+                && this.allEventsIncluded == other.allEventsIncluded;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper("EventInterest")
+                .add("entities", entities.size())
+                .add("allProjectChanges", allProjectChangesIncluded)
+                .add("allEvents", allEventsIncluded)
+                .toString();
+    }
+}
@@ -24,6 +24,10 @@ public class GetProjectEventsAction implements HasProjectAction<GetProjectEvents
 
     private EventTag sinceTag;
 
+    private int waitTime;
+
+    private String clientId;
+
     /**
      * For serialization purposes only.
      */
@@ -31,9 +35,37 @@ public class GetProjectEventsAction implements HasProjectAction<GetProjectEvents
     }
 
     public GetProjectEventsAction(EventTag sinceTag, ProjectId projectId, UserId userId) {
+        this(sinceTag, projectId, userId, 0);
+    }
+
+    /**
+     * Creates an action that asks for the events since the specified tag.
+     * @param sinceTag The tag.
+     * @param projectId The project.
+     * @param userId The user that is asking.
+     * @param waitTime The time, in milliseconds, that the server may hold on to the request waiting for events if
+     *                 there are none.  Zero if the server should answer straight away.  The server may wait for less
+     *                 time than this.
+     */
+    public GetProjectEventsAction(EventTag sinceTag, ProjectId projectId, UserId userId, int waitTime) {
+        this(sinceTag, projectId, userId, waitTime, null);
+    }
+
+    /**
+     * Creates an action that asks for the events since the specified tag that match the interest that was registered
+     * for a client with a {@link SetEventInterestAction}.
+     * @param sinceTag The tag.
+     * @param projectId The project.
+     * @param userId The user that is asking.
+     * @param waitTime The time, in milliseconds, that the server may hold on to the request waiting for events.
+     * @param clientId The id of the client.  May be {@code null}, in which case all events are returned.
+     */
+    public GetProjectEventsAction(EventTag sinceTag, ProjectId projectId, UserId userId, int waitTime, String clientId) {
         this.sinceTag = sinceTag;
         this.projectId = projectId;
         this.userId = userId;
+        this.waitTime = waitTime;
+        this.clientId = clientId;
     }
 
     public EventTag getSinceTag() {
@@ -49,6 +81,21 @@ public class GetProjectEventsAction implements HasProjectAction<GetProjectEvents
         return userId;
     }
 
+    /**
+     * Gets the time, in milliseconds, that the server may wait for events before answering.
+     */
+    public int getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * Gets the id of the client that is asking.
+     * @return The client id, or absent if the client has not registered an interest.
+     */
+    public Optional<String> getClientId() {
+        return Optional.fromNullable(clientId);
+    }
+
     @Override
     public Optional<String> handleInvocationException(InvocationException ex) {
         GWT.log("Could not retrieve events due to server connection problems.");
@@ -60,6 +107,8 @@ public class GetProjectEventsAction implements HasProjectAction<GetProjectEvents
         return Objects.toStringHelper("GetProjectEventsAction")
                 .addValue(projectId)
                 .addValue(userId)
-                .add("since", sinceTag).toString();
+                .add("since", sinceTag)
+                .add("waitTime", waitTime)
+                .add("clientId", clientId).toString();
     }
 }
@@ -51,7 +51,9 @@ public class GetProjectEventsAction_CustomFieldSerializer extends CustomFieldSer
         String projectName = streamReader.readString();
         String userName = streamReader.readString();
         int ordinal = streamReader.readInt();
-        return new GetProjectEventsAction(EventTag.get(ordinal), ProjectId.get(projectName), UserId.getUserId(userName));
+        int waitTime = streamReader.readInt();
+        String clientId = streamReader.readString();
+        return new GetProjectEventsAction(EventTag.get(ordinal), ProjectId.get(projectName), UserId.getUserId(userName), waitTime, clientId);
     }
 
 
@@ -74,6 +76,8 @@ public class GetProjectEventsAction_CustomFieldSerializer extends CustomFieldSer
         streamWriter.writeString(instance.getProjectId().getId());
         streamWriter.writeString(instance.getUserId().getUserName());
         streamWriter.writeInt(instance.getSinceTag().getOrdinal());
+        streamWriter.writeInt(instance.getWaitTime());
+        streamWriter.writeString(instance.getClientId().orNull());
     }
 
 
@@ -13,6 +13,8 @@ public class GetProjectEventsResult implements Result {
 
     private ProjectEventList events;
 
+    private boolean waitedForEvents;
+
     /**
      * For serialization purposes only
      */
@@ -20,10 +22,23 @@ public class GetProjectEventsResult implements Result {
     }
 
     public GetProjectEventsResult(ProjectEventList events) {
+        this(events, false);
+    }
+
+    public GetProjectEventsResult(ProjectEventList events, boolean waitedForEvents) {
         this.events = events;
+        this.waitedForEvents = waitedForEvents;
     }
 
     public ProjectEventList getEvents() {
         return events;
     }
+
+    /**
+     * Determines whether the server held on to the request until events were posted (or the wait time ran out).
+     * If it did not then the client should wait a while before asking again.
+     */
+    public boolean isWaitedForEvents() {
+        return waitedForEvents;
+    }
 }
@@ -64,11 +64,14 @@ public class GetProjectEventsResult_CustomFieldSerializer extends CustomFieldSer
         String projectName = streamReader.readString();
         int startTagOrdinal = streamReader.readInt();
         int endTagOrdinal = streamReader.readInt();
+        boolean resyncRequired = streamReader.readBoolean();
+        boolean waitedForEvents = streamReader.readBoolean();
         final EventTag startTag = EventTag.get(startTagOrdinal);
         final EventTag endTag = EventTag.get(endTagOrdinal);
         ProjectEventList.Builder builder = ProjectEventList.builder(startTag, ProjectId.get(projectName), endTag);
         builder.addEvents(events);
-        return new GetProjectEventsResult(builder.build());
+        builder.setResyncRequired(resyncRequired);
+        return new GetProjectEventsResult(builder.build(), waitedForEvents);
     }
 
 
@@ -100,6 +103,8 @@ public class GetProjectEventsResult_CustomFieldSerializer extends CustomFieldSer
         streamWriter.writeInt(startTagOrdinal);
         int endTagOrdinal = instance.getEvents().getEndTag().getOrdinal();
         streamWriter.writeInt(endTagOrdinal);
+        streamWriter.writeBoolean(instance.getEvents().isResyncRequired());
+        streamWriter.writeBoolean(instance.isWaitedForEvents());
     }
 
 
@@ -0,0 +1,56 @@
+package edu.stanford.bmir.protege.web.shared.event;
+
+import edu.stanford.bmir.protege.web.shared.dispatch.HasProjectAction;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Registers the events that a client is interested in.  Subsequent {@link GetProjectEventsAction}s with the same
+ *     client id only return the events that match the interest.
+ * </p>
+ */
+public class SetEventInterestAction implements HasProjectAction<SetEventInterestResult> {
+
+    private ProjectId projectId;
+
+    private String clientId;
+
+    private EventInterest eventInterest;
+
+    /**
+     * For serialization purposes only.
+     */
+    private SetEventInterestAction() {
+    }
+
+    /**
+     * Creates a {@link SetEventInterestAction}.
+     * @param projectId The project.  Not {@code null}.
+     * @param clientId The id that the client sends with its {@link GetProjectEventsAction}s.  Not {@code null}.
+     * @param eventInterest The events that the client is interested in.  Not {@code null}.
+     * @throws NullPointerException if any parameters are {@code null}.
+     */
+    public SetEventInterestAction(ProjectId projectId, String clientId, EventInterest eventInterest) {
+        this.projectId = checkNotNull(projectId);
+        this.clientId = checkNotNull(clientId);
+        this.eventInterest = checkNotNull(eventInterest);
+    }
+
+    @Override
+    public ProjectId getProjectId() {
+        return projectId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public EventInterest getEventInterest() {
+        return eventInterest;
+    }
+}
@@ -0,0 +1,14 @@
+package edu.stanford.bmir.protege.web.shared.event;
+
+import edu.stanford.bmir.protege.web.shared.dispatch.Result;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class SetEventInterestResult implements Result {
+
+    public SetEventInterestResult() {
+    }
+}
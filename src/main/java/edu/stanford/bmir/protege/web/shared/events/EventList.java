@@ -18,6 +18,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * <p>
  *     Represents a list of {@link SerializableEvent}s between to points denoted by {@link EventTag}s.
  * </p>
+ * <p>
+ *     An event list may be incomplete, because some of the events between its tags were discarded.  This is the
+ *     case when too many events happened at once, or when the list is requested from a tag so old that the events
+ *     after it are no longer held.  The list is then marked as requiring a resync, which tells the receiver that it
+ *     should refresh whatever it is showing rather than rely on the events alone.
+ * </p>
  */
 public class EventList<E extends SerializableEvent<?>> implements Serializable {
 
@@ -27,6 +33,7 @@ public class EventList<E extends SerializableEvent<?>> implements Serializable {
 
     private List<E> events;
 
+    private boolean resyncRequired;
 
     /**
      * For serialization only
@@ -41,9 +48,14 @@ public class EventList<E extends SerializableEvent<?>> implements Serializable {
     }
 
     public EventList(EventTag startTag, Collection<E> events, EventTag endTag) {
+        this(startTag, events, endTag, false);
+    }
+
+    public EventList(EventTag startTag, Collection<E> events, EventTag endTag, boolean resyncRequired) {
         this.startTag = checkNotNull(startTag);
         this.endTag = checkNotNull(endTag);
         this.events = new ArrayList<E>(checkNotNull(events));
+        this.resyncRequired = resyncRequired;
     }
 
     public int size() {
@@ -59,6 +71,14 @@ public class EventList<E extends SerializableEvent<?>> implements Serializable {
         return events == null || events.size() == 0;
     }
 
+    /**
+     * Determines whether some of the events between the start tag and the end tag of this list were discarded.
+     * @return {@code true} if events were discarded, otherwise {@code false}.
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
     public EventTag getStartTag() {
         return startTag;
     }
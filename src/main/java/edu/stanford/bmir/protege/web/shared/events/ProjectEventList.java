@@ -29,8 +29,8 @@ public class ProjectEventList extends EventList<ProjectEvent<?>> {
         this.projectId = projectId;
     }
 
-    private ProjectEventList(EventTag startTag, Collection<ProjectEvent<?>> events, EventTag endTag, ProjectId projectId) {
-        super(startTag, events, endTag);
+    private ProjectEventList(EventTag startTag, Collection<ProjectEvent<?>> events, EventTag endTag, boolean resyncRequired, ProjectId projectId) {
+        super(startTag, events, endTag, resyncRequired);
         this.projectId = projectId;
     }
 
@@ -48,6 +48,8 @@ public class ProjectEventList extends EventList<ProjectEvent<?>> {
 
         private List<ProjectEvent<?>> events = new ArrayList<ProjectEvent<?>>();
 
+        private boolean resyncRequired = false;
+
         public Builder(EventTag startTag, ProjectId projectId, EventTag endTag) {
             this.startTag = startTag;
             this.projectId = projectId;
@@ -69,8 +71,13 @@ public class ProjectEventList extends EventList<ProjectEvent<?>> {
             return this;
         }
 
+        public Builder setResyncRequired(boolean resyncRequired) {
+            this.resyncRequired = resyncRequired;
+            return this;
+        }
+
         public ProjectEventList build() {
-            return new ProjectEventList(startTag, events, endTag, projectId);
+            return new ProjectEventList(startTag, events, endTag, resyncRequired, projectId);
         }
 
     }
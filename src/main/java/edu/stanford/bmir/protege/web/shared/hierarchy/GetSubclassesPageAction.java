@@ -0,0 +1,76 @@
+package edu.stanford.bmir.protege.web.shared.hierarchy;
+
+import com.google.common.base.Objects;
+import edu.stanford.bmir.protege.web.client.dispatch.AbstractHasProjectAction;
+import edu.stanford.bmir.protege.web.shared.pagination.PageRequest;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.semanticweb.owlapi.model.OWLClass;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Requests one page of the (sorted) subclasses of a class, along with the details that are needed to display
+ *     them as tree nodes.  This allows classes with a large number of subclasses to be displayed a page at a time.
+ * </p>
+ */
+public class GetSubclassesPageAction extends AbstractHasProjectAction<GetSubclassesPageResult> {
+
+    private OWLClass parent;
+
+    private PageRequest pageRequest;
+
+    /**
+     * For serialization purposes only
+     */
+    private GetSubclassesPageAction() {
+    }
+
+    /**
+     * @param projectId The project id.  Not {@code null}.
+     * @param parent The class whose subclasses should be retrieved.  Not {@code null}.
+     * @param pageRequest The page of subclasses to retrieve.  Not {@code null}.
+     * @throws NullPointerException if any parameters are {@code null}.
+     */
+    public GetSubclassesPageAction(ProjectId projectId, OWLClass parent, PageRequest pageRequest) {
+        super(projectId);
+        this.parent = checkNotNull(parent);
+        this.pageRequest = checkNotNull(pageRequest);
+    }
+
+    public OWLClass getParent() {
+        return parent;
+    }
+
+    public PageRequest getPageRequest() {
+        return pageRequest;
+    }
+
+    @Override
+    public int hashCode() {
+        return "GetSubclassesPageAction".hashCode() + getProjectId().hashCode() + parent.hashCode() + pageRequest.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof GetSubclassesPageAction)) {
+            return false;
+        }
+        GetSubclassesPageAction other = (GetSubclassesPageAction) o;
+        return this.getProjectId().equals(other.getProjectId()) && this.parent.equals(other.parent) && this.pageRequest.equals(other.pageRequest);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper("GetSubclassesPageAction")
+                .addValue(getProjectId())
+                .add("parent", parent)
+                .addValue(pageRequest).toString();
+    }
+}
@@ -0,0 +1,35 @@
+package edu.stanford.bmir.protege.web.shared.hierarchy;
+
+import edu.stanford.bmir.protege.web.client.rpc.data.SubclassEntityData;
+import edu.stanford.bmir.protege.web.shared.dispatch.Result;
+import edu.stanford.bmir.protege.web.shared.pagination.Page;
+
+import java.util.List;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class GetSubclassesPageResult implements Result {
+
+    private Page<SubclassEntityData> page;
+
+    /**
+     * For serialization purposes only
+     */
+    private GetSubclassesPageResult() {
+    }
+
+    public GetSubclassesPageResult(Page<SubclassEntityData> page) {
+        this.page = page;
+    }
+
+    public Page<SubclassEntityData> getPage() {
+        return page;
+    }
+
+    public List<SubclassEntityData> getSubclasses() {
+        return page.getPageElements();
+    }
+}
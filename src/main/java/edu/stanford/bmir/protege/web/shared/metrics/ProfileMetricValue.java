@@ -11,13 +11,25 @@ public class ProfileMetricValue extends MetricValue {
 
     private boolean inProfile;
 
+    private long timestamp;
+
     private ProfileMetricValue() {
     }
 
     public ProfileMetricValue(String profileName, boolean inProfile) {
+        this(profileName, inProfile, System.currentTimeMillis());
+    }
+
+    /**
+     * @param profileName The name of the profile.
+     * @param inProfile Whether the ontologies are in the profile.
+     * @param timestamp The time at which the ontologies were checked against the profile.
+     */
+    public ProfileMetricValue(String profileName, boolean inProfile, long timestamp) {
         super(profileName, getBrowserText(inProfile), false);
         this.profileName = profileName;
         this.inProfile = inProfile;
+        this.timestamp = timestamp;
     }
 
     private static String getBrowserText(boolean inProfile) {
@@ -31,4 +43,13 @@ public class ProfileMetricValue extends MetricValue {
     public boolean isInProfile() {
         return inProfile;
     }
+
+    /**
+     * Gets the time at which the ontologies were checked against the profile.  The check runs in the background, so
+     * this may be before the latest changes to the ontologies.
+     * @return The timestamp, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
 }
@@ -0,0 +1,48 @@
+package edu.stanford.bmir.protege.web.shared.project;
+
+
+import edu.stanford.bmir.protege.web.shared.HasProjectId;
+
+import java.io.Serializable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ * <p>
+ *     Thrown when an action cannot be executed yet because the project that it pertains to is still being loaded on
+ *     the server.  The action can be executed again once the project has loaded.
+ * </p>
+ */
+public class ProjectLoadingException extends RuntimeException implements Serializable, HasProjectId {
+
+    private static final long serialVersionUID = 1928609751135172453L;
+
+    private ProjectId projectId;
+
+    /**
+     * For serialization purposes only
+     */
+    private ProjectLoadingException() {
+    }
+
+    /**
+     * Creates a {@link ProjectLoadingException} for the specified {@link ProjectId}
+     * @param projectId The {@link ProjectId} of the project that is being loaded.  Not {@code null}.
+     * @throws NullPointerException if {@code projectId} is {@code null}.
+     */
+    public ProjectLoadingException(ProjectId projectId) {
+        super("Project is still loading (" + projectId + ")");
+        this.projectId = checkNotNull(projectId);
+    }
+
+    /**
+     * Get the {@link ProjectId} of the project that is being loaded.
+     * @return The {@link ProjectId}.  Not {@code null}.
+     */
+    public ProjectId getProjectId() {
+        return projectId;
+    }
+}
@@ -0,0 +1,97 @@
+package edu.stanford.bmir.protege.web.client.events;
+
+import com.google.web.bindery.event.shared.HandlerRegistration;
+import edu.stanford.bmir.protege.web.shared.event.EventBusManager;
+import edu.stanford.bmir.protege.web.shared.event.PermissionsChangedEvent;
+import edu.stanford.bmir.protege.web.shared.event.PermissionsChangedHandler;
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.events.EventList;
+import edu.stanford.bmir.protege.web.shared.events.EventTag;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class ProjectEventDispatcherTestCase {
+
+    private final ProjectId projectId = ProjectId.get("12345678-1234-1234-1234-123456789abc");
+
+    private final EventBusManager eventBusManager = EventBusManager.getManager();
+
+    private final List<HandlerRegistration> registrations = new ArrayList<HandlerRegistration>();
+
+    private final List<Object> postedEvents = new ArrayList<Object>();
+
+    private ProjectEventDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new ProjectEventDispatcher(projectId, eventBusManager);
+        registrations.add(eventBusManager.registerHandlerToProject(projectId, PermissionsChangedEvent.TYPE, new PermissionsChangedHandler() {
+            @Override
+            public void handlePersmissionsChanged(PermissionsChangedEvent event) {
+                postedEvents.add(event);
+            }
+        }));
+        registrations.add(eventBusManager.registerHandlerToProject(projectId, ProjectEventsMissedEvent.TYPE, new ProjectEventsMissedHandler() {
+            @Override
+            public void handleProjectEventsMissed(ProjectEventsMissedEvent event) {
+                postedEvents.add(event);
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        for (HandlerRegistration registration : registrations) {
+            registration.removeHandler();
+        }
+    }
+
+    private static EventList<ProjectEvent<?>> getEventList(EventTag startTag, EventTag endTag, boolean resyncRequired, ProjectEvent<?> ... events) {
+        return new EventList<ProjectEvent<?>>(startTag, Arrays.asList(events), endTag, resyncRequired);
+    }
+
+    @Test
+    public void shouldPostEventsAndMoveOnToEndTag() {
+        PermissionsChangedEvent event = new PermissionsChangedEvent(projectId);
+        EventTag endTag = EventTag.getFirst().next();
+        dispatcher.dispatchEvents(getEventList(EventTag.getFirst(), endTag, false, event));
+        assertThat(postedEvents, is(Collections.<Object>singletonList(event)));
+        assertThat(dispatcher.getNextTag(), is(endTag));
+    }
+
+    @Test
+    public void shouldPostProjectEventsMissedEventAfterEventsIfResyncIsRequired() {
+        PermissionsChangedEvent event = new PermissionsChangedEvent(projectId);
+        dispatcher.dispatchEvents(getEventList(EventTag.getFirst(), EventTag.get(10), true, event));
+        assertThat(postedEvents, is(Arrays.<Object>asList(event, new ProjectEventsMissedEvent(projectId))));
+    }
+
+    @Test
+    public void shouldPostProjectEventsMissedEventIfResyncIsRequiredForEmptyList() {
+        EventTag endTag = EventTag.get(10);
+        dispatcher.dispatchEvents(getEventList(EventTag.getFirst(), endTag, true));
+        assertThat(postedEvents, is(Collections.<Object>singletonList(new ProjectEventsMissedEvent(projectId))));
+        assertThat(dispatcher.getNextTag(), is(endTag));
+    }
+
+    @Test
+    public void shouldNotPostProjectEventsMissedEventIfResyncIsNotRequired() {
+        dispatcher.dispatchEvents(getEventList(EventTag.getFirst(), EventTag.get(10), false));
+        assertThat(postedEvents.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,100 @@
+package edu.stanford.bmir.protege.web.server.crud.obo;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.shared.crud.oboid.UserIdRange;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class OBOIdAllocatorTestCase {
+
+    public static final String PREFIX = "http://purl.obolibrary.org/obo/X_";
+
+    public static final int BLOCK_SIZE = 3;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final UserId userA = UserId.getUserId("A");
+
+    private final UserId userB = UserId.getUserId("B");
+
+    @Test
+    public void shouldAllocateAboveHighestUsedId() {
+        OBOIdAllocator allocator = createAllocator(Collections.<UserIdRange>emptyList(), entities(5, 17), Optional.<File>absent());
+        assertThat(allocator.allocate(userA), is(18L));
+        assertThat(allocator.format(18), is(PREFIX + "0000018"));
+    }
+
+    @Test
+    public void shouldGiveUsersSeparateBlocks() {
+        OBOIdAllocator allocator = createAllocator(Collections.<UserIdRange>emptyList(), entities(), Optional.<File>absent());
+        assertThat(allocator.allocate(userA), is(1L));
+        assertThat(allocator.allocate(userB), is(4L));
+        assertThat(allocator.allocate(userA), is(2L));
+    }
+
+    @Test
+    public void shouldAllocateInUserRange() {
+        List<UserIdRange> ranges = Arrays.asList(new UserIdRange(userA, 100, 200));
+        OBOIdAllocator allocator = createAllocator(ranges, entities(150, 300), Optional.<File>absent());
+        assertThat(allocator.allocate(userA), is(151L));
+        assertThat(allocator.allocate(userB), is(301L));
+    }
+
+    @Test
+    public void shouldSkipUserRangesInDefaultRange() {
+        List<UserIdRange> ranges = Arrays.asList(new UserIdRange(userA, 3, 10));
+        OBOIdAllocator allocator = createAllocator(ranges, entities(1), Optional.<File>absent());
+        assertThat(allocator.allocate(userB), is(2L));
+        assertThat(allocator.allocate(userB), is(11L));
+    }
+
+    @Test(expected = CannotGenerateFreshEntityIdForUserException.class)
+    public void shouldThrowExceptionWhenUserRangeIsExhausted() {
+        List<UserIdRange> ranges = Arrays.asList(new UserIdRange(userA, 100, 101));
+        OBOIdAllocator allocator = createAllocator(ranges, entities(101), Optional.<File>absent());
+        allocator.allocate(userA);
+    }
+
+    @Test
+    public void shouldNotReuseIdsAfterRestart() throws Exception {
+        Optional<File> file = Optional.of(new File(temporaryFolder.getRoot(), "high-water-marks"));
+        OBOIdAllocator allocator = createAllocator(Collections.<UserIdRange>emptyList(), entities(), file);
+        assertThat(allocator.allocate(userA), is(1L));
+        OBOIdAllocator restarted = createAllocator(Collections.<UserIdRange>emptyList(), entities(), file);
+        assertThat(restarted.allocate(userA), is(BLOCK_SIZE + 1L));
+    }
+
+    private static OBOIdAllocator createAllocator(List<UserIdRange> ranges, List<OWLEntity> signature, Optional<File> file) {
+        return new OBOIdAllocator(PREFIX, 7, ranges, signature, file, BLOCK_SIZE);
+    }
+
+    private static List<OWLEntity> entities(long... ids) {
+        OWLEntity[] entities = new OWLEntity[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            OWLEntity entity = mock(OWLEntity.class);
+            when(entity.getIRI()).thenReturn(IRI.create(String.format("%s%07d", PREFIX, ids[i])));
+            entities[i] = entity;
+        }
+        return Arrays.asList(entities);
+    }
+}
@@ -0,0 +1,92 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.shared.event.BrowserTextChangedEvent;
+import edu.stanford.bmir.protege.web.shared.event.EntityFrameChangedEvent;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
+import edu.stanford.bmir.protege.web.shared.event.PermissionsChangedEvent;
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.hierarchy.HierarchyChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventInterestFilterTestCase {
+
+    @Mock
+    private OWLEntity displayedEntity;
+
+    @Mock
+    private OWLEntity otherEntity;
+
+    private EventInterestFilter filter;
+
+    @Before
+    public void setUp() {
+        filter = new EventInterestFilter(new EventInterest(Collections.singleton(displayedEntity), false));
+    }
+
+    @Test
+    public void shouldKeepFrameChangeForDisplayedEntity() {
+        ProjectEvent<?> event = frameChanged(displayedEntity);
+        assertThat(filter.filter(Arrays.<ProjectEvent<?>>asList(event)), is(Arrays.<ProjectEvent<?>>asList(event)));
+    }
+
+    @Test
+    public void shouldDropFrameChangeForOtherEntity() {
+        ProjectEvent<?> event = frameChanged(otherEntity);
+        assertThat(filter.filter(Arrays.<ProjectEvent<?>>asList(event)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldKeepHierarchyChangeUnderDisplayedNode() {
+        HierarchyChangedEvent<?, ?> event = mock(HierarchyChangedEvent.class);
+        when(event.getSignature()).thenReturn(new HashSet<OWLEntity>(Arrays.asList(displayedEntity, otherEntity)));
+        assertThat(filter.filter(Arrays.<ProjectEvent<?>>asList(event)), is(Arrays.<ProjectEvent<?>>asList(event)));
+    }
+
+    @Test
+    public void shouldKeepLastBrowserTextChangeOnly() {
+        BrowserTextChangedEvent first = browserTextChanged(displayedEntity);
+        ProjectEvent<?> frameChanged = frameChanged(displayedEntity);
+        BrowserTextChangedEvent second = browserTextChanged(displayedEntity);
+        assertThat(filter.filter(Arrays.<ProjectEvent<?>>asList(first, frameChanged, second)),
+                   is(Arrays.<ProjectEvent<?>>asList(second, frameChanged)));
+    }
+
+    @Test
+    public void shouldKeepEventsThatAreNotAboutEntities() {
+        ProjectEvent<?> event = mock(PermissionsChangedEvent.class);
+        assertThat(filter.filter(Arrays.<ProjectEvent<?>>asList(event)), is(Arrays.<ProjectEvent<?>>asList(event)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProjectEvent<?> frameChanged(OWLEntity entity) {
+        EntityFrameChangedEvent<OWLEntity, ?> event = mock(EntityFrameChangedEvent.class);
+        when(event.getEntity()).thenReturn(entity);
+        return event;
+    }
+
+    private static BrowserTextChangedEvent browserTextChanged(OWLEntity entity) {
+        BrowserTextChangedEvent event = mock(BrowserTextChangedEvent.class);
+        when(event.getEntity()).thenReturn(entity);
+        return event;
+    }
+}
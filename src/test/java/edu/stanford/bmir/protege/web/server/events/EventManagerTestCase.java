@@ -0,0 +1,138 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.events.EventList;
+import edu.stanford.bmir.protege.web.shared.events.EventTag;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventManagerTestCase {
+
+    public static final int CAPACITY = 4;
+
+    @Mock
+    private WebProtegeScheduler scheduler;
+
+    @Mock
+    private ProjectEvent<?> eventA;
+
+    @Mock
+    private ProjectEvent<?> eventB;
+
+    private EventManager<ProjectEvent<?>> eventManager;
+
+    @Before
+    public void setUp() {
+        eventManager = EventManager.create(EventLifeTime.get(60, TimeUnit.SECONDS), CAPACITY, scheduler);
+    }
+
+    @Test
+    public void shouldGetEventsFromTag() {
+        EventTag tag = eventManager.getCurrentTag();
+        eventManager.postEvent(eventA);
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next());
+        assertThat(eventList.getEvents(), is(Arrays.<ProjectEvent<?>>asList(eventA)));
+        assertThat(eventList.isResyncRequired(), is(false));
+    }
+
+    @Test
+    public void shouldNotGetEventsBeforeTag() {
+        eventManager.postEvent(eventA);
+        EventTag tag = eventManager.getCurrentTag();
+        eventManager.postEvent(eventB);
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next());
+        assertThat(eventList.getEvents(), is(Arrays.<ProjectEvent<?>>asList(eventB)));
+    }
+
+    @Test
+    public void shouldCoalesceEventsAcrossPosts() {
+        EventTag tag = eventManager.getCurrentTag();
+        eventManager.postEvent(eventA);
+        eventManager.postEvent(eventB);
+        eventManager.postEvent(eventA);
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next());
+        assertThat(eventList.getEvents(), is(Arrays.<ProjectEvent<?>>asList(eventA, eventB)));
+    }
+
+    @Test
+    public void shouldRequireResyncIfEventsHaveBeenOverwritten() {
+        eventManager.postEvent(eventA);
+        EventTag tag = eventManager.getCurrentTag();
+        for (int i = 0; i < CAPACITY + 1; i++) {
+            eventManager.postEvent(eventB);
+        }
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag);
+        assertThat(eventList.isResyncRequired(), is(true));
+        assertThat(eventList.getEvents(), is(Arrays.<ProjectEvent<?>>asList(eventB)));
+    }
+
+    @Test
+    public void shouldNotRequireResyncFromFirstTag() {
+        for (int i = 0; i < CAPACITY + 1; i++) {
+            eventManager.postEvent(eventA);
+        }
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(EventTag.getFirst());
+        assertThat(eventList.isResyncRequired(), is(false));
+    }
+
+    @Test
+    public void shouldReplaceOversizedPostWithResyncMarker() {
+        EventTag tag = eventManager.getCurrentTag();
+        List<ProjectEvent<?>> events = new ArrayList<ProjectEvent<?>>();
+        for (int i = 0; i < 201; i++) {
+            events.add(mock(ProjectEvent.class));
+        }
+        eventManager.postEvents(events);
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next());
+        assertThat(eventList.isResyncRequired(), is(true));
+        assertThat(eventList.isEmpty(), is(true));
+        assertThat(eventList.getEndTag(), is(tag.next().next()));
+    }
+
+    @Test
+    public void shouldReturnEmptyListWhenWaitTimeElapses() {
+        EventTag tag = eventManager.getCurrentTag();
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next(), 10, TimeUnit.MILLISECONDS);
+        assertThat(eventList.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReturnEventsPostedWhileWaiting() throws Exception {
+        final EventTag tag = eventManager.getCurrentTag();
+        Thread poster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                eventManager.postEvent(eventA);
+            }
+        });
+        poster.start();
+        EventList<ProjectEvent<?>> eventList = eventManager.getEventsFromTag(tag.next(), 10, TimeUnit.SECONDS);
+        poster.join();
+        assertThat(eventList.getEvents(), is(Arrays.<ProjectEvent<?>>asList(eventA)));
+    }
+}
@@ -0,0 +1,154 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PostCommitEventPipelineTestCase {
+
+    public static final int MAX_PENDING_REVISIONS = 2;
+
+    @Mock
+    private ProjectId projectId;
+
+    @Mock
+    private EventManager<ProjectEvent<?>> eventManager;
+
+    @Mock
+    private ProjectEvent<?> eventA;
+
+    @Mock
+    private ProjectEvent<?> eventB;
+
+    private ExecutorService executor;
+
+    private PostCommitEventPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        pipeline = new PostCommitEventPipeline(projectId, eventManager, new ReentrantLock(), executor, MAX_PENDING_REVISIONS);
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.dispose();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldPostEventsInRevisionOrder() {
+        pipeline.submit(RevisionNumber.getRevisionNumber(1), generator(eventA));
+        long ticket = pipeline.submit(RevisionNumber.getRevisionNumber(2), generator(eventB));
+        assertThat(pipeline.awaitPosted(ticket, 10, TimeUnit.SECONDS), is(true));
+        InOrder inOrder = inOrder(eventManager);
+        inOrder.verify(eventManager).postEvents(Collections.<ProjectEvent<?>>singletonList(eventA));
+        inOrder.verify(eventManager).postEvents(Collections.<ProjectEvent<?>>singletonList(eventB));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRevisionsOutOfOrder() {
+        pipeline.submit(RevisionNumber.getRevisionNumber(2), generator(eventA));
+        pipeline.submit(RevisionNumber.getRevisionNumber(1), generator(eventB));
+    }
+
+    @Test
+    public void shouldContinueAfterFailedGenerator() {
+        pipeline.submit(RevisionNumber.getRevisionNumber(1), new Callable<List<ProjectEvent<?>>>() {
+            @Override
+            public List<ProjectEvent<?>> call() throws Exception {
+                throw new RuntimeException("Expected");
+            }
+        });
+        long ticket = pipeline.submit(RevisionNumber.getRevisionNumber(2), generator(eventB));
+        assertThat(pipeline.awaitPosted(ticket, 10, TimeUnit.SECONDS), is(true));
+        verify(eventManager).postEvents(Collections.<ProjectEvent<?>>singletonList(eventB));
+    }
+
+    @Test
+    public void shouldLimitPendingRevisions() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<List<ProjectEvent<?>>> blockingGenerator = new Callable<List<ProjectEvent<?>>>() {
+            @Override
+            public List<ProjectEvent<?>> call() throws Exception {
+                release.await();
+                return Collections.<ProjectEvent<?>>singletonList(eventA);
+            }
+        };
+        for(int i = 0; i < MAX_PENDING_REVISIONS; i++) {
+            pipeline.submit(RevisionNumber.getRevisionNumber(i + 1), blockingGenerator);
+        }
+        final CountDownLatch submitted = new CountDownLatch(1);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pipeline.submit(RevisionNumber.getRevisionNumber(MAX_PENDING_REVISIONS + 1), generator(eventB));
+                submitted.countDown();
+            }
+        });
+        writer.start();
+        assertThat(submitted.await(100, TimeUnit.MILLISECONDS), is(false));
+        assertThat(pipeline.getPendingRevisionCount(), is(MAX_PENDING_REVISIONS));
+        release.countDown();
+        assertThat(submitted.await(10, TimeUnit.SECONDS), is(true));
+        writer.join();
+    }
+
+    @Test
+    public void shouldQueueOverLimitAfterMaxBackPressureWait() throws Exception {
+        pipeline.dispose();
+        pipeline = new PostCommitEventPipeline(projectId, eventManager, new ReentrantLock(), executor, MAX_PENDING_REVISIONS, 100);
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<List<ProjectEvent<?>>> blockingGenerator = new Callable<List<ProjectEvent<?>>>() {
+            @Override
+            public List<ProjectEvent<?>> call() throws Exception {
+                release.await();
+                return Collections.<ProjectEvent<?>>singletonList(eventA);
+            }
+        };
+        for(int i = 0; i < MAX_PENDING_REVISIONS; i++) {
+            pipeline.submit(RevisionNumber.getRevisionNumber(i + 1), blockingGenerator);
+        }
+        long ticket = pipeline.submit(RevisionNumber.getRevisionNumber(MAX_PENDING_REVISIONS + 1), generator(eventB));
+        assertThat(pipeline.getPendingRevisionCount(), is(MAX_PENDING_REVISIONS + 1));
+        release.countDown();
+        assertThat(pipeline.awaitPosted(ticket, 10, TimeUnit.SECONDS), is(true));
+        verify(eventManager).postEvents(Collections.<ProjectEvent<?>>singletonList(eventB));
+    }
+
+    private static Callable<List<ProjectEvent<?>>> generator(final ProjectEvent<?> event) {
+        return new Callable<List<ProjectEvent<?>>>() {
+            @Override
+            public List<ProjectEvent<?>> call() {
+                return Collections.<ProjectEvent<?>>singletonList(event);
+            }
+        };
+    }
+}
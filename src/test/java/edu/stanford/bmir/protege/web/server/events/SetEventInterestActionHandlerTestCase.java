@@ -0,0 +1,108 @@
+package edu.stanford.bmir.protege.web.server.events;
+
+import edu.stanford.bmir.protege.web.server.dispatch.ExecutionContext;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.event.EntityFrameChangedEvent;
+import edu.stanford.bmir.protege.web.shared.event.EventInterest;
+import edu.stanford.bmir.protege.web.shared.event.GetProjectEventsAction;
+import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
+import edu.stanford.bmir.protege.web.shared.event.SetEventInterestAction;
+import edu.stanford.bmir.protege.web.shared.events.EventTag;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SetEventInterestActionHandlerTestCase {
+
+    private static final String CLIENT_ID = "client";
+
+    @Mock
+    private OWLAPIProject project;
+
+    @Mock
+    private WebProtegeScheduler scheduler;
+
+    @Mock
+    private OWLEntity displayedEntity;
+
+    @Mock
+    private OWLEntity otherEntity;
+
+    private final ProjectId projectId = ProjectId.get("12345678-1234-1234-1234-123456789abc");
+
+    private final ExecutionContext executionContext = new ExecutionContext(UserId.getUserId("user"));
+
+    private EventTag sinceTag;
+
+    private ProjectEvent<?> displayedEntityChanged;
+
+    private ProjectEvent<?> otherEntityChanged;
+
+    @Before
+    public void setUp() {
+        EventManager<ProjectEvent<?>> eventManager = EventManager.create(EventLifeTime.get(60, TimeUnit.SECONDS), scheduler);
+        when(project.getEventManager()).thenReturn(eventManager);
+        when(project.getEventInterestManager()).thenReturn(new EventInterestManager());
+        sinceTag = eventManager.getCurrentTag().next();
+        displayedEntityChanged = frameChanged(displayedEntity, projectId);
+        otherEntityChanged = frameChanged(otherEntity, projectId);
+        eventManager.postEvents(Arrays.<ProjectEvent<?>>asList(displayedEntityChanged, otherEntityChanged));
+    }
+
+    private void setEventInterest(EventInterest eventInterest) {
+        new SetEventInterestActionHandler().execute(new SetEventInterestAction(projectId, CLIENT_ID, eventInterest), project, executionContext);
+    }
+
+    private List<ProjectEvent<?>> getProjectEvents() {
+        GetProjectEventsAction action = new GetProjectEventsAction(sinceTag, projectId, executionContext.getUserId(), 0, CLIENT_ID);
+        return new GetProjectEventsActionHandler(0, 0).getProjectEvents(action, project, executionContext).getEvents().getEvents();
+    }
+
+    @Test
+    public void shouldSendAllEventsIfNoInterestIsSet() {
+        assertThat(getProjectEvents(), is(Arrays.<ProjectEvent<?>>asList(displayedEntityChanged, otherEntityChanged)));
+    }
+
+    @Test
+    public void shouldOnlySendEventsAboutEntitiesOfInterest() {
+        setEventInterest(new EventInterest(Collections.singleton(displayedEntity), false));
+        assertThat(getProjectEvents(), is(Arrays.<ProjectEvent<?>>asList(displayedEntityChanged)));
+    }
+
+    @Test
+    public void shouldSendAllEventsAgainOnceInterestIsWidened() {
+        setEventInterest(new EventInterest(Collections.singleton(displayedEntity), false));
+        setEventInterest(EventInterest.getAllEvents());
+        assertThat(getProjectEvents(), is(Arrays.<ProjectEvent<?>>asList(displayedEntityChanged, otherEntityChanged)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProjectEvent<?> frameChanged(OWLEntity entity, ProjectId projectId) {
+        EntityFrameChangedEvent<OWLEntity, ?> event = mock(EntityFrameChangedEvent.class);
+        when(event.getEntity()).thenReturn(entity);
+        when(event.getSource()).thenReturn(projectId);
+        return event;
+    }
+}
@@ -0,0 +1,158 @@
+package edu.stanford.bmir.protege.web.server.hierarchy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HierarchyClosureIndexTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    @Mock
+    private OWLObjectHierarchyProvider<OWLClass> hierarchyProvider;
+
+    private OWLObjectHierarchyProviderListener<OWLClass> listener;
+
+    @Captor
+    private ArgumentCaptor<OWLObjectHierarchyProviderListener<OWLClass>> listenerCaptor;
+
+    private HierarchyClosureIndex<OWLClass> index;
+
+    private OWLClass thing;
+
+    private OWLClass a;
+
+    private OWLClass b;
+
+    private OWLClass c;
+
+    @Before
+    public void setUp() {
+        thing = dataFactory.getOWLThing();
+        a = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        b = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+        c = dataFactory.getOWLClass(IRI.create("http://example.org/C"));
+        // Thing > A > B > C
+        setParents(thing);
+        setParents(a, thing);
+        setParents(b, a);
+        setParents(c, b);
+        setChildren(thing, a);
+        setChildren(a, b);
+        setChildren(b, c);
+        setChildren(c);
+        index = new HierarchyClosureIndex<OWLClass>(hierarchyProvider);
+        verify(hierarchyProvider).addListener(listenerCaptor.capture());
+        listener = listenerCaptor.getValue();
+    }
+
+    private void setParents(OWLClass cls, OWLClass... parents) {
+        when(hierarchyProvider.getParents(cls)).thenReturn(new HashSet<OWLClass>(Arrays.asList(parents)));
+    }
+
+    private void setChildren(OWLClass cls, OWLClass... children) {
+        when(hierarchyProvider.getChildren(cls)).thenReturn(new HashSet<OWLClass>(Arrays.asList(children)));
+    }
+
+    @Test
+    public void shouldComputeAncestors() {
+        assertThat(index.getAncestors(c), containsInAnyOrder(b, a, thing));
+    }
+
+    @Test
+    public void shouldComputeDescendants() {
+        assertThat(index.getDescendants(a), containsInAnyOrder(b, c));
+    }
+
+    @Test
+    public void shouldAnswerHasAncestor() {
+        assertThat(index.hasAncestor(c, a), is(true));
+        assertThat(index.hasAncestor(a, c), is(false));
+        assertThat(index.hasAncestor(a, a), is(false));
+    }
+
+    @Test
+    public void shouldNotRecomputeParentsForRepeatedQueries() {
+        index.getAncestors(c);
+        index.getAncestors(c);
+        index.getAncestors(b);
+        verify(hierarchyProvider, times(1)).getParents(b);
+    }
+
+    @Test
+    public void shouldUpdateClosuresWhenNodeChanges() {
+        index.getAncestors(c);
+        index.getDescendants(thing);
+        // Move B from under A to directly under Thing
+        setParents(b, thing);
+        setChildren(a);
+        setChildren(thing, a, b);
+        listener.nodeChanged(b);
+        listener.nodeChanged(a);
+        listener.nodeChanged(thing);
+        assertThat(index.getAncestors(c), containsInAnyOrder(b, thing));
+        assertThat(index.hasAncestor(c, a), is(false));
+        assertThat(index.getDescendants(a), is(Collections.<OWLClass>emptySet()));
+        assertThat(index.getDescendants(thing), containsInAnyOrder(a, b, c));
+    }
+
+    @Test
+    public void shouldIncludeNodeInOwnAncestorsIfInCycle() {
+        setParents(a, thing, c);
+        listener.hierarchyChanged();
+        Set<OWLClass> ancestors = index.getAncestors(a);
+        assertThat(ancestors, containsInAnyOrder(a, b, c, thing));
+    }
+
+    @Test
+    public void shouldKeepAncestorClosuresWhenThingGainsChild() {
+        index.getAncestors(c);
+        OWLClass d = dataFactory.getOWLClass(IRI.create("http://example.org/D"));
+        setParents(d, thing);
+        setChildren(thing, a, d);
+        listener.nodeChanged(thing);
+        listener.nodeChanged(d);
+        assertThat(index.getAncestors(c), containsInAnyOrder(b, a, thing));
+        verify(hierarchyProvider, times(1)).getParents(b);
+        assertThat(index.getDescendants(thing), containsInAnyOrder(a, b, c, d));
+    }
+
+    @Test
+    public void shouldDropIndexOnceNodeChangesOutnumberNodes() {
+        index.getAncestors(c);
+        // Four nodes are indexed, so the fifth change drops everything
+        for (int i = 0; i < 5; i++) {
+            listener.nodeChanged(c);
+        }
+        assertThat(index.getAncestors(c), containsInAnyOrder(b, a, thing));
+        verify(hierarchyProvider, times(2)).getParents(b);
+    }
+}
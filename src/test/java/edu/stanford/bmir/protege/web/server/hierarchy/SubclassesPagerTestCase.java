@@ -0,0 +1,177 @@
+package edu.stanford.bmir.protege.web.server.hierarchy;
+
+import edu.stanford.bmir.protege.web.client.rpc.data.SubclassEntityData;
+import edu.stanford.bmir.protege.web.server.notes.OWLAPINotesManager;
+import edu.stanford.bmir.protege.web.server.owlapi.OWLAPIProject;
+import edu.stanford.bmir.protege.web.server.owlapi.RenderingManager;
+import edu.stanford.bmir.protege.web.server.watches.WatchManager;
+import edu.stanford.bmir.protege.web.shared.pagination.Page;
+import edu.stanford.bmir.protege.web.shared.pagination.PageRequest;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SubclassesPagerTestCase {
+
+    public static final int PAGE_SIZE = 2;
+
+    @Mock
+    private OWLAPIProject project;
+
+    @Mock
+    private OWLOntology rootOntology;
+
+    @Mock
+    private HierarchyClosureIndex<OWLClass> hierarchyIndex;
+
+    @Mock
+    private RenderingManager renderingManager;
+
+    @Mock
+    private OWLAPINotesManager notesManager;
+
+    @Mock
+    private WatchManager watchManager;
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final OWLClass parent = getOWLClass("Parent");
+
+    private final Set<OWLClass> children = new HashSet<OWLClass>();
+
+    private SubclassesPager pager;
+
+    @Before
+    public void setUp() {
+        when(project.getRootOntology()).thenReturn(rootOntology);
+        when(project.getClassHierarchyIndex()).thenReturn(hierarchyIndex);
+        when(project.getRenderingManager()).thenReturn(renderingManager);
+        when(project.getNotesManager()).thenReturn(notesManager);
+        when(project.getWatchManager()).thenReturn(watchManager);
+        when(hierarchyIndex.getChildren(parent)).thenReturn(children);
+        pager = new SubclassesPager(project, UserId.getUserId("user"));
+    }
+
+    private OWLClass getOWLClass(String name) {
+        return dataFactory.getOWLClass(IRI.create("http://example.org/" + name));
+    }
+
+    private OWLClass addChild(String browserText) {
+        OWLClass child = getOWLClass(browserText.replace("'", ""));
+        when(renderingManager.getBrowserText(child)).thenReturn(browserText);
+        children.add(child);
+        return child;
+    }
+
+    private void addChildren(String ... browserTexts) {
+        for (String browserText : browserTexts) {
+            addChild(browserText);
+        }
+    }
+
+    private void setOWLDeprecatedInSignature(boolean inSignature) {
+        when(rootOntology.containsAnnotationPropertyInSignature(OWLRDFVocabulary.OWL_DEPRECATED.getIRI(), true)).thenReturn(inSignature);
+    }
+
+    private static List<String> getBrowserTexts(Page<SubclassEntityData> page) {
+        List<String> result = new ArrayList<String>();
+        for (SubclassEntityData data : page) {
+            result.add(data.getBrowserText());
+        }
+        return result;
+    }
+
+    @Test
+    public void shouldSortNonDeprecatedSubclassesFirstThenByBrowserText() {
+        setOWLDeprecatedInSignature(true);
+        addChildren("C", "'a b'", "B");
+        OWLClass deprecated = addChild("A deprecated");
+        when(project.isDeprecated(deprecated)).thenReturn(true);
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, PageRequest.requestSinglePage());
+        assertThat(getBrowserTexts(page), contains("'a b'", "B", "C", "A deprecated"));
+        assertThat(page.getPageElements().get(3).isDeprecated(), is(true));
+    }
+
+    @Test
+    public void shouldNotCheckDeprecationIfOWLDeprecatedIsNotInSignature() {
+        setOWLDeprecatedInSignature(false);
+        addChildren("A", "B");
+        pager.getSubclasses(parent, PageRequest.requestSinglePage());
+        verify(project, never()).isDeprecated(any(OWLEntity.class));
+    }
+
+    @Test
+    public void shouldReturnRequestedPage() {
+        addChildren("A", "B", "C", "D", "E");
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, PageRequest.requestPageWithSize(2, PAGE_SIZE));
+        assertThat(page.getPageNumber(), is(2));
+        assertThat(page.getPageCount(), is(3));
+        assertThat(getBrowserTexts(page), contains("C", "D"));
+    }
+
+    @Test
+    public void shouldReturnPartlyFilledLastPage() {
+        addChildren("A", "B", "C", "D", "E");
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, PageRequest.requestPageWithSize(3, PAGE_SIZE));
+        assertThat(page.getPageNumber(), is(3));
+        assertThat(getBrowserTexts(page), contains("E"));
+    }
+
+    @Test
+    public void shouldReturnLastPageIfPageNumberIsPastLastPage() {
+        addChildren("A", "B", "C");
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, PageRequest.requestPageWithSize(10, PAGE_SIZE));
+        assertThat(page.getPageNumber(), is(2));
+        assertThat(getBrowserTexts(page), contains("C"));
+    }
+
+    @Test
+    public void shouldReturnFirstPageIfPageNumberIsLessThanOne() {
+        addChildren("A", "B", "C");
+        // Requests that arrive over the wire are not checked by the PageRequest factory methods
+        PageRequest pageRequest = mock(PageRequest.class);
+        when(pageRequest.getPageNumber()).thenReturn(0);
+        when(pageRequest.getPageSize()).thenReturn(PAGE_SIZE);
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, pageRequest);
+        assertThat(page.getPageNumber(), is(1));
+        assertThat(getBrowserTexts(page), contains("A", "B"));
+    }
+
+    @Test
+    public void shouldReturnSingleEmptyPageForClassWithoutSubclasses() {
+        Page<SubclassEntityData> page = pager.getSubclasses(parent, PageRequest.requestPageWithSize(1, PAGE_SIZE));
+        assertThat(page.getPageNumber(), is(1));
+        assertThat(page.getPageCount(), is(1));
+        assertThat(page.getPageElements().isEmpty(), is(true));
+    }
+}
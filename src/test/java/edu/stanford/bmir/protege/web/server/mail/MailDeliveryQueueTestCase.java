@@ -0,0 +1,112 @@
+package edu.stanford.bmir.protege.web.server.mail;
+
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.jvnet.mock_javamail.Mailbox;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MailDeliveryQueueTestCase {
+
+    public static final String TO = "user@webprotege.stanford.edu";
+
+    public static final String OTHER_TO = "other.user@webprotege.stanford.edu";
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    public static final int TIMEOUT_SECONDS = 10;
+
+    @Mock
+    private MessagingExceptionHandler exceptionHandler;
+
+    private WebProtegeScheduler scheduler;
+
+    private MailTransportPool transportPool;
+
+    private MailDeliveryQueue queue;
+
+    @Before
+    public void setUp() {
+        Mailbox.clearAll();
+        scheduler = new WebProtegeScheduler(2);
+        transportPool = new MailTransportPool(Session.getInstance(new Properties()), 2);
+        queue = new MailDeliveryQueue(transportPool, scheduler, 100, 2, 2, MAX_ATTEMPTS, 1);
+    }
+
+    @After
+    public void tearDown() {
+        queue.dispose();
+        transportPool.dispose();
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void shouldDeliverMessagesToRecipientInOrder() throws Exception {
+        for(int i = 0; i < 5; i++) {
+            queue.enqueue(TO, createMessage(TO, "Message " + i), exceptionHandler);
+        }
+        queue.enqueue(OTHER_TO, createMessage(OTHER_TO, "Other message"), exceptionHandler);
+        assertThat(queue.awaitEmpty(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        List<Message> messages = Mailbox.get(TO);
+        assertThat(messages.size(), is(5));
+        for(int i = 0; i < 5; i++) {
+            assertThat(messages.get(i).getSubject(), is("Message " + i));
+        }
+        assertThat(Mailbox.get(OTHER_TO).size(), is(1));
+        assertThat(queue.getSentMessageCount(), is(6L));
+        verify(exceptionHandler, never()).handleMessagingException(any(MessagingException.class));
+    }
+
+    @Test
+    public void shouldRetryAndThenGiveUpOnFailedMessage() throws Exception {
+        Mailbox.get(TO).setError(true);
+        queue.enqueue(TO, createMessage(TO, "Message"), exceptionHandler);
+        assertThat(queue.awaitEmpty(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        assertThat(queue.getRetriedMessageCount(), is((long) MAX_ATTEMPTS - 1));
+        assertThat(queue.getFailedMessageCount(), is(1L));
+        // The handler is called after the message has been given up on
+        verify(exceptionHandler, timeout(TIMEOUT_SECONDS * 1000).times(1)).handleMessagingException(any(MessagingException.class));
+    }
+
+    @Test
+    public void shouldRejectMessagesAfterDisposal() throws Exception {
+        queue.dispose();
+        queue.enqueue(TO, createMessage(TO, "Message"), exceptionHandler);
+        assertThat(queue.getRejectedMessageCount(), is(1L));
+        verify(exceptionHandler, times(1)).handleMessagingException(any(MessagingException.class));
+    }
+
+    private MimeMessage createMessage(String to, String subject) throws MessagingException {
+        MimeMessage message = new MimeMessage(transportPool.getSession());
+        message.setRecipients(Message.RecipientType.TO, to);
+        message.setFrom();
+        message.setSubject(subject);
+        message.setText(subject);
+        return message;
+    }
+}
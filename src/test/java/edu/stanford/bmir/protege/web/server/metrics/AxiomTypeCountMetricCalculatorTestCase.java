@@ -7,11 +7,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.semanticweb.owlapi.model.AxiomType;
-import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -25,7 +29,10 @@ public class AxiomTypeCountMetricCalculatorTestCase {
     @Mock
     protected OWLOntology ontology, importedOntology;
 
-    private AxiomType axiomType;
+    @Mock
+    protected OWLAxiom subClassAxiom, otherAxiom;
+
+    private AxiomType<?> axiomType;
 
     @Before
     public void setUp() {
@@ -33,6 +40,8 @@ public class AxiomTypeCountMetricCalculatorTestCase {
         when(ontology.getImportsClosure()).thenReturn(Sets.newHashSet(ontology, importedOntology));
         when(ontology.getAxiomCount(axiomType)).thenReturn(AXIOM_COUNT - 5);
         when(importedOntology.getAxiomCount(axiomType)).thenReturn(5);
+        when(subClassAxiom.isOfType(axiomType)).thenReturn(true);
+        when(otherAxiom.isOfType(axiomType)).thenReturn(false);
     }
 
     @Test
@@ -42,4 +51,25 @@ public class AxiomTypeCountMetricCalculatorTestCase {
         assertThat(value.getValue(), is(AXIOM_COUNT));
     }
 
+    @Test
+    public void shouldUpdateCountFromChangesWithoutRecounting() {
+        AxiomTypeCountMetricCalculator calculator = new AxiomTypeCountMetricCalculator(ontology, axiomType);
+        calculator.computeValue();
+        OWLAPIProjectMetricState state = calculator.getStateAfterChanges(Arrays.asList(
+                new AddAxiom(ontology, subClassAxiom),
+                new AddAxiom(ontology, otherAxiom),
+                new RemoveAxiom(importedOntology, subClassAxiom),
+                new AddAxiom(importedOntology, subClassAxiom)));
+        assertThat(state, is(OWLAPIProjectMetricState.DIRTY));
+        assertThat(calculator.computeValue().getValue(), is(AXIOM_COUNT + 1));
+        verify(ontology, times(1)).getAxiomCount(axiomType);
+    }
+
+    @Test
+    public void shouldBeCleanAfterChangesToOtherAxiomTypes() {
+        AxiomTypeCountMetricCalculator calculator = new AxiomTypeCountMetricCalculator(ontology, axiomType);
+        calculator.computeValue();
+        OWLAPIProjectMetricState state = calculator.getStateAfterChanges(Collections.singletonList(new AddAxiom(ontology, otherAxiom)));
+        assertThat(state, is(OWLAPIProjectMetricState.CLEAN));
+    }
 }
@@ -3,17 +3,25 @@ package edu.stanford.bmir.protege.web.server.metrics;
 import com.beust.jcommander.internal.Lists;
 import edu.stanford.bmir.protege.web.server.events.HasPostEvents;
 import edu.stanford.bmir.protege.web.server.logging.WebProtegeLogger;
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
 import edu.stanford.bmir.protege.web.shared.event.ProjectEvent;
 import edu.stanford.bmir.protege.web.shared.metrics.MetricValue;
 import edu.stanford.bmir.protege.web.shared.project.ProjectId;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.mockito.stubbing.Answer;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -47,6 +55,11 @@ public class OWLAPIMetricsManagerTestCase {
     @Mock
     protected HasPostEvents<ProjectEvent<?>> eventBus;
 
+    @Mock
+    protected WebProtegeScheduler scheduler;
+
+    private ReentrantReadWriteLock projectLock = new ReentrantReadWriteLock();
+
     private OWLAPIProjectMetricsManager metricsManager;
 
 
@@ -54,7 +67,7 @@ public class OWLAPIMetricsManagerTestCase {
     public void setUp() throws Exception {
         List<MetricCalculator> metricList = Lists.newArrayList();
         metricList.add(metric);
-        metricsManager = new OWLAPIProjectMetricsManager(projectId, metricList, eventBus, logger);
+        metricsManager = new OWLAPIProjectMetricsManager(projectId, metricList, eventBus, projectLock.readLock(), scheduler, logger);
     }
 
     @Test
@@ -106,4 +119,50 @@ public class OWLAPIMetricsManagerTestCase {
         // Make sure that the exception is logged.
         verify(logger, times(1)).severe(exception);
     }
+
+    @Test
+    public void shouldComputeBackgroundMetricsAgainstSnapshotWithoutHoldingProjectLock() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory dataFactory = manager.getOWLDataFactory();
+        OWLOntology rootOntology = manager.createOntology(IRI.create("http://example.org/ontology"));
+        final OWLAxiom axiom = dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/A")));
+        manager.addAxiom(rootOntology, axiom);
+        when(metric.isComputedInBackground()).thenReturn(true);
+        when(metric.getRootOntology()).thenReturn(rootOntology);
+        when(metric.computeValue(any(OWLOntology.class))).thenAnswer(new Answer<MetricValue>() {
+            @Override
+            public MetricValue answer(InvocationOnMock invocation) throws Throwable {
+                OWLOntology snapshot = (OWLOntology) invocation.getArguments()[0];
+                assertThat(snapshot.containsAxiom(axiom), is(true));
+                assertThat(projectLock.getReadLockCount(), is(0));
+                return metricValue;
+            }
+        });
+        metricsManager.getMetrics();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(eq(TaskCategory.METRICS), taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+        verify(metric, never()).computeValue();
+        assertThat(metricsManager.getMetrics(), hasItem(metricValue));
+        verify(eventBus, times(1)).postEvent(any(ProjectEvent.class));
+    }
+
+    @Test
+    public void shouldWaitAtLeastMinimumIntervalBeforeNextBackgroundComputation() throws Exception {
+        OWLOntology rootOntology = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://example.org/ontology"));
+        when(metric.isComputedInBackground()).thenReturn(true);
+        when(metric.getRootOntology()).thenReturn(rootOntology);
+        when(metric.computeValue(any(OWLOntology.class))).thenReturn(metricValue);
+        when(metric.getStateAfterChanges(changes)).thenReturn(OWLAPIProjectMetricState.DIRTY);
+        metricsManager.getMetrics();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(eq(TaskCategory.METRICS), taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+        metricsManager.handleOntologyChanges(changes);
+        ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler, times(2)).schedule(eq(TaskCategory.METRICS), any(Runnable.class), delayCaptor.capture(), eq(TimeUnit.MILLISECONDS));
+        long secondDelay = delayCaptor.getAllValues().get(1);
+        // Allow for the time taken by the test itself
+        assertThat(secondDelay > OWLAPIProjectMetricsManager.MIN_BACKGROUND_COMPUTATION_INTERVAL_MS - 10000, is(true));
+    }
 }
@@ -0,0 +1,205 @@
+package edu.stanford.bmir.protege.web.server.notes.impl;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.server.notes.api.NoteChangeException;
+import edu.stanford.bmir.protege.web.shared.notes.*;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class IndexedNoteStoreTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final UserId author = UserId.getUserId("author");
+
+    private File logFile;
+
+    private IndexedNoteStore store;
+
+    private OWLClass a;
+
+    private OWLClass b;
+
+    private int noteCounter = 0;
+
+    @Before
+    public void setUp() throws Exception {
+        logFile = new File(temporaryFolder.getRoot(), "notes-data.log");
+        store = new IndexedNoteStore(logFile, dataFactory);
+        a = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        b = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+    }
+
+    @After
+    public void tearDown() {
+        store.dispose();
+    }
+
+    private Note createNote(Optional<NoteId> inReplyTo) {
+        noteCounter++;
+        NoteId noteId = NoteId.createNoteIdFromLexicalForm("http://example.org/note/" + noteCounter);
+        NoteHeader header = new NoteHeader(noteId, inReplyTo, author, noteCounter);
+        NoteContent content = NoteContent.builder().setSubject("Subject " + noteCounter).setBody("Body " + noteCounter).build();
+        return Note.createNote(header, content);
+    }
+
+    private Note addNote(OWLClass entity) {
+        Note note = createNote(Optional.<NoteId>absent());
+        store.addNote(entity, note);
+        return note;
+    }
+
+    private Note addReply(Note inReplyTo) {
+        Note reply = createNote(Optional.of(inReplyTo.getNoteId()));
+        store.addReply(reply);
+        return reply;
+    }
+
+    private IndexedNoteStore reopen() throws Exception {
+        store.dispose();
+        store = new IndexedNoteStore(logFile, dataFactory);
+        return store;
+    }
+
+    /**
+     * Notes that are read back from the log are not the same objects, and note content does not implement equals.
+     */
+    private void assertRestored(Note note) {
+        Optional<Note> restored = store.getNote(note.getNoteId());
+        assertThat(restored.isPresent(), is(true));
+        assertThat(restored.get().getHeader(), is(note.getHeader()));
+        assertThat(restored.get().getSubject(), is(note.getSubject()));
+        assertThat(restored.get().getBody(), is(note.getBody()));
+    }
+
+    @Test
+    public void shouldCountDirectAndIndirectNotes() {
+        Note rootA1 = addNote(a);
+        Note rootA2 = addNote(a);
+        Note reply = addReply(rootA1);
+        Note replyToReply = addReply(reply);
+        addNote(b);
+        assertThat(store.getDirectNoteCount(a), is(2));
+        assertThat(store.getNoteCount(a), is(4));
+        assertThat(store.getDirectNoteCount(b), is(1));
+        assertThat(store.getNoteCount(b), is(1));
+        assertThat(store.getDiscussionThread(a).getNotes(), containsInAnyOrder(rootA1, rootA2, reply, replyToReply));
+    }
+
+    @Test
+    public void shouldRemoveNoteAndReplies() {
+        Note root = addNote(a);
+        Note reply = addReply(root);
+        addReply(reply);
+        Note otherRoot = addNote(a);
+        assertThat(store.removeNote(reply.getNoteId()), is(true));
+        assertThat(store.getNoteCount(a), is(2));
+        assertThat(store.getDiscussionThread(a).getNotes(), containsInAnyOrder(root, otherRoot));
+        assertThat(store.removeNote(root.getNoteId()), is(true));
+        assertThat(store.getDirectNoteCount(a), is(1));
+        assertThat(store.getNoteCount(), is(1));
+    }
+
+    @Test(expected = NoteChangeException.class)
+    public void shouldNotAddReplyToUnknownNote() {
+        store.addReply(createNote(Optional.of(NoteId.createNoteIdFromLexicalForm("http://example.org/note/unknown"))));
+    }
+
+    @Test
+    public void shouldRestoreNotesFromLog() throws Exception {
+        Note root = addNote(a);
+        Note reply = addReply(root);
+        Note removed = addNote(b);
+        store.setNoteStatus(root.getNoteId(), NoteStatus.RESOLVED);
+        store.removeNote(removed.getNoteId());
+        reopen();
+        assertThat(store.getNoteCount(), is(2));
+        assertThat(store.getNoteCount(a), is(2));
+        assertThat(store.getNoteCount(b), is(0));
+        assertRestored(reply);
+        assertThat(store.getNote(root.getNoteId()).get().getContent().getNoteStatus(), is(Optional.of(NoteStatus.RESOLVED)));
+        assertThat(store.getTarget(reply.getNoteId()), is(Optional.<OWLEntity>of(a)));
+    }
+
+    @Test
+    public void shouldDiscardPartlyWrittenRecord() throws Exception {
+        Note root = addNote(a);
+        addNote(b);
+        store.dispose();
+        // Cut the last record short
+        RandomAccessFile file = new RandomAccessFile(logFile, "rw");
+        file.setLength(file.length() - 3);
+        file.close();
+        reopen();
+        assertThat(store.getNoteCount(), is(1));
+        assertRestored(root);
+        // The log can still be appended to
+        Note added = addNote(b);
+        reopen();
+        assertRestored(added);
+    }
+
+    @Test
+    public void shouldCompactLogWithManyStaleRecords() throws Exception {
+        Note root = addNote(a);
+        Note reply = addReply(root);
+        for(int i = 0; i < 1000; i++) {
+            store.removeNote(addNote(b).getNoteId());
+        }
+        long uncompactedLength = logFile.length();
+        reopen();
+        assertThat(logFile.length() < uncompactedLength / 100, is(true));
+        reopen();
+        assertThat(store.getNoteCount(), is(2));
+        assertRestored(root);
+        assertRestored(reply);
+    }
+
+    @Test
+    public void shouldRecoverCompactedLogIfLogIsMissing() throws Exception {
+        Note root = addNote(a);
+        store.dispose();
+        File compactedLogFile = new File(logFile.getParentFile(), logFile.getName() + ".compacting");
+        assertThat(logFile.renameTo(compactedLogFile), is(true));
+        assertThat(IndexedNoteStore.isLogPresent(logFile), is(true));
+        reopen();
+        assertThat(logFile.exists(), is(true));
+        assertThat(compactedLogFile.exists(), is(false));
+        assertRestored(root);
+    }
+
+    @Test
+    public void shouldDiscardIncompleteCompactedLog() throws Exception {
+        Note root = addNote(a);
+        store.dispose();
+        File compactedLogFile = new File(logFile.getParentFile(), logFile.getName() + ".compacting");
+        assertThat(compactedLogFile.createNewFile(), is(true));
+        reopen();
+        assertThat(compactedLogFile.exists(), is(false));
+        assertRestored(root);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class AssertedClassHierarchyProviderTestCase {
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private AssertedClassHierarchyProvider hierarchyProvider;
+
+    private final Set<OWLClass> changedNodes = new HashSet<OWLClass>();
+
+    private OWLClass a;
+
+    private OWLClass b;
+
+    private OWLClass c;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create("http://example.org/ontology"));
+        a = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        b = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+        c = dataFactory.getOWLClass(IRI.create("http://example.org/C"));
+        // A > B > C
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(b, a));
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(c, b));
+        hierarchyProvider = new AssertedClassHierarchyProvider(manager);
+        hierarchyProvider.setOntologies(Collections.singleton(ontology));
+        hierarchyProvider.addListener(new OWLObjectHierarchyProviderListener<OWLClass>() {
+            @Override
+            public void nodeChanged(OWLClass node) {
+                changedNodes.add(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+            }
+        });
+    }
+
+    @Test
+    public void shouldNotReportThingAsChangedIfItsChildrenAreUnchanged() {
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(c, a));
+        assertThat(changedNodes, containsInAnyOrder(a, c));
+    }
+
+    @Test
+    public void shouldReportThingAsChangedIfItGainsAChild() {
+        OWLClass d = dataFactory.getOWLClass(IRI.create("http://example.org/D"));
+        manager.addAxiom(ontology, dataFactory.getOWLDeclarationAxiom(d));
+        assertThat(changedNodes, containsInAnyOrder(d, dataFactory.getOWLThing()));
+        assertThat(hierarchyProvider.getChildren(dataFactory.getOWLThing()), containsInAnyOrder(a, d));
+    }
+
+    @Test
+    public void shouldGetClassesInCycleAsEquivalents() {
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(a, c));
+        assertThat(hierarchyProvider.getEquivalents(a), containsInAnyOrder(b, c));
+        assertThat(hierarchyProvider.getEquivalents(b), containsInAnyOrder(a, c));
+    }
+
+    @Test
+    public void shouldNotGetEquivalentsForClassOutsideCycle() {
+        assertThat(hierarchyProvider.getEquivalents(b).isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,97 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class AxiomRenderingCacheTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final Map<OWLAxiom, Integer> computeCounts = new HashMap<OWLAxiom, Integer>();
+
+    private AxiomRenderingCache cache;
+
+    private OWLClass a;
+
+    private OWLAxiom aSubB;
+
+    private OWLAxiom cSubD;
+
+    @Before
+    public void setUp() {
+        a = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        OWLClass b = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+        OWLClass c = dataFactory.getOWLClass(IRI.create("http://example.org/C"));
+        OWLClass d = dataFactory.getOWLClass(IRI.create("http://example.org/D"));
+        aSubB = dataFactory.getOWLSubClassOfAxiom(a, b);
+        cSubD = dataFactory.getOWLSubClassOfAxiom(c, d);
+        cache = new AxiomRenderingCache(2) {
+            @Override
+            protected String computeRendering(OWLAxiom axiom) {
+                Integer count = computeCounts.get(axiom);
+                computeCounts.put(axiom, count == null ? 1 : count + 1);
+                return axiom.toString();
+            }
+        };
+    }
+
+    @Test
+    public void shouldComputeRenderingOnce() {
+        cache.getRendering(aSubB);
+        cache.getRendering(aSubB);
+        assertThat(computeCounts.get(aSubB), is(1));
+    }
+
+    @Test
+    public void shouldOnlyRecomputeAxiomsThatMentionInvalidatedIRI() {
+        cache.getRendering(aSubB);
+        cache.getRendering(cSubD);
+        cache.handleInvalidated(a.getIRI());
+        cache.getRendering(aSubB);
+        cache.getRendering(cSubD);
+        assertThat(computeCounts.get(aSubB), is(2));
+        assertThat(computeCounts.get(cSubD), is(1));
+    }
+
+    @Test
+    public void shouldRemoveInvalidatedAxiomsFromIndexEntriesOfOtherIRIs() {
+        cache.getRendering(aSubB);
+        cache.getRendering(cSubD);
+        cache.handleInvalidated(a.getIRI());
+        assertThat(cache.getIndexedIRICount(), is(2));
+        cache.handleInvalidated(cSubD.getSignature().iterator().next().getIRI());
+        assertThat(cache.getIndexedIRICount(), is(0));
+    }
+
+    @Test
+    public void shouldRecomputeAllAfterInvalidateAll() {
+        cache.getRendering(aSubB);
+        cache.handleInvalidatedAll();
+        cache.getRendering(aSubB);
+        assertThat(computeCounts.get(aSubB), is(2));
+    }
+
+    @Test
+    public void shouldNotExceedMaxSize() {
+        cache.getRendering(aSubB);
+        cache.getRendering(cSubD);
+        cache.getRendering(dataFactory.getOWLSubClassOfAxiom(a, a));
+        assertThat(cache.size(), is(1));
+    }
+}
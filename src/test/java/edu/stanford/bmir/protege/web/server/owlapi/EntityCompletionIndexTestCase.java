@@ -0,0 +1,101 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class EntityCompletionIndexTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final Set<EntityType<?>> classTypes = Collections.<EntityType<?>>singleton(EntityType.CLASS);
+
+    private EntityCompletionIndex index;
+
+    private OWLClass heart;
+
+    private OWLClass heartDisease;
+
+    private OWLClass chestPain;
+
+    private OWLObjectProperty hasPart;
+
+    @Before
+    public void setUp() {
+        index = new EntityCompletionIndex();
+        heart = dataFactory.getOWLClass(IRI.create("http://example.org/Heart"));
+        heartDisease = dataFactory.getOWLClass(IRI.create("http://example.org/HeartDisease"));
+        chestPain = dataFactory.getOWLClass(IRI.create("http://example.org/ChestPain"));
+        hasPart = dataFactory.getOWLObjectProperty(IRI.create("http://example.org/hasPart"));
+        index.add(heart, "Heart");
+        index.add(heartDisease, "HeartDisease");
+        index.add(chestPain, "ChestPain");
+        index.add(hasPart, "hasPart");
+    }
+
+    private List<OWLEntity> getEntities(List<EntitySearchResult> results) {
+        List<OWLEntity> entities = new ArrayList<OWLEntity>();
+        for (EntitySearchResult result : results) {
+            entities.add(result.getEntity());
+        }
+        return entities;
+    }
+
+    @Test
+    public void shouldCompleteShortFormPrefixBestFirst() {
+        List<EntitySearchResult> results = index.getCompletions("hea", classTypes, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heart, heartDisease));
+    }
+
+    @Test
+    public void shouldCompleteWordStartWithinShortForm() {
+        List<EntitySearchResult> results = index.getCompletions("dis", classTypes, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heartDisease));
+    }
+
+    @Test
+    public void shouldOnlyCompleteExpectedEntityTypes() {
+        List<EntitySearchResult> results = index.getCompletions("pa", classTypes, 10);
+        assertThat(getEntities(results), contains((OWLEntity) chestPain));
+    }
+
+    @Test
+    public void shouldRespectLimit() {
+        List<EntitySearchResult> results = index.getCompletions("", classTypes, 2);
+        assertThat(results, hasSize(2));
+    }
+
+    @Test
+    public void shouldNotCompleteRemovedEntity() {
+        index.remove(heartDisease);
+        List<EntitySearchResult> results = index.getCompletions("dis", classTypes, 10);
+        assertThat(results, is(empty()));
+    }
+
+    @Test
+    public void shouldReplacePreviousShortForm() {
+        index.add(chestPain, "Angina");
+        assertThat(index.getCompletions("chest", classTypes, 10), is(empty()));
+        assertThat(getEntities(index.getCompletions("ang", classTypes, 10)), contains((OWLEntity) chestPain));
+    }
+}
@@ -0,0 +1,80 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.ShortFormProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EntityRenderingCacheTestCase {
+
+    @Mock
+    private ShortFormProvider shortFormProvider;
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLClass cls;
+
+    private EntityRenderingCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology();
+        cls = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        manager.addAxiom(ontology, dataFactory.getOWLDeclarationAxiom(cls));
+        when(shortFormProvider.getShortForm(cls)).thenReturn("A");
+        cache = new EntityRenderingCache(ontology, shortFormProvider);
+    }
+
+    @Test
+    public void shouldComputeShortFormOnce() {
+        assertThat(cache.getShortForm(cls), is("A"));
+        assertThat(cache.getShortForm(cls), is("A"));
+        verify(shortFormProvider, times(1)).getShortForm(cls);
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRecomputeShortFormAfterInvalidation() {
+        cache.getShortForm(cls);
+        when(shortFormProvider.getShortForm(cls)).thenReturn("B");
+        cache.invalidate(cls.getIRI());
+        assertThat(cache.getShortForm(cls), is("B"));
+    }
+
+    @Test
+    public void shouldNotBeDeprecated() {
+        assertThat(cache.isDeprecated(cls), is(false));
+    }
+
+    @Test
+    public void shouldBeDeprecatedAfterInvalidation() {
+        cache.isDeprecated(cls);
+        manager.addAxiom(ontology, dataFactory.getDeprecatedOWLAnnotationAssertionAxiom(cls.getIRI()));
+        assertThat(cache.isDeprecated(cls), is(false));
+        cache.invalidate(cls);
+        assertThat(cache.isDeprecated(cls), is(true));
+    }
+}
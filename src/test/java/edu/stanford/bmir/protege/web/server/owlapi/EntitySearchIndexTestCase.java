@@ -0,0 +1,126 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.search.EntitySearchResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class EntitySearchIndexTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final Set<EntityType<?>> allTypes = new HashSet<EntityType<?>>(EntityType.values());
+
+    private EntitySearchIndex index;
+
+    private OWLClass heart;
+
+    private OWLClass heartDisease;
+
+    private OWLClass chestPain;
+
+    private OWLObjectProperty hasPart;
+
+    @Before
+    public void setUp() {
+        index = new EntitySearchIndex();
+        heart = dataFactory.getOWLClass(IRI.create("http://example.org/Heart"));
+        heartDisease = dataFactory.getOWLClass(IRI.create("http://example.org/HeartDisease"));
+        chestPain = dataFactory.getOWLClass(IRI.create("http://example.org/ChestPain"));
+        hasPart = dataFactory.getOWLObjectProperty(IRI.create("http://example.org/hasPart"));
+        index.add(heart, "Heart", Collections.<String>emptySet());
+        index.add(heartDisease, "HeartDisease", Collections.singleton("cardiopathy"));
+        index.add(chestPain, "ChestPain", Collections.<String>emptySet());
+        index.add(hasPart, "hasPart", Collections.<String>emptySet());
+    }
+
+    private List<OWLEntity> getEntities(List<EntitySearchResult> results) {
+        List<OWLEntity> entities = new ArrayList<OWLEntity>();
+        for (EntitySearchResult result : results) {
+            entities.add(result.getEntity());
+        }
+        return entities;
+    }
+
+    @Test
+    public void shouldRankExactMatchFirst() {
+        List<EntitySearchResult> results = index.search("heart", allTypes, false, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heart, heartDisease));
+    }
+
+    @Test
+    public void shouldFindSubStringMatches() {
+        List<EntitySearchResult> results = index.search("sease", allTypes, false, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heartDisease));
+    }
+
+    @Test
+    public void shouldFindWordPrefixMatchesForShortSearchStrings() {
+        List<EntitySearchResult> results = index.search("pa", allTypes, false, 10);
+        assertThat(getEntities(results), contains((OWLEntity) hasPart, chestPain));
+    }
+
+    @Test
+    public void shouldFindSubStringMatchesForShortSearchStrings() {
+        List<EntitySearchResult> results = index.search("ea", allTypes, false, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heart, heartDisease));
+    }
+
+    @Test
+    public void shouldRankWordPrefixMatchesBeforeSubStringMatchesForShortSearchStrings() {
+        OWLClass artery = dataFactory.getOWLClass(IRI.create("http://example.org/Artery"));
+        index.add(artery, "Artery", Collections.<String>emptySet());
+        assertThat(getEntities(index.search("ar", allTypes, false, 10)), contains((OWLEntity) artery, heart, heartDisease, hasPart));
+        assertThat(getEntities(index.search("ar", allTypes, false, 1)), contains((OWLEntity) artery));
+    }
+
+    @Test
+    public void shouldFilterByEntityType() {
+        List<EntitySearchResult> results = index.search("part", Collections.<EntityType<?>>singleton(EntityType.CLASS), false, 10);
+        assertThat(results, is(empty()));
+    }
+
+    @Test
+    public void shouldLimitResultsToBestMatches() {
+        List<EntitySearchResult> results = index.search("heart", allTypes, false, 1);
+        assertThat(getEntities(results), contains((OWLEntity) heart));
+    }
+
+    @Test
+    public void shouldOnlyFindAnnotationValuesIfRequested() {
+        assertThat(index.search("cardio", allTypes, false, 10), is(empty()));
+        assertThat(getEntities(index.search("cardio", allTypes, true, 10)), contains((OWLEntity) heartDisease));
+    }
+
+    @Test
+    public void shouldNotFindRemovedEntities() {
+        index.remove(heart);
+        List<EntitySearchResult> results = index.search("heart", allTypes, false, 10);
+        assertThat(getEntities(results), contains((OWLEntity) heartDisease));
+    }
+
+    @Test
+    public void shouldFindReindexedEntityByNewShortForm() {
+        index.add(chestPain, "ThoracicPain", Collections.<String>emptySet());
+        assertThat(index.search("chest", allTypes, false, 10), is(empty()));
+        assertThat(getEntities(index.search("thoracic", allTypes, false, 10)), contains((OWLEntity) chestPain));
+    }
+}
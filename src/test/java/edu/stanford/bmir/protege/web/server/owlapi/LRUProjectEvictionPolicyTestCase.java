@@ -0,0 +1,86 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class LRUProjectEvictionPolicyTestCase {
+
+    public static final long DORMANT_TIME = 1000;
+
+    public static final long CURRENT_TIME = 10000;
+
+    private final ProjectId projectA = ProjectId.get("aaaaaaaa-1234-1234-1234-123456789abc");
+
+    private final ProjectId projectB = ProjectId.get("bbbbbbbb-1234-1234-1234-123456789abc");
+
+    private final ProjectId projectC = ProjectId.get("cccccccc-1234-1234-1234-123456789abc");
+
+    private List<ResidentProjectInfo> createResidentProjects() {
+        return Arrays.asList(
+                new ResidentProjectInfo(projectC, CURRENT_TIME - 10, 300),
+                new ResidentProjectInfo(projectA, CURRENT_TIME - 30, 100),
+                new ResidentProjectInfo(projectB, CURRENT_TIME - 20, 200));
+    }
+
+    @Test
+    public void shouldNotEvictProjectsWithinBounds() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 3, 600);
+        assertThat(policy.selectProjectsForEviction(createResidentProjects(), CURRENT_TIME), empty());
+    }
+
+    @Test
+    public void shouldEvictDormantProjects() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 0, 0);
+        List<ProjectId> evicted = policy.selectProjectsForEviction(createResidentProjects(), CURRENT_TIME + DORMANT_TIME - 15);
+        assertThat(evicted, contains(projectA, projectB));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedProjectsToSatisfyCountBound() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 1, 0);
+        assertThat(policy.selectProjectsForEviction(createResidentProjects(), CURRENT_TIME), contains(projectA, projectB));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedProjectsToSatisfySizeBound() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 0, 500);
+        assertThat(policy.selectProjectsForEviction(createResidentProjects(), CURRENT_TIME), contains(projectA));
+    }
+
+    @Test
+    public void shouldNotEvictMostRecentlyUsedProjectToSatisfySizeBound() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 0, 10);
+        assertThat(policy.selectProjectsForEviction(createResidentProjects(), CURRENT_TIME), contains(projectA, projectB));
+    }
+
+    @Test
+    public void shouldNotEvictPreloadedProjectsForBeingDormant() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 0, 0);
+        List<ResidentProjectInfo> residentProjects = Arrays.asList(
+                new ResidentProjectInfo(projectA, CURRENT_TIME - 30, 100, true),
+                new ResidentProjectInfo(projectB, CURRENT_TIME - 20, 200));
+        List<ProjectId> evicted = policy.selectProjectsForEviction(residentProjects, CURRENT_TIME + DORMANT_TIME);
+        assertThat(evicted, contains(projectB));
+    }
+
+    @Test
+    public void shouldEvictPreloadedProjectsToSatisfyBounds() {
+        LRUProjectEvictionPolicy policy = new LRUProjectEvictionPolicy(DORMANT_TIME, 1, 0);
+        List<ResidentProjectInfo> residentProjects = Arrays.asList(
+                new ResidentProjectInfo(projectA, CURRENT_TIME - 30, 100, true),
+                new ResidentProjectInfo(projectB, CURRENT_TIME - 20, 200));
+        assertThat(policy.selectProjectsForEviction(residentProjects, CURRENT_TIME), contains(projectA));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class OWLAPIProjectCacheTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ProjectId projectId = ProjectId.get("12345678-1234-1234-1234-123456789abc");
+
+    /**
+     * Loads that have been handed to the load executor.  They are never run, so the project stays loading.
+     */
+    private final List<Runnable> submittedLoads = new ArrayList<Runnable>();
+
+    private OWLAPIProjectCache cache;
+
+    @Before
+    public void setUp() {
+        WebProtegeScheduler scheduler = mock(WebProtegeScheduler.class);
+        when(scheduler.getExecutor(TaskCategory.PROJECT_LOADING)).thenReturn(new Executor() {
+            public void execute(Runnable command) {
+                submittedLoads.add(command);
+            }
+        });
+        File accessStatisticsFile = new File(temporaryFolder.getRoot(), "project-access-statistics.binary");
+        cache = new OWLAPIProjectCache(new LRUProjectEvictionPolicy(0, 0, 0),
+                                       60000,
+                                       1,
+                                       new ProjectAccessStatisticsStore(accessStatisticsFile),
+                                       scheduler);
+    }
+
+    @Test
+    public void shouldReturnAbsentWhileProjectIsLoading() {
+        assertThat(cache.getProjectIfLoadedWithin(projectId, 10).isPresent(), is(false));
+        assertThat(cache.isLoading(projectId), is(true));
+        assertThat(cache.isActive(projectId), is(false));
+    }
+
+    @Test
+    public void shouldShareInFlightLoad() {
+        cache.getProjectIfLoadedWithin(projectId, 10);
+        cache.getProjectIfLoadedWithin(projectId, 10);
+        cache.loadProject(projectId);
+        assertThat(submittedLoads.size(), is(1));
+    }
+
+    @Test
+    public void shouldNotRecordAccessOfProjectThatIsStillLoading() {
+        cache.getProjectIfLoadedWithin(projectId, 10);
+        assertThat(cache.getLastAccessTime(projectId), is(0L));
+    }
+}
@@ -0,0 +1,124 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.server.owlapi.manager.WebProtegeOWLManager;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyDocumentFormat;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class OWLAPIProjectDocumentStoreTestCase {
+
+    public static final int CHANGE_COUNT = 20;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Snapshot lengths are cached per project, so each test uses a project of its own.
+     */
+    private final ProjectId projectId = ProjectId.get(UUID.randomUUID().toString());
+
+    private OWLAPIProjectFileStore projectFileStore;
+
+    private OWLAPIProjectDocumentStore documentStore;
+
+    private File documentFile;
+
+    private OWLOntology ontology;
+
+    private OWLDataFactory dataFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        projectFileStore = new OWLAPIProjectFileStore(temporaryFolder.getRoot(), projectId);
+        projectFileStore.initDirectories();
+        documentStore = new OWLAPIProjectDocumentStore(projectId, projectFileStore);
+        documentFile = new File(projectFileStore.getOntologyDataDirectory(), "root-ontology.binary");
+        OWLOntologyManager manager = WebProtegeOWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create("http://example.org/ontology"));
+        manager.saveOntology(ontology, new BinaryOWLOntologyDocumentFormat(), IRI.create(documentFile));
+        manager.setOntologyDocumentIRI(ontology, IRI.create(documentFile));
+    }
+
+    private void applyAndSaveChanges() {
+        for (int i = 0; i < CHANGE_COUNT; i++) {
+            OWLAxiom axiom = dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/C" + i)));
+            List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>(ontology.getOWLOntologyManager().addAxiom(ontology, axiom));
+            documentStore.saveOntologyChanges(changes);
+        }
+    }
+
+    private OWLOntology reload() throws OWLOntologyCreationException {
+        return WebProtegeOWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(documentFile);
+    }
+
+    @Test
+    public void shouldReloadCompactedDocument() throws Exception {
+        applyAndSaveChanges();
+        long uncompactedLength = documentStore.getRootOntologyDocumentLength();
+        assertThat(documentStore.compactRootOntologyDocument(ontology, uncompactedLength), is(true));
+        assertThat(documentStore.getRootOntologyDocumentLength() < uncompactedLength, is(true));
+        assertThat(reload().getAxioms(), is(ontology.getAxioms()));
+        assertThat(new File(documentFile.getParentFile(), documentFile.getName() + ".compacting").exists(), is(false));
+    }
+
+    @Test
+    public void shouldRecordSnapshotLengthOfCompactedDocument() throws Exception {
+        applyAndSaveChanges();
+        documentStore.compactRootOntologyDocument(ontology, documentStore.getRootOntologyDocumentLength());
+        long compactedLength = documentStore.getRootOntologyDocumentLength();
+        assertThat(documentStore.getRootOntologyDocumentSnapshotLength(), is(compactedLength));
+        // Document stores are created afresh each time one is asked for
+        assertThat(new OWLAPIProjectDocumentStore(projectId, projectFileStore).getRootOntologyDocumentSnapshotLength(), is(compactedLength));
+    }
+
+    @Test
+    public void shouldReloadChangesAppendedAfterCompaction() throws Exception {
+        applyAndSaveChanges();
+        documentStore.compactRootOntologyDocument(ontology, documentStore.getRootOntologyDocumentLength());
+        OWLAxiom axiom = dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/D")));
+        documentStore.saveOntologyChanges(new ArrayList<OWLOntologyChange>(ontology.getOWLOntologyManager().addAxiom(ontology, axiom)));
+        assertThat(reload().getAxioms(), is(ontology.getAxioms()));
+    }
+
+    @Test
+    public void shouldNotCompactDocumentThatHasBeenModifiedElsewhere() throws Exception {
+        applyAndSaveChanges();
+        long length = documentStore.getRootOntologyDocumentLength();
+        assertThat(documentStore.compactRootOntologyDocument(ontology, length - 1), is(false));
+        assertThat(documentStore.getRootOntologyDocumentLength(), is(length));
+    }
+
+    @Test
+    public void shouldIgnoreRecordedSnapshotLengthThatIsLongerThanDocument() throws Exception {
+        applyAndSaveChanges();
+        File snapshotLengthFile = new File(projectFileStore.getOntologyDataDirectory(), "root-ontology.snapshot-length");
+        DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(snapshotLengthFile));
+        try {
+            outputStream.writeLong(documentFile.length() + 1);
+        }
+        finally {
+            outputStream.close();
+        }
+        assertThat(documentStore.getRootOntologyDocumentSnapshotLength(), is(0L));
+    }
+}
@@ -0,0 +1,77 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class ProjectAccessStatisticsStoreTestCase {
+
+    public static final long DAY = 24 * 60 * 60 * 1000;
+
+    public static final long CURRENT_TIME = 100 * DAY;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+
+    private ProjectAccessStatisticsStore store;
+
+    private final ProjectId projectA = ProjectId.get("aaaaaaaa-1234-1234-1234-123456789abc");
+
+    private final ProjectId projectB = ProjectId.get("bbbbbbbb-1234-1234-1234-123456789abc");
+
+    private final ProjectId projectC = ProjectId.get("cccccccc-1234-1234-1234-123456789abc");
+
+    @Before
+    public void setUp() {
+        file = new File(temporaryFolder.getRoot(), "project-access-statistics.binary");
+        store = new ProjectAccessStatisticsStore(file);
+        // A: Accessed often, but a long time ago
+        for (int i = 0; i < 10; i++) {
+            store.recordAccess(projectA, CURRENT_TIME - 30 * DAY);
+        }
+        // B: Accessed often and recently
+        for (int i = 0; i < 10; i++) {
+            store.recordAccess(projectB, CURRENT_TIME - DAY);
+        }
+        // C: Accessed once, recently
+        store.recordAccess(projectC, CURRENT_TIME);
+    }
+
+    @Test
+    public void shouldRankProjectsByFrequencyAndRecency() {
+        assertThat(store.getMostUsedProjects(3, CURRENT_TIME), contains(projectB, projectC, projectA));
+    }
+
+    @Test
+    public void shouldLimitNumberOfProjects() {
+        assertThat(store.getMostUsedProjects(1, CURRENT_TIME), contains(projectB));
+    }
+
+    @Test
+    public void shouldRestoreSavedStatistics() {
+        store.saveIfChanged();
+        ProjectAccessStatisticsStore reloadedStore = new ProjectAccessStatisticsStore(file);
+        reloadedStore.load();
+        assertThat(reloadedStore.getMostUsedProjects(3, CURRENT_TIME), contains(projectB, projectC, projectA));
+    }
+
+    @Test
+    public void shouldNotReturnRemovedProjects() {
+        store.remove(projectB);
+        assertThat(store.getMostUsedProjects(3, CURRENT_TIME), contains(projectC, projectA));
+    }
+}
@@ -0,0 +1,44 @@
+package edu.stanford.bmir.protege.web.server.owlapi;
+
+import org.junit.Test;
+
+import static edu.stanford.bmir.protege.web.server.owlapi.RootOntologyDocumentCompactor.isCompactionRequired;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class RootOntologyDocumentCompactorTestCase {
+
+    public static final long MIN_TAIL_SIZE = 1000;
+
+    public static final int TAIL_RATIO = 50;
+
+    @Test
+    public void shouldNotRequireCompactionOfDocumentWithoutAppendedChanges() {
+        assertThat(isCompactionRequired(5000, 5000, 0, 0), is(false));
+    }
+
+    @Test
+    public void shouldNotRequireCompactionIfTailIsSmallerThanMinimum() {
+        assertThat(isCompactionRequired(500 + 999, 500, MIN_TAIL_SIZE, TAIL_RATIO), is(false));
+    }
+
+    @Test
+    public void shouldRequireCompactionIfTailReachesMinimum() {
+        assertThat(isCompactionRequired(500 + 1000, 500, MIN_TAIL_SIZE, TAIL_RATIO), is(true));
+    }
+
+    @Test
+    public void shouldNotRequireCompactionIfTailIsSmallerThanRatioOfSnapshot() {
+        assertThat(isCompactionRequired(10000 + 4999, 10000, MIN_TAIL_SIZE, TAIL_RATIO), is(false));
+    }
+
+    @Test
+    public void shouldRequireCompactionIfTailReachesRatioOfSnapshot() {
+        assertThat(isCompactionRequired(10000 + 5000, 10000, MIN_TAIL_SIZE, TAIL_RATIO), is(true));
+    }
+}
@@ -0,0 +1,191 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import edu.stanford.bmir.protege.web.server.scheduler.TaskCategory;
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class ChangeLogWriterTestCase {
+
+    public static final int REVISION_COUNT = 5;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File changeDataFile;
+
+    private OWLOntology ontology;
+
+    private List<RevisionIndexEntry> committedEntries;
+
+    private ChangeLogWriter writer;
+
+    private WebProtegeScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        changeDataFile = new File(temporaryFolder.getRoot(), "change-data.binary");
+        ontology = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://example.org/ontology"));
+        committedEntries = Collections.synchronizedList(new ArrayList<RevisionIndexEntry>());
+        scheduler = new WebProtegeScheduler(1);
+        writer = new ChangeLogWriter(ProjectId.get("12345678-1234-1234-1234-123456789abc"), changeDataFile, ChangeLogDurability.BATCHED, 10, new ChangeLogCommitHandler() {
+            public void handleCommitted(RevisionIndexEntry entry) {
+                committedEntries.add(entry);
+            }
+        }, scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        writer.shutDown();
+        scheduler.shutDown();
+    }
+
+    private ChangeSerializationTask createTask(int revisionNumber) {
+        OWLDataFactory dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+        OWLAxiom axiom = dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/C" + revisionNumber)));
+        List<OWLOntologyChange> changes = Collections.<OWLOntologyChange>singletonList(new AddAxiom(ontology, axiom));
+        return new ChangeSerializationTask(UserId.getUserId("user"), revisionNumber, RevisionNumber.getRevisionNumber(revisionNumber), RevisionType.EDIT, "", changes);
+    }
+
+    private void appendRevisions() {
+        for (int i = 1; i <= REVISION_COUNT; i++) {
+            writer.append(createTask(i));
+        }
+        writer.flush();
+    }
+
+    @Test
+    public void shouldCommitRevisionsInOrder() {
+        appendRevisions();
+        assertThat(committedEntries.size(), is(REVISION_COUNT));
+        for (int i = 0; i < REVISION_COUNT; i++) {
+            assertThat(committedEntries.get(i).getRevisionNumber(), is(RevisionNumber.getRevisionNumber(i + 1)));
+        }
+    }
+
+    @Test
+    public void shouldRecordContiguousOffsets() {
+        appendRevisions();
+        assertThat(committedEntries.get(0).getStartOffset(), is(0L));
+        for (int i = 1; i < REVISION_COUNT; i++) {
+            assertThat(committedEntries.get(i).getStartOffset(), is(committedEntries.get(i - 1).getEndOffset()));
+        }
+        assertThat(committedEntries.get(REVISION_COUNT - 1).getEndOffset(), is(changeDataFile.length()));
+    }
+
+    @Test
+    public void shouldCountCommittedRevisions() {
+        appendRevisions();
+        assertThat(writer.getCommittedRevisionCount(), is((long) REVISION_COUNT));
+        assertThat(writer.getQueueDepth(), is(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowIllegalStateExceptionIfAppendingAfterShutDown() {
+        writer.shutDown();
+        writer.append(createTask(1));
+    }
+
+    @Test
+    public void shouldCommitOnCallingThreadIfDrainCannotBeScheduled() {
+        WebProtegeScheduler rejectingScheduler = mock(WebProtegeScheduler.class);
+        when(rejectingScheduler.schedule(any(TaskCategory.class), any(Runnable.class), anyLong(), any(TimeUnit.class))).thenThrow(new RejectedExecutionException());
+        writer = new ChangeLogWriter(ProjectId.get("12345678-1234-1234-1234-123456789abc"), changeDataFile, ChangeLogDurability.BATCHED, 10, new ChangeLogCommitHandler() {
+            public void handleCommitted(RevisionIndexEntry entry) {
+                committedEntries.add(entry);
+            }
+        }, rejectingScheduler);
+        writer.append(createTask(1));
+        writer.append(createTask(2));
+        assertThat(committedEntries.size(), is(2));
+        assertThat(writer.getQueueDepth(), is(0));
+    }
+
+    private ChangeLogWriter createWriter(File changeDataFile, WebProtegeScheduler scheduler) {
+        return new ChangeLogWriter(ProjectId.get("12345678-1234-1234-1234-123456789abc"), changeDataFile, ChangeLogDurability.BATCHED, 10, new ChangeLogCommitHandler() {
+            public void handleCommitted(RevisionIndexEntry entry) {
+                committedEntries.add(entry);
+            }
+        }, scheduler);
+    }
+
+    private static boolean isFailed(Future<RevisionIndexEntry> future) throws InterruptedException {
+        try {
+            future.get();
+            return false;
+        }
+        catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    @Test
+    public void shouldStopBatchAtFirstRevisionThatCannotBeSerialized() throws Exception {
+        // Drains are never run by this scheduler, so every revision ends up in the batch drained by appendAndWait
+        writer = createWriter(changeDataFile, mock(WebProtegeScheduler.class));
+        ChangeSerializationTask unserializableTask = mock(ChangeSerializationTask.class);
+        when(unserializableTask.serialize()).thenThrow(new IOException("Cannot serialize"));
+        ChangeSerializationTask taskAfterFailure = mock(ChangeSerializationTask.class);
+        Future<RevisionIndexEntry> first = writer.append(createTask(1));
+        Future<RevisionIndexEntry> second = writer.append(unserializableTask);
+        Future<RevisionIndexEntry> third = writer.append(taskAfterFailure);
+        writer.appendAndWait(createTask(4));
+        assertThat(isFailed(first), is(false));
+        assertThat(isFailed(second), is(true));
+        assertThat(isFailed(third), is(true));
+        verify(taskAfterFailure, never()).serialize();
+        assertThat(committedEntries.size(), is(1));
+        assertThat(committedEntries.get(0).getEndOffset(), is(changeDataFile.length()));
+        assertThat(writer.isFailed(), is(true));
+    }
+
+    @Test
+    public void shouldFailWriterIfBatchCannotBeWritten() throws Exception {
+        // A directory cannot be opened for writing
+        writer = createWriter(temporaryFolder.newFolder("change-data"), scheduler);
+        Future<RevisionIndexEntry> future = writer.append(createTask(1));
+        assertThat(isFailed(future), is(true));
+        assertThat(writer.isFailed(), is(true));
+        assertThat(committedEntries.isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowIllegalStateExceptionIfAppendingAfterFailure() throws Exception {
+        writer = createWriter(temporaryFolder.newFolder("change-data"), scheduler);
+        isFailed(writer.append(createTask(1)));
+        writer.append(createTask(2));
+    }
+}
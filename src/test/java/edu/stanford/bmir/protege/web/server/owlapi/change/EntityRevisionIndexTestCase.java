@@ -0,0 +1,92 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.*;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EntityRevisionIndexTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    private final OWLOntologyID ontologyId = new OWLOntologyID(IRI.create("http://example.org/ontology"));
+
+    @Mock
+    private RevisionStore revisionStore;
+
+    private EntityRevisionIndex index;
+
+    private OWLClass clsA;
+
+    private OWLClass clsB;
+
+    private OWLClass clsC;
+
+    @Before
+    public void setUp() {
+        index = new EntityRevisionIndex(ProjectId.get("12345678-1234-1234-1234-123456789abc"), new File("entities.index"), revisionStore);
+        clsA = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        clsB = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+        clsC = dataFactory.getOWLClass(IRI.create("http://example.org/C"));
+    }
+
+    private Revision createRevision(long revisionNumber, OWLAxiom... axioms) {
+        OWLOntologyChangeRecord[] records = new OWLOntologyChangeRecord[axioms.length];
+        for (int i = 0; i < axioms.length; i++) {
+            records[i] = new OWLOntologyChangeRecord(ontologyId, new AddAxiomData(axioms[i]));
+        }
+        return new Revision(UserId.getUserId("user"), RevisionNumber.getRevisionNumber(revisionNumber), Arrays.asList(records), revisionNumber, "", RevisionType.EDIT);
+    }
+
+    @Test
+    public void shouldReturnSubjectIRIsOfAxiomChanges() {
+        Revision revision = createRevision(1, dataFactory.getOWLSubClassOfAxiom(clsA, clsB),
+                                              dataFactory.getOWLAnnotationAssertionAxiom(dataFactory.getRDFSLabel(), clsC.getIRI(), dataFactory.getOWLLiteral("C")));
+        assertThat(EntityRevisionIndex.getSubjectIRIs(revision), containsInAnyOrder(clsA.getIRI(), clsC.getIRI()));
+    }
+
+    @Test
+    public void shouldReturnRevisionsForEntityInOrder() {
+        index.addRevision(createRevision(1, dataFactory.getOWLDeclarationAxiom(clsA)));
+        index.addRevision(createRevision(2, dataFactory.getOWLDeclarationAxiom(clsB)));
+        index.addRevision(createRevision(3, dataFactory.getOWLSubClassOfAxiom(clsA, clsB)));
+        assertThat(index.getRevisionNumbers(Collections.singleton(clsA)), contains(RevisionNumber.getRevisionNumber(1), RevisionNumber.getRevisionNumber(3)));
+    }
+
+    @Test
+    public void shouldReturnUnionOfRevisionsForEntities() {
+        index.addRevision(createRevision(1, dataFactory.getOWLDeclarationAxiom(clsA)));
+        index.addRevision(createRevision(2, dataFactory.getOWLDeclarationAxiom(clsB)));
+        index.addRevision(createRevision(3, dataFactory.getOWLDeclarationAxiom(clsC)));
+        assertThat(index.getRevisionNumbers(Arrays.asList(clsA, clsC)), contains(RevisionNumber.getRevisionNumber(1), RevisionNumber.getRevisionNumber(3)));
+    }
+
+    @Test
+    public void shouldReturnEmptySetForUnchangedEntity() {
+        index.addRevision(createRevision(1, dataFactory.getOWLDeclarationAxiom(clsA)));
+        assertThat(index.getRevisionNumbers(Collections.singleton(clsB)), empty());
+    }
+}
@@ -0,0 +1,63 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class RevisionCheckpointPolicyTestCase {
+
+    public static final int REVISION_INTERVAL = 10;
+
+    public static final int CHANGE_INTERVAL = 100;
+
+    public static final int RETENTION_COUNT = 3;
+
+    private RevisionCheckpointPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new RevisionCheckpointPolicy(REVISION_INTERVAL, CHANGE_INTERVAL, RETENTION_COUNT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionIfRevisionIntervalIsZero() {
+        new RevisionCheckpointPolicy(0, CHANGE_INTERVAL, RETENTION_COUNT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionIfChangeIntervalIsZero() {
+        new RevisionCheckpointPolicy(REVISION_INTERVAL, 0, RETENTION_COUNT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionIfRetentionCountIsZero() {
+        new RevisionCheckpointPolicy(REVISION_INTERVAL, CHANGE_INTERVAL, 0);
+    }
+
+    @Test
+    public void shouldNotBeDueBelowBothIntervals() {
+        assertThat(policy.isCheckpointDue(REVISION_INTERVAL - 1, CHANGE_INTERVAL - 1), is(false));
+    }
+
+    @Test
+    public void shouldBeDueAtRevisionInterval() {
+        assertThat(policy.isCheckpointDue(REVISION_INTERVAL, 0), is(true));
+    }
+
+    @Test
+    public void shouldBeDueAtChangeInterval() {
+        assertThat(policy.isCheckpointDue(1, CHANGE_INTERVAL), is(true));
+    }
+
+    @Test
+    public void shouldReturnRetentionCount() {
+        assertThat(policy.getRetentionCount(), is(RETENTION_COUNT));
+    }
+}
@@ -0,0 +1,214 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import com.google.common.base.Optional;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class RevisionCheckpointStoreTestCase {
+
+    public static final int RETENTION_COUNT = 2;
+
+    public static final IRI ONTOLOGY_IRI = IRI.create("http://example.org/ontology");
+
+    public static final IRI IMPORTED_ONTOLOGY_IRI = IRI.create("http://example.org/imported");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ProjectId projectId;
+
+    private File checkpointsDirectory;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private RevisionCheckpointStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        projectId = ProjectId.get("12345678-1234-1234-1234-123456789abc");
+        checkpointsDirectory = new File(temporaryFolder.getRoot(), "checkpoints");
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology(ONTOLOGY_IRI);
+        manager.applyChange(new AddImport(ontology, dataFactory.getOWLImportsDeclaration(IMPORTED_ONTOLOGY_IRI)));
+        manager.applyChange(new AddOntologyAnnotation(ontology, dataFactory.getOWLAnnotation(dataFactory.getRDFSComment(), dataFactory.getOWLLiteral("Comment"))));
+        addSubClassOfAxiom("A", "B");
+        addSubClassOfAxiom("B", "C");
+        store = createStore();
+    }
+
+    private RevisionCheckpointStore createStore() {
+        return new RevisionCheckpointStore(projectId, checkpointsDirectory, dataFactory, RETENTION_COUNT);
+    }
+
+    private OWLAxiom addSubClassOfAxiom(String subClassName, String superClassName) {
+        OWLAxiom axiom = dataFactory.getOWLSubClassOfAxiom(getOWLClass(subClassName), getOWLClass(superClassName));
+        manager.addAxiom(ontology, axiom);
+        return axiom;
+    }
+
+    private OWLClass getOWLClass(String name) {
+        return dataFactory.getOWLClass(IRI.create("http://example.org/ontology#" + name));
+    }
+
+    private static RevisionNumber rev(long revisionNumber) {
+        return RevisionNumber.getRevisionNumber(revisionNumber);
+    }
+
+    private File getCheckpointFile(long revisionNumber) {
+        return new File(checkpointsDirectory, "checkpoint-" + revisionNumber + ".binary");
+    }
+
+    /**
+     * Replays a revision into the specified manager in the same way that the change manager replays revisions.
+     */
+    private static void replay(Revision revision, OWLOntologyManager targetManager) throws OWLOntologyCreationException {
+        for (OWLOntologyChangeRecord record : revision) {
+            if (!targetManager.contains(record.getOntologyID())) {
+                targetManager.createOntology(record.getOntologyID());
+            }
+            targetManager.applyChange(record.createOntologyChange(targetManager));
+        }
+    }
+
+    @Test
+    public void shouldHaveNoCheckpointsInitially() {
+        store.load();
+        assertThat(store.getLatestCheckpoint(), is(Optional.<RevisionNumber>absent()));
+        assertThat(store.getCheckpointAtOrBefore(rev(10)), is(Optional.<RevisionNumber>absent()));
+    }
+
+    @Test
+    public void shouldWriteCheckpointFile() {
+        store.writeCheckpoint(rev(3), manager);
+        assertThat(getCheckpointFile(3).isFile(), is(true));
+        assertThat(store.getLatestCheckpoint(), is(Optional.of(rev(3))));
+    }
+
+    @Test
+    public void shouldNotWriteCheckpointForEmptyOntologies() throws Exception {
+        OWLOntologyManager emptyManager = OWLManager.createOWLOntologyManager();
+        emptyManager.createOntology(ONTOLOGY_IRI);
+        store.writeCheckpoint(rev(3), emptyManager);
+        assertThat(getCheckpointFile(3).exists(), is(false));
+        assertThat(store.getLatestCheckpoint(), is(Optional.<RevisionNumber>absent()));
+    }
+
+    @Test
+    public void shouldReadBackCheckpointAsBaselineRevision() {
+        store.writeCheckpoint(rev(3), manager);
+        Optional<Revision> checkpoint = store.readCheckpoint(rev(3));
+        assertThat(checkpoint.isPresent(), is(true));
+        Revision revision = checkpoint.get();
+        assertThat(revision.getRevisionNumber(), is(rev(3)));
+        assertThat(revision.getRevisionType(), is(RevisionType.BASELINE));
+        int expectedSize = ontology.getImportsDeclarations().size() + ontology.getAnnotations().size() + ontology.getAxiomCount();
+        assertThat(revision.getSize(), is(expectedSize));
+        for (OWLOntologyChangeRecord record : revision) {
+            assertThat(record.getOntologyID(), is(ontology.getOntologyID()));
+        }
+    }
+
+    @Test
+    public void shouldRebuildOntologiesByReplayingCheckpoint() throws Exception {
+        store.writeCheckpoint(rev(3), manager);
+        OWLOntologyManager replayManager = OWLManager.createOWLOntologyManager();
+        replay(store.readCheckpoint(rev(3)).get(), replayManager);
+        OWLOntology replayedOntology = replayManager.getOntology(ONTOLOGY_IRI);
+        assertThat(replayedOntology.getAxioms(), is(ontology.getAxioms()));
+        assertThat(replayedOntology.getAnnotations(), is(ontology.getAnnotations()));
+        assertThat(replayedOntology.getImportsDeclarations(), is(ontology.getImportsDeclarations()));
+    }
+
+    @Test
+    public void shouldRebuildLaterRevisionByReplayingCheckpointFollowedBySubsequentChanges() throws Exception {
+        store.writeCheckpoint(rev(3), manager);
+        OWLAxiom laterAxiom = addSubClassOfAxiom("C", "D");
+        List<OWLOntologyChangeRecord> laterChanges = Collections.singletonList(new OWLOntologyChangeRecord(ontology.getOntologyID(), new AddAxiomData(laterAxiom)));
+        Revision laterRevision = new Revision(UserId.getUserId("user"), rev(4), laterChanges, System.currentTimeMillis(), "", RevisionType.EDIT);
+        OWLOntologyManager replayManager = OWLManager.createOWLOntologyManager();
+        replay(store.readCheckpoint(rev(3)).get(), replayManager);
+        replay(laterRevision, replayManager);
+        assertThat(replayManager.getOntology(ONTOLOGY_IRI).getAxioms(), is(ontology.getAxioms()));
+    }
+
+    @Test
+    public void shouldGetCheckpointAtOrBeforeRevision() {
+        store.writeCheckpoint(rev(3), manager);
+        store.writeCheckpoint(rev(7), manager);
+        assertThat(store.getCheckpointAtOrBefore(rev(2)), is(Optional.<RevisionNumber>absent()));
+        assertThat(store.getCheckpointAtOrBefore(rev(3)), is(Optional.of(rev(3))));
+        assertThat(store.getCheckpointAtOrBefore(rev(6)), is(Optional.of(rev(3))));
+        assertThat(store.getCheckpointAtOrBefore(rev(7)), is(Optional.of(rev(7))));
+        assertThat(store.getCheckpointAtOrBefore(rev(100)), is(Optional.of(rev(7))));
+    }
+
+    @Test
+    public void shouldFindExistingCheckpointsOnLoad() {
+        store.writeCheckpoint(rev(3), manager);
+        store.writeCheckpoint(rev(7), manager);
+        RevisionCheckpointStore reloadedStore = createStore();
+        reloadedStore.load();
+        assertThat(reloadedStore.getLatestCheckpoint(), is(Optional.of(rev(7))));
+        assertThat(reloadedStore.getCheckpointAtOrBefore(rev(5)), is(Optional.of(rev(3))));
+        assertThat(reloadedStore.readCheckpoint(rev(7)).isPresent(), is(true));
+    }
+
+    @Test
+    public void shouldDeleteOldestCheckpointsBeyondRetentionCount() {
+        store.writeCheckpoint(rev(3), manager);
+        store.writeCheckpoint(rev(7), manager);
+        store.writeCheckpoint(rev(11), manager);
+        store.writeCheckpoint(rev(15), manager);
+        assertThat(getCheckpointFile(3).exists(), is(false));
+        assertThat(getCheckpointFile(7).exists(), is(false));
+        assertThat(getCheckpointFile(11).isFile(), is(true));
+        assertThat(getCheckpointFile(15).isFile(), is(true));
+        assertThat(store.getCheckpointAtOrBefore(rev(10)), is(Optional.<RevisionNumber>absent()));
+        assertThat(store.getCheckpointAtOrBefore(rev(12)), is(Optional.of(rev(11))));
+    }
+
+    @Test
+    public void shouldDiscardUnreadableCheckpoint() throws IOException {
+        checkpointsDirectory.mkdirs();
+        FileOutputStream outputStream = new FileOutputStream(getCheckpointFile(5));
+        try {
+            outputStream.write(new byte[]{1, 2, 3, 4});
+        }
+        finally {
+            outputStream.close();
+        }
+        store.load();
+        assertThat(store.getLatestCheckpoint(), is(Optional.of(rev(5))));
+        assertThat(store.readCheckpoint(rev(5)).isPresent(), is(false));
+        assertThat(getCheckpointFile(5).exists(), is(false));
+        assertThat(store.getLatestCheckpoint(), is(Optional.<RevisionNumber>absent()));
+    }
+}
@@ -0,0 +1,121 @@
+package edu.stanford.bmir.protege.web.server.owlapi.change;
+
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import edu.stanford.bmir.protege.web.shared.revision.RevisionNumber;
+import edu.stanford.bmir.protege.web.shared.user.UserId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class RevisionStoreTestCase {
+
+    public static final int REVISION_COUNT = 5;
+
+    private static final ProjectId PROJECT_ID = ProjectId.get("12345678-1234-1234-1234-123456789abc");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File changeDataFile;
+
+    private File indexFile;
+
+    private OWLOntology ontology;
+
+    private OWLDataFactory dataFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        changeDataFile = new File(temporaryFolder.getRoot(), "change-data.binary");
+        indexFile = new File(temporaryFolder.getRoot(), "change-data.index");
+        ontology = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://example.org/ontology"));
+        dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+    }
+
+    private OWLAxiom getAxiom(int revisionNumber) {
+        return dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/C" + revisionNumber)));
+    }
+
+    private List<RevisionIndexEntry> writeRevisions() {
+        final List<RevisionIndexEntry> committedEntries = Collections.synchronizedList(new ArrayList<RevisionIndexEntry>());
+        WebProtegeScheduler scheduler = new WebProtegeScheduler(1);
+        ChangeLogWriter writer = new ChangeLogWriter(PROJECT_ID, changeDataFile, ChangeLogDurability.SYNC, 10, new ChangeLogCommitHandler() {
+            public void handleCommitted(RevisionIndexEntry entry) {
+                committedEntries.add(entry);
+            }
+        }, scheduler);
+        try {
+            for (int i = 1; i <= REVISION_COUNT; i++) {
+                List<OWLOntologyChange> changes = Collections.<OWLOntologyChange>singletonList(new AddAxiom(ontology, getAxiom(i)));
+                writer.append(new ChangeSerializationTask(UserId.getUserId("user"), i, RevisionNumber.getRevisionNumber(i), RevisionType.EDIT, "", changes));
+            }
+            writer.flush();
+        }
+        finally {
+            writer.shutDown();
+            scheduler.shutDown();
+        }
+        return committedEntries;
+    }
+
+    private RevisionStore loadStore() {
+        RevisionStore store = new RevisionStore(PROJECT_ID, changeDataFile, indexFile, dataFactory);
+        store.load();
+        return store;
+    }
+
+    @Test
+    public void shouldBuildIndexWithWrittenOffsets() {
+        List<RevisionIndexEntry> committedEntries = writeRevisions();
+        RevisionStore store = loadStore();
+        assertThat(store.size(), is(REVISION_COUNT));
+        for (int i = 0; i < REVISION_COUNT; i++) {
+            assertThat(store.getEntry(i).getStartOffset(), is(committedEntries.get(i).getStartOffset()));
+            assertThat(store.getEntry(i).getEndOffset(), is(committedEntries.get(i).getEndOffset()));
+        }
+        assertThat(indexFile.exists(), is(true));
+    }
+
+    @Test
+    public void shouldReadRevisionFromMiddleOfFileAfterReopening() {
+        writeRevisions();
+        loadStore();
+        RevisionStore reopenedStore = loadStore();
+        assertThat(reopenedStore.size(), is(REVISION_COUNT));
+        Revision revision = reopenedStore.getRevision(2);
+        assertThat(revision.getRevisionNumber(), is(RevisionNumber.getRevisionNumber(3)));
+        Iterator<OWLOntologyChangeRecord> records = revision.iterator();
+        OWLOntologyChangeRecord record = records.next();
+        assertThat(((AddAxiomData) record.getData()).getAxiom(), is(getAxiom(3)));
+        assertThat(records.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldTreatEmptyChangeDataFileAsValidEmptyIndex() throws Exception {
+        assertThat(changeDataFile.createNewFile(), is(true));
+        RevisionStore store = loadStore();
+        assertThat(store.isEmpty(), is(true));
+        assertThat(indexFile.exists(), is(true));
+    }
+}
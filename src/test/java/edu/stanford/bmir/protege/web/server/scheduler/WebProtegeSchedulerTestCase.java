@@ -0,0 +1,122 @@
+package edu.stanford.bmir.protege.web.server.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+public class WebProtegeSchedulerTestCase {
+
+    public static final int TASK_COUNT = 10;
+
+    private WebProtegeScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new WebProtegeScheduler(4);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void shouldNotRunMoreTasksThanMaxConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            scheduler.getExecutor(TaskCategory.DOCUMENT_COMPACTION).execute(new Runnable() {
+                public void run() {
+                    int count = running.incrementAndGet();
+                    if (count > maxRunning.get()) {
+                        maxRunning.set(count);
+                    }
+                    try {
+                        Thread.sleep(5);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    finished.countDown();
+                }
+            });
+        }
+        assertThat(finished.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    public void shouldRecordCompletedAndFailedTasks() throws Exception {
+        final CountDownLatch finished = new CountDownLatch(2);
+        scheduler.getExecutor(TaskCategory.METRICS).execute(new Runnable() {
+            public void run() {
+                finished.countDown();
+            }
+        });
+        scheduler.getExecutor(TaskCategory.METRICS).execute(new Runnable() {
+            public void run() {
+                finished.countDown();
+                throw new RuntimeException("Expected");
+            }
+        });
+        assertThat(finished.await(10, TimeUnit.SECONDS), is(true));
+        scheduler.shutDown();
+        TaskCategoryStatistics statistics = scheduler.getStatistics(TaskCategory.METRICS);
+        assertThat(statistics.getCompletedTaskCount(), is(2L));
+        assertThat(statistics.getFailedTaskCount(), is(1L));
+        assertThat(statistics.getQueuedTaskCount(), is(0));
+    }
+
+    @Test
+    public void shouldKeepRunningPeriodicTaskAfterFailure() throws Exception {
+        final CountDownLatch runs = new CountDownLatch(3);
+        scheduler.scheduleWithFixedDelay(TaskCategory.EVENT_PURGING, new Runnable() {
+            public void run() {
+                runs.countDown();
+                throw new RuntimeException("Expected");
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+        assertThat(runs.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldRunDelayedTaskOnCallingThreadAfterShutDown() {
+        scheduler.shutDown();
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = scheduler.schedule(TaskCategory.CHANGE_LOG_WRITING, new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 1, TimeUnit.HOURS);
+        assertThat(runs.get(), is(1));
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    public void shouldNotRunPeriodicTaskAfterShutDown() {
+        scheduler.shutDown();
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(TaskCategory.EVENT_PURGING, new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+        assertThat(runs.get(), is(0));
+        assertThat(future.isCancelled(), is(true));
+    }
+}
@@ -0,0 +1,150 @@
+package edu.stanford.bmir.protege.web.server.watches;
+
+import edu.stanford.bmir.protege.web.server.hierarchy.HierarchyClosureIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BranchWatchIndexTestCase {
+
+    private final OWLDataFactory dataFactory = new OWLDataFactoryImpl();
+
+    @Mock
+    private OWLObjectHierarchyProvider<OWLClass> hierarchyProvider;
+
+    @Captor
+    private ArgumentCaptor<OWLObjectHierarchyProviderListener<OWLClass>> listenerCaptor;
+
+    private List<OWLObjectHierarchyProviderListener<OWLClass>> listeners;
+
+    private BranchWatchIndex<OWLClass> index;
+
+    private OWLClass thing;
+
+    private OWLClass a;
+
+    private OWLClass b;
+
+    private OWLClass c;
+
+    @Before
+    public void setUp() {
+        thing = dataFactory.getOWLThing();
+        a = dataFactory.getOWLClass(IRI.create("http://example.org/A"));
+        b = dataFactory.getOWLClass(IRI.create("http://example.org/B"));
+        c = dataFactory.getOWLClass(IRI.create("http://example.org/C"));
+        // Thing > A > B > C
+        setParents(thing);
+        setParents(a, thing);
+        setParents(b, a);
+        setParents(c, b);
+        setChildren(thing, a);
+        setChildren(a, b);
+        setChildren(b, c);
+        setChildren(c);
+        HierarchyClosureIndex<OWLClass> closureIndex = new HierarchyClosureIndex<OWLClass>(hierarchyProvider);
+        index = new BranchWatchIndex<OWLClass>(hierarchyProvider, closureIndex);
+        // The closure index listens first, so that it is up to date when the branch index is next queried
+        verify(hierarchyProvider, times(2)).addListener(listenerCaptor.capture());
+        listeners = listenerCaptor.getAllValues();
+    }
+
+    private void setParents(OWLClass cls, OWLClass... parents) {
+        when(hierarchyProvider.getParents(cls)).thenReturn(new HashSet<OWLClass>(Arrays.asList(parents)));
+    }
+
+    private void setChildren(OWLClass cls, OWLClass... children) {
+        when(hierarchyProvider.getChildren(cls)).thenReturn(new HashSet<OWLClass>(Arrays.asList(children)));
+    }
+
+    private void fireNodeChanged(OWLClass node) {
+        for (OWLObjectHierarchyProviderListener<OWLClass> listener : listeners) {
+            listener.nodeChanged(node);
+        }
+    }
+
+    @Test
+    public void shouldIncludeRootAndDescendantsInBranch() {
+        index.addRoot(b);
+        assertThat(index.isInWatchedBranch(b), is(true));
+        assertThat(index.isInWatchedBranch(c), is(true));
+        assertThat(index.isInWatchedBranch(a), is(false));
+        assertThat(index.isInWatchedBranch(thing), is(false));
+    }
+
+    @Test
+    public void shouldReturnAllRootsOfBranchesContainingNode() {
+        index.addRoot(a);
+        index.addRoot(b);
+        assertThat(index.getWatchedRoots(c), containsInAnyOrder(a, b));
+        assertThat(index.getWatchedRoots(b), containsInAnyOrder(a, b));
+        assertThat(index.getWatchedRoots(a), containsInAnyOrder(a));
+        assertThat(index.getWatchedRoots(thing), is(Collections.<OWLClass>emptySet()));
+    }
+
+    @Test
+    public void shouldUpdateBranchWhenNodeMovesOut() {
+        index.addRoot(a);
+        assertThat(index.isInWatchedBranch(c), is(true));
+        // Move B from under A to directly under Thing
+        setParents(b, thing);
+        setChildren(a);
+        setChildren(thing, a, b);
+        fireNodeChanged(b);
+        fireNodeChanged(a);
+        fireNodeChanged(thing);
+        assertThat(index.isInWatchedBranch(a), is(true));
+        assertThat(index.isInWatchedBranch(b), is(false));
+        assertThat(index.isInWatchedBranch(c), is(false));
+    }
+
+    @Test
+    public void shouldUpdateBranchWhenNodeMovesIn() {
+        index.addRoot(b);
+        OWLClass d = dataFactory.getOWLClass(IRI.create("http://example.org/D"));
+        assertThat(index.isInWatchedBranch(d), is(false));
+        setParents(d, c);
+        setChildren(d);
+        setChildren(c, d);
+        fireNodeChanged(d);
+        fireNodeChanged(c);
+        assertThat(index.getWatchedRoots(d), containsInAnyOrder(b));
+    }
+
+    @Test
+    public void shouldForgetRemovedRoot() {
+        index.addRoot(a);
+        index.addRoot(b);
+        index.removeRoot(a);
+        assertThat(index.getWatchedRoots(c), containsInAnyOrder(b));
+        assertThat(index.isInWatchedBranch(a), is(false));
+    }
+}
@@ -0,0 +1,91 @@
+package edu.stanford.bmir.protege.web.server.watches;
+
+import edu.stanford.bmir.protege.web.server.scheduler.WebProtegeScheduler;
+import edu.stanford.bmir.protege.web.shared.project.ProjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Stanford University<br>
+ * Bio-Medical Informatics Research Group<br>
+ * Date: 15/10/2026
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WatchNotificationAggregatorTestCase {
+
+    public static final long LONG_WINDOW_MS = 60000;
+
+    @Mock
+    private ProjectId projectId;
+
+    @Mock
+    private WatchNotificationAggregator.ChangedEntitiesHandler handler;
+
+    @Mock
+    private OWLEntity entityA;
+
+    @Mock
+    private OWLEntity entityB;
+
+    private WebProtegeScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new WebProtegeScheduler(1);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void shouldCollectEachEntityOnceInOrderOfFirstChange() {
+        WatchNotificationAggregator aggregator = new WatchNotificationAggregator(projectId, scheduler, LONG_WINDOW_MS, handler);
+        aggregator.entityChanged(entityB);
+        aggregator.entityChanged(entityA);
+        aggregator.entityChanged(entityB);
+        aggregator.flush();
+        verify(handler).handleChangedEntities(new LinkedHashSet<OWLEntity>(Arrays.asList(entityB, entityA)));
+    }
+
+    @Test
+    public void shouldFlushAtEndOfWindow() {
+        WatchNotificationAggregator aggregator = new WatchNotificationAggregator(projectId, scheduler, 10, handler);
+        aggregator.entityChanged(entityA);
+        verify(handler, timeout(10000)).handleChangedEntities(Collections.singleton(entityA));
+    }
+
+    @Test
+    public void shouldNotCallHandlerWhenNothingHasChanged() {
+        WatchNotificationAggregator aggregator = new WatchNotificationAggregator(projectId, scheduler, LONG_WINDOW_MS, handler);
+        aggregator.flush();
+        verify(handler, never()).handleChangedEntities(anySetOf(OWLEntity.class));
+    }
+
+    @Test
+    public void shouldFlushOnDisposeAndIgnoreLaterChanges() {
+        WatchNotificationAggregator aggregator = new WatchNotificationAggregator(projectId, scheduler, LONG_WINDOW_MS, handler);
+        aggregator.entityChanged(entityA);
+        aggregator.dispose();
+        aggregator.entityChanged(entityB);
+        aggregator.flush();
+        verify(handler).handleChangedEntities(Collections.singleton(entityA));
+        verify(handler, never()).handleChangedEntities(Collections.<OWLEntity>singleton(entityB));
+    }
+}